@@ -1,8 +1,15 @@
 package com.instaclustr.esop.azure;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
 
 import com.google.inject.assistedinject.Assisted;
 import com.google.inject.assistedinject.AssistedInject;
@@ -11,11 +18,14 @@ import com.instaclustr.esop.impl.backup.BackupCommitLogsOperationRequest;
 import com.instaclustr.esop.impl.backup.BackupOperationRequest;
 import com.instaclustr.esop.azure.AzureModule.CloudStorageAccountFactory;
 import com.instaclustr.esop.impl.backup.Backuper;
+import com.microsoft.azure.storage.AccessCondition;
 import com.microsoft.azure.storage.CloudStorageAccount;
 import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.blob.CloudBlob;
 import com.microsoft.azure.storage.blob.CloudBlobClient;
 import com.microsoft.azure.storage.blob.CloudBlobContainer;
 import com.microsoft.azure.storage.blob.CloudBlockBlob;
+import com.microsoft.azure.storage.blob.ListBlobItem;
 
 public class AzureBackuper extends Backuper {
 
@@ -100,4 +110,92 @@ public class AzureBackuper extends Backuper {
         final CloudBlockBlob blob = ((AzureRemoteObjectReference) objectReference).blob;
         blob.uploadText(text);
     }
+
+    @Override
+    public Optional<String> downloadText(final RemoteObjectReference objectReference) throws Exception {
+        final CloudBlockBlob blob = ((AzureRemoteObjectReference) objectReference).blob;
+
+        if (!blob.exists()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(blob.downloadText());
+    }
+
+    @Override
+    public Optional<VersionedText> downloadVersionedText(final RemoteObjectReference objectReference) throws Exception {
+        final CloudBlockBlob blob = ((AzureRemoteObjectReference) objectReference).blob;
+
+        try {
+            // properties of a blob, its ETag too, are taken from a response of the download
+            final String text = blob.downloadText();
+            return Optional.of(new VersionedText(text, blob.getProperties().getEtag()));
+        } catch (final StorageException e) {
+            if (e.getHttpStatusCode() != 404) {
+                throw e;
+            }
+
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public boolean supportsConditionalUpload() {
+        return true;
+    }
+
+    @Override
+    public boolean uploadTextIfUnchanged(final String text, final RemoteObjectReference objectReference, final String version) throws Exception {
+        final CloudBlockBlob blob = ((AzureRemoteObjectReference) objectReference).blob;
+
+        final AccessCondition condition = version == null
+            ? AccessCondition.generateIfNotExistsCondition()
+            : AccessCondition.generateIfMatchCondition(version);
+
+        try {
+            blob.uploadText(text, UTF_8.name(), condition, null, null);
+            return true;
+        } catch (final StorageException e) {
+            // 412 if a blob was changed, 409 if it was created, 404 if it was deleted
+            if (e.getHttpStatusCode() == 412 || e.getHttpStatusCode() == 409 || (e.getHttpStatusCode() == 404 && version != null)) {
+                return false;
+            }
+
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<byte[]> downloadBytes(final RemoteObjectReference objectReference) throws Exception {
+        final CloudBlockBlob blob = ((AzureRemoteObjectReference) objectReference).blob;
+
+        if (!blob.exists()) {
+            return Optional.empty();
+        }
+
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        blob.download(content);
+
+        return Optional.of(content.toByteArray());
+    }
+
+    @Override
+    public void consumeNodeObjects(final Path prefix, final BiConsumer<Path, Long> consumer) throws Exception {
+        final Path nodePath = Paths.get(resolveNodeAwareRemotePath(Paths.get("")));
+
+        for (final ListBlobItem item : blobContainer.listBlobs(resolveNodeAwareRemotePath(prefix) + "/", true)) {
+            if (item instanceof CloudBlob) {
+                final CloudBlob blob = (CloudBlob) item;
+                consumer.accept(nodePath.relativize(Paths.get(blob.getName())), blob.getProperties().getLastModified().getTime());
+            }
+        }
+    }
+
+    // this client does not support blob batches, blobs are deleted one by one
+    @Override
+    public void deleteNodeObjects(final List<Path> objectKeys) throws Exception {
+        for (final Path objectKey : objectKeys) {
+            blobContainer.getBlockBlobReference(resolveNodeAwareRemotePath(objectKey)).deleteIfExists();
+        }
+    }
 }
@@ -1,7 +1,7 @@
 package com.instaclustr.esop.cli;
 
 import static com.instaclustr.picocli.CLIApplication.execute;
-import static java.util.Collections.singletonList;
+import static java.util.Arrays.asList;
 import static org.awaitility.Awaitility.await;
 
 import java.util.List;
@@ -9,6 +9,7 @@ import java.util.List;
 import com.google.inject.Inject;
 import com.google.inject.Module;
 import com.instaclustr.esop.impl.backup.BackupModules.BackupModule;
+import com.instaclustr.esop.impl.backup.BackupModules.UploadingModule;
 import com.instaclustr.esop.impl.backup.BackupOperationRequest;
 import com.instaclustr.operations.Operation;
 import com.instaclustr.operations.OperationsService;
@@ -52,7 +53,7 @@ public class BackupApplication implements Runnable {
     public void run() {
         Esop.logCommandVersionInformation(spec);
 
-        final List<Module> appSpecificModules = singletonList(new BackupModule());
+        final List<Module> appSpecificModules = asList(new BackupModule(), new UploadingModule());
 
         Esop.init(this, jmxSpec, request, logger, appSpecificModules);
 
@@ -2,12 +2,13 @@ package com.instaclustr.esop.cli;
 
 import static com.instaclustr.picocli.CLIApplication.execute;
 import static com.instaclustr.picocli.JarManifestVersionProvider.logCommandVersionInformation;
-import static java.util.Collections.singletonList;
+import static java.util.Arrays.asList;
 import static org.awaitility.Awaitility.await;
 
 import com.google.inject.Inject;
 import com.instaclustr.esop.impl.backup.BackupCommitLogsOperationRequest;
 import com.instaclustr.esop.impl.backup.BackupModules.CommitlogBackupModule;
+import com.instaclustr.esop.impl.backup.BackupModules.UploadingModule;
 import com.instaclustr.operations.Operation;
 import com.instaclustr.operations.OperationsService;
 import com.instaclustr.picocli.CassandraJMXSpec;
@@ -48,7 +49,7 @@ public class CommitLogBackupApplication implements Runnable {
     public void run() {
         logCommandVersionInformation(spec);
 
-        Esop.init(this, jmxSpec, request, logger, singletonList(new CommitlogBackupModule()));
+        Esop.init(this, jmxSpec, request, logger, asList(new CommitlogBackupModule(), new UploadingModule()));
 
         final Operation<?> operation = operationsService.submitOperationRequest(request);
 
@@ -2,11 +2,12 @@ package com.instaclustr.esop.cli;
 
 import static com.instaclustr.picocli.CLIApplication.execute;
 import static com.instaclustr.picocli.JarManifestVersionProvider.logCommandVersionInformation;
-import static java.util.Collections.singletonList;
+import static java.util.Arrays.asList;
 import static org.awaitility.Awaitility.await;
 
 import com.google.inject.Inject;
 import com.instaclustr.esop.impl.restore.RestoreCommitLogsOperationRequest;
+import com.instaclustr.esop.impl.restore.RestoreModules.DownloadingModule;
 import com.instaclustr.esop.impl.restore.RestoreModules.RestoreCommitlogModule;
 import com.instaclustr.operations.Operation;
 import com.instaclustr.operations.OperationsService;
@@ -44,7 +45,7 @@ public class CommitLogRestoreApplication implements Runnable {
     public void run() {
         logCommandVersionInformation(spec);
 
-        Esop.init(this, null, request, logger, singletonList(new RestoreCommitlogModule()));
+        Esop.init(this, null, request, logger, asList(new RestoreCommitlogModule(), new DownloadingModule()));
 
         final Operation<?> operation = operationsService.submitOperationRequest(request);
 
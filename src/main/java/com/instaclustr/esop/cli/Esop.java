@@ -15,8 +15,7 @@ import com.google.inject.Module;
 import com.google.inject.Stage;
 import com.instaclustr.cassandra.CassandraModule;
 import com.instaclustr.esop.guice.StorageModules;
-import com.instaclustr.esop.impl.backup.BackupModules.UploadingModule;
-import com.instaclustr.esop.impl.restore.RestoreModules.DownloadingModule;
+import com.instaclustr.esop.impl.AbstractOperationRequest;
 import com.instaclustr.guice.GuiceInjectorHolder;
 import com.instaclustr.jackson.JacksonModule;
 import com.instaclustr.operations.OperationRequest;
@@ -96,10 +95,10 @@ public class Esop extends CLIApplication implements Runnable {
 
         modules.add(new JacksonModule());
         modules.add(new OperationsModule());
-        modules.add(new StorageModules());
+        // only a module of a storage provider of a request, modules of other providers and their clients are not initialised
+        modules.add(new StorageModules(resolveStorageProvider(operationRequest)));
         modules.add(new ExecutorsModule());
-        modules.add(new UploadingModule());
-        modules.add(new DownloadingModule());
+        // uploading or downloading module comes with modules of an application, as it needs only one of them
         modules.addAll(appSpecificModules);
 
         final Injector injector = Guice.createInjector(
@@ -124,6 +123,14 @@ public class Esop extends CLIApplication implements Runnable {
         }
     }
 
+    private static String resolveStorageProvider(final OperationRequest operationRequest) {
+        if (operationRequest instanceof AbstractOperationRequest && ((AbstractOperationRequest) operationRequest).storageLocation != null) {
+            return ((AbstractOperationRequest) operationRequest).storageLocation.storageProvider;
+        }
+
+        return null;
+    }
+
     @Override
     public String getImplementationTitle() {
         return "backup-restore";
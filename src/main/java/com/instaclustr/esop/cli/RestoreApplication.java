@@ -8,6 +8,7 @@ import java.util.Arrays;
 
 import com.google.inject.Inject;
 import com.instaclustr.esop.impl._import.ImportOperationRequest;
+import com.instaclustr.esop.impl.restore.RestoreModules.DownloadingModule;
 import com.instaclustr.esop.impl.restore.RestoreModules.RestorationStrategyModule;
 import com.instaclustr.esop.impl.restore.RestoreModules.RestoreModule;
 import com.instaclustr.esop.impl.restore.RestoreOperationRequest;
@@ -57,7 +58,8 @@ public class RestoreApplication implements Runnable {
         request.importing = importRequest;
 
         Esop.init(this, jmxSpec, request, logger, Arrays.asList(new RestoreModule(),
-                                                                new RestorationStrategyModule()));
+                                                                new RestorationStrategyModule(),
+                                                                new DownloadingModule()));
 
         final Operation<?> operation = operationsService.submitOperationRequest(request);
 
@@ -1,17 +1,26 @@
 package com.instaclustr.esop.gcp;
 
 import static com.google.cloud.storage.Storage.PredefinedAcl.BUCKET_OWNER_FULL_CONTROL;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
 
 import java.io.InputStream;
 import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
 
 import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.Blob;
 import com.google.cloud.storage.BlobId;
 import com.google.cloud.storage.BlobInfo;
 import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.Storage.BlobListOption;
 import com.google.cloud.storage.StorageException;
+import com.google.common.collect.Lists;
 import com.google.common.io.ByteStreams;
 import com.google.inject.assistedinject.Assisted;
 import com.google.inject.assistedinject.AssistedInject;
@@ -23,6 +32,9 @@ import com.instaclustr.esop.impl.backup.Backuper;
 
 public class GCPBackuper extends Backuper {
 
+    // GCS accepts at most 100 calls in one batch request
+    private static final int DELETE_BATCH_SIZE = 100;
+
     private final Storage storage;
 
     @AssistedInject
@@ -87,6 +99,91 @@ public class GCPBackuper extends Backuper {
         storage.create(BlobInfo.newBuilder(blobId).build(), text.getBytes(), Storage.BlobTargetOption.predefinedAcl(BUCKET_OWNER_FULL_CONTROL));
     }
 
+    @Override
+    public Optional<String> downloadText(final RemoteObjectReference objectReference) {
+        final Blob blob = storage.get(((GCPRemoteObjectReference) objectReference).blobId);
+
+        if (blob == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new String(blob.getContent(), UTF_8));
+    }
+
+    @Override
+    public Optional<VersionedText> downloadVersionedText(final RemoteObjectReference objectReference) {
+        final Blob blob = storage.get(((GCPRemoteObjectReference) objectReference).blobId);
+
+        if (blob == null) {
+            return Optional.empty();
+        }
+
+        // a blob is read by its generation, so content belongs to the version
+        return Optional.of(new VersionedText(new String(blob.getContent(), UTF_8), String.valueOf(blob.getGeneration())));
+    }
+
+    @Override
+    public boolean supportsConditionalUpload() {
+        return true;
+    }
+
+    @Override
+    public boolean uploadTextIfUnchanged(final String text, final RemoteObjectReference objectReference, final String version) {
+        final BlobId blobId = ((GCPRemoteObjectReference) objectReference).blobId;
+
+        try {
+            if (version == null) {
+                storage.create(BlobInfo.newBuilder(blobId).build(),
+                               text.getBytes(UTF_8),
+                               Storage.BlobTargetOption.doesNotExist(),
+                               Storage.BlobTargetOption.predefinedAcl(BUCKET_OWNER_FULL_CONTROL));
+            } else {
+                storage.create(BlobInfo.newBuilder(BlobId.of(blobId.getBucket(), blobId.getName(), Long.parseLong(version))).build(),
+                               text.getBytes(UTF_8),
+                               Storage.BlobTargetOption.generationMatch(),
+                               Storage.BlobTargetOption.predefinedAcl(BUCKET_OWNER_FULL_CONTROL));
+            }
+
+            return true;
+        } catch (final StorageException e) {
+            if (e.getCode() != 412) {
+                throw e;
+            }
+
+            return false;
+        }
+    }
+
+    @Override
+    public Optional<byte[]> downloadBytes(final RemoteObjectReference objectReference) {
+        final Blob blob = storage.get(((GCPRemoteObjectReference) objectReference).blobId);
+
+        if (blob == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(blob.getContent());
+    }
+
+    @Override
+    public void consumeNodeObjects(final Path prefix, final BiConsumer<Path, Long> consumer) {
+        final Path nodePath = Paths.get(resolveNodeAwareRemotePath(Paths.get("")));
+
+        for (final Blob blob : storage.list(request.storageLocation.bucket, BlobListOption.prefix(resolveNodeAwareRemotePath(prefix) + "/")).iterateAll()) {
+            if (!blob.getName().endsWith("/")) {
+                consumer.accept(nodePath.relativize(Paths.get(blob.getName())), blob.getUpdateTime());
+            }
+        }
+    }
+
+    @Override
+    public void deleteNodeObjects(final List<Path> objectKeys) {
+        for (final List<Path> batch : Lists.partition(objectKeys, DELETE_BATCH_SIZE)) {
+            // false is returned for objects which do not exist
+            storage.delete(batch.stream().map(key -> BlobId.of(request.storageLocation.bucket, resolveNodeAwareRemotePath(key))).collect(toList()));
+        }
+    }
+
     @Override
     public void cleanup() {
     }
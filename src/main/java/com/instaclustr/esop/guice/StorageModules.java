@@ -1,6 +1,11 @@
 package com.instaclustr.esop.guice;
 
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.google.common.collect.ImmutableMap;
 import com.google.inject.AbstractModule;
+import com.google.inject.Module;
 import com.instaclustr.esop.azure.AzureModule;
 import com.instaclustr.esop.gcp.GCPModule;
 import com.instaclustr.esop.local.LocalFileModule;
@@ -9,12 +14,38 @@ import com.instaclustr.kubernetes.KubernetesApiModule;
 
 public class StorageModules extends AbstractModule {
 
+    private static final Map<String, Supplier<Module>> STORAGE_MODULES = ImmutableMap.of(
+        "s3", S3Module::new,
+        "azure", AzureModule::new,
+        "gcp", GCPModule::new,
+        "file", LocalFileModule::new
+    );
+
+    private final String storageProvider;
+
+    /**
+     * Installs modules of all storage providers.
+     */
+    public StorageModules() {
+        this(null);
+    }
+
+    /**
+     * @param storageProvider storage provider to install a module of, modules of all storage providers
+     *                        are installed if it is null or unknown so a request is validated against all of them
+     */
+    public StorageModules(final String storageProvider) {
+        this.storageProvider = storageProvider;
+    }
+
     @Override
     protected void configure() {
         install(new KubernetesApiModule());
-        install(new S3Module());
-        install(new AzureModule());
-        install(new GCPModule());
-        install(new LocalFileModule());
+
+        if (storageProvider != null && STORAGE_MODULES.containsKey(storageProvider)) {
+            install(STORAGE_MODULES.get(storageProvider).get());
+        } else {
+            STORAGE_MODULES.values().forEach(module -> install(module.get()));
+        }
     }
 }
@@ -59,6 +59,10 @@ public abstract class AbstractOperationRequest extends OperationRequest {
     @JsonProperty("proxySettings")
     public ProxySettings proxySettings;
 
+    @Mixin
+    @JsonProperty("governorSettings")
+    public GovernorSettings governorSettings;
+
     public AbstractOperationRequest() {
         // for picocli
     }
@@ -22,6 +22,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -86,11 +87,23 @@ public abstract class AbstractTracker<UNIT extends Unit, SESSION extends Session
 
     public abstract Session<UNIT> constructSession();
 
+    public Session<UNIT> submit(final INTERACTOR interactor,
+                                final Operation<? extends REQUEST> operation,
+                                final Collection<ManifestEntry> entries,
+                                final String snapshotTag,
+                                final int concurrentConnections) {
+        return submit(interactor, operation, entries, snapshotTag, concurrentConnections, null);
+    }
+
+    /**
+     * @param governor governor lowering concurrency of submitted units under a load of Cassandra, might be null
+     */
     public synchronized Session<UNIT> submit(final INTERACTOR interactor,
                                              final Operation<? extends REQUEST> operation,
                                              final Collection<ManifestEntry> entries,
                                              final String snapshotTag,
-                                             final int concurrentConnections) {
+                                             final int concurrentConnections,
+                                             final LoadGovernor governor) {
 
         final Session<UNIT> currentSession = constructSession();
         currentSession.setSnapshotTag(snapshotTag);
@@ -126,7 +139,7 @@ public abstract class AbstractTracker<UNIT extends Unit, SESSION extends Session
                 final UNIT unit = constructUnitToSubmit(interactor, entry, operation.getShouldCancel(), snapshotTag);
 
                 units.add(unit);
-                futures.put(executorService.submit(unit), unit);
+                futures.put(executorService.submit(governor == null ? unit : governed(unit, governor)), unit);
 
                 submittedUnits.incrementAndGet();
 
@@ -159,6 +172,17 @@ public abstract class AbstractTracker<UNIT extends Unit, SESSION extends Session
         return currentSession;
     }
 
+    private Callable<Void> governed(final UNIT unit, final LoadGovernor governor) {
+        return () -> {
+            governor.acquire();
+            try {
+                return unit.call();
+            } finally {
+                governor.release();
+            }
+        };
+    }
+
     public int numberOfUnits() {
         return units.size();
     }
@@ -198,12 +222,12 @@ public abstract class AbstractTracker<UNIT extends Unit, SESSION extends Session
         session.getNonFailedUnits().forEach(unit -> {
             if (unit.getState() == NOT_STARTED) {
                 logger.info(format("Ignoring %s from processing because there was an errorneous unit in a session %s",
-                                   unit.getManifestEntry().localFile,
+                                   unit.getManifestEntry().getLocalFile(),
                                    session.id));
                 unit.setState(IGNORED);
             } else if (unit.getState() == Unit.State.RUNNING) {
                 logger.info(format("Cancelling %s because there was an errorneous unit in a session %s",
-                                   unit.getManifestEntry().localFile,
+                                   unit.getManifestEntry().getLocalFile(),
                                    session.id));
                 unit.setState(CANCELLED);
                 unit.shouldCancel.set(true);
@@ -0,0 +1,166 @@
+package com.instaclustr.esop.impl;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.instaclustr.esop.impl.backup.Backuper;
+import com.instaclustr.esop.impl.restore.Restorer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Layout of commit logs in a remote storage.
+ *
+ * Commit logs are uploaded to hourly buckets, e.g. {@code commitlog/2020/05/01/13/CommitLog-7-1588339200000.log.1588341000000},
+ * by their modification time in UTC, so a point-in-time restore lists only buckets overlapping with its time window.
+ * Commit logs uploaded before this layout was introduced are right under {@code commitlog/}. A layout marker
+ * records since when commit logs of a node are in buckets, a restore of a window starting earlier lists all commit logs.
+ *
+ * CDC segments are uploaded to hourly buckets under {@code cdc/}, so they are never replayed by a point-in-time restore.
+ */
+public class CommitLogLayout {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommitLogLayout.class);
+
+    public static final Path COMMIT_LOG_PREFIX = Paths.get("commitlog");
+
+    public static final Path CDC_PREFIX = Paths.get("cdc");
+
+    public static final Path LAYOUT_MARKER_KEY = COMMIT_LOG_PREFIX.resolve("layout");
+
+    public static final Pattern COMMIT_LOG_KEY_PATTERN = Pattern.compile(".*(CommitLog-\\d+-\\d+\\.log)\\.(\\d+)");
+
+    private static final DateTimeFormatter HOUR_BUCKET = DateTimeFormatter.ofPattern("yyyy/MM/dd/HH").withZone(ZoneOffset.UTC);
+
+    private static final DateTimeFormatter DAY_BUCKET = DateTimeFormatter.ofPattern("yyyy/MM/dd").withZone(ZoneOffset.UTC);
+
+    private static final DateTimeFormatter MONTH_BUCKET = DateTimeFormatter.ofPattern("yyyy/MM").withZone(ZoneOffset.UTC);
+
+    private static final DateTimeFormatter YEAR_BUCKET = DateTimeFormatter.ofPattern("yyyy").withZone(ZoneOffset.UTC);
+
+    private CommitLogLayout() {
+    }
+
+    /**
+     * @param commitLogName file name of a commit log
+     * @param lastModified modification time of a commit log
+     * @return object key of a commit log in its hourly bucket
+     */
+    public static Path objectKey(final String commitLogName, final long lastModified) {
+        return bucket(lastModified).resolve(commitLogName + "." + lastModified);
+    }
+
+    /**
+     * @param segmentName file name of a CDC segment
+     * @param lastModified modification time of a segment
+     * @return object key of a CDC segment in its hourly bucket
+     */
+    public static Path cdcObjectKey(final String segmentName, final long lastModified) {
+        return CDC_PREFIX.resolve(HOUR_BUCKET.format(Instant.ofEpochMilli(lastModified))).resolve(segmentName + "." + lastModified);
+    }
+
+    /**
+     * @param timestamp time in milliseconds
+     * @return prefix of an hourly bucket of given time
+     */
+    public static Path bucket(final long timestamp) {
+        return COMMIT_LOG_PREFIX.resolve(HOUR_BUCKET.format(Instant.ofEpochMilli(timestamp)));
+    }
+
+    /**
+     * @param start start of a window in milliseconds
+     * @param end end of a window in milliseconds
+     * @return start times of hourly buckets overlapping with a window, ordered
+     */
+    public static List<Long> hours(final long start, final long end) {
+        final List<Long> hours = new ArrayList<>();
+
+        ZonedDateTime hour = Instant.ofEpochMilli(start).atZone(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+
+        while (hour.toInstant().toEpochMilli() <= end) {
+            hours.add(hour.toInstant().toEpochMilli());
+            hour = hour.plusHours(1);
+        }
+
+        return hours;
+    }
+
+    /**
+     * Prefixes covering buckets from given hour until now, each as wide as possible, so buckets long after a window
+     * are listed by a few requests: remaining hours of a day, remaining days of a month, remaining months of a year
+     * and following years.
+     *
+     * @param start start of an hourly bucket in milliseconds
+     * @param now current time in milliseconds
+     * @return prefixes ordered by time they cover
+     */
+    public static List<Path> prefixesSince(final long start, final long now) {
+        final List<Path> prefixes = new ArrayList<>();
+
+        ZonedDateTime time = Instant.ofEpochMilli(start).atZone(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+
+        while (time.getHour() != 0 && time.toInstant().toEpochMilli() <= now) {
+            prefixes.add(COMMIT_LOG_PREFIX.resolve(HOUR_BUCKET.format(time)));
+            time = time.plusHours(1);
+        }
+
+        while (time.getDayOfMonth() != 1 && time.toInstant().toEpochMilli() <= now) {
+            prefixes.add(COMMIT_LOG_PREFIX.resolve(DAY_BUCKET.format(time)));
+            time = time.plusDays(1);
+        }
+
+        while (time.getMonthValue() != 1 && time.toInstant().toEpochMilli() <= now) {
+            prefixes.add(COMMIT_LOG_PREFIX.resolve(MONTH_BUCKET.format(time)));
+            time = time.plusMonths(1);
+        }
+
+        while (time.toInstant().toEpochMilli() <= now) {
+            prefixes.add(COMMIT_LOG_PREFIX.resolve(YEAR_BUCKET.format(time)));
+            time = time.plusYears(1);
+        }
+
+        return prefixes;
+    }
+
+    /**
+     * @param objectKey object key of a commit log, in any layout
+     * @return modification time of a commit log or empty optional if it is not a key of a commit log
+     */
+    public static Optional<Long> timestamp(final String objectKey) {
+        final Matcher matcher = COMMIT_LOG_KEY_PATTERN.matcher(objectKey);
+        return matcher.matches() ? Optional.of(Long.parseLong(matcher.group(2))) : Optional.empty();
+    }
+
+    /**
+     * Records that commit logs of a node are uploaded to buckets, if it is not recorded yet.
+     */
+    public static void markLayout(final Backuper backuper) throws Exception {
+        final RemoteObjectReference marker = backuper.objectKeyToNodeAwareRemoteReference(LAYOUT_MARKER_KEY);
+
+        if (!backuper.downloadText(marker).isPresent()) {
+            backuper.uploadText(Long.toString(System.currentTimeMillis()), marker);
+        }
+    }
+
+    /**
+     * @return time since when commit logs of a node are uploaded to buckets, empty optional if they are not
+     */
+    public static Optional<Long> readLayoutMarker(final Restorer restorer) {
+        try {
+            return Optional.of(Long.parseLong(restorer.downloadFileToString(restorer.objectKeyToNodeAwareRemoteReference(LAYOUT_MARKER_KEY)).trim()));
+        } catch (final Exception ex) {
+            logger.info("There is no layout marker of commit logs, they are expected to be in the flat layout: {}", ex.getMessage());
+            return Optional.empty();
+        }
+    }
+}
@@ -7,6 +7,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.core.JsonGenerator;
@@ -59,6 +61,34 @@ public class DatabaseEntities {
         return keyspaces.isEmpty() && keyspacesAndTables.isEmpty();
     }
 
+    /**
+     * @param entities entities to check
+     * @return true if every table of given entities is one of these entities, empty entities cover all tables
+     */
+    public boolean covers(final DatabaseEntities entities) {
+        if (areEmpty()) {
+            return true;
+        }
+
+        if (entities.areEmpty()) {
+            return false;
+        }
+
+        for (final String keyspace : entities.keyspaces) {
+            if (!contains(keyspace)) {
+                return false;
+            }
+        }
+
+        for (final Map.Entry<String, String> table : entities.keyspacesAndTables.entries()) {
+            if (!contains(table.getKey(), table.getValue())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     public static DatabaseEntities create(final String keyspace, final String table) {
         final Multimap<String, String> keyspaceWithTable = HashMultimap.create();
         keyspaceWithTable.put(keyspace, table);
@@ -218,13 +248,10 @@ public class DatabaseEntities {
         @Override
         public void serialize(final DatabaseEntities value, final JsonGenerator gen, final SerializerProvider provider) throws IOException {
             if (value != null) {
-                if (!value.getKeyspacesAndTables().isEmpty()) {
-                    gen.writeString(value.getKeyspacesAndTables().entries().stream().map(entry -> entry.getKey() + "." + entry.getValue()).collect(joining(",")));
-                } else if (!value.getKeyspaces().isEmpty()) {
-                    gen.writeString(String.join(",", value.getKeyspaces()));
-                } else {
-                    gen.writeString("");
-                }
+                // keyspaces and tables may be mixed, e.g. 'ks1,ks2.cf1', parse accepts both
+                gen.writeString(Stream.concat(value.getKeyspaces().stream(),
+                                              value.getKeyspacesAndTables().entries().stream().map(entry -> entry.getKey() + "." + entry.getValue()))
+                                    .collect(joining(",")));
             }
         }
     }
@@ -0,0 +1,46 @@
+package com.instaclustr.esop.impl;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects;
+import picocli.CommandLine.Option;
+
+public class GovernorSettings {
+
+    @Option(names = "--governor",
+        description = "if specified, concurrency and bandwidth of uploads and downloads are lowered when Cassandra is under pressure "
+            + "(pending compactions, read / write latencies, dropped messages) and raised back when it is not, defaults to false")
+    @JsonProperty("governor")
+    public boolean governor;
+
+    @Option(names = "--governor-max-pending-compactions",
+        description = "number of pending compactions considered to be a full pressure, defaults to 100",
+        defaultValue = "100")
+    @JsonProperty("governorMaxPendingCompactions")
+    public int governorMaxPendingCompactions = 100;
+
+    @Option(names = "--governor-max-latency",
+        description = "99th percentile of client read or write latency, in milliseconds, considered to be a full pressure, defaults to 100",
+        defaultValue = "100")
+    @JsonProperty("governorMaxLatency")
+    public int governorMaxLatency = 100;
+
+    @Option(names = "--governor-poll-interval",
+        description = "number of seconds between two checks of Cassandra's pressure, defaults to 10",
+        defaultValue = "10")
+    @JsonProperty("governorPollInterval")
+    public int governorPollInterval = 10;
+
+    public GovernorSettings() {
+        // for picocli and Jackson
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("governor", governor)
+            .add("governorMaxPendingCompactions", governorMaxPendingCompactions)
+            .add("governorMaxLatency", governorMaxLatency)
+            .add("governorPollInterval", governorPollInterval)
+            .toString();
+    }
+}
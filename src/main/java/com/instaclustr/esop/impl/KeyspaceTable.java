@@ -16,6 +16,8 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Multimap;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
@@ -29,6 +31,9 @@ public class KeyspaceTable implements Cloneable {
         OTHER
     }
 
+    // keyspace and table names repeat for every entry of a manifest so we keep just one copy of each
+    private static final Interner<String> NAMES = Interners.newWeakInterner();
+
     public final String keyspace;
     public final String table;
     public final TableType tableType;
@@ -45,8 +50,8 @@ public class KeyspaceTable implements Cloneable {
     @JsonCreator
     public KeyspaceTable(final @JsonProperty("keyspace") String keyspace,
                          final @JsonProperty("table") String table) {
-        this.keyspace = keyspace;
-        this.table = table;
+        this.keyspace = keyspace == null ? null : NAMES.intern(keyspace);
+        this.table = table == null ? null : NAMES.intern(table);
         this.tableType = classifyTable(keyspace, table);
     }
 
@@ -0,0 +1,170 @@
+package com.instaclustr.esop.impl;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.instaclustr.esop.impl.interaction.CassandraLoad;
+import com.instaclustr.esop.impl.interaction.CassandraLoad.Load;
+import jmx.org.apache.cassandra.service.CassandraJMXService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lowers concurrency and bandwidth of a session of a tracker when Cassandra is under pressure and raises them back
+ * when it is not.
+ *
+ * Cassandra is polled periodically, pressure is the highest ratio of pending compactions and of read / write latencies
+ * to their configured maximums. A factor of concurrency and bandwidth is halved when pressure reaches 1 or when some
+ * messages were dropped since the last poll, and it is raised by a tenth when pressure is below a half.
+ */
+public class LoadGovernor implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadGovernor.class);
+
+    private static final double MIN_FACTOR = 0.1;
+    private static final double FACTOR_STEP = 0.1;
+    private static final double LOW_PRESSURE = 0.5;
+
+    private final CassandraJMXService cassandraJMXService;
+    private final GovernorSettings settings;
+    private final int maxConcurrency;
+
+    private final Map<RateLimiter, Double> rateLimiters = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService poller;
+
+    private double factor = 1.0;
+    private long droppedMessages = -1;
+
+    private int running = 0;
+    private int limit;
+
+    private LoadGovernor(final CassandraJMXService cassandraJMXService, final GovernorSettings settings, final int maxConcurrency) {
+        this.cassandraJMXService = cassandraJMXService;
+        this.settings = settings;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.limit = this.maxConcurrency;
+
+        if (cassandraJMXService != null) {
+            poller = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("load-governor-%d").setDaemon(true).build());
+            poller.scheduleWithFixedDelay(this::poll, 0, Math.max(1, settings.governorPollInterval), SECONDS);
+        } else {
+            poller = null;
+        }
+    }
+
+    /**
+     * Governor which does not poll Cassandra, its load is reported by {@link #adjust(Load)}.
+     *
+     * @param settings settings of a request
+     * @param maxConcurrency concurrency when Cassandra is not under pressure
+     */
+    public LoadGovernor(final GovernorSettings settings, final int maxConcurrency) {
+        this(null, settings, maxConcurrency);
+    }
+
+    /**
+     * @param cassandraJMXService JMX service of a node, load of which is watched
+     * @param settings settings of a request
+     * @param maxConcurrency concurrency when Cassandra is not under pressure
+     * @return started governor or null if it is not enabled in settings
+     */
+    public static LoadGovernor create(final CassandraJMXService cassandraJMXService, final GovernorSettings settings, final int maxConcurrency) {
+        if (cassandraJMXService == null || settings == null || !settings.governor) {
+            return null;
+        }
+
+        return new LoadGovernor(cassandraJMXService, settings, maxConcurrency);
+    }
+
+    /**
+     * Blocks until a unit fits into current concurrency.
+     */
+    public synchronized void acquire() throws InterruptedException {
+        while (running >= limit) {
+            wait();
+        }
+
+        running++;
+    }
+
+    public synchronized void release() {
+        running--;
+        notifyAll();
+    }
+
+    /**
+     * @param rateLimiter limiter to adjust
+     * @param rate rate of a limiter when Cassandra is not under pressure
+     */
+    public void register(final RateLimiter rateLimiter, final double rate) {
+        rateLimiters.put(rateLimiter, rate);
+        rateLimiter.setRate(rate * getFactor());
+    }
+
+    public void unregister(final RateLimiter rateLimiter) {
+        rateLimiters.remove(rateLimiter);
+    }
+
+    public synchronized double getFactor() {
+        return factor;
+    }
+
+    private void poll() {
+        final Load load;
+
+        try {
+            load = new CassandraLoad(cassandraJMXService).act();
+        } catch (final Exception ex) {
+            logger.warn("Unable to read load of Cassandra, concurrency and bandwidth are left unchanged: {}", ex.getMessage());
+            return;
+        }
+
+        adjust(load);
+    }
+
+    /**
+     * Lowers or raises concurrency and bandwidth according to a load of Cassandra.
+     *
+     * @param load load read by the last poll
+     */
+    public void adjust(final Load load) {
+        final double pressure = Math.max(load.pendingCompactions / (double) Math.max(1, settings.governorMaxPendingCompactions),
+                                         Math.max(load.readLatency99thPercentile, load.writeLatency99thPercentile) / Math.max(1, settings.governorMaxLatency));
+
+        final double newFactor;
+        final int newLimit;
+
+        synchronized (this) {
+            final boolean dropped = droppedMessages >= 0 && load.droppedMessages > droppedMessages;
+            droppedMessages = load.droppedMessages;
+
+            if (dropped || pressure >= 1) {
+                factor = Math.max(MIN_FACTOR, factor / 2);
+            } else if (pressure < LOW_PRESSURE) {
+                factor = Math.min(1.0, factor + FACTOR_STEP);
+            }
+
+            newFactor = factor;
+            limit = Math.max(1, (int) Math.round(maxConcurrency * factor));
+            newLimit = limit;
+            notifyAll();
+        }
+
+        rateLimiters.forEach((rateLimiter, rate) -> rateLimiter.setRate(rate * newFactor));
+
+        logger.debug("Load of Cassandra {}, pressure {}, concurrency {} of {}, bandwidth factor {}", load, pressure, newLimit, maxConcurrency, newFactor);
+    }
+
+    @Override
+    public void close() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+    }
+}
@@ -2,7 +2,12 @@ package com.instaclustr.esop.impl;
 
 import static java.util.stream.Collectors.toList;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -13,8 +18,14 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Objects;
 import com.google.common.collect.HashMultimap;
@@ -26,6 +37,12 @@ import com.instaclustr.esop.impl.Snapshots.Snapshot.Keyspace.Table;
 
 public class Manifest implements Cloneable {
 
+    public static final String MANIFEST_EXTENSION = ".json";
+
+    public static final String COMPRESSED_MANIFEST_EXTENSION = ".json.gz";
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
     public void filter(final DatabaseEntities entities) {
 
     }
@@ -39,6 +56,9 @@ public class Manifest implements Cloneable {
 
     private String schemaVersion;
 
+    @JsonInclude(Include.NON_NULL)
+    private String partitioner;
+
     public static Manifest from(final Snapshot snapshot) {
         return new Manifest(snapshot);
     }
@@ -74,6 +94,42 @@ public class Manifest implements Cloneable {
         return schemaVersion;
     }
 
+    public void setPartitioner(final String partitioner) {
+        this.partitioner = partitioner;
+    }
+
+    public String getPartitioner() {
+        return partitioner;
+    }
+
+    /**
+     * Filters entries by token ranges. Tokens of entries are computed as Murmur3Partitioner does,
+     * entries without tokens, e.g. schemas or SSTables from older backups, are always included.
+     *
+     * @param entries entries to filter
+     * @param tokenRanges ranges to keep entries of, all entries are returned if null or empty
+     * @return entries of SSTables intersecting with any of ranges
+     */
+    public List<ManifestEntry> filterByTokenRanges(final List<ManifestEntry> entries, final List<TokenRange> tokenRanges) {
+        if (tokenRanges == null || tokenRanges.isEmpty()) {
+            return entries;
+        }
+
+        if (partitioner != null && !partitioner.endsWith("Murmur3Partitioner")) {
+            throw new IllegalStateException(String.format("Restoration of token ranges is supported only for Murmur3Partitioner, backup was taken with %s", partitioner));
+        }
+
+        final List<ManifestEntry> filtered = new ArrayList<>();
+
+        for (final ManifestEntry entry : entries) {
+            if (TokenRange.intersects(tokenRanges, entry.firstToken, entry.lastToken)) {
+                filtered.add(entry);
+            }
+        }
+
+        return filtered;
+    }
+
     public void setTokens(final List<String> tokens) {
         this.tokens = tokens;
     }
@@ -98,11 +154,11 @@ public class Manifest implements Cloneable {
 
         snapshot.getKeyspaces().forEach((ksName, keyspace) -> {
             keyspace.getTables().forEach((tableName, table) -> {
+                // one instance per table is shared by all its entries, local file is resolved lazily from the root
+                final KeyspaceTable keyspaceTable = new KeyspaceTable(ksName, tableName);
                 table.getEntries().forEach(entry -> {
-                    final Path objectKey = entry.objectKey;
-                    final int hashPathPart = SSTableUtils.isSecondaryIndexManifest(objectKey) ? 4 : 3;
-                    entry.localFile = localPathRoot.resolve(objectKey.subpath(0, hashPathPart)).resolve(objectKey.getFileName());
-                    entry.keyspaceTable = new KeyspaceTable(ksName, tableName);
+                    entry.setLocalRoot(localPathRoot);
+                    entry.keyspaceTable = keyspaceTable;
                 });
             });
         });
@@ -141,7 +197,11 @@ public class Manifest implements Cloneable {
                 // it contains schema already
                 entries.addAll(table.getEntries());
             } else {
-                entries.addAll(table.getEntries().stream().filter(entry -> entry.type != Type.CQL_SCHEMA).collect(toList()));
+                for (final ManifestEntry entry : table.getEntries()) {
+                    if (entry.type != Type.CQL_SCHEMA) {
+                        entries.add(entry);
+                    }
+                }
             }
         }));
 
@@ -154,7 +214,7 @@ public class Manifest implements Cloneable {
 
     public void cleanup() throws Exception {
         if (manifest != null) {
-            Files.deleteIfExists(manifest.localFile);
+            Files.deleteIfExists(manifest.getLocalFile());
         }
     }
 
@@ -170,7 +230,8 @@ public class Manifest implements Cloneable {
         return Objects.equal(snapshot, manifest1.snapshot) &&
             Objects.equal(manifest, manifest1.manifest) &&
             Objects.equal(tokens, manifest1.tokens) &&
-            Objects.equal(schemaVersion, manifest1.schemaVersion);
+            Objects.equal(schemaVersion, manifest1.schemaVersion) &&
+            Objects.equal(partitioner, manifest1.partitioner);
     }
 
     @Override
@@ -179,6 +240,7 @@ public class Manifest implements Cloneable {
 
         cloned.setTokens(tokens == null ? null : new ArrayList<>(tokens));
         cloned.setSchemaVersion(this.schemaVersion);
+        cloned.setPartitioner(this.partitioner);
         cloned.setManifest(manifest == null ? null : manifest.clone());
         cloned.setSnapshot(snapshot == null ? null : snapshot.clone());
 
@@ -187,7 +249,7 @@ public class Manifest implements Cloneable {
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(snapshot, manifest, tokens, schemaVersion);
+        return Objects.hashCode(snapshot, manifest, tokens, schemaVersion, partitioner);
     }
 
     public static ManifestEntry getManifestAsManifestEntry(final Path localManifestPath) throws Exception {
@@ -196,7 +258,35 @@ public class Manifest implements Cloneable {
 
     public static void write(final Manifest manifest, final Path localManifestPath, final ObjectMapper objectMapper) throws Exception {
         Files.createDirectories(localManifestPath.getParent());
-        objectMapper.writeValue(localManifestPath.toFile(), manifest);
+
+        try (final OutputStream os = Files.newOutputStream(localManifestPath)) {
+            write(manifest, os, isCompressed(localManifestPath), objectMapper);
+        }
+    }
+
+    /**
+     * Writes a manifest to a stream without building it as a string in memory first.
+     *
+     * @param manifest manifest to write
+     * @param outputStream stream to write a manifest to, it is not closed by this method
+     * @param compressed true if a manifest should be gzipped
+     * @param objectMapper object mapper to use
+     */
+    public static void write(final Manifest manifest,
+                             final OutputStream outputStream,
+                             final boolean compressed,
+                             final ObjectMapper objectMapper) throws Exception {
+        final OutputStream buffered = new BufferedOutputStream(outputStream, STREAM_BUFFER_SIZE);
+
+        if (compressed) {
+            final GZIPOutputStream gzipped = new GZIPOutputStream(buffered, STREAM_BUFFER_SIZE);
+            objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(gzipped, manifest);
+            gzipped.finish();
+        } else {
+            objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(buffered, manifest);
+        }
+
+        buffered.flush();
     }
 
     public static String write(final Manifest manifest, final ObjectMapper objectMapper) throws Exception {
@@ -204,15 +294,50 @@ public class Manifest implements Cloneable {
     }
 
     public static Manifest read(final Path localManifestPath, final ObjectMapper objectMapper) throws Exception {
-        return objectMapper.readValue(localManifestPath.toFile(), Manifest.class);
+        try (final InputStream is = Files.newInputStream(localManifestPath)) {
+            return read(is, objectMapper);
+        }
+    }
+
+    /**
+     * Reads a manifest directly from a stream. A gzipped manifest is recognised by its header
+     * so plain JSON manifests remain readable.
+     *
+     * @param inputStream stream to read a manifest from, it is not closed by this method
+     * @param objectMapper object mapper to use
+     * @return parsed manifest
+     */
+    public static Manifest read(final InputStream inputStream, final ObjectMapper objectMapper) throws Exception {
+        final PushbackInputStream pushbackInputStream = new PushbackInputStream(new BufferedInputStream(inputStream, STREAM_BUFFER_SIZE), 2);
+
+        final byte[] header = new byte[2];
+        final int read = pushbackInputStream.read(header);
+
+        if (read > 0) {
+            pushbackInputStream.unread(header, 0, read);
+        }
+
+        final boolean compressed = read == 2 && (header[0] & 0xff | (header[1] & 0xff) << 8) == GZIPInputStream.GZIP_MAGIC;
+
+        final InputStream source = compressed ? new GZIPInputStream(pushbackInputStream, STREAM_BUFFER_SIZE) : pushbackInputStream;
+
+        return objectMapper.reader().without(JsonParser.Feature.AUTO_CLOSE_SOURCE).forType(Manifest.class).readValue(source);
     }
 
     public static Manifest read(final String manifest, final ObjectMapper objectMapper) throws Exception {
         return objectMapper.readValue(manifest, Manifest.class);
     }
 
+    public static boolean isCompressed(final Path manifestPath) {
+        return manifestPath.getFileName().toString().endsWith(COMPRESSED_MANIFEST_EXTENSION);
+    }
+
     public static Path getLocalManifestPath(final Path cassandraDir, final String snapshotTag) {
-        return cassandraDir.resolve("manifests").resolve(snapshotTag + ".json");
+        return getLocalManifestPath(cassandraDir, snapshotTag, false);
+    }
+
+    public static Path getLocalManifestPath(final Path cassandraDir, final String snapshotTag, final boolean compressed) {
+        return cassandraDir.resolve("manifests").resolve(snapshotTag + (compressed ? COMPRESSED_MANIFEST_EXTENSION : MANIFEST_EXTENSION));
     }
 
     public static Set<Path> getLocalExistingEntries(final Path dataDir) {
@@ -0,0 +1,241 @@
+package com.instaclustr.esop.impl;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.common.base.MoreObjects;
+import com.instaclustr.esop.impl.DatabaseEntities.DatabaseEntitiesDeserializer;
+import com.instaclustr.esop.impl.DatabaseEntities.DatabaseEntitiesSerializer;
+import com.instaclustr.esop.impl.backup.Backuper;
+import com.instaclustr.esop.impl.backup.Backuper.VersionedText;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Catalog of manifests of a node, stored as one small object next to node's manifests.
+ *
+ * A restore may resolve a manifest by looking into this catalog and downloading
+ * the manifest directly instead of listing all manifests of a node. A catalog is updated at the end of each backup,
+ * if it is missing or it is not possible to resolve a manifest from it, a restore falls back to listing.
+ *
+ * A catalog is updated by a conditional upload where a storage supports it (S3 If-Match, GCS generation match,
+ * Azure If-Match), a change is applied again to a catalog read anew if another backup or a retention changed it
+ * in the meanwhile. Elsewhere a change is applied to a catalog read right before it is uploaded, so a catalog is
+ * best-effort there: a concurrent change may be lost. A restore falls back to listing for a manifest missing
+ * in a catalog or to a manifest deleted by a lost removal, a retention ranks a manifest missing in a catalog
+ * by its modification time.
+ */
+public class ManifestCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(ManifestCatalog.class);
+
+    public static final Path CATALOG_KEY = Paths.get("catalog/manifests.json");
+
+    private static final int UPDATE_ATTEMPTS = 10;
+
+    private final List<CatalogEntry> entries = new ArrayList<>();
+
+    public ManifestCatalog() {
+    }
+
+    @JsonCreator
+    public ManifestCatalog(@JsonProperty("entries") final List<CatalogEntry> entries) {
+        if (entries != null) {
+            this.entries.addAll(entries);
+        }
+    }
+
+    public List<CatalogEntry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Adds an entry to a catalog, an entry of the same manifest key is replaced.
+     *
+     * @param entry entry to add
+     */
+    public void add(final CatalogEntry entry) {
+        entries.removeIf(e -> e.key.equals(entry.key));
+        entries.add(entry);
+    }
+
+    public boolean remove(final String manifestKey) {
+        return entries.removeIf(e -> e.key.equals(manifestKey));
+    }
+
+    /**
+     * @param nodeAwareKeyFilter filter tested against node-aware remote path of a manifest
+     * @param nodeAwareResolver resolver of a manifest key to a node-aware remote path
+     * @return entry satisfying a filter, empty optional if there is not exactly one such entry
+     */
+    public Optional<CatalogEntry> resolve(final Predicate<String> nodeAwareKeyFilter, final Function<Path, String> nodeAwareResolver) {
+        CatalogEntry found = null;
+
+        for (final CatalogEntry entry : entries) {
+            if (nodeAwareKeyFilter.test(nodeAwareResolver.apply(Paths.get(entry.key)))) {
+                if (found != null) {
+                    return Optional.empty();
+                }
+                found = entry;
+            }
+        }
+
+        return Optional.ofNullable(found);
+    }
+
+    /**
+     * @return catalog of a node, empty optional only if there is not any catalog yet
+     * @throws Exception if a catalog exists but it can not be downloaded or parsed, a caller must not
+     *                   replace it as it would lose entries of all previous backups
+     */
+    public static Optional<ManifestCatalog> read(final Backuper backuper, final ObjectMapper objectMapper) throws Exception {
+        final Optional<String> catalog = backuper.downloadText(backuper.objectKeyToNodeAwareRemoteReference(CATALOG_KEY));
+
+        if (!catalog.isPresent()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(parse(catalog.get(), objectMapper));
+    }
+
+    private static ManifestCatalog parse(final String catalog, final ObjectMapper objectMapper) {
+        try {
+            return objectMapper.readValue(catalog, ManifestCatalog.class);
+        } catch (final Exception ex) {
+            throw new IllegalStateException(format("Unable to parse manifest catalog %s", CATALOG_KEY), ex);
+        }
+    }
+
+    /**
+     * Uploads a catalog as one object. Object stores replace an object as a whole so readers
+     * see either the previous or the new version of a catalog.
+     */
+    public static void write(final ManifestCatalog catalog, final Backuper backuper, final ObjectMapper objectMapper) throws Exception {
+        final byte[] bytes = objectMapper.writeValueAsString(catalog).getBytes(UTF_8);
+        backuper.uploadFile(bytes.length, new ByteArrayInputStream(bytes), backuper.objectKeyToNodeAwareRemoteReference(CATALOG_KEY));
+    }
+
+    /**
+     * Applies a change to the current catalog of a node and uploads it, see {@link ManifestCatalog} for what happens
+     * if a catalog is changed concurrently. A catalog is not updated if an existing one can not be read.
+     *
+     * @param change change of a catalog, it may be applied more than once, each time to a catalog read anew,
+     *               returns false if a catalog does not need to be uploaded
+     * @return true if a catalog was uploaded
+     */
+    public static boolean update(final Backuper backuper,
+                                 final ObjectMapper objectMapper,
+                                 final Predicate<ManifestCatalog> change) throws Exception {
+        final RemoteObjectReference reference = backuper.objectKeyToNodeAwareRemoteReference(CATALOG_KEY);
+
+        for (int attempt = 1; attempt <= UPDATE_ATTEMPTS; attempt++) {
+            final Optional<VersionedText> current = backuper.downloadVersionedText(reference);
+            final ManifestCatalog catalog = current.isPresent() ? parse(current.get().text, objectMapper) : new ManifestCatalog();
+
+            if (!change.test(catalog)) {
+                return false;
+            }
+
+            if (!backuper.supportsConditionalUpload()) {
+                write(catalog, backuper, objectMapper);
+                return true;
+            }
+
+            if (backuper.uploadTextIfUnchanged(objectMapper.writeValueAsString(catalog), reference, current.map(c -> c.version).orElse(null))) {
+                return true;
+            }
+
+            logger.info("Manifest catalog {} was changed concurrently, applying a change again, attempt {} of {}", CATALOG_KEY, attempt, UPDATE_ATTEMPTS);
+        }
+
+        throw new IllegalStateException(format("Unable to update manifest catalog %s, it was changed concurrently %s times", CATALOG_KEY, UPDATE_ATTEMPTS));
+    }
+
+    /**
+     * Records a manifest of a finished backup in a catalog of a node. A catalog is not updated
+     * if an existing one can not be read.
+     */
+    public static void update(final Backuper backuper,
+                              final ObjectMapper objectMapper,
+                              final String snapshotTag,
+                              final String schemaVersion,
+                              final DatabaseEntities entities,
+                              final ManifestEntry manifest) throws Exception {
+        final CatalogEntry entry = new CatalogEntry(snapshotTag,
+                                                    schemaVersion,
+                                                    entities == null ? DatabaseEntities.empty() : entities,
+                                                    manifest.objectKey.toString(),
+                                                    manifest.size,
+                                                    System.currentTimeMillis());
+
+        update(backuper, objectMapper, catalog -> {
+            catalog.add(entry);
+            return true;
+        });
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("entries", entries).toString();
+    }
+
+    public static class CatalogEntry {
+
+        public final String snapshotTag;
+        public final String schemaVersion;
+        /**
+         * Entities a backup was taken of, empty entities for all of them. Null for entries
+         * recorded before entities were, such backups are not known to cover any entities.
+         */
+        @JsonSerialize(using = DatabaseEntitiesSerializer.class)
+        @JsonDeserialize(using = DatabaseEntitiesDeserializer.class)
+        public final DatabaseEntities entities;
+        public final String key;
+        public final long size;
+        public final long timestamp;
+
+        @JsonCreator
+        public CatalogEntry(@JsonProperty("snapshotTag") final String snapshotTag,
+                            @JsonProperty("schemaVersion") final String schemaVersion,
+                            @JsonProperty("entities")
+                            @JsonSerialize(using = DatabaseEntitiesSerializer.class)
+                            @JsonDeserialize(using = DatabaseEntitiesDeserializer.class) final DatabaseEntities entities,
+                            @JsonProperty("key") final String key,
+                            @JsonProperty("size") final long size,
+                            @JsonProperty("timestamp") final long timestamp) {
+            this.snapshotTag = snapshotTag;
+            this.schemaVersion = schemaVersion;
+            this.entities = entities;
+            this.key = key;
+            this.size = size;
+            this.timestamp = timestamp;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                .add("snapshotTag", snapshotTag)
+                .add("schemaVersion", schemaVersion)
+                .add("entities", entities)
+                .add("key", key)
+                .add("size", size)
+                .add("timestamp", timestamp)
+                .toString();
+        }
+    }
+}
@@ -7,6 +7,8 @@ import java.nio.file.Paths;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonSerializer;
@@ -34,8 +36,11 @@ public class ManifestEntry implements Cloneable {
     @JsonSerialize(using = ObjectKeySerializer.class)
     public Path objectKey;
 
-    @JsonIgnore
-    public Path localFile;
+    // explicitly set local file, e.g. upon backup when we know where a file is
+    private Path localFile;
+
+    // root a local file is lazily resolved against, e.g. upon restore, shared by all entries of a manifest
+    private Path localRoot;
 
     public long size;
 
@@ -44,6 +49,13 @@ public class ManifestEntry implements Cloneable {
     @JsonIgnore
     public KeyspaceTable keyspaceTable;
 
+    // tokens of the first and the last partition of an SSTable this entry is a component of, null if not known
+    @JsonInclude(Include.NON_NULL)
+    public Long firstToken;
+
+    @JsonInclude(Include.NON_NULL)
+    public Long lastToken;
+
     public ManifestEntry(final Path objectKey,
                          final Path localFile,
                          final Type type) {
@@ -54,7 +66,7 @@ public class ManifestEntry implements Cloneable {
                          final Path localFile,
                          final Type type,
                          final KeyspaceTable keyspaceTable) {
-        this(objectKey, localFile, type, 0, keyspaceTable);
+        this(objectKey, localFile, type, sizeOf(localFile), keyspaceTable);
     }
 
     @JsonCreator
@@ -66,29 +78,64 @@ public class ManifestEntry implements Cloneable {
         this.objectKey = objectKey;
         this.localFile = localFile;
         this.type = type;
+        this.size = size;
         this.keyspaceTable = keyspaceTable;
+    }
 
+    private static long sizeOf(final Path localFile) {
         try {
-            if (size == 0) {
-                if (Files.exists(localFile)) {
-                    this.size = Files.size(localFile);
-                }
-            } else {
-                this.size = size;
+            if (localFile != null && Files.exists(localFile)) {
+                return Files.size(localFile);
             }
+
+            return 0;
         } catch (final Exception ex) {
             throw new IllegalStateException("Can not determine size of file " + localFile);
         }
     }
 
+    /**
+     * Returns local file of this entry. If it was not set explicitly, it is resolved against
+     * the root set by {@link #setLocalRoot(Path)}, without touching a filesystem, every time
+     * it is asked for so we do not need to hold a path per entry in memory.
+     *
+     * @return local file of this entry or null if it can not be resolved
+     */
+    @JsonIgnore
+    public Path getLocalFile() {
+        if (localFile != null) {
+            return localFile;
+        }
+
+        if (localRoot == null || objectKey == null) {
+            return null;
+        }
+
+        final int hashPathPart = SSTableUtils.isSecondaryIndexManifest(objectKey) ? 4 : 3;
+        return localRoot.resolve(objectKey.subpath(0, hashPathPart)).resolve(objectKey.getFileName());
+    }
+
+    @JsonIgnore
+    public void setLocalFile(final Path localFile) {
+        this.localFile = localFile;
+    }
+
+    @JsonIgnore
+    public void setLocalRoot(final Path localRoot) {
+        this.localFile = null;
+        this.localRoot = localRoot;
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
             .add("objectKey", objectKey == null ? null : objectKey.toString())
-            .add("localFile", localFile == null ? null : localFile.toAbsolutePath().toString())
+            .add("localFile", getLocalFile() == null ? null : getLocalFile().toAbsolutePath().toString())
             .add("keyspaceTable", keyspaceTable)
             .add("type", type)
             .add("size", size)
+            .add("firstToken", firstToken)
+            .add("lastToken", lastToken)
             .toString();
     }
 
@@ -103,22 +150,28 @@ public class ManifestEntry implements Cloneable {
         final ManifestEntry that = (ManifestEntry) o;
         return size == that.size &&
             Objects.equal(objectKey, that.objectKey) &&
-            Objects.equal(localFile, that.localFile) &&
+            Objects.equal(getLocalFile(), that.getLocalFile()) &&
             type == that.type &&
-            Objects.equal(keyspaceTable, that.keyspaceTable);
+            Objects.equal(keyspaceTable, that.keyspaceTable) &&
+            Objects.equal(firstToken, that.firstToken) &&
+            Objects.equal(lastToken, that.lastToken);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(objectKey, localFile, type, keyspaceTable);
+        return Objects.hashCode(objectKey, getLocalFile(), type, keyspaceTable);
     }
 
     @Override
     public ManifestEntry clone() throws CloneNotSupportedException {
-        return new ManifestEntry(this.objectKey == null ? null : Paths.get(this.objectKey.toString()),
-                                 this.localFile == null ? null : Paths.get(this.localFile.toString()),
-                                 this.type,
-                                 this.size,
-                                 this.keyspaceTable == null ? null : this.keyspaceTable.clone());
+        final ManifestEntry cloned = new ManifestEntry(this.objectKey == null ? null : Paths.get(this.objectKey.toString()),
+                                                       this.localFile == null ? null : Paths.get(this.localFile.toString()),
+                                                       this.type,
+                                                       this.size,
+                                                       this.keyspaceTable == null ? null : this.keyspaceTable.clone());
+        cloned.localRoot = this.localRoot;
+        cloned.firstToken = this.firstToken;
+        cloned.lastToken = this.lastToken;
+        return cloned;
     }
 }
@@ -0,0 +1,302 @@
+package com.instaclustr.esop.impl;
+
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.sun.jna.Native;
+import com.sun.jna.Platform;
+import com.sun.jna.Pointer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Advises the kernel to drop pages of files from a page cache once they were read or written,
+ * so uploads and downloads do not evict pages of Cassandra's hot data.
+ *
+ * It calls posix_fadvise(POSIX_FADV_DONTNEED) on a descriptor it opens by a path of a file, a descriptor
+ * of a Java stream is not accessible on recent JDKs. Residency of pages is read by mincore on a mapping
+ * of a file, mapping a file does not load its pages. It is available on Linux only. Everywhere else,
+ * or if the native calls can not be linked, all methods do nothing.
+ */
+public final class PageCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PageCache.class);
+
+    private static final int O_RDONLY = 0;
+
+    private static final int POSIX_FADV_DONTNEED = 4;
+
+    private static final int PROT_READ = 1;
+    private static final int MAP_SHARED = 1;
+
+    private static final boolean AVAILABLE;
+
+    private static final long PAGE_SIZE;
+
+    static {
+        boolean available = false;
+        long pageSize = 0;
+
+        if (Platform.isLinux()) {
+            try {
+                Native.register(PageCache.class, Platform.C_LIBRARY_NAME);
+                pageSize = getpagesize();
+                available = true;
+            } catch (final Throwable t) {
+                logger.warn("Unable to link posix_fadvise, pages of uploaded and downloaded files will stay in a page cache: {}", t.getMessage());
+            }
+        }
+
+        AVAILABLE = available;
+        PAGE_SIZE = pageSize;
+    }
+
+    private PageCache() {
+    }
+
+    private static native int open(String path, int flags);
+
+    private static native int close(int fd);
+
+    private static native int posix_fadvise(int fd, long offset, long length, int advice);
+
+    private static native int getpagesize();
+
+    private static native Pointer mmap(Pointer address, long length, int prot, int flags, int fd, long offset);
+
+    private static native int munmap(Pointer address, long length);
+
+    private static native int mincore(Pointer address, long length, byte[] vector);
+
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * Drops pages of a file in a range from a page cache. Dirty pages are not dropped, a file has to be synced first.
+     *
+     * @param file file to drop pages of
+     * @param offset start of a range
+     * @param length length of a range, 0 to drop pages until the end of a file
+     */
+    public static void dropPages(final Path file, final long offset, final long length) {
+        if (!AVAILABLE) {
+            return;
+        }
+
+        try {
+            final int fd = open(file.toAbsolutePath().toString(), O_RDONLY);
+
+            if (fd < 0) {
+                logger.debug("Unable to open {} to drop its pages from a page cache", file);
+                return;
+            }
+
+            try {
+                final int result = posix_fadvise(fd, offset, length, POSIX_FADV_DONTNEED);
+
+                if (result != 0) {
+                    logger.debug("posix_fadvise has failed with error {}", result);
+                }
+            } finally {
+                close(fd);
+            }
+        } catch (final Exception ex) {
+            logger.debug("Unable to drop pages from a page cache: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * @param file file to check pages of
+     * @param offset start of a range, aligned to a page
+     * @param length length of a range
+     * @return residency of pages of a range in a page cache, a page at an index is resident if its lowest bit is set,
+     * null if it is not possible to find out
+     */
+    private static byte[] residentPages(final Path file, final long offset, final long length) {
+        if (!AVAILABLE || length <= 0 || offset % PAGE_SIZE != 0) {
+            return null;
+        }
+
+        try {
+            final int fd = open(file.toAbsolutePath().toString(), O_RDONLY);
+
+            if (fd < 0) {
+                logger.debug("Unable to open {} to check its pages in a page cache", file);
+                return null;
+            }
+
+            try {
+                final Pointer mapping = mmap(null, length, PROT_READ, MAP_SHARED, fd, offset);
+
+                if (mapping == null || Pointer.nativeValue(mapping) == -1) {
+                    logger.debug("Unable to map {} to check its pages in a page cache", file);
+                    return null;
+                }
+
+                try {
+                    final byte[] pages = new byte[(int) ((length + PAGE_SIZE - 1) / PAGE_SIZE)];
+
+                    if (mincore(mapping, length, pages) != 0) {
+                        logger.debug("mincore has failed for {}", file);
+                        return null;
+                    }
+
+                    return pages;
+                } finally {
+                    munmap(mapping, length);
+                }
+            } finally {
+                close(fd);
+            }
+        } catch (final Exception ex) {
+            logger.debug("Unable to check pages in a page cache: {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Stream of a file which drops pages it has already read from a page cache, except pages which were
+     * in a page cache before it read them. Files of snapshots are hard links of live SSTables, their pages
+     * Cassandra reads stay where they are.
+     *
+     * A file is read in windows. Residency of pages of a window is recorded two windows ahead of a read,
+     * before a read-ahead reaches it, and pages of a window which were not resident are dropped once it is read.
+     * If residency can not be recorded, no page of a window is dropped.
+     */
+    public static class DropBehindInputStream extends FilterInputStream {
+
+        // pages are dropped after this number of bytes is read, a multiple of any page size
+        private static final long DROP_INTERVAL = 16 * 1024 * 1024;
+
+        // residency of windows is recorded this number of windows ahead, a read-ahead may load several megabytes
+        private static final int LOOKAHEAD_WINDOWS = 2;
+
+        private final Path file;
+        private final long size;
+
+        private long position;
+
+        // start of a window being read, -1 if none was read yet
+        private long windowStart = -1;
+        private byte[] resident;
+
+        // residency of windows ahead of a window being read by their starts
+        private final Map<Long, byte[]> recorded = new HashMap<>();
+
+        private boolean closed;
+
+        public DropBehindInputStream(final Path file) throws IOException {
+            super(new FileInputStream(file.toFile()));
+            this.file = file;
+            this.size = Files.size(file);
+        }
+
+        @Override
+        public int read() throws IOException {
+            enterWindow();
+
+            final int read = super.read();
+
+            if (read != -1) {
+                position++;
+            }
+
+            return read;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            enterWindow();
+
+            // a read never crosses a window, residency of the next window is not recorded yet
+            final int read = super.read(b, off, (int) Math.min(len, windowStart + DROP_INTERVAL - position));
+
+            if (read > 0) {
+                position += read;
+            }
+
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = super.skip(n);
+            position += skipped;
+            return skipped;
+        }
+
+        /**
+         * Drops pages of a window read so far once a position leaves it and records residency of windows ahead.
+         */
+        private void enterWindow() {
+            final long start = position - position % DROP_INTERVAL;
+
+            if (start == windowStart) {
+                return;
+            }
+
+            dropWindow();
+
+            windowStart = start;
+            // a window is recorded just now only upon the first read or after a skip
+            resident = recorded.containsKey(start) ? recorded.remove(start) : record(start);
+
+            recorded.keySet().removeIf(recordedStart -> recordedStart < start);
+
+            for (int i = 1; i <= LOOKAHEAD_WINDOWS; i++) {
+                final long aheadStart = start + i * DROP_INTERVAL;
+
+                if (aheadStart < size && !recorded.containsKey(aheadStart)) {
+                    recorded.put(aheadStart, record(aheadStart));
+                }
+            }
+        }
+
+        private byte[] record(final long start) {
+            return residentPages(file, start, Math.min(DROP_INTERVAL, size - start));
+        }
+
+        private void dropWindow() {
+            if (resident == null) {
+                return;
+            }
+
+            int page = 0;
+
+            while (page < resident.length) {
+                if ((resident[page] & 1) != 0) {
+                    page++;
+                    continue;
+                }
+
+                final int first = page;
+
+                while (page < resident.length && (resident[page] & 1) == 0) {
+                    page++;
+                }
+
+                dropPages(file, windowStart + first * PAGE_SIZE, (page - first) * PAGE_SIZE);
+            }
+
+            resident = null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (!closed) {
+                    dropWindow();
+                }
+            } finally {
+                closed = true;
+                super.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.instaclustr.esop.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads first and last token of an SSTable from its Summary.db component.
+ *
+ * Summary component ends with serialized first and last partition keys of an SSTable, their tokens are computed
+ * as Cassandra's Murmur3Partitioner does. Tokens are not valid for clusters using other partitioners,
+ * which is why a partitioner of a node is recorded in a manifest as well.
+ */
+public class SSTableTokens {
+
+    private static final Logger logger = LoggerFactory.getLogger(SSTableTokens.class);
+
+    public final long first;
+    public final long last;
+
+    public SSTableTokens(final long first, final long last) {
+        this.first = first;
+        this.last = last;
+    }
+
+    /**
+     * @param summaryPath path to Summary.db component of an SSTable
+     * @return tokens of an SSTable or empty optional if it is not possible to read them
+     */
+    public static Optional<SSTableTokens> read(final Path summaryPath) {
+        try {
+            if (!Files.exists(summaryPath)) {
+                return Optional.empty();
+            }
+
+            final ByteBuffer summary = ByteBuffer.wrap(Files.readAllBytes(summaryPath));
+
+            // since 2.1, summary header contains sampling level and size at full sampling
+            Optional<SSTableTokens> tokens = parse(summary.duplicate(), true);
+
+            if (!tokens.isPresent()) {
+                tokens = parse(summary.duplicate(), false);
+            }
+
+            return tokens;
+        } catch (final Exception ex) {
+            logger.debug("Unable to read tokens from {}: {}", summaryPath, ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<SSTableTokens> parse(final ByteBuffer summary, final boolean withSamplingLevel) {
+        final int headerSize = withSamplingLevel ? 24 : 16;
+
+        if (summary.remaining() < headerSize) {
+            return Optional.empty();
+        }
+
+        summary.getInt(); // min index interval
+        summary.getInt(); // offset count
+        final long offHeapSize = summary.getLong(); // offsets and entries
+
+        if (withSamplingLevel) {
+            summary.getInt(); // sampling level
+            summary.getInt(); // size at full sampling
+        }
+
+        if (offHeapSize < 0 || offHeapSize > summary.remaining()) {
+            return Optional.empty();
+        }
+
+        summary.position(summary.position() + (int) offHeapSize);
+
+        final Optional<ByteBuffer> firstKey = readWithLength(summary);
+        final Optional<ByteBuffer> lastKey = readWithLength(summary);
+
+        // both keys have to be read and nothing else may follow
+        if (!firstKey.isPresent() || !lastKey.isPresent() || summary.hasRemaining()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new SSTableTokens(murmur3Token(firstKey.get()), murmur3Token(lastKey.get())));
+    }
+
+    private static Optional<ByteBuffer> readWithLength(final ByteBuffer buffer) {
+        if (buffer.remaining() < 4) {
+            return Optional.empty();
+        }
+
+        final int length = buffer.getInt();
+
+        if (length < 0 || length > buffer.remaining()) {
+            return Optional.empty();
+        }
+
+        final ByteBuffer key = buffer.slice();
+        key.limit(length);
+        buffer.position(buffer.position() + length);
+
+        return Optional.of(key);
+    }
+
+    // Murmur3Partitioner
+
+    public static long murmur3Token(final ByteBuffer key) {
+        final long token = hash3_x64_128(key, key.position(), key.remaining(), 0)[0];
+        // Long.MIN_VALUE is reserved as the minimum token
+        return token == Long.MIN_VALUE ? Long.MAX_VALUE : token;
+    }
+
+    /**
+     * MurmurHash3 x64 128 as implemented in Cassandra. It differs from the reference implementation
+     * in tail bytes which are sign-extended, tokens would not match otherwise.
+     */
+    private static long[] hash3_x64_128(final ByteBuffer key, final int offset, final int length, final long seed) {
+        final int nblocks = length >> 4; // Process as 128-bit blocks.
+
+        long h1 = seed;
+        long h2 = seed;
+
+        final long c1 = 0x87c37b91114253d5L;
+        final long c2 = 0x4cf5ad432745937fL;
+
+        for (int i = 0; i < nblocks; i++) {
+            long k1 = getBlock(key, offset, i * 2);
+            long k2 = getBlock(key, offset, i * 2 + 1);
+
+            k1 *= c1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= c2;
+            h1 ^= k1;
+
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            k2 *= c2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= c1;
+            h2 ^= k2;
+
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        final int tail = offset + nblocks * 16;
+
+        long k1 = 0;
+        long k2 = 0;
+
+        switch (length & 15) {
+            case 15:
+                k2 ^= ((long) key.get(tail + 14)) << 48;
+            case 14:
+                k2 ^= ((long) key.get(tail + 13)) << 40;
+            case 13:
+                k2 ^= ((long) key.get(tail + 12)) << 32;
+            case 12:
+                k2 ^= ((long) key.get(tail + 11)) << 24;
+            case 11:
+                k2 ^= ((long) key.get(tail + 10)) << 16;
+            case 10:
+                k2 ^= ((long) key.get(tail + 9)) << 8;
+            case 9:
+                k2 ^= key.get(tail + 8);
+                k2 *= c2;
+                k2 = Long.rotateLeft(k2, 33);
+                k2 *= c1;
+                h2 ^= k2;
+            case 8:
+                k1 ^= ((long) key.get(tail + 7)) << 56;
+            case 7:
+                k1 ^= ((long) key.get(tail + 6)) << 48;
+            case 6:
+                k1 ^= ((long) key.get(tail + 5)) << 40;
+            case 5:
+                k1 ^= ((long) key.get(tail + 4)) << 32;
+            case 4:
+                k1 ^= ((long) key.get(tail + 3)) << 24;
+            case 3:
+                k1 ^= ((long) key.get(tail + 2)) << 16;
+            case 2:
+                k1 ^= ((long) key.get(tail + 1)) << 8;
+            case 1:
+                k1 ^= key.get(tail);
+                k1 *= c1;
+                k1 = Long.rotateLeft(k1, 31);
+                k1 *= c2;
+                h1 ^= k1;
+        }
+
+        h1 ^= length;
+        h2 ^= length;
+
+        h1 += h2;
+        h2 += h1;
+
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+
+        h1 += h2;
+        h2 += h1;
+
+        return new long[]{h1, h2};
+    }
+
+    private static long getBlock(final ByteBuffer key, final int offset, final int index) {
+        final int blockOffset = offset + (index << 3);
+        return ((long) key.get(blockOffset) & 0xff)
+            + (((long) key.get(blockOffset + 1) & 0xff) << 8)
+            + (((long) key.get(blockOffset + 2) & 0xff) << 16)
+            + (((long) key.get(blockOffset + 3) & 0xff) << 24)
+            + (((long) key.get(blockOffset + 4) & 0xff) << 32)
+            + (((long) key.get(blockOffset + 5) & 0xff) << 40)
+            + (((long) key.get(blockOffset + 6) & 0xff) << 48)
+            + (((long) key.get(blockOffset + 7) & 0xff) << 56);
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
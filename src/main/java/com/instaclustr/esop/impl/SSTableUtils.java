@@ -9,6 +9,9 @@ import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
@@ -39,16 +42,10 @@ public class SSTableUtils {
             throw new IllegalStateException("Can't compute SSTable hash for " + path + ": doesn't taste like sstable");
         }
 
-        for (String digest : DIGESTS) {
-            final Path digestPath = path.resolveSibling(matcher.group(SSTABLE_PREFIX_IDX) + "-Digest." + digest);
-            if (!Files.exists(digestPath)) {
-                continue;
-            }
+        final Optional<String> digestHash = digestHash(path, matcher);
 
-            final Matcher matcherChecksum = CHECKSUM_RE.matcher(new String(Files.readAllBytes(digestPath), StandardCharsets.UTF_8));
-            if (matcherChecksum.matches()) {
-                return matcher.group(SSTABLE_GENERATION_IDX) + "-" + matcherChecksum.group(1);
-            }
+        if (digestHash.isPresent()) {
+            return digestHash.get();
         }
 
         // Ver. 2.0 doesn't create hash file, so do it ourselves
@@ -61,6 +58,38 @@ public class SSTableUtils {
         }
     }
 
+    /**
+     * Computes a hash of an SSTable only from its digest component, a content of an SSTable is not read.
+     *
+     * @param path path to a component of an SSTable
+     * @return hash of an SSTable or empty optional if a path is not an SSTable component or its SSTable does not have a digest
+     */
+    public static Optional<String> digestHash(final Path path) throws IOException {
+        final Matcher matcher = SSTABLE_RE.matcher(path.getFileName().toString());
+
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+
+        return digestHash(path, matcher);
+    }
+
+    private static Optional<String> digestHash(final Path path, final Matcher matcher) throws IOException {
+        for (String digest : DIGESTS) {
+            final Path digestPath = path.resolveSibling(matcher.group(SSTABLE_PREFIX_IDX) + "-Digest." + digest);
+            if (!Files.exists(digestPath)) {
+                continue;
+            }
+
+            final Matcher matcherChecksum = CHECKSUM_RE.matcher(new String(Files.readAllBytes(digestPath), StandardCharsets.UTF_8));
+            if (matcherChecksum.matches()) {
+                return Optional.of(matcher.group(SSTABLE_GENERATION_IDX) + "-" + matcherChecksum.group(1));
+            }
+        }
+
+        return Optional.empty();
+    }
+
     public static String calculateChecksum(final Path filePath) throws IOException {
         try (final FileChannel fileChannel = FileChannel.open(filePath)) {
 
@@ -90,6 +119,9 @@ public class SSTableUtils {
     }
 
     public static Stream<ManifestEntry> ssTableManifest(Path snapshotDirectory, Path tableBackupPath) throws IOException {
+        // all components of an SSTable share tokens, Summary.db is read once per SSTable
+        final Map<Path, Optional<SSTableTokens>> tokensCache = new HashMap<>();
+
         return Files.list(snapshotDirectory)
             .flatMap(path -> {
                 if (isCassandra22SecIndex(path)) {
@@ -114,13 +146,32 @@ public class SSTableUtils {
 
                     backupPath = backupPath.resolve(hash).resolve(manifestComponentFileName.getFileName());
 
-                    return new ManifestEntry(backupPath, localPath, ManifestEntry.Type.FILE);
+                    final ManifestEntry entry = new ManifestEntry(backupPath, localPath, ManifestEntry.Type.FILE);
+
+                    final Optional<SSTableTokens> tokens = tokensCache.computeIfAbsent(summaryPath(localPath), SSTableTokens::read);
+
+                    if (tokens.isPresent()) {
+                        entry.firstToken = tokens.get().first;
+                        entry.lastToken = tokens.get().last;
+                    }
+
+                    return entry;
                 } catch (IOException e) {
                     throw new UncheckedIOException(e);
                 }
             });
     }
 
+    private static Path summaryPath(final Path sstableComponent) {
+        final Matcher matcher = SSTABLE_RE.matcher(sstableComponent.getFileName().toString());
+
+        if (!matcher.matches()) {
+            throw new IllegalStateException("Can't resolve Summary component for " + sstableComponent + ": doesn't taste like sstable");
+        }
+
+        return sstableComponent.resolveSibling(matcher.group(SSTABLE_PREFIX_IDX) + "-Summary.db");
+    }
+
     /**
      * Checks whether or not the given table path leads to a secondary index folder (for Cassandra 2.2 +)
      */
@@ -191,7 +191,11 @@ public class Snapshots implements Cloneable {
 
         @JsonIgnore
         public List<ManifestEntry> getManifestEntries() {
-            return keyspaces.entrySet().stream().flatMap(keyspace -> keyspace.getValue().getManifestEntries().stream()).collect(toList());
+            final List<ManifestEntry> entries = new ArrayList<>();
+            for (final Keyspace keyspace : keyspaces.values()) {
+                keyspace.addManifestEntries(entries);
+            }
+            return entries;
         }
 
         public static Snapshot parse(final String snapshotName, final List<Path> snapshotPaths) throws IOException {
@@ -324,7 +328,16 @@ public class Snapshots implements Cloneable {
 
             @JsonIgnore
             public List<ManifestEntry> getManifestEntries() {
-                return Collections.unmodifiableList(tables.entrySet().stream().flatMap(table -> table.getValue().getEntries().stream()).collect(toList()));
+                final List<ManifestEntry> entries = new ArrayList<>();
+                addManifestEntries(entries);
+                return Collections.unmodifiableList(entries);
+            }
+
+            // adds entries directly without intermediate copies, manifests of big nodes have hundreds of thousands of them
+            void addManifestEntries(final List<ManifestEntry> entries) {
+                for (final Table table : tables.values()) {
+                    entries.addAll(table.entries);
+                }
             }
 
             public boolean containsTable(final String table) {
@@ -0,0 +1,118 @@
+package com.instaclustr.esop.impl;
+
+import static java.lang.String.format;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.google.common.base.Objects;
+import picocli.CommandLine;
+
+/**
+ * Token range in form of Cassandra's ranges, it is start-exclusive and end-inclusive. A range of which start
+ * is bigger or equal to its end wraps around the ring.
+ */
+public class TokenRange {
+
+    public final long start;
+    public final long end;
+
+    public TokenRange(final long start, final long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * @param value range in form "start:end", e.g. "-9223372036854775808:-3074457345618258603"
+     * @return parsed range
+     */
+    @JsonCreator
+    public static TokenRange parse(final String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Token range can not be null");
+        }
+
+        final int separator = value.indexOf(':', 1); // start might be negative
+
+        if (separator == -1) {
+            throw new IllegalArgumentException(format("Token range %s is not in form 'start:end'", value));
+        }
+
+        try {
+            return new TokenRange(Long.parseLong(value.substring(0, separator).trim()),
+                                  Long.parseLong(value.substring(separator + 1).trim()));
+        } catch (final NumberFormatException ex) {
+            throw new IllegalArgumentException(format("Token range %s is not in form 'start:end'", value), ex);
+        }
+    }
+
+    public boolean isWrapping() {
+        return start >= end;
+    }
+
+    /**
+     * @param first first token of an SSTable
+     * @param last last token of an SSTable
+     * @return true if this range intersects with closed interval [first, last]
+     */
+    public boolean intersects(final long first, final long last) {
+        if (isWrapping()) {
+            // (start, max] and [min, end]
+            return last > start || first <= end;
+        }
+
+        return last > start && first <= end;
+    }
+
+    /**
+     * @param ranges ranges to check
+     * @param first first token of an SSTable, null if not known
+     * @param last last token of an SSTable, null if not known
+     * @return true if any of ranges intersects, an SSTable of unknown tokens intersects always
+     */
+    public static boolean intersects(final List<TokenRange> ranges, final Long first, final Long last) {
+        if (first == null || last == null) {
+            return true;
+        }
+
+        for (final TokenRange range : ranges) {
+            if (range.intersects(first, last)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @JsonValue
+    @Override
+    public String toString() {
+        return start + ":" + end;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final TokenRange that = (TokenRange) o;
+        return start == that.start && end == that.end;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(start, end);
+    }
+
+    public static class TokenRangeConverter implements CommandLine.ITypeConverter<TokenRange> {
+
+        @Override
+        public TokenRange convert(final String value) throws Exception {
+            return TokenRange.parse(value);
+        }
+    }
+}
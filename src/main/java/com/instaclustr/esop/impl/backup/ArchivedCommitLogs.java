@@ -0,0 +1,193 @@
+package com.instaclustr.esop.impl.backup;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.MoreObjects;
+import com.instaclustr.esop.impl.ManifestEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local journal of commit logs which were already uploaded, so repeated commit log backups upload only
+ * commit logs which are new or which have changed since their last upload.
+ *
+ * A commit log is recorded with its size, its modification time and a storage location it was uploaded to.
+ * Records of commit logs which do not exist anymore are removed when a journal is loaded.
+ */
+public class ArchivedCommitLogs {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchivedCommitLogs.class);
+
+    private static final String SEPARATOR = "\t";
+
+    private final Path journal;
+    private final Map<Path, Record> records = new HashMap<>();
+
+    private ArchivedCommitLogs(final Path journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * @param cassandraDirectory Cassandra directory of a node
+     * @return path of a journal of uploaded commit logs of a node
+     */
+    public static Path journalFor(final Path cassandraDirectory) {
+        return cassandraDirectory.resolve("commitlog-archive.journal");
+    }
+
+    public static ArchivedCommitLogs load(final Path journal) {
+        final ArchivedCommitLogs archivedCommitLogs = new ArchivedCommitLogs(journal);
+
+        if (!Files.exists(journal)) {
+            return archivedCommitLogs;
+        }
+
+        boolean obsolete = false;
+
+        try {
+            for (final String line : Files.readAllLines(journal, UTF_8)) {
+                final Record record = Record.parse(line);
+
+                if (record == null) {
+                    continue;
+                }
+
+                if (Files.exists(record.commitLog)) {
+                    archivedCommitLogs.records.put(record.commitLog, record);
+                } else {
+                    obsolete = true;
+                }
+            }
+
+            if (obsolete) {
+                archivedCommitLogs.rewrite();
+            }
+        } catch (final Exception ex) {
+            logger.warn(format("Unable to read journal of uploaded commit logs %s, all commit logs will be uploaded.", journal), ex);
+            archivedCommitLogs.records.clear();
+        }
+
+        return archivedCommitLogs;
+    }
+
+    /**
+     * @param entry entry of a commit log to upload
+     * @param storageLocation node path of a storage location a commit log is going to be uploaded to
+     * @return true if the same commit log was already uploaded to a storage location, false otherwise
+     */
+    public boolean isArchived(final ManifestEntry entry, final String storageLocation) throws IOException {
+        final Record record = records.get(entry.getLocalFile().toAbsolutePath());
+
+        return record != null
+            && record.storageLocation.equals(storageLocation)
+            && record.objectKey.equals(entry.objectKey.toString())
+            && record.size == Files.size(entry.getLocalFile());
+    }
+
+    /**
+     * Appends uploaded commit logs to a journal.
+     *
+     * @param entries entries of uploaded commit logs
+     * @param storageLocation node path of a storage location commit logs were uploaded to
+     */
+    public void record(final Collection<ManifestEntry> entries, final String storageLocation) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        final List<Record> newRecords = new ArrayList<>();
+
+        for (final ManifestEntry entry : entries) {
+            try {
+                final Path commitLog = entry.getLocalFile().toAbsolutePath();
+                newRecords.add(new Record(commitLog, Files.size(commitLog), entry.objectKey.toString(), storageLocation));
+            } catch (final IOException ex) {
+                logger.debug("Unable to record uploaded commit log {}: {}", entry.getLocalFile(), ex.getMessage());
+            }
+        }
+
+        try (final BufferedWriter writer = Files.newBufferedWriter(journal, UTF_8, CREATE, WRITE, APPEND)) {
+            for (final Record record : newRecords) {
+                writer.write(record.toLine());
+                writer.newLine();
+                records.put(record.commitLog, record);
+            }
+        } catch (final IOException ex) {
+            logger.warn(format("Unable to record uploaded commit logs to journal %s, they will be uploaded again.", journal), ex);
+        }
+    }
+
+    private void rewrite() throws IOException {
+        final Path tempJournal = journal.resolveSibling(journal.getFileName() + ".tmp");
+
+        try (final BufferedWriter writer = Files.newBufferedWriter(tempJournal, UTF_8)) {
+            for (final Record record : records.values()) {
+                writer.write(record.toLine());
+                writer.newLine();
+            }
+        }
+
+        Files.move(tempJournal, journal, ATOMIC_MOVE, REPLACE_EXISTING);
+    }
+
+    private static class Record {
+
+        final Path commitLog;
+        final long size;
+        // object key contains modification time of a commit log
+        final String objectKey;
+        final String storageLocation;
+
+        Record(final Path commitLog, final long size, final String objectKey, final String storageLocation) {
+            this.commitLog = commitLog;
+            this.size = size;
+            this.objectKey = objectKey;
+            this.storageLocation = storageLocation;
+        }
+
+        static Record parse(final String line) {
+            final String[] fields = line.split(SEPARATOR);
+
+            if (fields.length != 4) {
+                return null;
+            }
+
+            try {
+                return new Record(Paths.get(fields[0]), Long.parseLong(fields[1]), fields[2], fields[3]);
+            } catch (final Exception ex) {
+                return null;
+            }
+        }
+
+        String toLine() {
+            return String.join(SEPARATOR, commitLog.toString(), Long.toString(size), objectKey, storageLocation);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                .add("commitLog", commitLog)
+                .add("size", size)
+                .add("objectKey", objectKey)
+                .add("storageLocation", storageLocation)
+                .toString();
+        }
+    }
+}
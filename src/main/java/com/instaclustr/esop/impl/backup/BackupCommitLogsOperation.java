@@ -1,24 +1,37 @@
 package com.instaclustr.esop.impl.backup;
 
-import static com.instaclustr.esop.impl.ManifestEntry.Type.FILE;
+import static java.lang.String.format;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.stream.Collectors.toList;
 
+import java.io.IOException;
 import java.net.InetAddress;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.regex.Pattern;
 
 import com.google.inject.assistedinject.Assisted;
 import com.google.inject.assistedinject.AssistedInject;
 import com.instaclustr.esop.guice.BucketServiceFactory;
 import com.instaclustr.esop.impl.AbstractTracker.Session;
+import com.instaclustr.esop.impl.AbstractTracker.Unit.State;
+import com.instaclustr.esop.impl.CommitLogLayout;
 import com.instaclustr.esop.impl.StorageLocation;
 import com.instaclustr.esop.topology.CassandraEndpointDC;
 import com.instaclustr.esop.topology.CassandraEndpoints;
@@ -26,6 +39,9 @@ import com.instaclustr.esop.guice.BackuperFactory;
 import com.instaclustr.esop.impl.BucketService;
 import com.instaclustr.esop.impl.ManifestEntry;
 import com.instaclustr.esop.impl.backup.UploadTracker.UploadUnit;
+import com.instaclustr.esop.impl.backup.WatchedSegments.ArchivedCommitLogSegments;
+import com.instaclustr.esop.impl.backup.WatchedSegments.CdcSegments;
+import com.instaclustr.esop.impl.backup.WatchedSegments.PendingSegment;
 import com.instaclustr.esop.impl.interaction.CassandraMyEndpoint;
 import com.instaclustr.esop.topology.CassandraClusterName;
 import com.instaclustr.operations.Operation;
@@ -37,6 +53,7 @@ public class BackupCommitLogsOperation extends Operation<BackupCommitLogsOperati
 
     private static final Logger logger = LoggerFactory.getLogger(BackupCommitLogsOperation.class);
     private static final Path CASSANDRA_COMMITLOG = Paths.get("commitlog");
+    private static final long WATCH_POLL_MILLIS = 100;
 
     private final Map<String, BackuperFactory> backuperFactoryMap;
     private final Map<String, BucketServiceFactory> bucketServiceMap;
@@ -63,41 +80,204 @@ public class BackupCommitLogsOperation extends Operation<BackupCommitLogsOperati
 
         logger.info(request.toString());
 
-        // generate manifest (set of object keys and source files defining the upload)
-        final Collection<ManifestEntry> manifestEntries = new LinkedList<>(); // linked list to maintain order
-
-        try (final DirectoryStream<Path> commitLogs = getCommitLogs(request);
-            final Backuper backuper = backuperFactoryMap.get(request.storageLocation.storageProvider).createCommitLogBackuper(request);
+        try (final Backuper backuper = backuperFactoryMap.get(request.storageLocation.storageProvider).createCommitLogBackuper(request);
             final BucketService bucketService = bucketServiceMap.get(request.storageLocation.storageProvider).createBucketService(request)) {
 
             if (!request.skipBucketVerification) {
                 bucketService.checkBucket(request.storageLocation.bucket, request.createMissingBucket);
             }
 
-            for (final Path commitLog : commitLogs) {
-                // Append file modified date so we have some idea of the time range this commitlog covers
+            CommitLogLayout.markLayout(backuper);
+
+            if (request.watch) {
+                watch(backuper, new ArchivedCommitLogSegments(request.commitLogArchiveOverride, request.segmentSize * 1024L * 1024L, request.deleteUploaded));
+                return;
+            }
+
+            if (request.cdcRawDirectory != null) {
+                watch(backuper, new CdcSegments(request.cdcRawDirectory));
+                return;
+            }
+
+            // commit logs uploaded by previous runs are skipped, unless they were modified since then
+            final ArchivedCommitLogs archivedCommitLogs = ArchivedCommitLogs.load(ArchivedCommitLogs.journalFor(request.cassandraDirectory));
+            final String storageLocation = request.storageLocation.nodePath();
+
+            // generate manifest (set of object keys and source files defining the upload)
+            final Collection<ManifestEntry> manifestEntries = new LinkedList<>(); // linked list to maintain order
+            int alreadyUploaded = 0;
+
+            try (final DirectoryStream<Path> commitLogs = getCommitLogs(request)) {
+                for (final Path commitLog : commitLogs) {
+                    final ManifestEntry entry = ArchivedCommitLogSegments.commitLogEntry(commitLog);
+
+                    if (archivedCommitLogs.isArchived(entry, storageLocation)) {
+                        alreadyUploaded++;
+                    } else {
+                        manifestEntries.add(entry);
+                    }
+                }
+            }
+
+            logger.info("{} files in manifest for commitlog backup, {} commit logs were already uploaded.", manifestEntries.size(), alreadyUploaded);
+
+            archivedCommitLogs.record(upload(backuper, manifestEntries), storageLocation);
+        }
+    }
+
+    /**
+     * @return entries which were uploaded successfully
+     */
+    private List<ManifestEntry> upload(final Backuper backuper, final Collection<ManifestEntry> manifestEntries) throws Exception {
+        Session<UploadUnit> uploadSession = null;
+        final List<ManifestEntry> uploaded;
+
+        try {
+            uploadSession = uploadTracker.submit(backuper, this, manifestEntries, null, this.request.concurrentConnections);
+            uploadSession.waitUntilConsideredFinished();
+            uploadTracker.cancelIfNecessary(uploadSession);
+
+            uploaded = uploadSession.getUnits()
+                .stream()
+                .filter(unit -> unit.getState() == State.FINISHED)
+                .map(UploadUnit::getManifestEntry)
+                .collect(toList());
+        } finally {
+            uploadTracker.removeSession(uploadSession);
+        }
+
+        return uploaded;
+    }
+
+    /**
+     * Uploads segments as soon as they are completed, until this operation is cancelled. One backuper is used for all uploads,
+     * so there is no start of a JVM, no creation of a storage client and no resolution of a storage location per segment.
+     *
+     * Segments present in a directory before watching has started are uploaded too, once they are completed.
+     * Segments which failed to be uploaded stay pending and they are retried with a back-off, watching does not stop
+     * as segments would pile up in a directory, cdc_raw would reach cdc_total_space and Cassandra would reject writes.
+     */
+    private void watch(final Backuper backuper, final WatchedSegments segments) throws Exception {
+        final Path directory = segments.directory;
+        final Map<Path, PendingSegment> pendingSegments = new HashMap<>();
+
+        try (final WatchService watchService = directory.getFileSystem().newWatchService()) {
+            directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+
+            logger.info("Watching {} directory {}", segments.name, directory);
+
+            addExistingSegments(segments, pendingSegments);
+
+            while (!getShouldCancel().get()) {
+                final WatchKey watchKey = watchService.poll(WATCH_POLL_MILLIS, MILLISECONDS);
+
+                if (watchKey != null) {
+                    for (final WatchEvent<?> event : watchKey.pollEvents()) {
+                        if (event.kind() == OVERFLOW) {
+                            addExistingSegments(segments, pendingSegments);
+                        } else {
+                            final Path segment = segments.segmentOf(directory.resolve((Path) event.context()));
+
+                            if (segment != null) {
+                                pendingSegments.computeIfAbsent(segment, s -> new PendingSegment()).changedNanos = System.nanoTime();
+                            }
+                        }
+                    }
+
+                    if (!watchKey.reset()) {
+                        throw new IllegalStateException(format("%s directory %s is not accessible anymore", segments.name, directory));
+                    }
+                }
+
+                final List<Path> completedSegments = new ArrayList<>();
+                final long now = System.nanoTime();
+
+                for (final Entry<Path, PendingSegment> pending : pendingSegments.entrySet()) {
+                    if (pending.getValue().isDue(now) && segments.isCompleted(pending.getKey(), pending.getValue(), now)) {
+                        completedSegments.add(pending.getKey());
+                    }
+                }
+
+                if (!completedSegments.isEmpty()) {
+                    final List<Path> finishedSegments = uploadCompleted(backuper, segments, completedSegments);
+
+                    for (final Path segment : completedSegments) {
+                        if (finishedSegments.contains(segment)) {
+                            pendingSegments.remove(segment);
+                        } else {
+                            final long retryMillis = pendingSegments.get(segment).failed(now);
+                            logger.warn("Unable to upload {} segment {}, it will be retried in {} ms", segments.name, segment, retryMillis);
+                        }
+                    }
+                }
+            }
+        }
+
+        logger.info("Watching of {} directory {} has finished", segments.name, directory);
+    }
 
-                // millisecond precision, on *nix, it trims milliseconds and returns "000" instead
-                // when using File.lastModified
-                long commitLogLastModified = Files.getLastModifiedTime(commitLog.toFile().toPath()).toMillis();
+    private void addExistingSegments(final WatchedSegments segments, final Map<Path, PendingSegment> pendingSegments) throws IOException {
+        try (final DirectoryStream<Path> files = Files.newDirectoryStream(segments.directory)) {
+            for (final Path file : files) {
+                final Path segment = segments.segmentOf(file);
 
-                final Path bucketKey = CASSANDRA_COMMITLOG.resolve(commitLog.getFileName().toString() + "." + commitLogLastModified);
+                if (segment != null) {
+                    pendingSegments.putIfAbsent(segment, new PendingSegment());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return segments which are finished with, either uploaded or deleted in the meanwhile, other segments failed to be uploaded
+     */
+    private List<Path> uploadCompleted(final Backuper backuper, final WatchedSegments segments, final List<Path> completedSegments) throws InterruptedException {
+        final Collection<ManifestEntry> manifestEntries = new LinkedList<>();
+        final List<Path> finishedSegments = new ArrayList<>();
+
+        for (final Path segment : completedSegments) {
+            // deleted in the meanwhile, e.g. by a previous run
+            if (!Files.isRegularFile(segment)) {
+                finishedSegments.add(segment);
+                continue;
+            }
 
-                manifestEntries.add(new ManifestEntry(bucketKey, commitLog, FILE));
+            try {
+                manifestEntries.add(segments.toManifestEntry(segment));
+            } catch (final IOException ex) {
+                logger.warn("Unable to read {} segment {}: {}", segments.name, segment, ex.getMessage());
             }
+        }
 
-            logger.debug("{} files in manifest for commitlog backup.", manifestEntries.size());
+        if (manifestEntries.isEmpty()) {
+            return finishedSegments;
+        }
+
+        final List<ManifestEntry> uploaded;
 
-            Session<UploadUnit> uploadSession = null;
+        try {
+            uploaded = upload(backuper, manifestEntries);
+        } catch (final InterruptedException ex) {
+            throw ex;
+        } catch (final Exception ex) {
+            logger.error(format("Unable to upload %s segments %s", segments.name, completedSegments), ex);
+            return finishedSegments;
+        }
 
+        for (final ManifestEntry entry : uploaded) {
             try {
-                uploadSession = uploadTracker.submit(backuper, this, manifestEntries, null, this.request.concurrentConnections);
-                uploadSession.waitUntilConsideredFinished();
-                uploadTracker.cancelIfNecessary(uploadSession);
-            } finally {
-                uploadTracker.removeSession(uploadSession);
+                segments.uploaded(entry.getLocalFile());
+            } catch (final IOException ex) {
+                // uploaded again upon next start, it is freshened only then
+                logger.warn("Unable to clean up uploaded {} segment {}: {}", segments.name, entry.getLocalFile(), ex.getMessage());
             }
+
+            finishedSegments.add(entry.getLocalFile());
+
+            logger.info("Uploaded {} segment {}", segments.name, entry.getLocalFile());
         }
+
+        return finishedSegments;
     }
 
     private void updateStorageLocationIfNecessary() throws Exception {
@@ -134,9 +314,8 @@ public class BackupCommitLogsOperation extends Operation<BackupCommitLogsOperati
             return Files.newDirectoryStream(request.commitLog.getParent(),
                                             entry -> entry.getFileName().toString().equals(request.commitLogArchiveOverride.toFile().getName()));
         } else {
-            final Pattern pattern = Pattern.compile("CommitLog-\\d+-\\d+\\.log");
             return Files.newDirectoryStream(resolveCommitLogsPath(request),
-                                            entry -> Files.isRegularFile(entry) && pattern.matcher(entry.getFileName().toString()).matches());
+                                            entry -> Files.isRegularFile(entry) && WatchedSegments.COMMIT_LOG_PATTERN.matcher(entry.getFileName().toString()).matches());
         }
     }
 
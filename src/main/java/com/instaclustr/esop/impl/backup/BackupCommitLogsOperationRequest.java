@@ -41,6 +41,34 @@ public class BackupCommitLogsOperationRequest extends BaseBackupOperationRequest
             + "in an offline fashion and this information does not need to be known in advance")
     public boolean online;
 
+    @Option(names = {"--cl-watch"},
+        description = "If set, this tool keeps running, it watches the commitlog archive directory (--cl-archive) and it uploads every commit log "
+            + "as soon as it is archived there. Uploaded commit logs are renamed to have '.uploaded' suffix, or deleted if --cl-delete-uploaded is set.")
+    @JsonProperty("watch")
+    public boolean watch;
+
+    @Option(names = {"--cl-delete-uploaded"},
+        description = "If set, commit logs uploaded upon --cl-watch are deleted from the commitlog archive directory instead of being renamed.")
+    @JsonProperty("deleteUploaded")
+    public boolean deleteUploaded;
+
+    @Option(names = {"--cl-segment-size"},
+        description = "Size of a commit log segment in MiB, commitlog_segment_size_in_mb of Cassandra, defaults to 32. Upon --cl-watch, "
+            + "a commit log is uploaded only once it has this size, so a commit log still being copied to the commitlog archive directory "
+            + "is not uploaded. Set it to 0 if commit logs are compressed or encrypted.")
+    @JsonProperty("segmentSize")
+    public int segmentSize = 32;
+
+    @Option(names = {"--cl-cdc-raw"},
+        description = "Path to cdc_raw directory of Cassandra. If set, this tool keeps running, it watches the directory and it uploads every CDC segment "
+            + "as soon as its _cdc.idx file marks it as completed. Uploaded segments are deleted together with their _cdc.idx files, so Cassandra "
+            + "does not reach cdc_total_space. It can not be combined with --cl-watch.",
+        converter = PathTypeConverter.class)
+    @JsonProperty("cdcRawDirectory")
+    @JsonSerialize(using = PathSerializer.class)
+    @JsonDeserialize(using = PathDeserializer.class)
+    public Path cdcRawDirectory;
+
     public BackupCommitLogsOperationRequest() {
         // for picocli
     }
@@ -85,12 +113,17 @@ public class BackupCommitLogsOperationRequest extends BaseBackupOperationRequest
             .add("storageLocation", storageLocation)
             .add("duration", duration)
             .add("bandwidth", bandwidth)
+            .add("dropPageCache", dropPageCache)
             .add("concurrentConnections", concurrentConnections)
             .add("metadataDirective", metadataDirective)
             .add("cassandraDirectory", cassandraDirectory)
             .add("commitLogArchiveOverride", commitLogArchiveOverride)
             .add("commitLog", commitLog)
             .add("online", online)
+            .add("watch", watch)
+            .add("deleteUploaded", deleteUploaded)
+            .add("segmentSize", segmentSize)
+            .add("cdcRawDirectory", cdcRawDirectory)
             .add("k8sNamespace", k8sNamespace)
             .add("k8sSecretName", k8sSecretName)
             .add("createMissingBucket", createMissingBucket)
@@ -14,6 +14,8 @@ import java.lang.annotation.Target;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.AbstractModule;
 import com.google.inject.BindingAnnotation;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
 import com.google.inject.TypeLiteral;
 import com.instaclustr.esop.impl.backup.coordination.DefaultBackupOperationCoordinator;
 import com.instaclustr.guice.ServiceBindings;
@@ -53,10 +55,16 @@ public class BackupModules {
 
         @Override
         protected void configure() {
-            bind(ListeningExecutorService.class).annotatedWith(UploadingFinisher.class).toInstance(new FixedTasksExecutorSupplier().get(100));
-
             ServiceBindings.bindService(binder(), UploadTracker.class);
         }
+
+        // created only once an upload tracker is, not upon creation of this module
+        @Provides
+        @Singleton
+        @UploadingFinisher
+        ListeningExecutorService provideUploadingFinisher() {
+            return new FixedTasksExecutorSupplier().get(100);
+        }
     }
 
     @Retention(RUNTIME)
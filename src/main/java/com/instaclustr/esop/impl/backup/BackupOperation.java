@@ -85,7 +85,8 @@ public class BackupOperation extends Operation<BackupOperationRequest> implement
                             @JsonProperty("skipBucketVerification") final boolean skipBucketVerification,
                             @JsonProperty("schemaVersion") final String schemaVersion,
                             @JsonProperty("uploadClusterTopology") final boolean uploadClusterTopology,
-                            @JsonProperty("proxySettings") final ProxySettings proxySettings) {
+                            @JsonProperty("proxySettings") final ProxySettings proxySettings,
+                            @JsonProperty("compressManifest") final boolean compressManifest) {
         super(type, id, creationTime, state, failureCause, progress, startTime, new BackupOperationRequest(type,
                                                                                                            storageLocation,
                                                                                                            duration,
@@ -105,7 +106,8 @@ public class BackupOperation extends Operation<BackupOperationRequest> implement
                                                                                                            skipBucketVerification,
                                                                                                            schemaVersion,
                                                                                                            uploadClusterTopology,
-                                                                                                           proxySettings));
+                                                                                                           proxySettings,
+                                                                                                           compressManifest));
         coordinator = null;
     }
 
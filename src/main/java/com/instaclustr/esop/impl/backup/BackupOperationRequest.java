@@ -67,6 +67,34 @@ public class BackupOperationRequest extends BaseBackupOperationRequest {
             + "implicitly set to true if a request is global - coordinator node will upload this file every time.")
     public boolean uploadClusterTopology;
 
+    @JsonProperty("compressManifest")
+    @Option(names = "--compress-manifest",
+        description = "If set, a manifest will be uploaded gzipped as manifests/<snapshot-tag>.json.gz, defaults to false. "
+            + "Restore reads plain and gzipped manifests alike.")
+    public boolean compressManifest;
+
+    @JsonProperty("incremental")
+    @Option(names = "--incremental",
+        description = "If set, a snapshot is not taken, only SSTables in backups directories of tables are uploaded and cleared afterwards. "
+            + "Uploaded manifest is complete, it consists of the latest backup of a node of the same schema version and of these SSTables. "
+            + "If there is no such backup, a full backup is taken. It requires incremental_backups to be enabled in cassandra.yaml, "
+            + "a full backup is taken if it is disabled, defaults to false.")
+    public boolean incremental;
+
+    @JsonProperty("retain")
+    @Option(names = "--retain",
+        description = "If set, only this number of the latest backups of a node of the same entities as this backup is retained after a successful backup. "
+            + "Manifests of older backups are deleted together with SSTables no remaining manifest refers to. Backups of other entities "
+            + "are kept as they are. Nothing is deleted by default.")
+    public Integer retain;
+
+    @JsonProperty("retainGrace")
+    @Option(names = "--retain-grace",
+        description = "Time in hours, SSTables uploaded or refreshed within this time are not deleted even no retained manifest refers to them, "
+            + "so backups of a node running at the same time are not affected. Defaults to 24.",
+        defaultValue = "24")
+    public int retainGrace = 24;
+
     public BackupOperationRequest() {
         // for picocli
     }
@@ -93,7 +121,8 @@ public class BackupOperationRequest extends BaseBackupOperationRequest {
                                   @JsonProperty("skipBucketVerification") final boolean skipBucketVerification,
                                   @JsonProperty("schemaVersion") final String schemaVersion,
                                   @JsonProperty("uploadClusterTopology") final boolean uploadClusterTopology,
-                                  @JsonProperty("proxySettings") final ProxySettings proxySettings) {
+                                  @JsonProperty("proxySettings") final ProxySettings proxySettings,
+                                  @JsonProperty("compressManifest") final boolean compressManifest) {
         super(storageLocation,
               duration,
               bandwidth,
@@ -114,6 +143,7 @@ public class BackupOperationRequest extends BaseBackupOperationRequest {
         this.timeout = timeout == null ? 5 : timeout;
         this.schemaVersion = schemaVersion;
         this.uploadClusterTopology = uploadClusterTopology;
+        this.compressManifest = compressManifest;
     }
 
     @Override
@@ -122,6 +152,7 @@ public class BackupOperationRequest extends BaseBackupOperationRequest {
             .add("storageLocation", storageLocation)
             .add("duration", duration)
             .add("bandwidth", bandwidth)
+            .add("dropPageCache", dropPageCache)
             .add("concurrentConnections", concurrentConnections)
             .add("cassandraDirectory", cassandraDirectory)
             .add("entities", entities)
@@ -138,6 +169,11 @@ public class BackupOperationRequest extends BaseBackupOperationRequest {
             .add("createMissingBucket", createMissingBucket)
             .add("skipBucketVerification", skipBucketVerification)
             .add("proxySettings", proxySettings)
+            .add("governorSettings", governorSettings)
+            .add("compressManifest", compressManifest)
+            .add("incremental", incremental)
+            .add("retain", retain)
+            .add("retainGrace", retainGrace)
             .toString();
     }
 }
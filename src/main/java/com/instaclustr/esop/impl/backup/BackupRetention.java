@@ -0,0 +1,256 @@
+package com.instaclustr.esop.impl.backup;
+
+import static java.lang.String.format;
+import static java.util.Comparator.comparingLong;
+import static java.util.stream.Collectors.toList;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.instaclustr.esop.impl.DatabaseEntities;
+import com.instaclustr.esop.impl.Manifest;
+import com.instaclustr.esop.impl.ManifestCatalog;
+import com.instaclustr.esop.impl.ManifestCatalog.CatalogEntry;
+import com.instaclustr.esop.impl.ManifestEntry;
+import com.instaclustr.threading.Executors.FixedTasksExecutorSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Retention of backups of a node.
+ *
+ * SSTables are uploaded under keys derived from their content, so one object is referred to by manifests
+ * of many backups and objects of an old backup can not be deleted by its prefix. Objects under {@code data/}
+ * are counted as referenced if any retained manifest refers to them, all other objects are deleted.
+ * Backups are ranked by the time they were recorded in a manifest catalog at, manifests which are not
+ * in a catalog by the time they were uploaded at. Names of manifests are not parsed, a snapshot tag
+ * is chosen by a user and a number in it may be in any unit.
+ *
+ * Only backups of the same entities as the backup applying a retention are ranked, so hourly backups of one keyspace
+ * do not push out daily backups of another one. Manifests which are not in a catalog, or which were recorded before
+ * entities were, are ranked together with backups of a whole node. Objects of backups of other entities are referenced
+ * as objects of retained backups are.
+ *
+ * Manifests of backups which are not retained are deleted before their objects, so no manifest ever refers
+ * to a deleted object. Objects modified within a grace period are never deleted. A full backup freshens
+ * or uploads objects it refers to, an incremental backup uploads new SSTables and freshens objects of
+ * a manifest it is based on before it starts, so objects of a backup running at the same time are not deleted
+ * before its manifest is uploaded as long as it finishes within a grace period.
+ */
+public class BackupRetention {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackupRetention.class);
+
+    public static final Path MANIFESTS_PREFIX = Paths.get("manifests");
+
+    public static final Path DATA_PREFIX = Paths.get("data");
+
+    // objects are deleted in chunks of this size concurrently, a storage splits a chunk into its own batches
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
+    private final Backuper backuper;
+    private final ObjectMapper objectMapper;
+    private final int concurrency;
+
+    public BackupRetention(final Backuper backuper, final ObjectMapper objectMapper, final int concurrency) {
+        this.backuper = backuper;
+        this.objectMapper = objectMapper;
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    /**
+     * @param retain number of the latest backups of a node to retain
+     * @param graceMillis objects modified within this time are not deleted
+     * @param entities entities backups to rank were taken of, empty or null for backups of a whole node
+     * @return number of deleted objects under {@code data/}
+     */
+    public int apply(final int retain, final long graceMillis, final DatabaseEntities entities) throws Exception {
+        if (retain < 1) {
+            throw new IllegalStateException(format("At least one backup has to be retained, requested %s", retain));
+        }
+
+        final long now = System.currentTimeMillis();
+
+        // a catalog is read before listing, a manifest uploaded in between is ranked by its modification time
+        final Optional<ManifestCatalog> catalog = ManifestCatalog.read(backuper, objectMapper);
+        final Map<String, CatalogEntry> catalogEntries = new HashMap<>();
+
+        catalog.ifPresent(c -> c.getEntries().forEach(entry -> catalogEntries.put(entry.key, entry)));
+
+        final List<RemoteManifest> manifests = new ArrayList<>();
+        backuper.consumeNodeObjects(MANIFESTS_PREFIX, (objectKey, lastModified) -> {
+            final CatalogEntry entry = catalogEntries.get(objectKey.toString());
+
+            if (entry == null) {
+                manifests.add(new RemoteManifest(objectKey, lastModified, DatabaseEntities.empty()));
+            } else {
+                manifests.add(new RemoteManifest(objectKey, entry.timestamp, entry.entities == null ? DatabaseEntities.empty() : entry.entities));
+            }
+        });
+
+        // without any manifest, every object would be unreferenced, it is more likely that a listing is wrong
+        if (manifests.isEmpty()) {
+            logger.info("There is not any manifest of a node, nothing will be deleted.");
+            return 0;
+        }
+
+        final DatabaseEntities requested = entities == null ? DatabaseEntities.empty() : entities;
+
+        final List<RemoteManifest> ranked = manifests.stream().filter(manifest -> manifest.isOf(requested)).collect(toList());
+
+        ranked.sort(comparingLong(RemoteManifest::getTimestamp).reversed());
+
+        final List<RemoteManifest> retained = ranked.subList(0, Math.min(retain, ranked.size()));
+        final List<RemoteManifest> expired = ranked.subList(retained.size(), ranked.size());
+
+        // backups of other entities are kept as they are
+        final List<RemoteManifest> kept = new ArrayList<>(manifests);
+        kept.removeAll(expired);
+
+        final Set<Path> referenced = readReferencedObjects(kept);
+
+        logger.info("Retaining {} backups of {}, keeping {} backups of other entities, referring to {} objects, deleting {} backups",
+                    retained.size(),
+                    requested.areEmpty() ? "a whole node" : requested,
+                    kept.size() - retained.size(),
+                    referenced.size(),
+                    expired.size());
+
+        deleteManifests(expired);
+
+        final List<Path> unreferenced = new ArrayList<>();
+
+        backuper.consumeNodeObjects(DATA_PREFIX, (objectKey, lastModified) -> {
+            if (!referenced.contains(objectKey) && now - lastModified > graceMillis) {
+                unreferenced.add(objectKey);
+            }
+        });
+
+        logger.info("Deleting {} objects no retained backup refers to", unreferenced.size());
+
+        delete(unreferenced);
+
+        return unreferenced.size();
+    }
+
+    /**
+     * Reads kept manifests concurrently, retention fails if any of them can not be read
+     * as objects it refers to are not known.
+     */
+    private Set<Path> readReferencedObjects(final List<RemoteManifest> kept) throws Exception {
+        final Set<Path> referenced = ConcurrentHashMap.newKeySet();
+
+        runConcurrently(kept, manifest -> {
+            final Optional<byte[]> content = backuper.downloadBytes(backuper.objectKeyToNodeAwareRemoteReference(manifest.objectKey));
+
+            if (!content.isPresent()) {
+                throw new IllegalStateException(format("Manifest %s does not exist", manifest.objectKey));
+            }
+
+            for (final ManifestEntry entry : Manifest.read(new ByteArrayInputStream(content.get()), objectMapper).getManifestEntries(true, false)) {
+                referenced.add(entry.objectKey);
+            }
+        });
+
+        return referenced;
+    }
+
+    private void deleteManifests(final List<RemoteManifest> expired) throws Exception {
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        // applied to a catalog read anew, a backup finished in the meanwhile may have added its entry
+        ManifestCatalog.update(backuper, objectMapper, catalog -> {
+            boolean removed = false;
+
+            for (final RemoteManifest manifest : expired) {
+                removed |= catalog.remove(manifest.objectKey.toString());
+            }
+
+            return removed;
+        });
+
+        final List<Path> manifestKeys = new ArrayList<>();
+
+        for (final RemoteManifest manifest : expired) {
+            manifestKeys.add(manifest.objectKey);
+        }
+
+        backuper.deleteNodeObjects(manifestKeys);
+    }
+
+    private void delete(final List<Path> objectKeys) throws Exception {
+        runConcurrently(Lists.partition(objectKeys, DELETE_CHUNK_SIZE), backuper::deleteNodeObjects);
+    }
+
+    private <T> void runConcurrently(final List<T> items, final Action<T> action) throws Exception {
+        if (items.isEmpty()) {
+            return;
+        }
+
+        final ListeningExecutorService executorService = new FixedTasksExecutorSupplier().get(Math.min(concurrency, items.size()));
+
+        try {
+            final List<ListenableFuture<Void>> futures = new ArrayList<>();
+
+            for (final T item : items) {
+                futures.add(executorService.submit(() -> {
+                    action.run(item);
+                    return null;
+                }));
+            }
+
+            Futures.allAsList(futures).get();
+        } finally {
+            executorService.shutdownNow();
+            executorService.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Action<T> {
+
+        void run(T item) throws Exception;
+    }
+
+    private static final class RemoteManifest {
+
+        final Path objectKey;
+        final long timestamp;
+        final DatabaseEntities entities;
+
+        /**
+         * @param objectKey key of a manifest relative to a node
+         * @param timestamp time a backup finished at, in milliseconds, from a catalog or modification time of a manifest
+         * @param entities entities a backup was taken of, empty entities for a whole node
+         */
+        RemoteManifest(final Path objectKey, final long timestamp, final DatabaseEntities entities) {
+            this.objectKey = objectKey;
+            this.timestamp = timestamp;
+            this.entities = entities;
+        }
+
+        long getTimestamp() {
+            return timestamp;
+        }
+
+        boolean isOf(final DatabaseEntities requested) {
+            return entities.covers(requested) && requested.covers(entities);
+        }
+    }
+}
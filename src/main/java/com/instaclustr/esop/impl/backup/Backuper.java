@@ -1,6 +1,12 @@
 package com.instaclustr.esop.impl.backup;
 
+import static java.lang.String.format;
+
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
 
 import com.instaclustr.esop.impl.RemoteObjectReference;
 import com.instaclustr.esop.impl.StorageInteractor;
@@ -26,4 +32,74 @@ public abstract class Backuper extends StorageInteractor {
                                     final RemoteObjectReference objectReference) throws Exception;
 
     public abstract void uploadText(final String text, final RemoteObjectReference objectReference) throws Exception;
+
+    /**
+     * @param objectReference reference to a remote object
+     * @return content of a remote object or empty optional if such object does not exist
+     */
+    public abstract Optional<String> downloadText(final RemoteObjectReference objectReference) throws Exception;
+
+    /**
+     * @param objectReference reference to a remote object
+     * @return content of a remote object with its version, or empty optional if such object does not exist,
+     * a version is null if a storage does not support conditional uploads
+     */
+    public Optional<VersionedText> downloadVersionedText(final RemoteObjectReference objectReference) throws Exception {
+        return downloadText(objectReference).map(text -> new VersionedText(text, null));
+    }
+
+    /**
+     * @return true if {@link #uploadTextIfUnchanged(String, RemoteObjectReference, String)} is supported by a storage
+     */
+    public boolean supportsConditionalUpload() {
+        return false;
+    }
+
+    /**
+     * Uploads text only if a remote object was not changed since it was downloaded.
+     *
+     * @param text text to upload
+     * @param objectReference reference to a remote object
+     * @param version version of a remote object returned by {@link #downloadVersionedText(RemoteObjectReference)},
+     *                null if a remote object did not exist
+     * @return false if a remote object was changed, created or deleted in the meanwhile and nothing was uploaded
+     */
+    public boolean uploadTextIfUnchanged(final String text, final RemoteObjectReference objectReference, final String version) throws Exception {
+        throw new UnsupportedOperationException(format("Conditional uploads are not supported by %s", getClass().getSimpleName()));
+    }
+
+    /**
+     * @param objectReference reference to a remote object
+     * @return content of a remote object as it is stored, e.g. a compressed manifest, or empty optional if such object does not exist
+     */
+    public abstract Optional<byte[]> downloadBytes(final RemoteObjectReference objectReference) throws Exception;
+
+    /**
+     * Lists objects of a node.
+     *
+     * @param prefix prefix of object keys to list, relative to a node
+     * @param consumer consumer of an object key relative to a node and of a time an object was last modified at, in milliseconds
+     */
+    public abstract void consumeNodeObjects(final Path prefix, final BiConsumer<Path, Long> consumer) throws Exception;
+
+    /**
+     * Deletes objects of a node in as few requests as a storage allows. Objects which do not exist are skipped.
+     *
+     * @param objectKeys object keys relative to a node
+     */
+    public abstract void deleteNodeObjects(final List<Path> objectKeys) throws Exception;
+
+    public static class VersionedText {
+
+        public final String text;
+        /**
+         * ETag or generation of a remote object, null if a storage does not support conditional uploads.
+         */
+        public final String version;
+
+        public VersionedText(final String text, final String version) {
+            this.text = text;
+            this.version = version;
+        }
+    }
 }
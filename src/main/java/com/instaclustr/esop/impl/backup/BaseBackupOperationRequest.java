@@ -5,6 +5,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 
 import com.amazonaws.services.s3.model.MetadataDirective;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.instaclustr.esop.impl.StorageLocation;
@@ -50,6 +51,12 @@ public class BaseBackupOperationRequest extends AbstractOperationRequest {
         description = "Automatically creates a bucket if it does not exist. If a bucket does not exist, backup operation will fail.")
     public boolean createMissingBucket;
 
+    @Option(names = {"--drop-page-cache"},
+        description = "Drop pages of uploaded files from a page cache once they are read, so a backup does not evict Cassandra's data from it. "
+            + "Relevant for Linux only.")
+    @JsonProperty("dropPageCache")
+    public boolean dropPageCache;
+
     public static class MetadataDirectiveTypeConverter implements CommandLine.ITypeConverter<MetadataDirective> {
 
         @Override
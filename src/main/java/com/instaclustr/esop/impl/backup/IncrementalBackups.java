@@ -0,0 +1,364 @@
+package com.instaclustr.esop.impl.backup;
+
+import static java.lang.String.format;
+import static java.util.Comparator.comparingLong;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+import javax.inject.Provider;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.instaclustr.cassandra.CassandraVersion;
+import com.instaclustr.esop.impl.DatabaseEntities;
+import com.instaclustr.esop.impl.Manifest;
+import com.instaclustr.esop.impl.ManifestCatalog;
+import com.instaclustr.esop.impl.ManifestCatalog.CatalogEntry;
+import com.instaclustr.esop.impl.ManifestEntry;
+import com.instaclustr.esop.impl.ManifestEntry.Type;
+import com.instaclustr.esop.impl.SSTableUtils;
+import com.instaclustr.esop.impl.Snapshots.Snapshot.Keyspace;
+import com.instaclustr.esop.impl.Snapshots.Snapshot.Keyspace.Table;
+import com.instaclustr.esop.impl.backup.Backuper.FreshenResult;
+import com.instaclustr.operations.FunctionWithEx;
+import com.instaclustr.threading.Executors.FixedTasksExecutorSupplier;
+import jmx.org.apache.cassandra.service.CassandraJMXService;
+import jmx.org.apache.cassandra.service.cassandra2.Cassandra2StorageServiceMBean;
+import jmx.org.apache.cassandra.service.cassandra3.StorageServiceMBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Incremental backups of SSTables Cassandra hard-links to {@code backups} directories of tables
+ * when {@code incremental_backups} is enabled.
+ *
+ * An incremental backup does not take a snapshot. Its manifest is the latest manifest of a node of the same schema version
+ * with SSTables from {@code backups} directories added, so it is complete and a restore treats it as any other manifest.
+ * Compacted SSTables are not hard-linked to {@code backups}, SSTables they were compacted from stay in manifests
+ * of incremental backups until the next full backup.
+ */
+public class IncrementalBackups {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalBackups.class);
+
+    public static final String BACKUPS_DIRECTORY = "backups";
+
+    private IncrementalBackups() {
+    }
+
+    /**
+     * @return true if Cassandra hard-links flushed SSTables to {@code backups} directories
+     */
+    public static boolean isEnabled(final CassandraJMXService cassandraJMXService,
+                                    final Provider<CassandraVersion> cassandraVersionProvider) throws Exception {
+        if (cassandraVersionProvider.get().getMajor() == 2) {
+            return cassandraJMXService.doWithCassandra2StorageServiceMBean(new FunctionWithEx<Cassandra2StorageServiceMBean, Boolean>() {
+                @Override
+                public Boolean apply(final Cassandra2StorageServiceMBean object) {
+                    return object.isIncrementalBackupsEnabled();
+                }
+            });
+        }
+
+        return cassandraJMXService.doWithStorageServiceMBean(new FunctionWithEx<StorageServiceMBean, Boolean>() {
+            @Override
+            public Boolean apply(final StorageServiceMBean object) {
+                return object.isIncrementalBackupsEnabled();
+            }
+        });
+    }
+
+    /**
+     * Resolves a manifest to base an incremental backup on. Without {@code incremental_backups} enabled,
+     * {@code backups} directories stay empty and an incremental backup would upload its base again
+     * under a new tag without any new data, so a full backup is taken instead.
+     *
+     * @return the latest manifest of a node of given schema version and entities, empty optional if there is no such manifest
+     * or if {@code incremental_backups} is disabled
+     */
+    public static Optional<Manifest> readBaseManifest(final CassandraJMXService cassandraJMXService,
+                                                      final Provider<CassandraVersion> cassandraVersionProvider,
+                                                      final Backuper backuper,
+                                                      final ObjectMapper objectMapper,
+                                                      final String schemaVersion,
+                                                      final DatabaseEntities entities) throws Exception {
+        if (!isEnabled(cassandraJMXService, cassandraVersionProvider)) {
+            logger.warn("Incremental backups are disabled in Cassandra, set incremental_backups to true in cassandra.yaml "
+                            + "or enable them by nodetool enablebackup. Taking full backup instead of incremental one.");
+            return Optional.empty();
+        }
+
+        return readLatestManifest(backuper, objectMapper, schemaVersion, entities);
+    }
+
+    /**
+     * @param backuper backuper to read a catalog and a manifest with
+     * @param objectMapper mapper to read a catalog and a manifest with
+     * @param schemaVersion schema version a manifest has to be of
+     * @param entities entities an incremental backup is taken of, a manifest has to be of all of them, otherwise
+     *                 SSTables of the others would not be in it and they would be cleared from {@code backups} directories
+     * @return the latest manifest of a node of given schema version and entities, empty optional if there is no such manifest
+     */
+    public static Optional<Manifest> readLatestManifest(final Backuper backuper,
+                                                        final ObjectMapper objectMapper,
+                                                        final String schemaVersion,
+                                                        final DatabaseEntities entities) {
+        final DatabaseEntities requested = entities == null ? DatabaseEntities.empty() : entities;
+        final Optional<CatalogEntry> latest;
+
+        try {
+            latest = ManifestCatalog.read(backuper, objectMapper)
+                .flatMap(catalog -> catalog.getEntries().stream()
+                    .filter(entry -> schemaVersion.equals(entry.schemaVersion))
+                    .filter(entry -> entry.entities != null && entry.entities.covers(requested))
+                    .max(comparingLong(entry -> entry.timestamp)));
+        } catch (final Exception ex) {
+            logger.warn("Unable to read manifest catalog: {}", ex.getMessage());
+            return Optional.empty();
+        }
+
+        if (!latest.isPresent()) {
+            return Optional.empty();
+        }
+
+        try {
+            final Optional<byte[]> manifest = backuper.downloadBytes(backuper.objectKeyToNodeAwareRemoteReference(Paths.get(latest.get().key)));
+
+            if (!manifest.isPresent()) {
+                logger.warn("Manifest {} from manifest catalog does not exist", latest.get().key);
+                return Optional.empty();
+            }
+
+            return Optional.of(Manifest.read(new ByteArrayInputStream(manifest.get()), objectMapper));
+        } catch (final Exception ex) {
+            logger.warn(format("Unable to read manifest %s", latest.get().key), ex);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Freshens objects of a manifest an incremental backup is based on. An incremental backup uploads only new SSTables,
+     * objects it shares with its base are not uploaded again, so their modification time is updated as a full backup does
+     * for objects it skips. Retention then does not delete them within its grace period even if it deletes the base.
+     *
+     * @param backuper backuper to freshen objects with
+     * @param manifest manifest an incremental backup is based on
+     * @param concurrency number of objects freshened concurrently
+     * @return true if all objects were freshened, false if any of them does not exist anymore
+     */
+    public static boolean freshen(final Backuper backuper, final Manifest manifest, final int concurrency) throws Exception {
+        final List<ManifestEntry> entries = manifest.getManifestEntries(true, false).stream()
+            .filter(entry -> entry.type != Type.MANIFEST_FILE)
+            .collect(toList());
+
+        if (entries.isEmpty()) {
+            return true;
+        }
+
+        final ListeningExecutorService executorService = new FixedTasksExecutorSupplier().get(Math.max(1, Math.min(concurrency, entries.size())));
+
+        try {
+            final List<ListenableFuture<FreshenResult>> futures = new ArrayList<>();
+
+            for (final ManifestEntry entry : entries) {
+                futures.add(executorService.submit(() -> backuper.freshenRemoteObject(backuper.objectKeyToNodeAwareRemoteReference(entry.objectKey))));
+            }
+
+            final List<FreshenResult> results = Futures.allAsList(futures).get();
+
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i) != FreshenResult.FRESHENED) {
+                    logger.warn("Object {} of manifest to base incremental backup on does not exist", entries.get(i).objectKey);
+                    return false;
+                }
+            }
+
+            return true;
+        } finally {
+            executorService.shutdownNow();
+            executorService.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Flushes tables of a manifest so SSTables of their memtables are in {@code backups} directories.
+     */
+    public static void flush(final CassandraJMXService cassandraJMXService,
+                             final Provider<CassandraVersion> cassandraVersionProvider,
+                             final Manifest manifest,
+                             final DatabaseEntities entities) throws Exception {
+        final Map<String, String[]> tablesToFlush = new HashMap<>();
+
+        for (final Map.Entry<String, Keyspace> keyspace : manifest.getSnapshot().getKeyspaces().entrySet()) {
+            final String[] tables = keyspace.getValue().getTables().keySet().stream()
+                .filter(table -> entities.contains(keyspace.getKey(), table))
+                .toArray(String[]::new);
+
+            if (tables.length != 0) {
+                tablesToFlush.put(keyspace.getKey(), tables);
+            }
+        }
+
+        if (cassandraVersionProvider.get().getMajor() == 2) {
+            cassandraJMXService.doWithCassandra2StorageServiceMBean(new FunctionWithEx<Cassandra2StorageServiceMBean, Void>() {
+                @Override
+                public Void apply(final Cassandra2StorageServiceMBean object) throws Exception {
+                    for (final Map.Entry<String, String[]> entry : tablesToFlush.entrySet()) {
+                        object.forceKeyspaceFlush(entry.getKey(), entry.getValue());
+                    }
+                    return null;
+                }
+            });
+        } else {
+            cassandraJMXService.doWithStorageServiceMBean(new FunctionWithEx<StorageServiceMBean, Void>() {
+                @Override
+                public Void apply(final StorageServiceMBean object) throws Exception {
+                    for (final Map.Entry<String, String[]> entry : tablesToFlush.entrySet()) {
+                        object.forceKeyspaceFlush(entry.getKey(), entry.getValue());
+                    }
+                    return null;
+                }
+            });
+        }
+    }
+
+    /**
+     * Adds SSTables in {@code backups} directories of tables of a manifest to it. SSTables of tables which are not
+     * in a manifest are not added, such tables are backed up by the next full backup.
+     *
+     * @param manifest manifest to add SSTables to
+     * @param dataDirectory data directory of a node
+     * @param entities entities to add SSTables of, SSTables of all tables are added if empty
+     * @return entries of complete SSTables in {@code backups} directories, including SSTables a manifest contains already
+     */
+    public static List<ManifestEntry> addBackedUpSSTables(final Manifest manifest, final Path dataDirectory, final DatabaseEntities entities) throws IOException {
+        final List<ManifestEntry> backedUp = new ArrayList<>();
+
+        for (final Map.Entry<String, Keyspace> keyspace : manifest.getSnapshot().getKeyspaces().entrySet()) {
+            for (final Map.Entry<String, Table> table : keyspace.getValue().getTables().entrySet()) {
+                if (!entities.contains(keyspace.getKey(), table.getKey())) {
+                    continue;
+                }
+
+                final String tableDirectory = table.getKey() + "-" + table.getValue().getId();
+                final Path backupsDirectory = dataDirectory.resolve(keyspace.getKey()).resolve(tableDirectory).resolve(BACKUPS_DIRECTORY);
+
+                if (!Files.isDirectory(backupsDirectory)) {
+                    continue;
+                }
+
+                final Set<Path> objectKeys = table.getValue().getEntries().stream().map(entry -> entry.objectKey).collect(toSet());
+                final Map<Path, Boolean> completeSSTables = new HashMap<>();
+
+                final List<ManifestEntry> entries;
+
+                try (final Stream<ManifestEntry> manifestEntries = SSTableUtils.ssTableManifest(backupsDirectory, Paths.get("data").resolve(Paths.get(keyspace.getKey(), tableDirectory)))) {
+                    entries = manifestEntries
+                        .filter(entry -> completeSSTables.computeIfAbsent(toc(entry.getLocalFile()), IncrementalBackups::isComplete))
+                        .collect(toList());
+                }
+
+                for (final ManifestEntry entry : entries) {
+                    if (objectKeys.add(entry.objectKey)) {
+                        table.getValue().add(entry);
+                    }
+                    backedUp.add(entry);
+                }
+            }
+        }
+
+        return backedUp;
+    }
+
+    /**
+     * Lists files in {@code backups} directories of tables. A full backup taken instead of an incremental one
+     * contains them, so they are cleared after it as well.
+     *
+     * @param dataDirectory data directory of a node
+     * @param entities entities to list files of, files of all tables are listed if empty
+     * @return files in {@code backups} directories
+     */
+    public static List<Path> listBackedUpFiles(final Path dataDirectory, final DatabaseEntities entities) throws IOException {
+        final List<Path> files = new ArrayList<>();
+
+        final List<Path> backupsDirectories;
+
+        try (final Stream<Path> found = Files.find(dataDirectory, 3, (path, attributes) -> attributes.isDirectory()
+            && path.getFileName().toString().equals(BACKUPS_DIRECTORY)
+            && dataDirectory.relativize(path).getNameCount() == 3)) {
+            backupsDirectories = found.collect(toList());
+        }
+
+        for (final Path backupsDirectory : backupsDirectories) {
+            final String keyspace = backupsDirectory.getParent().getParent().getFileName().toString();
+            final Matcher table = Table.TABLE_PATTERN.matcher(backupsDirectory.getParent().getFileName().toString());
+
+            if (!table.matches() || !entities.contains(keyspace, table.group(1))) {
+                continue;
+            }
+
+            try (final Stream<Path> backedUp = Files.list(backupsDirectory)) {
+                backedUp.filter(Files::isRegularFile).forEach(files::add);
+            }
+        }
+
+        return files;
+    }
+
+    /**
+     * Deletes uploaded files from {@code backups} directories, Cassandra does not read these directories.
+     */
+    public static void clear(final List<Path> files) {
+        for (final Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (final Exception ex) {
+                logger.warn("Unable to delete {} from backups directory: {}", file, ex.getMessage());
+            }
+        }
+    }
+
+    private static Path toc(final Path component) {
+        final String fileName = component.getFileName().toString();
+        return component.resolveSibling(fileName.substring(0, fileName.lastIndexOf('-')) + "-TOC.txt");
+    }
+
+    // components of an SSTable are hard-linked one by one, an SSTable is complete when all components in its TOC are present
+    private static boolean isComplete(final Path toc) {
+        if (!Files.exists(toc)) {
+            return false;
+        }
+
+        final String tocFileName = toc.getFileName().toString();
+        final String sstable = tocFileName.substring(0, tocFileName.length() - "TOC.txt".length());
+
+        try {
+            for (final String component : Files.readAllLines(toc)) {
+                if (!component.trim().isEmpty() && !Files.exists(toc.resolveSibling(sstable + component.trim()))) {
+                    return false;
+                }
+            }
+
+            return true;
+        } catch (final IOException ex) {
+            logger.warn("Unable to read {}, its SSTable will be backed up later: {}", toc, ex.getMessage());
+            return false;
+        }
+    }
+}
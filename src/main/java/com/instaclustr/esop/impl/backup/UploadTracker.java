@@ -6,6 +6,7 @@ import static java.util.function.Function.identity;
 
 import java.io.BufferedInputStream;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collection;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -16,8 +17,10 @@ import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.RateLimiter;
 import com.google.inject.Inject;
 import com.instaclustr.esop.impl.AbstractTracker;
+import com.instaclustr.esop.impl.LoadGovernor;
 import com.instaclustr.esop.impl.RemoteObjectReference;
 import com.instaclustr.esop.impl.ManifestEntry;
+import com.instaclustr.esop.impl.PageCache.DropBehindInputStream;
 import com.instaclustr.esop.impl.backup.BackupModules.UploadingFinisher;
 import com.instaclustr.esop.impl.backup.UploadTracker.UploadSession;
 import com.instaclustr.esop.impl.backup.UploadTracker.UploadUnit;
@@ -32,6 +35,9 @@ import org.slf4j.LoggerFactory;
 
 public class UploadTracker extends AbstractTracker<UploadUnit, UploadSession, Backuper, BaseBackupOperationRequest> {
 
+    // governor of a session being submitted, rate limiters of its units are registered to it
+    private LoadGovernor governor;
+
     @Inject
     public UploadTracker(final @UploadingFinisher ListeningExecutorService finisherExecutorService,
                          final OperationsService operationsService) {
@@ -43,7 +49,7 @@ public class UploadTracker extends AbstractTracker<UploadUnit, UploadSession, Ba
                                             final ManifestEntry manifestEntry,
                                             final AtomicBoolean shouldCancel,
                                             final String snapshotTag) {
-        return new UploadUnit(backuper, manifestEntry, shouldCancel, snapshotTag);
+        return new UploadUnit(backuper, manifestEntry, shouldCancel, snapshotTag, governor);
     }
 
     @Override
@@ -52,18 +58,26 @@ public class UploadTracker extends AbstractTracker<UploadUnit, UploadSession, Ba
     }
 
     @Override
-    public Session<UploadUnit> submit(final Backuper backuper,
-                                      final Operation<? extends BaseBackupOperationRequest> operation,
-                                      final Collection<ManifestEntry> entries,
-                                      final String snapshotTag,
-                                      final int concurrentConnections) {
+    public synchronized Session<UploadUnit> submit(final Backuper backuper,
+                                                   final Operation<? extends BaseBackupOperationRequest> operation,
+                                                   final Collection<ManifestEntry> entries,
+                                                   final String snapshotTag,
+                                                   final int concurrentConnections,
+                                                   final LoadGovernor governor) {
         final long filesSizeSum = getFilesSizeSum(entries);
         computeBPS(backuper.request, filesSizeSum, concurrentConnections);
-        return super.submit(backuper,
-                            operation,
-                            entries,
-                            snapshotTag,
-                            concurrentConnections);
+
+        try {
+            this.governor = governor;
+            return super.submit(backuper,
+                                operation,
+                                entries,
+                                snapshotTag,
+                                concurrentConnections,
+                                governor);
+        } finally {
+            this.governor = null;
+        }
     }
 
     public static class UploadSession extends AbstractTracker.Session<UploadUnit> {
@@ -80,13 +94,21 @@ public class UploadTracker extends AbstractTracker<UploadUnit, UploadSession, Ba
         @JsonIgnore
         private String snapshotTag;
 
+        @JsonIgnore
+        private final LoadGovernor governor;
+
+        @JsonIgnore
+        private RateLimiter rateLimiter;
+
         public UploadUnit(final Backuper backuper,
                           final ManifestEntry manifestEntry,
                           final AtomicBoolean shouldCancel,
-                          final String snapshotTag) {
+                          final String snapshotTag,
+                          final LoadGovernor governor) {
             super(manifestEntry, shouldCancel);
             this.backuper = backuper;
             this.snapshotTag = snapshotTag;
+            this.governor = governor;
         }
 
         @Override
@@ -94,7 +116,7 @@ public class UploadTracker extends AbstractTracker<UploadUnit, UploadSession, Ba
 
             state = State.RUNNING;
 
-            try (final InputStream fileStream = new BufferedInputStream(new FileInputStream(manifestEntry.localFile.toFile()))) {
+            try (final InputStream fileStream = new BufferedInputStream(openFile(backuper.request))) {
 
                 final RemoteObjectReference remoteObjectReference = backuper.objectKeyToNodeAwareRemoteReference(manifestEntry.objectKey);
 
@@ -127,14 +149,31 @@ public class UploadTracker extends AbstractTracker<UploadUnit, UploadSession, Ba
                 logger.error(format("Failed to upload file '%s", manifestEntry.objectKey), t);
                 shouldCancel.set(true);
                 this.throwable = t;
+            } finally {
+                if (governor != null && rateLimiter != null) {
+                    governor.unregister(rateLimiter);
+                }
             }
 
             return null;
         }
 
+        private InputStream openFile(final BaseBackupOperationRequest request) throws IOException {
+            if (request.dropPageCache) {
+                return new DropBehindInputStream(manifestEntry.getLocalFile());
+            }
+
+            return new FileInputStream(manifestEntry.getLocalFile().toFile());
+        }
+
         private Function<InputStream, InputStream> getUploadingInputStreamFunction(final BaseBackupOperationRequest request) {
             return request.bandwidth == null ? identity() : inputStream -> {
-                final RateLimiter rateLimiter = RateLimiter.create(request.bandwidth.asBytesPerSecond().value);
+                rateLimiter = RateLimiter.create(request.bandwidth.asBytesPerSecond().value);
+
+                if (governor != null) {
+                    governor.register(rateLimiter, rateLimiter.getRate());
+                }
+
                 return new RateLimitedInputStream(inputStream, rateLimiter, shouldCancel);
             };
         }
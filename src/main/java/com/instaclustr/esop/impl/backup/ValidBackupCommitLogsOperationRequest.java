@@ -44,6 +44,28 @@ public @interface ValidBackupCommitLogsOperationRequest {
                 return false;
             }
 
+            if (value.watch && (value.commitLogArchiveOverride == null || !Files.isDirectory(value.commitLogArchiveOverride))) {
+                context.buildConstraintViolationWithTemplate("commitLogArchiveOverride has to be an existing directory in order to watch it").addConstraintViolation();
+                return false;
+            }
+
+            if (value.segmentSize < 0) {
+                context.buildConstraintViolationWithTemplate(String.format("segmentSize has to be 0 or positive, it is %s", value.segmentSize)).addConstraintViolation();
+                return false;
+            }
+
+            if (value.cdcRawDirectory != null) {
+                if (value.watch) {
+                    context.buildConstraintViolationWithTemplate("cdcRawDirectory and commitLogArchiveOverride can not be watched at once").addConstraintViolation();
+                    return false;
+                }
+
+                if (!Files.isDirectory(value.cdcRawDirectory)) {
+                    context.buildConstraintViolationWithTemplate(String.format("cdcRawDirectory %s has to be an existing directory", value.cdcRawDirectory)).addConstraintViolation();
+                    return false;
+                }
+            }
+
             if (KubernetesHelper.isRunningInKubernetes() && value.resolveKubernetesSecretName() == null) {
                 context.buildConstraintViolationWithTemplate("This code is running in Kubernetes but there is not 'k8sSecretName' field set on backup request!").addConstraintViolation();
                 return false;
@@ -68,6 +68,16 @@ public @interface ValidBackupOperationRequest {
                 value.entities = DatabaseEntities.empty();
             }
 
+            if (value.retain != null && value.retain < 1) {
+                context.buildConstraintViolationWithTemplate(format("retain has to be at least 1, it is %s", value.retain)).addConstraintViolation();
+                return false;
+            }
+
+            if (value.retainGrace < 0) {
+                context.buildConstraintViolationWithTemplate(format("retainGrace can not be negative, it is %s", value.retainGrace)).addConstraintViolation();
+                return false;
+            }
+
             if (value.proxySettings != null) {
 
             }
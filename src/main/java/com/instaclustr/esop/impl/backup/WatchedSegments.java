@@ -0,0 +1,266 @@
+package com.instaclustr.esop.impl.backup;
+
+import static com.instaclustr.esop.impl.ManifestEntry.Type.FILE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.instaclustr.esop.impl.CommitLogLayout;
+import com.instaclustr.esop.impl.ManifestEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Directory with segments which are uploaded as soon as they are completed.
+ */
+public abstract class WatchedSegments {
+
+    private static final Logger logger = LoggerFactory.getLogger(WatchedSegments.class);
+
+    static final Pattern COMMIT_LOG_PATTERN = Pattern.compile("CommitLog-\\d+-\\d+\\.log");
+
+    public final String name;
+    public final Path directory;
+
+    WatchedSegments(final String name, final Path directory) {
+        this.name = name;
+        this.directory = directory;
+    }
+
+    /**
+     * @param file created or modified file in a directory
+     * @return segment a file belongs to or null if it does not belong to any segment
+     */
+    public abstract Path segmentOf(Path file);
+
+    /**
+     * @param segment pending segment
+     * @param pending state of a pending segment, it may be updated by this method
+     * @param nowNanos current time
+     * @return true if a segment is completed and it might be uploaded
+     */
+    public abstract boolean isCompleted(Path segment, PendingSegment pending, long nowNanos);
+
+    public abstract ManifestEntry toManifestEntry(Path segment) throws IOException;
+
+    /**
+     * Called after a segment was uploaded successfully.
+     */
+    public abstract void uploaded(Path segment) throws IOException;
+
+    /**
+     * Segment which is not uploaded yet.
+     */
+    public static final class PendingSegment {
+
+        // a segment failed to be uploaded is retried after this time, doubled upon each failure up to the maximum
+        private static final long RETRY_INITIAL_MILLIS = 1000;
+        private static final long RETRY_MAX_MILLIS = 300_000;
+
+        // time a segment or a file of it was changed at for the last time
+        long changedNanos = System.nanoTime();
+
+        // size of a segment when it was checked for the last time, -1 if it was not checked yet
+        long size = -1;
+
+        boolean sizeMismatchLogged;
+
+        // number of failed uploads in a row and time of the next attempt
+        int failures;
+        long retryNanos;
+
+        public PendingSegment() {
+        }
+
+        /**
+         * @param changedNanos time a segment was changed at for the last time
+         */
+        public PendingSegment(final long changedNanos) {
+            this.changedNanos = changedNanos;
+        }
+
+        public boolean isDue(final long nowNanos) {
+            return failures == 0 || nowNanos - retryNanos >= 0;
+        }
+
+        /**
+         * @return time to the next attempt in milliseconds
+         */
+        public long failed(final long nowNanos) {
+            failures++;
+
+            final long retryMillis = Math.min(RETRY_MAX_MILLIS, RETRY_INITIAL_MILLIS << Math.min(failures - 1, 16));
+            retryNanos = nowNanos + MILLISECONDS.toNanos(retryMillis);
+
+            return retryMillis;
+        }
+    }
+
+    /**
+     * Commit logs archived by Cassandra's archive_command. Only files named as commit logs are watched, so archive_command
+     * is expected to hand a commit log over atomically, by a hard link or by a rename of a copy written under another name.
+     * As a safeguard against a copy written in place, a commit log is considered to be archived once it was not modified for a while,
+     * its size did not change between two checks and it is equal to the size of a segment, if it is known.
+     */
+    public static class ArchivedCommitLogSegments extends WatchedSegments {
+
+        private static final String UPLOADED_SUFFIX = ".uploaded";
+
+        // a commit log which was not modified for this time and of which size did not change is considered to be archived completely
+        private static final long ARCHIVED_AFTER_MILLIS = 1000;
+
+        private final long segmentSize;
+        private final boolean deleteUploaded;
+
+        /**
+         * @param directory directory commit logs are archived to
+         * @param segmentSize size of a commit log segment in bytes, 0 if it is not known
+         * @param deleteUploaded true if uploaded commit logs are deleted, they are renamed otherwise
+         */
+        public ArchivedCommitLogSegments(final Path directory, final long segmentSize, final boolean deleteUploaded) {
+            super("commitlog archive", directory);
+            this.segmentSize = segmentSize;
+            this.deleteUploaded = deleteUploaded;
+        }
+
+        /**
+         * @param commitLog commit log to upload
+         * @return entry of a commit log with its modification time in its object key
+         */
+        public static ManifestEntry commitLogEntry(final Path commitLog) throws IOException {
+            // Append file modified date so we have some idea of the time range this commitlog covers
+
+            // millisecond precision, on *nix, it trims milliseconds and returns "000" instead
+            // when using File.lastModified
+            long commitLogLastModified = Files.getLastModifiedTime(commitLog.toFile().toPath()).toMillis();
+
+            final Path bucketKey = CommitLogLayout.objectKey(commitLog.getFileName().toString(), commitLogLastModified);
+
+            return new ManifestEntry(bucketKey, commitLog, FILE);
+        }
+
+        @Override
+        public Path segmentOf(final Path file) {
+            return COMMIT_LOG_PATTERN.matcher(file.getFileName().toString()).matches() ? file : null;
+        }
+
+        @Override
+        public boolean isCompleted(final Path segment, final PendingSegment pending, final long nowNanos) {
+            if (nowNanos - pending.changedNanos < MILLISECONDS.toNanos(ARCHIVED_AFTER_MILLIS)) {
+                return false;
+            }
+
+            final long size;
+
+            try {
+                size = Files.size(segment);
+            } catch (final NoSuchFileException ex) {
+                // deleted in the meanwhile, it is skipped upon upload
+                return true;
+            } catch (final IOException ex) {
+                return false;
+            }
+
+            if (size != pending.size) {
+                pending.size = size;
+                pending.changedNanos = nowNanos;
+                return false;
+            }
+
+            if (segmentSize != 0 && size != segmentSize) {
+                if (!pending.sizeMismatchLogged) {
+                    logger.warn("Commit log {} has {} bytes instead of {}, it is not uploaded until it is archived completely. "
+                                    + "Set --cl-segment-size to 0 if commit logs are compressed or encrypted.", segment, size, segmentSize);
+                    pending.sizeMismatchLogged = true;
+                }
+
+                return false;
+            }
+
+            return true;
+        }
+
+        @Override
+        public ManifestEntry toManifestEntry(final Path segment) throws IOException {
+            return commitLogEntry(segment);
+        }
+
+        @Override
+        public void uploaded(final Path segment) throws IOException {
+            if (deleteUploaded) {
+                Files.deleteIfExists(segment);
+            } else {
+                Files.move(segment, segment.resolveSibling(segment.getFileName().toString() + UPLOADED_SUFFIX), REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /**
+     * Segments in cdc_raw directory. Cassandra marks a segment as completed by COMPLETED line in its _cdc.idx file.
+     * Segments are deleted with their index files once they are uploaded, so they do not count towards cdc_total_space.
+     */
+    public static class CdcSegments extends WatchedSegments {
+
+        private static final String CDC_INDEX_SUFFIX = "_cdc.idx";
+        private static final Pattern CDC_INDEX_PATTERN = Pattern.compile("(CommitLog-\\d+-\\d+)_cdc\\.idx");
+        private static final String CDC_COMPLETED = "COMPLETED";
+
+        public CdcSegments(final Path directory) {
+            super("cdc_raw", directory);
+        }
+
+        @Override
+        public Path segmentOf(final Path file) {
+            final String fileName = file.getFileName().toString();
+
+            if (COMMIT_LOG_PATTERN.matcher(fileName).matches()) {
+                return file;
+            }
+
+            final Matcher matcher = CDC_INDEX_PATTERN.matcher(fileName);
+
+            return matcher.matches() ? file.resolveSibling(matcher.group(1) + ".log") : null;
+        }
+
+        @Override
+        public boolean isCompleted(final Path segment, final PendingSegment pending, final long nowNanos) {
+            final Path index = indexOf(segment);
+
+            if (!Files.isRegularFile(segment) || !Files.isRegularFile(index)) {
+                return false;
+            }
+
+            try {
+                return Files.readAllLines(index, UTF_8).stream().anyMatch(line -> line.trim().equals(CDC_COMPLETED));
+            } catch (final IOException ex) {
+                // being rewritten by Cassandra, checked again upon next poll
+                return false;
+            }
+        }
+
+        @Override
+        public ManifestEntry toManifestEntry(final Path segment) throws IOException {
+            final long lastModified = Files.getLastModifiedTime(segment).toMillis();
+
+            return new ManifestEntry(CommitLogLayout.cdcObjectKey(segment.getFileName().toString(), lastModified), segment, FILE);
+        }
+
+        @Override
+        public void uploaded(final Path segment) throws IOException {
+            Files.deleteIfExists(segment);
+            Files.deleteIfExists(indexOf(segment));
+        }
+
+        private Path indexOf(final Path segment) {
+            final String fileName = segment.getFileName().toString();
+            return segment.resolveSibling(fileName.substring(0, fileName.length() - ".log".length()) + CDC_INDEX_SUFFIX);
+        }
+    }
+}
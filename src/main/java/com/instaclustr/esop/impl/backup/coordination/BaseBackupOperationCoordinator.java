@@ -3,9 +3,11 @@ package com.instaclustr.esop.impl.backup.coordination;
 import static com.instaclustr.esop.impl.Manifest.getLocalManifestPath;
 import static com.instaclustr.esop.impl.Manifest.getManifestAsManifestEntry;
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.HOURS;
 
 import javax.inject.Provider;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -17,17 +19,22 @@ import com.instaclustr.esop.guice.BucketServiceFactory;
 import com.instaclustr.esop.impl.AbstractTracker.Session;
 import com.instaclustr.esop.impl.BucketService;
 import com.instaclustr.esop.impl.KeyspaceTable;
+import com.instaclustr.esop.impl.LoadGovernor;
 import com.instaclustr.esop.impl.Manifest;
+import com.instaclustr.esop.impl.ManifestCatalog;
 import com.instaclustr.esop.impl.ManifestEntry;
 import com.instaclustr.esop.impl.Snapshots;
 import com.instaclustr.esop.impl.Snapshots.Snapshot;
 import com.instaclustr.esop.impl.backup.BackupOperationRequest;
 import com.instaclustr.esop.impl.backup.BackupPhaseResultGatherer;
+import com.instaclustr.esop.impl.backup.BackupRetention;
 import com.instaclustr.esop.impl.backup.Backuper;
+import com.instaclustr.esop.impl.backup.IncrementalBackups;
 import com.instaclustr.esop.impl.backup.UploadTracker;
 import com.instaclustr.esop.impl.backup.UploadTracker.UploadUnit;
 import com.instaclustr.esop.impl.backup.coordination.ClearSnapshotOperation.ClearSnapshotOperationRequest;
 import com.instaclustr.esop.impl.backup.coordination.TakeSnapshotOperation.TakeSnapshotOperationRequest;
+import com.instaclustr.esop.impl.interaction.CassandraPartitioner;
 import com.instaclustr.esop.impl.interaction.CassandraTokens;
 import com.instaclustr.esop.topology.CassandraClusterTopology;
 import com.instaclustr.esop.topology.CassandraClusterTopology.ClusterTopology;
@@ -78,6 +85,8 @@ public class BaseBackupOperationCoordinator extends OperationCoordinator<BackupO
 
         Throwable cause = null;
 
+        boolean snapshotTaken = false;
+
         try {
             assert cassandraJMXService != null;
             assert backuperFactoryMap != null;
@@ -101,59 +110,132 @@ public class BaseBackupOperationCoordinator extends OperationCoordinator<BackupO
 
             logger.info("Tokens {}", tokens);
 
-            logger.info("Taking snapshot with name {}", request.snapshotTag);
+            try (final Backuper backuper = backuperFactoryMap.get(request.storageLocation.storageProvider).createBackuper(request)) {
 
-            new TakeSnapshotOperation(cassandraJMXService,
-                                      new TakeSnapshotOperationRequest(request.entities, request.snapshotTag),
-                                      cassandraVersionProvider).run0();
+                Optional<Manifest> latestManifest = request.incremental
+                    ? IncrementalBackups.readBaseManifest(cassandraJMXService, cassandraVersionProvider, backuper, objectMapper, request.schemaVersion, request.entities)
+                    : Optional.empty();
 
-            final Snapshots snapshots = Snapshots.parse(request.cassandraDirectory.resolve("data"));
+                // objects an incremental backup refers to but does not upload are freshened, so retention does not delete them
+                if (latestManifest.isPresent() && !IncrementalBackups.freshen(backuper, latestManifest.get(), request.concurrentConnections)) {
+                    latestManifest = Optional.empty();
+                }
 
-            final Optional<Snapshot> snapshot = snapshots.get(request.snapshotTag);
+                if (request.incremental && !latestManifest.isPresent()) {
+                    logger.info("There is not any complete backup of schema version {} covering {} to base incremental backup on, taking full backup.", request.schemaVersion, request.entities);
+                }
 
-            if (!snapshot.isPresent()) {
-                throw new IllegalStateException(format("There is not any snapshot of tag %s", request.snapshotTag));
-            }
+                final Manifest manifest;
+                final List<ManifestEntry> incrementalEntries = new ArrayList<>();
+                final List<Path> backedUpFiles = new ArrayList<>();
 
-            final Manifest manifest = Manifest.from(snapshot.get());
+                if (latestManifest.isPresent()) {
+                    manifest = latestManifest.get();
+                    manifest.getSnapshot().setName(request.snapshotTag);
 
-            manifest.setSchemaVersion(request.schemaVersion);
-            manifest.setTokens(tokens);
+                    IncrementalBackups.flush(cassandraJMXService, cassandraVersionProvider, manifest, request.entities);
+                    incrementalEntries.addAll(IncrementalBackups.addBackedUpSSTables(manifest, request.cassandraDirectory.resolve("data"), request.entities));
 
-            // manifest
-            final Path localManifestPath = getLocalManifestPath(request.cassandraDirectory, request.snapshotTag);
-            Manifest.write(manifest, localManifestPath, objectMapper);
-            manifest.setManifest(getManifestAsManifestEntry(localManifestPath));
+                    incrementalEntries.forEach(entry -> backedUpFiles.add(entry.getLocalFile()));
 
-            try (final Backuper backuper = backuperFactoryMap.get(request.storageLocation.storageProvider).createBackuper(request)) {
+                    logger.info("Taking incremental backup {} of {} SSTable components from backups directories", request.snapshotTag, incrementalEntries.size());
+                } else {
+                    if (request.incremental) {
+                        // listed before a snapshot is taken, a snapshot contains them then
+                        backedUpFiles.addAll(IncrementalBackups.listBackedUpFiles(request.cassandraDirectory.resolve("data"), request.entities));
+                    }
 
-                final List<ManifestEntry> manifestEntries = manifest.getManifestEntries();
+                    logger.info("Taking snapshot with name {}", request.snapshotTag);
 
-                Session<UploadUnit> uploadSession = null;
+                    snapshotTaken = true;
 
-                try {
-                    uploadSession = uploadTracker.submit(backuper, operation, manifestEntries, request.snapshotTag, operation.request.concurrentConnections);
+                    new TakeSnapshotOperation(cassandraJMXService,
+                                              new TakeSnapshotOperationRequest(request.entities, request.snapshotTag),
+                                              cassandraVersionProvider).run0();
 
-                    uploadSession.waitUntilConsideredFinished();
-                    uploadTracker.cancelIfNecessary(uploadSession);
-                } finally {
-                    uploadTracker.removeSession(uploadSession);
-                    uploadSession = null;
+                    final Snapshots snapshots = Snapshots.parse(request.cassandraDirectory.resolve("data"));
+
+                    final Optional<Snapshot> snapshot = snapshots.get(request.snapshotTag);
+
+                    if (!snapshot.isPresent()) {
+                        throw new IllegalStateException(format("There is not any snapshot of tag %s", request.snapshotTag));
+                    }
+
+                    manifest = Manifest.from(snapshot.get());
                 }
 
-                if (operation.request.uploadClusterTopology) {
-                    final ClusterTopology topology = new CassandraClusterTopology(cassandraJMXService, operation.request.dc).act();
-                    ClusterTopology.upload(backuper, topology, objectMapper, operation.request.snapshotTag);
+                manifest.setSchemaVersion(request.schemaVersion);
+                manifest.setTokens(tokens);
+                manifest.setPartitioner(new CassandraPartitioner(cassandraJMXService).act());
+
+                // manifest
+                final Path localManifestPath = getLocalManifestPath(request.cassandraDirectory, request.snapshotTag, request.compressManifest);
+                Manifest.write(manifest, localManifestPath, objectMapper);
+                manifest.setManifest(getManifestAsManifestEntry(localManifestPath));
+
+                try {
+                    final List<ManifestEntry> manifestEntries;
+
+                    // entries of a manifest an incremental backup is based on are uploaded and freshened already
+                    if (latestManifest.isPresent()) {
+                        manifestEntries = new ArrayList<>(incrementalEntries);
+                        manifestEntries.add(manifest.getManifest());
+                    } else {
+                        manifestEntries = manifest.getManifestEntries();
+                    }
+
+                    Session<UploadUnit> uploadSession = null;
+                    boolean uploaded = false;
+
+                    try (final LoadGovernor governor = LoadGovernor.create(cassandraJMXService, request.governorSettings, request.concurrentConnections)) {
+                        uploadSession = uploadTracker.submit(backuper, operation, manifestEntries, request.snapshotTag, operation.request.concurrentConnections, governor);
+
+                        uploadSession.waitUntilConsideredFinished();
+                        uploadTracker.cancelIfNecessary(uploadSession);
+                        uploaded = uploadSession.isSuccessful();
+                    } finally {
+                        uploadTracker.removeSession(uploadSession);
+                        uploadSession = null;
+                    }
+
+                    if (operation.request.uploadClusterTopology) {
+                        final ClusterTopology topology = new CassandraClusterTopology(cassandraJMXService, operation.request.dc).act();
+                        ClusterTopology.upload(backuper, topology, objectMapper, operation.request.snapshotTag);
+                    }
+
+                    // catalog is only an optimisation for restores, they fall back to listing of manifests without it
+                    if (uploaded) {
+                        try {
+                            ManifestCatalog.update(backuper, objectMapper, request.snapshotTag, request.schemaVersion, request.entities, manifest.getManifest());
+
+                            // the next incremental backup is based on a manifest from the catalog, files are kept
+                            // in backups directories until such manifest contains them
+                            IncrementalBackups.clear(backedUpFiles);
+                        } catch (final Exception ex) {
+                            logger.warn("Unable to update manifest catalog, it is left as it is: {}", ex.getMessage());
+                        }
+                    }
+
+                    // a backup is successful even if retention fails, it is applied again after the next backup
+                    if (uploaded && request.retain != null) {
+                        try {
+                            new BackupRetention(backuper, objectMapper, request.concurrentConnections).apply(request.retain, HOURS.toMillis(request.retainGrace), request.entities);
+                        } catch (final Exception ex) {
+                            logger.error(format("Unable to retain only %s latest backups", request.retain), ex);
+                        }
+                    }
+                } finally {
+                    manifest.cleanup();
                 }
-            } finally {
-                manifest.cleanup();
             }
         } catch (final Exception ex) {
             logger.error("Unable to perform backup! - " + ex.getMessage(), ex);
             cause = ex;
         } finally {
             try {
-                new ClearSnapshotOperation(cassandraJMXService, new ClearSnapshotOperationRequest(request.snapshotTag)).run0();
+                if (snapshotTaken) {
+                    new ClearSnapshotOperation(cassandraJMXService, new ClearSnapshotOperationRequest(request.snapshotTag)).run0();
+                }
             } catch (final Exception ex) {
                 logger.error(format("Unable to clear snapshot '%s' after backup!", request.snapshotTag), ex);
                 if (cause == null) {
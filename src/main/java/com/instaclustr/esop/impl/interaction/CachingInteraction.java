@@ -0,0 +1,116 @@
+package com.instaclustr.esop.impl.interaction;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.instaclustr.cassandra.CassandraInteraction;
+import jmx.org.apache.cassandra.service.CassandraJMXService;
+
+/**
+ * Caches a result of an interaction with a node for a while, so phases of a restore asking a node for the same
+ * information do not do a JMX round-trip each time.
+ *
+ * Results are cached per JMX service and per key, a key identifies an interaction together with its parameters.
+ * A failed interaction is not cached.
+ * A schema version is invalidated at the start of every restore operation, so it is shared only within one operation
+ * and a schema change is never hidden from a restore submitted right after it.
+ *
+ * @param <T> type of a result of an interaction
+ */
+public class CachingInteraction<T> implements CassandraInteraction<T> {
+
+    public static final long SCHEMA_VERSION_TTL = SECONDS.toMillis(30);
+    public static final long TOKENS_TTL = SECONDS.toMillis(60);
+    // health of a cluster might change quickly, it is cached only for consecutive phases
+    public static final long HEALTH_TTL = SECONDS.toMillis(5);
+
+    private static final Cache<CassandraJMXService, ConcurrentMap<String, CachedResult>> CACHE = CacheBuilder.newBuilder().weakKeys().build();
+
+    private final CassandraJMXService cassandraJMXService;
+    private final String key;
+    private final long ttlMillis;
+    private final CassandraInteraction<T> interaction;
+
+    /**
+     * @param cassandraJMXService JMX service of a node an interaction is done with
+     * @param interaction interaction to cache a result of, its class is a key of a result
+     * @param ttlMillis time a result is cached for
+     */
+    public CachingInteraction(final CassandraJMXService cassandraJMXService, final CassandraInteraction<T> interaction, final long ttlMillis) {
+        this(cassandraJMXService, interaction.getClass().getName(), interaction, ttlMillis);
+    }
+
+    /**
+     * @param key key of a result, it has to reflect parameters of an interaction
+     */
+    public CachingInteraction(final CassandraJMXService cassandraJMXService, final String key, final CassandraInteraction<T> interaction, final long ttlMillis) {
+        this.cassandraJMXService = cassandraJMXService;
+        this.key = key;
+        this.ttlMillis = ttlMillis;
+        this.interaction = interaction;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T act() throws Exception {
+        final ConcurrentMap<String, CachedResult> results = results(cassandraJMXService);
+        final CachedResult cached = results.get(key);
+
+        if (cached != null && !cached.isExpired()) {
+            return (T) cached.result;
+        }
+
+        final T result = interaction.act();
+
+        results.put(key, new CachedResult(result, System.nanoTime() + MILLISECONDS.toNanos(ttlMillis)));
+
+        return result;
+    }
+
+    /**
+     * Invalidates a cached result of an interaction of given class.
+     */
+    public static void invalidate(final CassandraJMXService cassandraJMXService, final Class<? extends CassandraInteraction<?>> interactionClass) {
+        invalidate(cassandraJMXService, interactionClass.getName());
+    }
+
+    public static void invalidate(final CassandraJMXService cassandraJMXService, final String key) {
+        final ConcurrentMap<String, CachedResult> results = CACHE.getIfPresent(cassandraJMXService);
+
+        if (results != null) {
+            results.remove(key);
+        }
+    }
+
+    /**
+     * Invalidates all cached results of interactions with a node.
+     */
+    public static void invalidateAll(final CassandraJMXService cassandraJMXService) {
+        CACHE.invalidate(cassandraJMXService);
+    }
+
+    private static ConcurrentMap<String, CachedResult> results(final CassandraJMXService cassandraJMXService) throws ExecutionException {
+        return CACHE.get(cassandraJMXService, ConcurrentHashMap::new);
+    }
+
+    private static final class CachedResult {
+
+        final Object result;
+        final long expiresAt;
+
+        CachedResult(final Object result, final long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.instaclustr.esop.impl.interaction;
+
+import javax.management.ObjectName;
+
+import com.google.common.base.MoreObjects;
+import com.instaclustr.cassandra.CassandraInteraction;
+import com.instaclustr.operations.FunctionWithEx;
+import jmx.org.apache.cassandra.service.CassandraJMXService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads metrics which signal that Cassandra is under pressure: pending compactions, 99th percentile
+ * of client read and write latencies and the number of dropped mutations and reads since the start of a node.
+ *
+ * A metric which can not be read (e.g. it is not registered yet) is reported as 0.
+ */
+public class CassandraLoad implements CassandraInteraction<CassandraLoad.Load> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CassandraLoad.class);
+
+    private static final String PENDING_COMPACTIONS = "org.apache.cassandra.metrics:type=Compaction,name=PendingTasks";
+    private static final String READ_LATENCY = "org.apache.cassandra.metrics:type=ClientRequest,scope=Read,name=Latency";
+    private static final String WRITE_LATENCY = "org.apache.cassandra.metrics:type=ClientRequest,scope=Write,name=Latency";
+    private static final String DROPPED_MUTATIONS = "org.apache.cassandra.metrics:type=DroppedMessage,scope=MUTATION,name=Dropped";
+    private static final String DROPPED_READS = "org.apache.cassandra.metrics:type=DroppedMessage,scope=READ,name=Dropped";
+
+    private final CassandraJMXService cassandraJMXService;
+
+    public CassandraLoad(final CassandraJMXService cassandraJMXService) {
+        this.cassandraJMXService = cassandraJMXService;
+    }
+
+    @Override
+    public Load act() throws Exception {
+        final Load load = new Load();
+
+        load.pendingCompactions = (long) gauge(PENDING_COMPACTIONS);
+        // latencies are in microseconds
+        load.readLatency99thPercentile = timer99thPercentile(READ_LATENCY) / 1000;
+        load.writeLatency99thPercentile = timer99thPercentile(WRITE_LATENCY) / 1000;
+        load.droppedMessages = meterCount(DROPPED_MUTATIONS) + meterCount(DROPPED_READS);
+
+        return load;
+    }
+
+    private double gauge(final String name) {
+        try {
+            final Object value = cassandraJMXService.doWithMBean(new FunctionWithEx<JmxGaugeMBean, Object>() {
+                @Override
+                public Object apply(final JmxGaugeMBean gauge) {
+                    return gauge.getValue();
+                }
+            }, JmxGaugeMBean.class, ObjectName.getInstance(name));
+
+            return value instanceof Number ? ((Number) value).doubleValue() : 0;
+        } catch (final Exception ex) {
+            logger.debug("Unable to read metric {}: {}", name, ex.getMessage());
+            return 0;
+        }
+    }
+
+    private double timer99thPercentile(final String name) {
+        try {
+            return cassandraJMXService.doWithMBean(new FunctionWithEx<JmxTimerMBean, Double>() {
+                @Override
+                public Double apply(final JmxTimerMBean timer) {
+                    return timer.get99thPercentile();
+                }
+            }, JmxTimerMBean.class, ObjectName.getInstance(name));
+        } catch (final Exception ex) {
+            logger.debug("Unable to read metric {}: {}", name, ex.getMessage());
+            return 0;
+        }
+    }
+
+    private long meterCount(final String name) {
+        try {
+            return cassandraJMXService.doWithMBean(new FunctionWithEx<JmxMeterMBean, Long>() {
+                @Override
+                public Long apply(final JmxMeterMBean meter) {
+                    return meter.getCount();
+                }
+            }, JmxMeterMBean.class, ObjectName.getInstance(name));
+        } catch (final Exception ex) {
+            logger.debug("Unable to read metric {}: {}", name, ex.getMessage());
+            return 0;
+        }
+    }
+
+    public interface JmxGaugeMBean {
+
+        Object getValue();
+    }
+
+    public interface JmxTimerMBean {
+
+        double get99thPercentile();
+    }
+
+    public interface JmxMeterMBean {
+
+        long getCount();
+    }
+
+    public static class Load {
+
+        public long pendingCompactions;
+
+        // in milliseconds
+        public double readLatency99thPercentile;
+        public double writeLatency99thPercentile;
+
+        public long droppedMessages;
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                .add("pendingCompactions", pendingCompactions)
+                .add("readLatency99thPercentile", readLatency99thPercentile)
+                .add("writeLatency99thPercentile", writeLatency99thPercentile)
+                .add("droppedMessages", droppedMessages)
+                .toString();
+        }
+    }
+}
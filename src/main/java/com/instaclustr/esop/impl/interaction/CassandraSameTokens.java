@@ -18,7 +18,7 @@ public class CassandraSameTokens implements CassandraInteraction<Boolean> {
 
     @Override
     public Boolean act() throws Exception {
-        final List<String> tokensOfNode = new CassandraTokens(cassandraJMXService).act();
+        final List<String> tokensOfNode = new CachingInteraction<>(cassandraJMXService, new CassandraTokens(cassandraJMXService), CachingInteraction.TOKENS_TTL).act();
         if (!(tokens.size() == tokensOfNode.size() && tokens.containsAll(tokensOfNode))) {
             throw new IllegalStateException("Tokens from snapshot and tokens of this node does not match!");
         }
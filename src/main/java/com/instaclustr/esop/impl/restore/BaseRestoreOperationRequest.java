@@ -2,9 +2,14 @@ package com.instaclustr.esop.impl.restore;
 
 import java.nio.file.Path;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.instaclustr.esop.impl.ProxySettings;
 import com.instaclustr.esop.impl.StorageLocation;
 import com.instaclustr.esop.impl.AbstractOperationRequest;
+import com.instaclustr.measure.DataRate;
+import com.instaclustr.measure.Time;
+import com.instaclustr.picocli.typeconverter.DataRateMeasureTypeConverter;
+import com.instaclustr.picocli.typeconverter.TimeMeasureTypeConverter;
 import picocli.CommandLine.Option;
 
 public class BaseRestoreOperationRequest extends AbstractOperationRequest {
@@ -19,6 +24,24 @@ public class BaseRestoreOperationRequest extends AbstractOperationRequest {
         description = "Directory which will be used for locking purposes for backups and restores")
     public Path lockFile;
 
+    @Option(names = {"--duration"},
+        description = "Calculate download throughput based on total file size ÷ duration.",
+        converter = TimeMeasureTypeConverter.class)
+    @JsonProperty("duration")
+    public Time duration;
+
+    @Option(names = {"--bandwidth"},
+        description = "Maximum download throughput of all concurrent downloads together.",
+        converter = DataRateMeasureTypeConverter.class)
+    @JsonProperty("bandwidth")
+    public DataRate bandwidth;
+
+    @Option(names = {"--drop-page-cache"},
+        description = "Drop pages of downloaded files from a page cache once they are written, so a restore does not evict Cassandra's data from it. "
+            + "Relevant for Linux only.")
+    @JsonProperty("dropPageCache")
+    public boolean dropPageCache;
+
     public BaseRestoreOperationRequest() {
         // for picocli
     }
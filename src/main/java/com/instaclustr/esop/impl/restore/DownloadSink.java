@@ -0,0 +1,135 @@
+package com.instaclustr.esop.impl.restore;
+
+import static java.lang.String.format;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.instaclustr.esop.impl.PageCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Common destination of downloaded files for all restorers.
+ *
+ * A file is downloaded under a temporary name in its target directory, its size is checked, its content is synced
+ * and it is atomically renamed to its target name afterwards. A crashed download leaves only a temporary file behind,
+ * never a partial file under a name of an SSTable. Directories are synced in batches rather than after each rename.
+ */
+public class DownloadSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(DownloadSink.class);
+
+    public static final String TEMP_SUFFIX = ".download";
+
+    // number of renames in a directory after which it is synced
+    private static final int DIRECTORY_SYNC_BATCH_SIZE = 64;
+
+    private final Map<Path, Integer> pendingDirectories = new HashMap<>();
+
+    /**
+     * @param target file to download to
+     * @return temporary file to download to instead, in the same directory as a target file
+     */
+    public Path begin(final Path target) throws IOException {
+        final Path absoluteTarget = target.toAbsolutePath();
+        Files.createDirectories(absoluteTarget.getParent());
+
+        final Path temp = tempFile(absoluteTarget);
+        Files.deleteIfExists(temp);
+
+        return temp;
+    }
+
+    /**
+     * Moves a downloaded temporary file to its target.
+     *
+     * @param temp downloaded temporary file
+     * @param target target file
+     * @param expectedSize expected size of a file, it is not checked if it is not positive
+     * @param dropPageCache true if pages of a synced file should be dropped from a page cache
+     */
+    public void commit(final Path temp, final Path target, final long expectedSize, final boolean dropPageCache) throws IOException {
+        final Path absoluteTarget = target.toAbsolutePath();
+
+        if (expectedSize > 0 && Files.size(temp) != expectedSize) {
+            throw new IOException(format("Downloaded file %s has size %s but %s was expected", temp, Files.size(temp), expectedSize));
+        }
+
+        try (final RandomAccessFile file = new RandomAccessFile(temp.toFile(), "rw")) {
+            file.getChannel().force(true);
+        }
+
+        if (dropPageCache) {
+            // pages are clean once a file is synced
+            PageCache.dropPages(temp, 0, 0);
+        }
+
+        try {
+            Files.move(temp, absoluteTarget, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final AtomicMoveNotSupportedException ex) {
+            Files.move(temp, absoluteTarget, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        final Path directory = absoluteTarget.getParent();
+        final boolean shouldSync;
+
+        synchronized (pendingDirectories) {
+            final int pending = pendingDirectories.merge(directory, 1, Integer::sum);
+            shouldSync = pending >= DIRECTORY_SYNC_BATCH_SIZE;
+
+            if (shouldSync) {
+                pendingDirectories.remove(directory);
+            }
+        }
+
+        if (shouldSync) {
+            syncDirectory(directory);
+        }
+    }
+
+    public void abort(final Path temp) {
+        try {
+            Files.deleteIfExists(temp);
+        } catch (final IOException ex) {
+            logger.warn(format("Unable to delete temporary file %s", temp), ex);
+        }
+    }
+
+    /**
+     * Syncs all directories with renames which were not synced yet.
+     */
+    public void flush() {
+        final Set<Path> directories;
+
+        synchronized (pendingDirectories) {
+            directories = new HashSet<>(pendingDirectories.keySet());
+            pendingDirectories.clear();
+        }
+
+        directories.forEach(this::syncDirectory);
+    }
+
+    public static Path tempFile(final Path target) {
+        return target.resolveSibling(target.getFileName().toString() + TEMP_SUFFIX);
+    }
+
+    protected void syncDirectory(final Path directory) {
+        // not supported on every platform, renames are still atomic, only their durability is not guaranteed then
+        try (final FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (final Exception ex) {
+            logger.debug("Unable to sync directory {}: {}", directory, ex.getMessage());
+        }
+    }
+}
@@ -4,15 +4,18 @@ import static com.instaclustr.esop.impl.AbstractTracker.Unit.State.FAILED;
 import static com.instaclustr.esop.impl.AbstractTracker.Unit.State.FINISHED;
 import static com.instaclustr.esop.impl.AbstractTracker.Unit.State.RUNNING;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.RateLimiter;
 import com.google.inject.Inject;
 import com.instaclustr.esop.impl.RemoteObjectReference;
 import com.instaclustr.esop.impl.AbstractTracker;
+import com.instaclustr.esop.impl.LoadGovernor;
 import com.instaclustr.esop.impl.ManifestEntry;
 import com.instaclustr.esop.impl.restore.DownloadTracker.DownloadSession;
 import com.instaclustr.esop.impl.restore.DownloadTracker.DownloadUnit;
@@ -26,6 +29,11 @@ public class DownloadTracker extends AbstractTracker<DownloadUnit, DownloadSessi
 
     private static final Logger logger = LoggerFactory.getLogger(DownloadTracker.class);
 
+    private final DownloadSink downloadSink = new DownloadSink();
+
+    // limiter of a session being submitted, shared by all its units
+    private RateLimiter rateLimiter;
+
     @Inject
     public DownloadTracker(final @DownloadingFinisher ListeningExecutorService finisherExecutorService,
                            final OperationsService operationsService) {
@@ -37,7 +45,7 @@ public class DownloadTracker extends AbstractTracker<DownloadUnit, DownloadSessi
                                               final ManifestEntry manifestEntry,
                                               final AtomicBoolean shouldCancel,
                                               final String snapshotTag) {
-        return new DownloadUnit(restorer, manifestEntry, shouldCancel, snapshotTag);
+        return new DownloadUnit(restorer, manifestEntry, shouldCancel, snapshotTag, downloadSink, rateLimiter);
     }
 
     @Override
@@ -46,16 +54,64 @@ public class DownloadTracker extends AbstractTracker<DownloadUnit, DownloadSessi
     }
 
     @Override
-    public Session<DownloadUnit> submit(final Restorer restorer,
-                                        final Operation<? extends BaseRestoreOperationRequest> operation,
-                                        final Collection<ManifestEntry> entries,
-                                        final String snapshotTag,
-                                        final int concurrentConnections) {
-        return super.submit(restorer,
-                            operation,
-                            entries,
-                            snapshotTag,
-                            concurrentConnections);
+    public synchronized Session<DownloadUnit> submit(final Restorer restorer,
+                                                     final Operation<? extends BaseRestoreOperationRequest> operation,
+                                                     final Collection<ManifestEntry> entries,
+                                                     final String snapshotTag,
+                                                     final int concurrentConnections,
+                                                     final LoadGovernor governor) {
+        try {
+            rateLimiter = createRateLimiter(operation.request, getFilesSizeSum(entries));
+
+            if (governor != null && rateLimiter != null) {
+                governor.register(rateLimiter, rateLimiter.getRate());
+            }
+
+            return super.submit(restorer,
+                                operation,
+                                entries,
+                                snapshotTag,
+                                concurrentConnections,
+                                governor);
+        } finally {
+            rateLimiter = null;
+        }
+    }
+
+    private long getFilesSizeSum(final Collection<ManifestEntry> manifestEntries) {
+        return manifestEntries.stream().map(e -> e.size).reduce(0L, Long::sum);
+    }
+
+    private RateLimiter createRateLimiter(final BaseRestoreOperationRequest request, final long filesSizeSum) {
+
+        long bpsFromBandwidth = 0;
+        long bpsFromDuration = 0;
+
+        if (request.bandwidth != null) {
+            bpsFromBandwidth = request.bandwidth.asBytesPerSecond().value;
+        }
+
+        if (request.duration != null && request.duration.asSeconds().value > 0) {
+            bpsFromDuration = filesSizeSum / request.duration.asSeconds().value;
+        }
+
+        final long bps = Math.max(bpsFromBandwidth, bpsFromDuration);
+
+        if (bps <= 0) {
+            return null;
+        }
+
+        // unlike for uploads, one limiter is shared by all concurrent downloads so bandwidth is not divided
+        logger.info("Download BPS computed to be {}", bps);
+
+        return RateLimiter.create(bps);
+    }
+
+    @Override
+    public void removeSession(final Session<?> session) {
+        // directories of downloaded files which were not synced yet
+        downloadSink.flush();
+        super.removeSession(session);
     }
 
     public static class DownloadSession extends AbstractTracker.Session<DownloadUnit> {
@@ -67,12 +123,22 @@ public class DownloadTracker extends AbstractTracker<DownloadUnit, DownloadSessi
         @JsonIgnore
         private final Restorer restorer;
 
+        @JsonIgnore
+        private final DownloadSink downloadSink;
+
+        @JsonIgnore
+        private final RateLimiter rateLimiter;
+
         public DownloadUnit(final Restorer restorer,
                             final ManifestEntry manifestEntry,
                             final AtomicBoolean shouldCancel,
-                            final String snapshotTag) {
+                            final String snapshotTag,
+                            final DownloadSink downloadSink,
+                            final RateLimiter rateLimiter) {
             super(manifestEntry, shouldCancel);
             this.restorer = restorer;
+            this.downloadSink = downloadSink;
+            this.rateLimiter = rateLimiter;
             super.snapshotTag = snapshotTag;
         }
 
@@ -85,15 +151,32 @@ public class DownloadTracker extends AbstractTracker<DownloadUnit, DownloadSessi
             try {
                 remoteObjectReference = restorer.objectKeyToNodeAwareRemoteReference(manifestEntry.objectKey);
 
-                logger.info(String.format("Downloading file %s to %s.", remoteObjectReference.getObjectKey(), manifestEntry.localFile));
+                logger.info(String.format("Downloading file %s to %s.", remoteObjectReference.getObjectKey(), manifestEntry.getLocalFile()));
 
-                Path localPath = manifestEntry.localFile;
+                Path localPath = manifestEntry.getLocalFile();
 
                 if (remoteObjectReference.canonicalPath.endsWith("-schema.cql")) {
-                    localPath = manifestEntry.localFile.getParent().resolve("schema.cql");
+                    localPath = manifestEntry.getLocalFile().getParent().resolve("schema.cql");
                 }
 
-                restorer.downloadFile(localPath, remoteObjectReference);
+                if (manifestEntry.size > 0) {
+                    throttle(manifestEntry.size);
+                }
+
+                final Path tempPath = downloadSink.begin(localPath);
+
+                try {
+                    restorer.downloadFile(tempPath, remoteObjectReference);
+                    downloadSink.commit(tempPath, localPath, manifestEntry.size, restorer.request.dropPageCache);
+                } catch (final Throwable t) {
+                    downloadSink.abort(tempPath);
+                    throw t;
+                }
+
+                if (manifestEntry.size <= 0) {
+                    // size is not known upfront, e.g. for commit logs, a file is paid for after it is downloaded
+                    throttle(Files.size(localPath));
+                }
 
                 logger.info(String.format("Successfully downloaded file %s to %s.", remoteObjectReference.getObjectKey(), localPath));
 
@@ -110,5 +193,23 @@ public class DownloadTracker extends AbstractTracker<DownloadUnit, DownloadSessi
 
             return null;
         }
+
+        /**
+         * Providers write downloaded files directly, so a file is paid for as a whole, not by its chunks.
+         * A limiter makes following downloads wait, which keeps the average throughput under a limit.
+         */
+        private void throttle(final long size) {
+            if (rateLimiter == null) {
+                return;
+            }
+
+            long remaining = size;
+
+            while (remaining > 0 && !shouldCancel.get()) {
+                final int permits = (int) Math.min(remaining, Integer.MAX_VALUE);
+                rateLimiter.acquire(permits);
+                remaining -= permits;
+            }
+        }
     }
 }
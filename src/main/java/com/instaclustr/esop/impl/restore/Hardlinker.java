@@ -0,0 +1,202 @@
+package com.instaclustr.esop.impl.restore;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.instaclustr.threading.Executors.FixedTasksExecutorSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates hardlinks in parallel, grouped by their directories, and records every created link in a journal on disk
+ * right after it is created.
+ *
+ * If linking fails, all links recorded in a journal are deleted. If a process dies in the middle of linking,
+ * a journal survives. The next run keeps links which already point to files to link, so it completes the linking
+ * without creating them again, and it rolls back links of both runs if it fails. A link which already points to a file
+ * to link and which is not recorded in a journal is never recorded, it existed before linking and a rollback keeps it.
+ * A journal is deleted once linking is finished, successfully or not.
+ */
+public class Hardlinker {
+
+    private static final Logger logger = LoggerFactory.getLogger(Hardlinker.class);
+
+    private final Path journal;
+    private final int parallelism;
+
+    private BufferedWriter journalWriter;
+
+    public Hardlinker(final Path journal, final int parallelism) {
+        this.journal = journal;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * @param sourceDir download directory of a restore
+     * @return path of a journal of links of files from a download directory
+     */
+    public static Path journalFor(final Path sourceDir) {
+        final Path absoluteSourceDir = sourceDir.toAbsolutePath();
+        return absoluteSourceDir.resolveSibling(absoluteSourceDir.getFileName().toString() + "-hardlinks.journal");
+    }
+
+    /**
+     * Tables linked in parallel have to use their own journals, so a rollback of one table never deletes links
+     * of other tables and a table never takes a journal of another one running at the same time for an interrupted run.
+     *
+     * @param sourceDir download directory of a restore
+     * @param keyspace keyspace of a table to link files of
+     * @param table table to link files of
+     * @return path of a journal of links of files of a table from a download directory
+     */
+    public static Path journalFor(final Path sourceDir, final String keyspace, final String table) {
+        final Path absoluteSourceDir = sourceDir.toAbsolutePath();
+        return absoluteSourceDir.resolveSibling(absoluteSourceDir.getFileName().toString() + "-hardlinks-" + keyspace + "." + table + ".journal");
+    }
+
+    /**
+     * @param links links to create, a link to an existing file to link
+     * @return true if all links were created, false if linking has failed and created links were deleted
+     */
+    public boolean link(final Map<Path, Path> links) throws Exception {
+        final Set<Path> previousLinks = new HashSet<>();
+
+        if (Files.exists(journal)) {
+            logger.info("Found journal {} of an interrupted hardlinking, links recorded there are going to be completed.", journal);
+            previousLinks.addAll(readJournal());
+        }
+
+        final Map<Path, Map<Path, Path>> linksByDirectory = new LinkedHashMap<>();
+
+        for (final Entry<Path, Path> link : links.entrySet()) {
+            linksByDirectory.computeIfAbsent(link.getKey().getParent(), dir -> new LinkedHashMap<>()).put(link.getKey(), link.getValue());
+        }
+
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        final ListeningExecutorService executorService = new FixedTasksExecutorSupplier().get(Math.min(parallelism, Math.max(1, linksByDirectory.size())));
+
+        try {
+            journalWriter = Files.newBufferedWriter(journal, UTF_8, CREATE, WRITE, APPEND);
+
+            final List<ListenableFuture<?>> futures = new ArrayList<>();
+
+            for (final Map<Path, Path> directoryLinks : linksByDirectory.values()) {
+                futures.add(executorService.submit(() -> linkDirectory(directoryLinks, previousLinks, failed)));
+            }
+
+            Futures.successfulAsList(futures).get();
+        } finally {
+            executorService.shutdownNow();
+            closeJournal();
+        }
+
+        if (failed.get()) {
+            rollback();
+            return false;
+        }
+
+        Files.deleteIfExists(journal);
+
+        return true;
+    }
+
+    private void linkDirectory(final Map<Path, Path> links, final Set<Path> previousLinks, final AtomicBoolean failed) {
+        try {
+            for (final Entry<Path, Path> entry : links.entrySet()) {
+                if (failed.get()) {
+                    return;
+                }
+
+                final Path link = entry.getKey();
+                final Path existing = entry.getValue();
+
+                try {
+                    Files.createLink(link, existing);
+                    record(link);
+                } catch (final FileAlreadyExistsException ex) {
+                    if (!Files.isSameFile(link, existing)) {
+                        throw ex;
+                    }
+
+                    if (!previousLinks.contains(link)) {
+                        // existed before, it is not ours to delete upon rollback
+                        logger.debug("Link {} to {} exists already, it is kept as it is.", link, existing);
+                    }
+                }
+            }
+        } catch (final Exception ex) {
+            logger.error("Unable to create a hardlink, skipping the linking of all other resources and deleting already linked ones.", ex);
+            failed.set(true);
+        }
+    }
+
+    private synchronized void record(final Path link) throws IOException {
+        journalWriter.write(link.toString());
+        journalWriter.newLine();
+        journalWriter.flush();
+    }
+
+    private synchronized void closeJournal() {
+        if (journalWriter != null) {
+            try {
+                journalWriter.close();
+            } catch (final IOException ex) {
+                logger.warn(format("Unable to close journal %s", journal), ex);
+            }
+
+            journalWriter = null;
+        }
+    }
+
+    /**
+     * Deletes all links recorded in a journal and a journal itself.
+     */
+    public void rollback() throws IOException {
+        if (!Files.exists(journal)) {
+            return;
+        }
+
+        for (final Path linked : readJournal()) {
+            try {
+                Files.deleteIfExists(linked);
+            } catch (final Exception ex) {
+                logger.error(format("It is not possible to delete link %s.", linked), ex);
+            }
+        }
+
+        Files.deleteIfExists(journal);
+    }
+
+    private List<Path> readJournal() throws IOException {
+        final List<Path> links = new ArrayList<>();
+
+        for (final String linked : Files.readAllLines(journal, UTF_8)) {
+            if (!linked.isEmpty()) {
+                links.add(Paths.get(linked));
+            }
+        }
+
+        return links;
+    }
+}
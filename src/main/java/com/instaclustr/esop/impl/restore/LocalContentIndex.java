@@ -0,0 +1,224 @@
+package com.instaclustr.esop.impl.restore;
+
+import static java.lang.String.format;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.instaclustr.esop.impl.ManifestEntry;
+import com.instaclustr.esop.impl.SSTableUtils;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Index of SSTable components already present on a node, e.g. in snapshots, in incremental backups,
+ * in a download directory of a previous restore or in a directory of a renamed table.
+ *
+ * Components are indexed by a hash of their SSTable, the same one which is a part of an object key in a backup,
+ * and by their file name. A manifest entry found in this index is hardlinked (or copied if it is not possible to link it)
+ * to its local path instead of being downloaded.
+ *
+ * A digest covers only Data.db of an SSTable. Cassandra rewrites Statistics.db, e.g. when an SSTable is marked as repaired
+ * or its level is changed, and Summary.db, e.g. when an index interval is changed, so these components are never reused.
+ */
+public class LocalContentIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalContentIndex.class);
+
+    // components Cassandra may rewrite in place, a digest of an SSTable does not cover them
+    private static final Set<String> MUTABLE_COMPONENTS = new HashSet<>(Arrays.asList("Statistics.db", "Summary.db"));
+
+    private final Map<String, List<Path>> index = new HashMap<>();
+
+    private LocalContentIndex() {
+    }
+
+    /**
+     * Moves a download directory of a previous restore aside, so its files might be indexed and placed back
+     * instead of being downloaded again.
+     *
+     * @param downloadDirectory download directory of a restore
+     * @return directory files of a previous restore were moved to, empty optional if there was not any download directory
+     */
+    public static Optional<Path> moveAside(final Path downloadDirectory) throws IOException {
+        if (!Files.isDirectory(downloadDirectory)) {
+            return Optional.empty();
+        }
+
+        final Path previousDownloads = downloadDirectory.resolveSibling(downloadDirectory.getFileName().toString() + "-previous");
+
+        if (Files.exists(previousDownloads)) {
+            FileUtils.deleteDirectory(previousDownloads.toFile());
+        }
+
+        Files.move(downloadDirectory, previousDownloads);
+
+        return Optional.of(previousDownloads);
+    }
+
+    /**
+     * @param roots directories to index, non-existing ones are skipped
+     * @return index of SSTable components in given directories
+     */
+    public static LocalContentIndex build(final Collection<Path> roots) {
+        final LocalContentIndex contentIndex = new LocalContentIndex();
+
+        for (final Path root : roots) {
+            if (root == null || !Files.isDirectory(root)) {
+                continue;
+            }
+
+            try {
+                contentIndex.index(root);
+            } catch (final Exception ex) {
+                logger.warn(format("Unable to index local SSTables in %s, they will not be reused.", root), ex);
+            }
+        }
+
+        logger.info("Indexed {} local SSTable components in {}", contentIndex.size(), roots);
+
+        return contentIndex;
+    }
+
+    private void index(final Path root) throws IOException {
+        // components of one SSTable share a hash, a digest is read once per SSTable
+        final Map<String, Optional<String>> hashes = new HashMap<>();
+
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+                if (!attrs.isRegularFile()) {
+                    return FileVisitResult.CONTINUE;
+                }
+
+                final String fileName = file.getFileName().toString();
+                final int separator = fileName.lastIndexOf('-');
+
+                if (separator == -1) {
+                    return FileVisitResult.CONTINUE;
+                }
+
+                final Optional<String> hash = hashes.computeIfAbsent(file.getParent().resolve(fileName.substring(0, separator)).toString(), sstable -> {
+                    try {
+                        return SSTableUtils.digestHash(file);
+                    } catch (final Exception ex) {
+                        return Optional.empty();
+                    }
+                });
+
+                hash.ifPresent(h -> index.computeIfAbsent(key(h, fileName), k -> new ArrayList<>()).add(file));
+
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(final Path file, final IOException ex) {
+                logger.debug("Unable to visit {}: {}", file, ex.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    public int size() {
+        return index.values().stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * @param entry manifest entry to find
+     * @return path of a local file with the same content as a manifest entry, other than entry's local file itself
+     */
+    public Optional<Path> find(final ManifestEntry entry) {
+        if (entry.type != ManifestEntry.Type.FILE || entry.objectKey.getParent() == null || isMutable(entry.objectKey.getFileName().toString())) {
+            return Optional.empty();
+        }
+
+        final List<Path> candidates = index.get(key(entry.objectKey.getParent().getFileName().toString(), entry.objectKey.getFileName().toString()));
+
+        if (candidates == null) {
+            return Optional.empty();
+        }
+
+        for (final Path candidate : candidates) {
+            try {
+                if (!candidate.equals(entry.getLocalFile()) && Files.exists(candidate) && Files.size(candidate) == entry.size) {
+                    return Optional.of(candidate);
+                }
+            } catch (final IOException ex) {
+                logger.debug("Unable to check local file {}: {}", candidate, ex.getMessage());
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Places local copies of entries to their local paths.
+     *
+     * @param entries entries to place
+     * @return entries which were not found locally and which have to be downloaded
+     */
+    public List<ManifestEntry> reuse(final List<ManifestEntry> entries) {
+        final List<ManifestEntry> toDownload = new ArrayList<>();
+        int reused = 0;
+
+        for (final ManifestEntry entry : entries) {
+            final Optional<Path> existing = find(entry);
+
+            if (existing.isPresent() && place(existing.get(), entry.getLocalFile())) {
+                reused++;
+            } else {
+                toDownload.add(entry);
+            }
+        }
+
+        logger.info("{} files were found on local disks, {} files have to be downloaded", reused, toDownload.size());
+
+        return toDownload;
+    }
+
+    private boolean place(final Path existing, final Path target) {
+        try {
+            Files.createDirectories(target.getParent());
+            Files.deleteIfExists(target);
+
+            try {
+                Files.createLink(target, existing);
+                logger.debug("Hardlinked {} to {}", existing, target);
+            } catch (final IOException | UnsupportedOperationException ex) {
+                // most probably on a different file system
+                final Path tempTarget = target.resolveSibling(target.getFileName() + ".tmp");
+                Files.copy(existing, tempTarget, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(tempTarget, target, StandardCopyOption.REPLACE_EXISTING);
+                logger.debug("Copied {} to {}", existing, target);
+            }
+
+            return true;
+        } catch (final Exception ex) {
+            logger.warn(format("Unable to place local file %s to %s, it will be downloaded.", existing, target), ex);
+            return false;
+        }
+    }
+
+    private static boolean isMutable(final String fileName) {
+        return MUTABLE_COMPONENTS.contains(fileName.substring(fileName.lastIndexOf('-') + 1));
+    }
+
+    private static String key(final String hash, final String fileName) {
+        return hash + "/" + fileName;
+    }
+}
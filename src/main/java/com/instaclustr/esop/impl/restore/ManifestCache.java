@@ -0,0 +1,144 @@
+package com.instaclustr.esop.impl.restore;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.instaclustr.esop.impl.Manifest;
+import com.instaclustr.esop.impl.restore.RestorationStrategy.RestorationStrategyType;
+import com.instaclustr.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local cache of downloaded manifests, stored next to the download directory of a restore.
+ *
+ * Restoration phases are usually executed as separate operations, each of them would otherwise list remote
+ * manifests of a node and download and parse a manifest again. A cached manifest is stored together with the hash
+ * of its content which is checked before it is used, a corrupted or partially written manifest is discarded.
+ *
+ * A manifest is cached under a key derived from a storage location, a snapshot tag and a schema version
+ * (if it is taken into account upon manifest resolution) so retried restores of the same backup hit the cache too.
+ *
+ * Only restores in phases use the cache, their download directory cleaning phase clears it. An in-place restore,
+ * including each iteration of a standby restore, reads its manifest once, so nothing is cached for it.
+ */
+public class ManifestCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ManifestCache.class);
+
+    private static final String MANIFEST_SUFFIX = ".manifest";
+
+    private static final String HASH_SUFFIX = ".sha256";
+
+    private final Path cacheDir;
+
+    public ManifestCache(final Path cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * @param request restore request
+     * @return manifest cache for a request or empty optional if a request is restored in place or if it does not use a download directory
+     */
+    public static Optional<ManifestCache> forRequest(final RestoreOperationRequest request) {
+        if (request.restorationStrategyType == null || request.restorationStrategyType == RestorationStrategyType.IN_PLACE) {
+            return Optional.empty();
+        }
+
+        if (request.importing == null || request.importing.sourceDir == null || request.importing.sourceDir.getFileName() == null) {
+            return Optional.empty();
+        }
+
+        final Path sourceDir = request.importing.sourceDir.toAbsolutePath();
+
+        // not in the download dir itself as that one is cleaned upon downloading phase
+        return Optional.of(new ManifestCache(sourceDir.resolveSibling(sourceDir.getFileName().toString() + "-manifests")));
+    }
+
+    public static String key(final RestoreOperationRequest request, final String schemaVersion) {
+        final String keySource = format("%s|%s|%s", request.storageLocation.rawLocation, request.snapshotTag, schemaVersion == null ? "" : schemaVersion);
+        return Hashing.sha256().hashString(keySource, UTF_8).toString();
+    }
+
+    public Optional<Manifest> get(final String key, final ObjectMapper objectMapper) {
+        final Path manifestPath = cacheDir.resolve(key + MANIFEST_SUFFIX);
+        final Path hashPath = cacheDir.resolve(key + HASH_SUFFIX);
+
+        if (!Files.exists(manifestPath) || !Files.exists(hashPath)) {
+            return Optional.empty();
+        }
+
+        try {
+            final String expectedHash = new String(Files.readAllBytes(hashPath), UTF_8).trim();
+
+            if (!expectedHash.equals(hash(manifestPath).toString())) {
+                logger.warn("Cached manifest {} does not match its hash, discarding it.", manifestPath);
+                invalidate(key);
+                return Optional.empty();
+            }
+
+            logger.info("Using cached manifest {}", manifestPath);
+
+            return Optional.of(Manifest.read(manifestPath, objectMapper));
+        } catch (final Exception ex) {
+            logger.warn(format("Unable to read cached manifest %s, discarding it.", manifestPath), ex);
+            invalidate(key);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Moves a downloaded manifest into the cache.
+     *
+     * @param key key of a manifest
+     * @param downloadedManifest path of a downloaded manifest, it is moved
+     * @return path of a cached manifest
+     */
+    public Path put(final String key, final Path downloadedManifest) throws Exception {
+        Files.createDirectories(cacheDir);
+
+        final Path manifestPath = cacheDir.resolve(key + MANIFEST_SUFFIX);
+        final Path hashPath = cacheDir.resolve(key + HASH_SUFFIX);
+        final Path tempHashPath = cacheDir.resolve(key + HASH_SUFFIX + ".tmp");
+
+        final HashCode hash = hash(downloadedManifest);
+
+        Files.deleteIfExists(hashPath);
+        Files.move(downloadedManifest, manifestPath, StandardCopyOption.REPLACE_EXISTING);
+        Files.write(tempHashPath, hash.toString().getBytes(UTF_8));
+        Files.move(tempHashPath, hashPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        return manifestPath;
+    }
+
+    public void invalidate(final String key) {
+        try {
+            Files.deleteIfExists(cacheDir.resolve(key + HASH_SUFFIX));
+            Files.deleteIfExists(cacheDir.resolve(key + MANIFEST_SUFFIX));
+        } catch (final Exception ex) {
+            logger.warn(format("Unable to invalidate cached manifest %s", key), ex);
+        }
+    }
+
+    public void clear() throws Exception {
+        if (Files.exists(cacheDir)) {
+            FileUtils.deleteDirectory(cacheDir);
+        }
+    }
+
+    public Path getCacheDir() {
+        return cacheDir;
+    }
+
+    private static HashCode hash(final Path path) throws Exception {
+        return com.google.common.io.Files.asByteSource(path.toFile()).hash(Hashing.sha256());
+    }
+}
@@ -1,5 +1,11 @@
 package com.instaclustr.esop.impl.restore;
 
+import static com.instaclustr.esop.impl.AbstractTracker.Unit.State.CANCELLED;
+import static com.instaclustr.esop.impl.AbstractTracker.Unit.State.FAILED;
+import static com.instaclustr.esop.impl.AbstractTracker.Unit.State.FINISHED;
+import static com.instaclustr.esop.impl.AbstractTracker.Unit.State.IGNORED;
+import static com.instaclustr.esop.impl.interaction.CachingInteraction.HEALTH_TTL;
+import static com.instaclustr.esop.impl.interaction.CachingInteraction.SCHEMA_VERSION_TTL;
 import static com.instaclustr.esop.impl.restore.RestorationPhase.RestorationPhaseType.CLEANUP;
 import static com.instaclustr.esop.impl.restore.RestorationPhase.RestorationPhaseType.CLUSTER_HEALTHCHECK;
 import static com.instaclustr.esop.impl.restore.RestorationPhase.RestorationPhaseType.DOWNLOAD;
@@ -8,6 +14,7 @@ import static com.instaclustr.esop.impl.restore.RestorationPhase.RestorationPhas
 import static com.instaclustr.esop.impl.restore.RestorationPhase.RestorationPhaseType.TRUNCATE;
 import static com.instaclustr.io.FileUtils.createOrCleanDirectory;
 import static java.lang.String.format;
+import static java.util.stream.Collectors.toList;
 import static org.apache.commons.io.FileUtils.listFilesAndDirs;
 
 import java.io.File;
@@ -16,19 +23,31 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.instaclustr.esop.impl.AbstractTracker.Session;
 import com.instaclustr.esop.impl.BucketService;
 import com.instaclustr.esop.impl.DatabaseEntities;
+import com.instaclustr.esop.impl.KeyspaceTable;
+import com.instaclustr.esop.impl.LoadGovernor;
 import com.instaclustr.esop.impl.Manifest;
 import com.instaclustr.esop.impl.ManifestEntry;
 import com.instaclustr.esop.impl._import.ImportOperation;
 import com.instaclustr.esop.impl._import.ImportOperationRequest;
+import com.instaclustr.esop.impl.interaction.CachingInteraction;
 import com.instaclustr.esop.impl.interaction.CassandraSameTokens;
 import com.instaclustr.esop.impl.interaction.CassandraSchemaVersion;
 import com.instaclustr.esop.impl.interaction.CassandraState;
@@ -43,6 +62,7 @@ import com.instaclustr.esop.impl.truncate.TruncateOperation;
 import com.instaclustr.esop.impl.truncate.TruncateOperationRequest;
 import com.instaclustr.io.FileUtils;
 import com.instaclustr.operations.Operation;
+import com.instaclustr.threading.Executors.FixedTasksExecutorSupplier;
 import org.apache.commons.io.filefilter.DirectoryFileFilter;
 import org.apache.commons.io.filefilter.FileFileFilter;
 import org.slf4j.Logger;
@@ -59,6 +79,8 @@ import picocli.CommandLine;
  */
 public abstract class RestorationPhase {
 
+    private static final Logger logger = LoggerFactory.getLogger(RestorationPhase.class);
+
     protected RestorationContext ctxt;
 
     public RestorationPhase(RestorationContext ctxt) {
@@ -69,6 +91,146 @@ public abstract class RestorationPhase {
 
     public abstract void execute() throws RestorationPhaseException;
 
+    /**
+     * Resolves a manifest of a snapshot to restore and enriches its entries by the download directory.
+     * A schema version of a node is fetched only in case resolution of a manifest depends on it.
+     *
+     * @return manifest to restore from
+     * @throws Exception if it is not possible to resolve a manifest
+     */
+    protected Manifest loadManifest() throws Exception {
+        final RestoreOperationRequest request = ctxt.operation.request;
+        final String schemaVersion = RestorationUtilities.needsCurrentSchemaVersion(request)
+            ? new CachingInteraction<>(ctxt.jmx, new CassandraSchemaVersion(ctxt.jmx), SCHEMA_VERSION_TTL).act()
+            : null;
+        final Manifest manifest = RestorationUtilities.downloadManifest(request, ctxt.restorer, schemaVersion, ctxt.objectMapper);
+        manifest.enrichManifestEntries(request.importing.sourceDir);
+        return manifest;
+    }
+
+    /**
+     * Creates hardlinks of downloaded files in Cassandra data directory, see {@link Hardlinker}. If any link fails
+     * to be created, all links created so far are deleted.
+     *
+     * @param journal journal of created links, tables linked at the same time must not share it
+     * @param manifestEntries downloaded entries to link
+     * @throws RestorationPhaseException if some link was not possible to create
+     */
+    protected void createHardlinks(final Path journal, final List<ManifestEntry> manifestEntries) throws Exception {
+        final RestoreOperationRequest request = ctxt.operation.request;
+        final Map<Path, Path> links = new LinkedHashMap<>();
+
+        for (final ManifestEntry entry : manifestEntries) {
+            links.put(request.cassandraDirectory.resolve(request.importing.sourceDir.relativize(entry.getLocalFile())), entry.getLocalFile());
+        }
+
+        final Hardlinker hardlinker = new Hardlinker(journal, Runtime.getRuntime().availableProcessors());
+
+        if (!hardlinker.link(links)) {
+            throw new RestorationPhaseException("Hardlinking phase finished with errors, the linking of downloaded SSTables to Cassandra directory has failed.");
+        }
+    }
+
+    /**
+     * Cleans a download directory. If local files are meant to be reused, files of a previous restore
+     * are moved aside first so they might be reused instead of being downloaded again.
+     *
+     * @return directory with files of a previous restore, to be deleted once downloading is finished
+     */
+    protected Optional<Path> prepareDownloadDirectory() throws Exception {
+        final Path sourceDir = ctxt.operation.request.importing.sourceDir.toAbsolutePath();
+
+        final Optional<Path> previousDownloads = ctxt.operation.request.localReuse ? LocalContentIndex.moveAside(sourceDir) : Optional.empty();
+
+        createOrCleanDirectory(sourceDir);
+
+        return previousDownloads;
+    }
+
+    /**
+     * Places files already present on a node to their local paths instead of downloading them.
+     *
+     * @param manifestEntries entries to download
+     * @param previousDownloads directory with files of a previous restore
+     * @return entries which were not found locally and which have to be downloaded
+     */
+    protected List<ManifestEntry> reuseLocalFiles(final List<ManifestEntry> manifestEntries, final Optional<Path> previousDownloads) {
+        if (!ctxt.operation.request.localReuse) {
+            return manifestEntries;
+        }
+
+        final List<Path> roots = new ArrayList<>();
+        roots.add(ctxt.operation.request.dirs.data());
+        previousDownloads.ifPresent(roots::add);
+
+        return LocalContentIndex.build(roots).reuse(manifestEntries);
+    }
+
+    protected void deletePreviousDownloads(final Optional<Path> previousDownloads) {
+        if (previousDownloads.isPresent()) {
+            try {
+                FileUtils.deleteDirectory(previousDownloads.get());
+            } catch (final Exception ex) {
+                logger.warn(format("Unable to delete directory %s with files of a previous restore.", previousDownloads.get()), ex);
+            }
+        }
+    }
+
+    /**
+     * Runs an action for every table, at most {@link RestoreOperationRequest#restorationParallelism} of them at once.
+     * An action failing for a table does not stop actions for other tables.
+     *
+     * @param items items to run an action for, one per table
+     * @param tableName resolver of a table name of an item, used as a key of returned failures
+     * @param action action to run
+     * @return failures of an action, table name to an error message, empty if there is not any
+     */
+    protected <T> Map<String, String> runForTables(final Collection<T> items,
+                                                   final Function<T, String> tableName,
+                                                   final TableAction<T> action) throws InterruptedException {
+        final Map<String, String> failures = new ConcurrentHashMap<>();
+
+        if (items.isEmpty()) {
+            return failures;
+        }
+
+        final int parallelism = Math.max(1, Math.min(ctxt.operation.request.restorationParallelism, items.size()));
+        final ListeningExecutorService executorService = new FixedTasksExecutorSupplier().get(parallelism);
+
+        try {
+            final List<ListenableFuture<?>> futures = new ArrayList<>();
+
+            for (final T item : items) {
+                futures.add(executorService.submit(() -> {
+                    try {
+                        action.run(item);
+                    } catch (final Exception ex) {
+                        logger.error(format("Action for table %s has failed", tableName.apply(item)), ex);
+                        failures.put(tableName.apply(item), ex.getMessage() == null ? ex.getClass().getName() : ex.getMessage());
+                    }
+                }));
+            }
+
+            for (final ListenableFuture<?> future : futures) {
+                try {
+                    future.get();
+                } catch (final ExecutionException ex) {
+                    // action failures are already collected
+                }
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        return failures;
+    }
+
+    @FunctionalInterface
+    protected interface TableAction<T> {
+
+        void run(T item) throws Exception;
+    }
+
     public static final class RestorationPhaseException extends Exception {
 
         public RestorationPhaseException(final String message) {
@@ -168,25 +330,26 @@ public abstract class RestorationPhase {
             try {
                 logger.info("Checking cluster health.");
 
-                final boolean nodeInNormalMode = new CassandraState(ctxt.jmx, "NORMAL").act();
+                // phases of a restore follow each other, they share results of a health check for a while
+                final boolean nodeInNormalMode = new CachingInteraction<>(ctxt.jmx, CassandraState.class.getName() + "-NORMAL", new CassandraState(ctxt.jmx, "NORMAL"), HEALTH_TTL).act();
 
                 if (!nodeInNormalMode) {
                     throw new IllegalStateException("This node is not in NORMAL mode!");
                 }
 
-                final int downEndpoints = new FailureDetector(ctxt.jmx).act();
+                final int downEndpoints = new CachingInteraction<>(ctxt.jmx, new FailureDetector(ctxt.jmx), HEALTH_TTL).act();
 
                 if (downEndpoints != 0) {
                     throw new IllegalStateException(format("Failure detector of this node reports that %s node(s) in a cluster are down!", downEndpoints));
                 }
 
-                final boolean validClusterState = new ClusterState(ctxt.jmx).act();
+                final boolean validClusterState = new CachingInteraction<>(ctxt.jmx, new ClusterState(ctxt.jmx), HEALTH_TTL).act();
 
                 if (!validClusterState) {
                     throw new IllegalStateException("There are either joining, leaving, moving or unreachable nodes");
                 }
 
-                final Map<String, List<String>> schemaVersions = new ClusterSchemaVersions(ctxt.jmx).act();
+                final Map<String, List<String>> schemaVersions = new CachingInteraction<>(ctxt.jmx, new ClusterSchemaVersions(ctxt.jmx), HEALTH_TTL).act();
 
                 if (schemaVersions.size() != 1) {
                     throw new IllegalStateException(format("There are nodes with different schemas: %s", schemaVersions));
@@ -194,6 +357,8 @@ public abstract class RestorationPhase {
 
                 logger.info("Cluster health check was successfully completed.");
             } catch (final Exception ex) {
+                // a retried check asks a node again
+                CachingInteraction.invalidateAll(ctxt.jmx);
                 logger.error("Cluster health check has failed: {}", ex.getMessage());
                 throw RestorationPhaseException.construct(ex, getRestorationPhaseType());
             }
@@ -237,35 +402,35 @@ public abstract class RestorationPhase {
                     }
                 }
 
-                createOrCleanDirectory(ctxt.operation.request.importing.sourceDir);
+                final Optional<Path> previousDownloads = prepareDownloadDirectory();
 
-                final String schemaVersion = new CassandraSchemaVersion(ctxt.jmx).act();
-
-                final Manifest manifest = RestorationUtilities.downloadManifest(request, ctxt.restorer, schemaVersion, ctxt.objectMapper);
-                manifest.enrichManifestEntries(request.importing.sourceDir);
+                Session<DownloadUnit> session = null;
 
-                new CassandraSameTokens(ctxt.jmx, manifest.getTokens()).act();
+                try (final LoadGovernor governor = LoadGovernor.create(ctxt.jmx, request.governorSettings, request.concurrentConnections)) {
+                    final Manifest manifest = loadManifest();
 
-                // looking into downloaded manifest, download only these sstables for keyspaces / tables
-                // which were specified in request in "entities"
-                final List<ManifestEntry> manifestFiles = manifest.getManifestFiles(request.entities,
-                                                                                    false,  // not possible to restore system keyspace on a live cluster
-                                                                                    false); // no new cluster
+                    new CassandraSameTokens(ctxt.jmx, manifest.getTokens()).act();
 
-                Session<DownloadUnit> session = null;
+                    // looking into downloaded manifest, download only these sstables for keyspaces / tables
+                    // which were specified in request in "entities"
+                    final List<ManifestEntry> manifestFiles = manifest.filterByTokenRanges(manifest.getManifestFiles(request.entities,
+                                                                                                                     false,  // not possible to restore system keyspace on a live cluster
+                                                                                                                     false), // no new cluster
+                                                                                           request.tokenRanges);
 
-                try {
                     session = ctxt.downloadTracker.submit(ctxt.restorer,
                                                           ctxt.operation,
-                                                          manifestFiles,
+                                                          reuseLocalFiles(manifestFiles, previousDownloads),
                                                           request.snapshotTag,
-                                                          request.concurrentConnections);
+                                                          request.concurrentConnections,
+                                                          governor);
 
                     session.waitUntilConsideredFinished();
                     ctxt.downloadTracker.cancelIfNecessary(session);
                 } finally {
                     ctxt.downloadTracker.removeSession(session);
                     session = null;
+                    deletePreviousDownloads(previousDownloads);
                 }
                 logger.info("Downloading phase was successfully completed.");
             } catch (final Exception ex) {
@@ -298,21 +463,13 @@ public abstract class RestorationPhase {
             try {
                 logger.info("Truncating phase has started.");
 
-                final String schemaVersion = new CassandraSchemaVersion(ctxt.jmx).act();
-                final Manifest manifest = RestorationUtilities.downloadManifest(ctxt.operation.request, ctxt.restorer, schemaVersion, ctxt.objectMapper);
-                manifest.enrichManifestEntries(ctxt.operation.request.importing.sourceDir);
+                final Manifest manifest = loadManifest();
                 final DatabaseEntities filteredEntities = manifest.getDatabaseEntities(false).filter(ctxt.operation.request.entities, false);
                 final List<ImportOperationRequest> importOperationRequests = RestorationUtilities.buildImportRequests(ctxt.operation.request, filteredEntities);
 
-                final Map<String, String> truncateFailuresMap = new HashMap<>();
-
-                for (final ImportOperationRequest request : importOperationRequests) {
-                    try {
-                        new TruncateOperation(ctxt.jmx, new TruncateOperationRequest("truncate", request.keyspace, request.table)).run();
-                    } catch (Exception ex) {
-                        truncateFailuresMap.put(format("%s.%s", request.keyspace, request.table), ex.getMessage());
-                    }
-                }
+                final Map<String, String> truncateFailuresMap = runForTables(importOperationRequests,
+                                                                             request -> format("%s.%s", request.keyspace, request.table),
+                                                                             request -> new TruncateOperation(ctxt.jmx, new TruncateOperationRequest("truncate", request.keyspace, request.table)).run());
 
                 if (!truncateFailuresMap.isEmpty()) {
                     throw new RestorationPhaseException(format("Some tables were unable to be truncated: %s", truncateFailuresMap.toString()));
@@ -348,16 +505,23 @@ public abstract class RestorationPhase {
         @Override
         public void execute() throws RestorationPhaseException {
             try {
+                if (ctxt.operation.request.pipelined) {
+                    logger.info("Skipping importing phase, tables were imported in pipelined downloading phase.");
+                    return;
+                }
+
                 logger.info("Importing phase has started.");
 
-                final String schemaVersion = new CassandraSchemaVersion(ctxt.jmx).act();
-                final Manifest manifest = RestorationUtilities.downloadManifest(ctxt.operation.request, ctxt.restorer, schemaVersion, ctxt.objectMapper);
-                manifest.enrichManifestEntries(ctxt.operation.request.importing.sourceDir);
+                final Manifest manifest = loadManifest();
                 final DatabaseEntities filteredEntities = manifest.getDatabaseEntities(false).filter(ctxt.operation.request.entities, false);
                 final List<ImportOperationRequest> importOperationRequests = RestorationUtilities.buildImportRequests(ctxt.operation.request, filteredEntities);
 
-                for (final ImportOperationRequest request : importOperationRequests) {
-                    new ImportOperation(ctxt.jmx, ctxt.cassandraVersion, request).run();
+                final Map<String, String> importFailuresMap = runForTables(importOperationRequests,
+                                                                           request -> format("%s.%s", request.keyspace, request.table),
+                                                                           request -> new ImportOperation(ctxt.jmx, ctxt.cassandraVersion, request).run());
+
+                if (!importFailuresMap.isEmpty()) {
+                    throw new RestorationPhaseException(format("Some tables were unable to be imported: %s", importFailuresMap.toString()));
                 }
 
                 logger.info("Importing phase was finished successfully.");
@@ -388,78 +552,280 @@ public abstract class RestorationPhase {
         @Override
         public void execute() throws RestorationPhaseException {
             try {
+                if (ctxt.operation.request.pipelined) {
+                    logger.info("Skipping hardlinking phase, tables were hardlinked in pipelined downloading phase.");
+                    return;
+                }
+
                 logger.info("Hardlinking phase has started.");
 
-                final String schemaVersion = new CassandraSchemaVersion(ctxt.jmx).act();
-                final Manifest manifest = RestorationUtilities.downloadManifest(ctxt.operation.request, ctxt.restorer, schemaVersion, ctxt.objectMapper);
-                manifest.enrichManifestEntries(ctxt.operation.request.importing.sourceDir);
+                final Manifest manifest = loadManifest();
                 final DatabaseEntities filteredEntities = manifest.getDatabaseEntities(false).filter(ctxt.operation.request.entities, false);
 
-                final List<ManifestEntry> manifestEntries = manifest.getManifestFiles(filteredEntities,
-                                                                                      false /* not possible to restore system keyspace on a live cluster */,
-                                                                                      false, // not restoring to new cluster
-                                                                                      false, // without schema.cql's
-                                                                                      null); // cassandra version
+                final List<ManifestEntry> manifestEntries = manifest.filterByTokenRanges(manifest.getManifestFiles(filteredEntities,
+                                                                                                                   false /* not possible to restore system keyspace on a live cluster */,
+                                                                                                                   false, // not restoring to new cluster
+                                                                                                                   false, // without schema.cql's
+                                                                                                                   null), // cassandra version
+                                                                                         ctxt.operation.request.tokenRanges);
 
-                // make links
+                createHardlinks(Hardlinker.journalFor(ctxt.operation.request.importing.sourceDir), manifestEntries);
 
-                boolean failedLinkage = false;
-                final List<Path> successfulLinks = new ArrayList<>();
+                final Map<String, String> failedRefreshes = runForTables(filteredEntities.getKeyspacesAndTables().entries(),
+                                                                         entry -> entry.getKey() + "." + entry.getValue(),
+                                                                         entry -> new RefreshOperation(ctxt.jmx, new RefreshOperationRequest(entry.getKey(), entry.getValue())).run());
 
-                for (final ManifestEntry entry : manifestEntries) {
+                if (!failedRefreshes.isEmpty()) {
+                    throw new RestorationPhaseException(format("Failed tables to refresh: %s", failedRefreshes));
+                }
 
-                    if (failedLinkage) {
-                        break;
-                    }
+                logger.info("Hardlinking phase was finished successfully.");
+            } catch (
+                final Exception ex) {
+                logger.error("Hardlinking phase has failed: {}", ex.getMessage());
+                throw RestorationPhaseException.construct(ex, getRestorationPhaseType());
+            }
+        }
+    }
 
-                    final Path link = ctxt.operation.request.cassandraDirectory.resolve(ctxt.operation.request.importing.sourceDir.relativize(entry.localFile));
-                    final Path existing = entry.localFile;
+    /**
+     * In this phase, we download data and restore every table as soon as all its files are downloaded
+     * while files of other tables are still being downloaded. How a table is restored depends on a strategy.
+     * Tables are restored by their own executor, at most {@link RestoreOperationRequest#restorationParallelism} of them at once,
+     * so restoring of a table does not hold off checks of other tables.
+     *
+     * As tables are restored right in this phase, truncating phase, if any, has to be run before this one
+     * and importing phase does nothing.
+     */
+    public static abstract class PipelinedDownloadingPhase extends RestorationPhase {
 
-                    try {
-                        Files.createLink(link, existing);
-                        successfulLinks.add(link);
-                    } catch (final Exception ex) {
-                        logger.error(format("Unable to create a hardlink from %s to %s, skipping the linking of all other resources and deleting already linked ones.",
-                                            existing.toAbsolutePath().toString(),
-                                            link.toAbsolutePath().toString()),
-                                     ex);
+        private static final Logger logger = LoggerFactory.getLogger(PipelinedDownloadingPhase.class);
+
+        private static final long POLL_INTERVAL_MILLIS = 1000;
+
+        public PipelinedDownloadingPhase(final RestorationContext ctxt) {
+            super(ctxt);
+        }
+
+        @Override
+        public RestorationPhaseType getRestorationPhaseType() {
+            return DOWNLOAD;
+        }
 
-                        failedLinkage = true;
+        /**
+         * Restores a table of which all files are downloaded.
+         *
+         * @param keyspaceTable table to restore
+         * @param manifestEntries downloaded entries of a table
+         * @throws Exception if it is not possible to restore a table
+         */
+        protected abstract void restoreTable(final KeyspaceTable keyspaceTable, final List<ManifestEntry> manifestEntries) throws Exception;
+
+        @Override
+        public void execute() throws RestorationPhaseException {
+            try {
+                logger.info("Pipelined downloading phase has started.");
+
+                final RestoreOperationRequest request = ctxt.operation.request;
+
+                if (!request.noDownloadData && !request.skipBucketVerification) {
+                    try (final BucketService bucketService = ctxt.bucketServiceFactoryMap.get(request.storageLocation.storageProvider).createBucketService(request)) {
+                        bucketService.checkBucket(request.storageLocation.bucket, false);
                     }
                 }
 
-                if (failedLinkage && !successfulLinks.isEmpty()) {
-                    for (final Path linked : successfulLinks) {
-                        try {
-                            Files.deleteIfExists(linked);
-                        } catch (final Exception ex) {
-                            logger.error(format("It is not possible to delete link %s.", linked.toString()), ex);
+                final Optional<Path> previousDownloads = request.noDownloadData ? Optional.empty() : prepareDownloadDirectory();
+
+                try {
+                    pipeline(previousDownloads);
+                } finally {
+                    deletePreviousDownloads(previousDownloads);
+                }
+
+                logger.info("Pipelined downloading phase was successfully completed.");
+            } catch (final Exception ex) {
+                logger.error("Pipelined downloading phase has failed: {}", ex.getMessage());
+                throw RestorationPhaseException.construct(ex, getRestorationPhaseType());
+            }
+        }
+
+        private void pipeline(final Optional<Path> previousDownloads) throws Exception {
+            final RestoreOperationRequest request = ctxt.operation.request;
+
+            final Manifest manifest = loadManifest();
+
+            new CassandraSameTokens(ctxt.jmx, manifest.getTokens()).act();
+
+            final DatabaseEntities filteredEntities = manifest.getDatabaseEntities(false).filter(request.entities, false);
+
+            final List<ManifestEntry> manifestFiles = manifest.filterByTokenRanges(manifest.getManifestFiles(filteredEntities,
+                                                                                                             false,  // not possible to restore system keyspace on a live cluster
+                                                                                                             false), // no new cluster
+                                                                                   request.tokenRanges);
+
+            final Map<String, String> failedTables = new ConcurrentHashMap<>();
+
+            if (request.noDownloadData) {
+                logger.info("Skipping downloading of data, restoring all tables.");
+
+                failedTables.putAll(runForTables(groupByTable(manifestFiles, e -> e, new HashMap<>()).entrySet(),
+                                                 entry -> entry.getKey().keyspace + "." + entry.getKey().table,
+                                                 entry -> restoreTable(entry.getKey(), entry.getValue())));
+            } else {
+                download(manifestFiles, reuseLocalFiles(manifestFiles, previousDownloads), failedTables);
+            }
+
+            if (!failedTables.isEmpty()) {
+                throw new RestorationPhaseException(format("Failed tables to restore: %s", failedTables));
+            }
+        }
+
+        private void download(final List<ManifestEntry> manifestFiles,
+                              final List<ManifestEntry> entriesToDownload,
+                              final Map<String, String> failedTables) throws Exception {
+            final RestoreOperationRequest request = ctxt.operation.request;
+
+            Session<DownloadUnit> session = null;
+            ListeningExecutorService restoringService = null;
+            final List<ListenableFuture<?>> restorations = new ArrayList<>();
+
+            try (final LoadGovernor governor = LoadGovernor.create(ctxt.jmx, request.governorSettings, request.concurrentConnections)) {
+                session = ctxt.downloadTracker.submit(ctxt.restorer,
+                                                      ctxt.operation,
+                                                      entriesToDownload,
+                                                      request.snapshotTag,
+                                                      request.concurrentConnections,
+                                                      governor);
+
+                // tables of which all files were found locally do not have any unit to wait for
+                final Map<String, KeyspaceTable> tables = new HashMap<>();
+                final Map<KeyspaceTable, List<DownloadUnit>> unitsByTable = new LinkedHashMap<>();
+                final Map<KeyspaceTable, List<ManifestEntry>> entriesByTable = groupByTable(manifestFiles, e -> e, tables);
+
+                for (final KeyspaceTable keyspaceTable : entriesByTable.keySet()) {
+                    unitsByTable.put(keyspaceTable, new ArrayList<>());
+                }
+
+                groupByTable(session.getUnits(), DownloadUnit::getManifestEntry, tables).forEach((keyspaceTable, units) -> unitsByTable.get(keyspaceTable).addAll(units));
+
+                restoringService = new FixedTasksExecutorSupplier().get(Math.max(1, Math.min(request.restorationParallelism, unitsByTable.size())));
+
+                final Set<KeyspaceTable> restoredTables = new HashSet<>();
+
+                while (restoredTables.size() < unitsByTable.size() && !isInterrupted(session)) {
+                    boolean restoredAny = false;
+
+                    for (final Entry<KeyspaceTable, List<DownloadUnit>> entry : unitsByTable.entrySet()) {
+                        if (restoredTables.contains(entry.getKey())) {
+                            continue;
+                        }
+
+                        if (entry.getValue().stream().allMatch(unit -> unit.getState() == FINISHED)) {
+                            final KeyspaceTable keyspaceTable = entry.getKey();
+                            restorations.add(restoringService.submit(() -> restoreTable(keyspaceTable, entriesByTable.get(keyspaceTable), failedTables)));
+                            restoredTables.add(keyspaceTable);
+                            restoredAny = true;
                         }
                     }
 
-                    throw new RestorationPhaseException("Hardlinking phase finished with errors, the linking of downloaded SSTables to Cassandra directory has failed.");
-                } else {
-                    final Map<String, String> failedRefreshes = new HashMap<>();
+                    if (!restoredAny) {
+                        Thread.sleep(POLL_INTERVAL_MILLIS);
+                    }
+                }
+
+                session.waitUntilConsideredFinished();
+                ctxt.downloadTracker.cancelIfNecessary(session);
 
-                    for (final Entry<String, String> entry : filteredEntities.getKeyspacesAndTables().entries()) {
+                if (!session.isSuccessful()) {
+                    throw new RestorationPhaseException(format("Downloading of data has failed, restoring of %s of %s tables started before the failure.",
+                                                               restoredTables.size(),
+                                                               unitsByTable.size()));
+                }
+            } finally {
+                ctxt.downloadTracker.removeSession(session);
+
+                // tables being restored are waited for even if downloading has failed, their failures are collected already
+                try {
+                    for (final ListenableFuture<?> restoration : restorations) {
                         try {
-                            new RefreshOperation(ctxt.jmx, new RefreshOperationRequest(entry.getKey(), entry.getValue())).run();
-                        } catch (final Exception ex) {
-                            failedRefreshes.put(entry.getKey() + "." + entry.getValue(), ex.getMessage());
+                            restoration.get();
+                        } catch (final ExecutionException ex) {
+                            logger.error("Restoring of a table has failed unexpectedly", ex.getCause());
                         }
                     }
-
-                    if (!failedRefreshes.isEmpty()) {
-                        throw new RestorationPhaseException(format("Failed tables to refresh: %s", failedRefreshes));
+                } finally {
+                    if (restoringService != null) {
+                        restoringService.shutdownNow();
                     }
+                }
+            }
+        }
 
-                    logger.info("Hardlinking phase was finished successfully.");
+        private void restoreTable(final KeyspaceTable keyspaceTable, final List<ManifestEntry> manifestEntries, final Map<String, String> failedTables) {
+            try {
+                logger.info("Restoring table {}.{} as all its files were downloaded.", keyspaceTable.keyspace, keyspaceTable.table);
+                restoreTable(keyspaceTable, manifestEntries);
+            } catch (final Exception ex) {
+                logger.error(format("Unable to restore table %s.%s", keyspaceTable.keyspace, keyspaceTable.table), ex);
+                failedTables.put(keyspaceTable.keyspace + "." + keyspaceTable.table, ex.getMessage());
+            }
+        }
+
+        private boolean isInterrupted(final Session<DownloadUnit> session) {
+            return session.getUnits().stream().anyMatch(unit -> unit.getState() == FAILED || unit.getState() == CANCELLED || unit.getState() == IGNORED);
+        }
+
+        private static <T> Map<KeyspaceTable, List<T>> groupByTable(final List<T> items,
+                                                                    final Function<T, ManifestEntry> entryResolver,
+                                                                    final Map<String, KeyspaceTable> tables) {
+            final Map<KeyspaceTable, List<T>> grouped = new LinkedHashMap<>();
+
+            for (final T item : items) {
+                final KeyspaceTable keyspaceTable = entryResolver.apply(item).keyspaceTable;
+
+                if (keyspaceTable == null) {
+                    continue;
                 }
-            } catch (
-                final Exception ex) {
-                logger.error("Hardlinking phase has failed: {}", ex.getMessage());
-                throw RestorationPhaseException.construct(ex, getRestorationPhaseType());
+
+                // entries of the same table might not share the same instance, tables are keyed by their first instance
+                final KeyspaceTable table = tables.computeIfAbsent(keyspaceTable.keyspace + "." + keyspaceTable.table, key -> keyspaceTable);
+                grouped.computeIfAbsent(table, t -> new ArrayList<>()).add(item);
             }
+
+            return grouped;
+        }
+    }
+
+    /**
+     * Pipelined downloading phase importing a table by JMX as soon as it is downloaded, Cassandra 4 only.
+     */
+    public static class PipelinedImportingPhase extends PipelinedDownloadingPhase {
+
+        public PipelinedImportingPhase(final RestorationContext ctxt) {
+            super(ctxt);
+        }
+
+        @Override
+        protected void restoreTable(final KeyspaceTable keyspaceTable, final List<ManifestEntry> manifestEntries) throws Exception {
+            new ImportOperation(ctxt.jmx, ctxt.cassandraVersion, ctxt.operation.request.importing.copy(keyspaceTable.keyspace, keyspaceTable.table)).run();
+        }
+    }
+
+    /**
+     * Pipelined downloading phase hardlinking files of a table into Cassandra data directory and refreshing
+     * a table as soon as it is downloaded.
+     */
+    public static class PipelinedHardlinkingPhase extends PipelinedDownloadingPhase {
+
+        public PipelinedHardlinkingPhase(final RestorationContext ctxt) {
+            super(ctxt);
+        }
+
+        @Override
+        protected void restoreTable(final KeyspaceTable keyspaceTable, final List<ManifestEntry> manifestEntries) throws Exception {
+            createHardlinks(Hardlinker.journalFor(ctxt.operation.request.importing.sourceDir, keyspaceTable.keyspace, keyspaceTable.table),
+                            manifestEntries.stream().filter(entry -> entry.type != ManifestEntry.Type.CQL_SCHEMA).collect(toList()));
+            new RefreshOperation(ctxt.jmx, new RefreshOperationRequest(keyspaceTable.keyspace, keyspaceTable.table)).run();
         }
     }
 
@@ -511,6 +877,13 @@ public abstract class RestorationPhase {
                 final Path sourceDir = ctxt.operation.request.importing.sourceDir;
                 logger.info("Deleting {}", sourceDir.toAbsolutePath().toString());
                 FileUtils.deleteDirectory(ctxt.operation.request.importing.sourceDir);
+
+                final Optional<ManifestCache> manifestCache = ManifestCache.forRequest(ctxt.operation.request);
+
+                if (manifestCache.isPresent()) {
+                    logger.info("Deleting {}", manifestCache.get().getCacheDir().toAbsolutePath().toString());
+                    manifestCache.get().clear();
+                }
             } catch (final Exception ex) {
                 throw RestorationPhaseException.construct(ex, getRestorationPhaseType());
             }
@@ -2,26 +2,187 @@ package com.instaclustr.esop.impl.restore;
 
 import static java.util.stream.Collectors.toList;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.instaclustr.esop.impl.DatabaseEntities;
 import com.instaclustr.esop.impl.Manifest;
+import com.instaclustr.esop.impl.ManifestCatalog;
+import com.instaclustr.esop.impl.ManifestCatalog.CatalogEntry;
 import com.instaclustr.esop.impl._import.ImportOperationRequest;
+import com.instaclustr.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class RestorationUtilities {
 
+    private static final Logger logger = LoggerFactory.getLogger(RestorationUtilities.class);
+
     public static Manifest downloadManifest(final RestoreOperationRequest request,
                                             final Restorer restorer,
                                             final String schemaVersion,
                                             final ObjectMapper objectMapper) throws Exception {
 
-        final String manifestAsString = restorer.downloadNodeFileToString(Paths.get("manifests"),
-                                                                          new ManifestFilteringPredicate(request, schemaVersion));
+        final Optional<ManifestCache> manifestCache = ManifestCache.forRequest(request);
+        final String cacheKey = ManifestCache.key(request, resolveManifestSchemaVersion(request, schemaVersion));
+
+        if (manifestCache.isPresent()) {
+            final Optional<Manifest> cachedManifest = manifestCache.get().get(cacheKey, objectMapper);
+
+            if (cachedManifest.isPresent()) {
+                return cachedManifest.get();
+            }
+        }
+
+        // a manifest is downloaded to a file and parsed from a stream, huge manifests are never held as a string
+        final Path downloadDir = Files.createTempDirectory("esop-manifest");
+
+        try {
+            final ManifestFilteringPredicate manifestFilter = new ManifestFilteringPredicate(request, schemaVersion);
+
+            Path manifestPath = downloadManifestFromCatalog(restorer, downloadDir, manifestFilter, objectMapper).orElse(null);
+
+            if (manifestPath == null) {
+                manifestPath = restorer.downloadNodeFileToDir(downloadDir, Paths.get("manifests"), manifestFilter);
+            }
+
+            if (manifestCache.isPresent()) {
+                manifestPath = manifestCache.get().put(cacheKey, manifestPath);
+            }
+
+            return Manifest.read(manifestPath, objectMapper);
+        } finally {
+            FileUtils.deleteDirectory(downloadDir);
+        }
+    }
+
+    /**
+     * Resolves a manifest by the catalog of a node so manifests of a node do not need to be listed.
+     *
+     * @return path of a downloaded manifest or empty optional if a catalog does not exist or a manifest is not resolvable from it
+     */
+    private static Optional<Path> downloadManifestFromCatalog(final Restorer restorer,
+                                                              final Path downloadDir,
+                                                              final Predicate<String> manifestFilter,
+                                                              final ObjectMapper objectMapper) {
+        try {
+            final String catalogContent = restorer.downloadFileToString(restorer.objectKeyToNodeAwareRemoteReference(ManifestCatalog.CATALOG_KEY));
+            final ManifestCatalog catalog = objectMapper.readValue(catalogContent, ManifestCatalog.class);
+
+            final Optional<CatalogEntry> entry = catalog.resolve(manifestFilter, restorer::resolveNodeAwareRemotePath);
+
+            if (!entry.isPresent()) {
+                logger.info("Manifest is not resolvable from manifest catalog, falling back to listing.");
+                return Optional.empty();
+            }
+
+            final Path manifestKey = Paths.get(entry.get().key);
+            final Path manifestPath = downloadDir.resolve(manifestKey.getFileName());
+
+            restorer.downloadFile(manifestPath, restorer.objectKeyToNodeAwareRemoteReference(manifestKey));
+
+            return Optional.of(manifestPath);
+        } catch (final Exception ex) {
+            logger.info("Unable to resolve manifest from manifest catalog, falling back to listing: {}", ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Resolves the latest backup of a node, by the catalog of a node or by listing of its manifests if a catalog is not available.
+     *
+     * @param request restore request
+     * @param restorer restorer to read a catalog or list manifests with
+     * @param snapshotTagPrefix only backups of snapshot tags starting with this prefix are considered
+     * @param objectMapper mapper to read a catalog with
+     * @return snapshot tag of the latest backup, including its schema version and timestamp, empty optional if there is no such backup
+     */
+    public static Optional<String> resolveLatestSnapshotTag(final RestoreOperationRequest request,
+                                                            final Restorer restorer,
+                                                            final String snapshotTagPrefix,
+                                                            final ObjectMapper objectMapper) throws Exception {
+        final Predicate<String> filter = snapshotTag -> snapshotTag.startsWith(snapshotTagPrefix)
+            && (!request.exactSchemaVersion || request.schemaVersion == null || snapshotTag.contains("-" + request.schemaVersion));
+
+        try {
+            final String catalogContent = restorer.downloadFileToString(restorer.objectKeyToNodeAwareRemoteReference(ManifestCatalog.CATALOG_KEY));
+            final ManifestCatalog catalog = objectMapper.readValue(catalogContent, ManifestCatalog.class);
+
+            return catalog.getEntries().stream()
+                .filter(entry -> filter.test(manifestSnapshotTag(Paths.get(entry.key))))
+                .max(Comparator.comparingLong(entry -> entry.timestamp))
+                .map(entry -> manifestSnapshotTag(Paths.get(entry.key)));
+        } catch (final Exception ex) {
+            logger.info("Unable to resolve the latest backup from manifest catalog, falling back to listing: {}", ex.getMessage());
+        }
+
+        final AtomicReference<String> latest = new AtomicReference<>();
+        final AtomicLong latestTimestamp = new AtomicLong(Long.MIN_VALUE);
+
+        restorer.consumeFiles(restorer.objectKeyToNodeAwareRemoteReference(Paths.get("manifests")), manifest -> {
+            final String snapshotTag = manifestSnapshotTag(Paths.get(manifest.canonicalPath));
+
+            if (!filter.test(snapshotTag)) {
+                return;
+            }
+
+            try {
+                // snapshot tag of a backup ends with a timestamp of a backup
+                final long timestamp = Long.parseLong(snapshotTag.substring(snapshotTag.lastIndexOf('-') + 1));
+
+                if (timestamp > latestTimestamp.get()) {
+                    latestTimestamp.set(timestamp);
+                    latest.set(snapshotTag);
+                }
+            } catch (final NumberFormatException ex) {
+                logger.debug("Skipping manifest {} without a timestamp", manifest.canonicalPath);
+            }
+        });
+
+        return Optional.ofNullable(latest.get());
+    }
+
+    private static String manifestSnapshotTag(final Path manifestKey) {
+        final String fileName = manifestKey.getFileName().toString();
+
+        if (fileName.endsWith(Manifest.COMPRESSED_MANIFEST_EXTENSION)) {
+            return fileName.substring(0, fileName.length() - Manifest.COMPRESSED_MANIFEST_EXTENSION.length());
+        } else if (fileName.endsWith(Manifest.MANIFEST_EXTENSION)) {
+            return fileName.substring(0, fileName.length() - Manifest.MANIFEST_EXTENSION.length());
+        }
+
+        return fileName;
+    }
+
+    /**
+     * Schema version is taken into account upon manifest resolution only if exact schema version is requested.
+     *
+     * @param request restore request
+     * @param currentSchemaVersion schema version of a node, might be null
+     * @return schema version a manifest is resolved by or null if any schema version is accepted
+     */
+    public static String resolveManifestSchemaVersion(final RestoreOperationRequest request, final String currentSchemaVersion) {
+        if (!request.exactSchemaVersion) {
+            return null;
+        }
+
+        return request.schemaVersion != null ? request.schemaVersion.toString() : currentSchemaVersion;
+    }
 
-        return Manifest.read(manifestAsString, objectMapper);
+    /**
+     * @param request restore request
+     * @return true if resolution of a manifest depends on the current schema version of a node so it has to be fetched
+     */
+    public static boolean needsCurrentSchemaVersion(final RestoreOperationRequest request) {
+        return request.exactSchemaVersion && request.schemaVersion == null;
     }
 
     public static List<ImportOperationRequest> buildImportRequests(final RestoreOperationRequest request, final DatabaseEntities entities) {
@@ -1,6 +1,7 @@
 package com.instaclustr.esop.impl.restore;
 
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.HOURS;
 
 import java.io.BufferedReader;
 import java.io.FileOutputStream;
@@ -8,18 +9,20 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.channels.FileLock;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileStore;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.TimeZone;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
@@ -31,9 +34,10 @@ import com.instaclustr.esop.guice.BucketServiceFactory;
 import com.instaclustr.esop.guice.RestorerFactory;
 import com.instaclustr.esop.impl.AbstractTracker.Session;
 import com.instaclustr.esop.impl.BucketService;
+import com.instaclustr.esop.impl.CommitLogLayout;
 import com.instaclustr.esop.impl.ManifestEntry;
-import com.instaclustr.esop.impl.RemoteObjectReference;
 import com.instaclustr.esop.impl.restore.DownloadTracker.DownloadUnit;
+import com.instaclustr.esop.impl.restore.RestoreCommitLogsOperationRequest.CommitLogStaging;
 import com.instaclustr.io.GlobalLock;
 import com.instaclustr.operations.Operation;
 import org.slf4j.Logger;
@@ -45,6 +49,8 @@ public class RestoreCommitLogsOperation extends Operation<RestoreCommitLogsOpera
 
     private final static String CASSANDRA_COMMIT_LOGS = "commitlog";
 
+    private static final Pattern SEGMENT_ID_PATTERN = Pattern.compile("CommitLog-\\d+-(\\d+)\\.log");
+
     private final Map<String, RestorerFactory> restorerFactoryMap;
     final Map<String, BucketServiceFactory> bucketServiceFactoryMap;
     private final DownloadTracker downloadTracker;
@@ -110,43 +116,22 @@ public class RestoreCommitLogsOperation extends Operation<RestoreCommitLogsOpera
     }
 
     private void downloadCommitLogs(final Restorer restorer) throws Exception {
-        final RemoteObjectReference remoteObjectReference = restorer.objectKeyToNodeAwareRemoteReference(Paths.get("commitlog"));
-        final Pattern commitlogPattern = Pattern.compile(".*(CommitLog-\\d+-\\d+\\.log)\\.(\\d+)");
-        final HashSet<ManifestEntry> parsedCommitlogList = new HashSet<>();
+        final CommitLogCollector collector = new CommitLogCollector();
 
         logger.info("Commencing processing of commit log listing");
-        final AtomicReference<ManifestEntry> overhangingManifestEntry = new AtomicReference<>();
-        final AtomicLong overhangingTimestamp = new AtomicLong(Long.MAX_VALUE);
-
-        restorer.consumeFiles(remoteObjectReference, commitlogFile -> {
-
-            final Matcher matcherCommitlog = commitlogPattern.matcher(commitlogFile.getObjectKey().toString());
-
-            if (matcherCommitlog.matches()) {
-                final long commitlogTimestamp = Long.parseLong(matcherCommitlog.group(2));
-
-                if (commitlogTimestamp >= request.timestampStart && commitlogTimestamp <= request.timestampEnd) {
-                    parsedCommitlogList.add(new ManifestEntry(commitlogFile.getObjectKey(),
-                                                              request.commitlogDownloadDir.resolve(matcherCommitlog.group(1)),
-                                                              ManifestEntry.Type.FILE,
-                                                              0,
-                                                              null));
-                } else if (commitlogTimestamp > request.timestampEnd && commitlogTimestamp < overhangingTimestamp.get()) {
-                    // Make sure we also catch the first commitlog that goes past the end of the timestamp
-                    overhangingTimestamp.set(commitlogTimestamp);
-                    overhangingManifestEntry.set(new ManifestEntry(commitlogFile.getObjectKey(),
-                                                                   request.commitlogDownloadDir.resolve(matcherCommitlog.group(1)),
-                                                                   ManifestEntry.Type.FILE,
-                                                                   0,
-                                                                   null));
-                }
-            }
-        });
 
-        if (overhangingManifestEntry.get() != null) {
-            parsedCommitlogList.add(overhangingManifestEntry.get());
+        final Optional<Long> bucketedSince = CommitLogLayout.readLayoutMarker(restorer);
+
+        if (!bucketedSince.isPresent() || request.timestampStart < bucketedSince.get()) {
+            // some commit logs of a window might be in the flat layout, list all of them
+            restorer.consumeFiles(restorer.objectKeyToNodeAwareRemoteReference(CommitLogLayout.COMMIT_LOG_PREFIX),
+                                  commitlogFile -> collector.collect(commitlogFile.getObjectKey()));
+        } else {
+            collectFromBuckets(restorer, collector);
         }
 
+        final List<ManifestEntry> parsedCommitlogList = collector.getCommitLogs();
+
         logger.info("Found {} commit logs to download", parsedCommitlogList.size());
 
         if (parsedCommitlogList.size() == 0) {
@@ -164,6 +149,132 @@ public class RestoreCommitLogsOperation extends Operation<RestoreCommitLogsOpera
         }
     }
 
+    /**
+     * Lists only hourly buckets overlapping with a window, then buckets after a window until the first commit log past
+     * the end of a window is found. Buckets after a window are listed by wider and wider prefixes, so a window far
+     * in the past does not list every hour until now.
+     */
+    private void collectFromBuckets(final Restorer restorer, final CommitLogCollector collector) throws Exception {
+        final long now = System.currentTimeMillis();
+
+        // there are no commit logs in the future
+        final List<Long> hours = CommitLogLayout.hours(request.timestampStart, Math.min(request.timestampEnd, now));
+
+        if (hours.isEmpty()) {
+            return;
+        }
+
+        for (final long hour : hours) {
+            collect(restorer, collector, CommitLogLayout.bucket(hour));
+        }
+
+        for (final Path prefix : CommitLogLayout.prefixesSince(hours.get(hours.size() - 1) + HOURS.toMillis(1), now)) {
+            if (collector.hasOverhangingCommitLog()) {
+                break;
+            }
+
+            collect(restorer, collector, prefix);
+        }
+    }
+
+    private void collect(final Restorer restorer, final CommitLogCollector collector, final Path prefix) throws Exception {
+        restorer.consumeFiles(restorer.objectKeyToNodeAwareRemoteReference(prefix),
+                              commitlogFile -> collector.collect(commitlogFile.getObjectKey()));
+    }
+
+    /**
+     * Collects commit logs of a window and the first commit log which goes past the end of a window.
+     */
+    private class CommitLogCollector {
+
+        private final HashSet<ManifestEntry> commitLogs = new HashSet<>();
+
+        private ManifestEntry overhangingManifestEntry;
+        private long overhangingTimestamp = Long.MAX_VALUE;
+
+        synchronized void collect(final Path objectKey) {
+            final Matcher matcherCommitlog = CommitLogLayout.COMMIT_LOG_KEY_PATTERN.matcher(objectKey.toString());
+
+            if (!matcherCommitlog.matches()) {
+                return;
+            }
+
+            final long commitlogTimestamp = Long.parseLong(matcherCommitlog.group(2));
+
+            if (commitlogTimestamp >= request.timestampStart && commitlogTimestamp <= request.timestampEnd) {
+                commitLogs.add(new ManifestEntry(objectKey,
+                                                 request.commitlogDownloadDir.resolve(matcherCommitlog.group(1)),
+                                                 ManifestEntry.Type.FILE,
+                                                 0,
+                                                 null));
+            } else if (commitlogTimestamp > request.timestampEnd && commitlogTimestamp < overhangingTimestamp) {
+                // Make sure we also catch the first commitlog that goes past the end of the timestamp
+                overhangingTimestamp = commitlogTimestamp;
+                overhangingManifestEntry = new ManifestEntry(objectKey,
+                                                             request.commitlogDownloadDir.resolve(matcherCommitlog.group(1)),
+                                                             ManifestEntry.Type.FILE,
+                                                             0,
+                                                             null);
+            }
+        }
+
+        synchronized boolean hasOverhangingCommitLog() {
+            return overhangingManifestEntry != null;
+        }
+
+        /**
+         * @return commit logs ordered by their segment ids, so they are downloaded in the order Cassandra replays them
+         */
+        synchronized List<ManifestEntry> getCommitLogs() {
+            final List<ManifestEntry> result = new ArrayList<>(commitLogs);
+
+            if (overhangingManifestEntry != null && !commitLogs.contains(overhangingManifestEntry)) {
+                result.add(overhangingManifestEntry);
+            }
+
+            result.sort(Comparator.comparingLong(entry -> segmentId(entry.getLocalFile())));
+
+            return result;
+        }
+    }
+
+    private static long segmentId(final Path commitLog) {
+        final Matcher matcher = SEGMENT_ID_PATTERN.matcher(commitLog.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : Long.MAX_VALUE;
+    }
+
+    /**
+     * A hard link can not cross file systems, commit logs are copied then.
+     *
+     * @param staging requested staging
+     * @param commitlogDownloadDir directory commit logs are downloaded to
+     * @param cassandraDirectory Cassandra directory of a node, commit logs are replayed from its commitlog directory
+     * @return staging usable for these directories
+     */
+    public static CommitLogStaging resolveStaging(final CommitLogStaging staging, final Path commitlogDownloadDir, final Path cassandraDirectory) {
+        if (staging != CommitLogStaging.HARDLINK) {
+            return staging;
+        }
+
+        final Path commitlogsPath = cassandraDirectory.resolve(CASSANDRA_COMMIT_LOGS);
+
+        try {
+            final FileStore commitLogStore = Files.getFileStore(Files.exists(commitlogsPath) ? commitlogsPath : cassandraDirectory);
+
+            if (Files.getFileStore(commitlogDownloadDir).equals(commitLogStore)) {
+                return CommitLogStaging.HARDLINK;
+            }
+
+            logger.warn("Commit log download directory {} is not on the same file system as {}, commit logs will be copied.",
+                        commitlogDownloadDir,
+                        commitlogsPath);
+        } catch (final IOException ex) {
+            logger.warn(format("Unable to resolve file systems of %s and %s, commit logs will be copied.", commitlogDownloadDir, commitlogsPath), ex);
+        }
+
+        return CommitLogStaging.COPY;
+    }
+
     private void updateCommitLogArchivingProperties() {
         final Path commitlogArchivingPropertiesPath = request.cassandraConfigDirectory.resolve("commitlog_archiving.properties");
         Properties commitlogArchivingProperties = new Properties();
@@ -180,7 +291,7 @@ public class RestoreCommitLogsOperation extends Operation<RestoreCommitLogsOpera
         df.setTimeZone(TimeZone.getTimeZone("GMT"));
         String timestamp = df.format(request.timestampEnd);
 
-        commitlogArchivingProperties.setProperty("restore_command", "cp -f %from %to");
+        commitlogArchivingProperties.setProperty("restore_command", resolveStaging(request.staging, request.commitlogDownloadDir, request.cassandraDirectory).getRestoreCommand());
         commitlogArchivingProperties.setProperty("restore_directories", request.commitlogDownloadDir.toString());
         // Restore mutations created up to and including this timestamp in GMT.
         // Format: yyyy:MM:dd HH:mm:ss (2012:04:31 20:43:12)
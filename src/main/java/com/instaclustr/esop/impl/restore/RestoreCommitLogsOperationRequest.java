@@ -67,6 +67,33 @@ public class RestoreCommitLogsOperationRequest extends BaseRestoreOperationReque
         required = true)
     public Path commitlogDownloadDir;
 
+    @Option(names = {"--cl-staging"},
+        description = "How Cassandra stages downloaded commit logs for replay, one of COPY, HARDLINK or MOVE. HARDLINK and MOVE do not write "
+            + "commit logs a second time, HARDLINK requires the download directory to be on the same file system as the commitlog directory "
+            + "of Cassandra, otherwise COPY is used. Defaults to COPY.",
+        defaultValue = "COPY")
+    @JsonProperty("staging")
+    public CommitLogStaging staging = CommitLogStaging.COPY;
+
+    /**
+     * Restore command Cassandra stages a downloaded commit log with before it replays it.
+     */
+    public enum CommitLogStaging {
+        COPY("cp -f %from %to"),
+        HARDLINK("ln -f %from %to"),
+        MOVE("mv -f %from %to");
+
+        private final String restoreCommand;
+
+        CommitLogStaging(final String restoreCommand) {
+            this.restoreCommand = restoreCommand;
+        }
+
+        public String getRestoreCommand() {
+            return restoreCommand;
+        }
+    }
+
     public RestoreCommitLogsOperationRequest() {
         // for picocli
     }
@@ -104,6 +131,9 @@ public class RestoreCommitLogsOperationRequest extends BaseRestoreOperationReque
             .add("storageLocation", storageLocation)
             .add("concurrentConnections", concurrentConnections)
             .add("lockFile", lockFile)
+            .add("bandwidth", bandwidth)
+            .add("dropPageCache", dropPageCache)
+            .add("duration", duration)
             .add("cassandraDirectory", cassandraDirectory)
             .add("sharedContainerPath", sharedContainerPath)
             .add("cassandraConfigDirectory", cassandraConfigDirectory)
@@ -111,6 +141,7 @@ public class RestoreCommitLogsOperationRequest extends BaseRestoreOperationReque
             .add("timestampEnd", timestampEnd)
             .add("keyspaceTables", keyspaceTables)
             .add("commitlogDownloadDir", commitlogDownloadDir)
+            .add("staging", staging)
             .add("k8sNamespace", k8sNamespace)
             .add("k8sSecretName", k8sSecretName)
             .add("insecure", insecure)
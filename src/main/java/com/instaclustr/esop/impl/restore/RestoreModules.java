@@ -17,6 +17,7 @@ import com.google.inject.AbstractModule;
 import com.google.inject.BindingAnnotation;
 import com.google.inject.Provider;
 import com.google.inject.Provides;
+import com.google.inject.Singleton;
 import com.google.inject.TypeLiteral;
 import com.google.inject.multibindings.Multibinder;
 import com.instaclustr.esop.impl.restore.coordination.DefaultRestoreOperationCoordinator;
@@ -79,11 +80,23 @@ public class RestoreModules {
 
         @Override
         protected void configure() {
-            bind(ListeningExecutorService.class).annotatedWith(Downloading.class).toInstance(new FixedTasksExecutorSupplier().get(100));
-            bind(ListeningExecutorService.class).annotatedWith(DownloadingFinisher.class).toInstance(new FixedTasksExecutorSupplier().get(100));
-
             ServiceBindings.bindService(binder(), DownloadTracker.class);
         }
+
+        // not used by a download tracker, it is not a singleton so it is not created eagerly in production stage unless injected
+        @Provides
+        @Downloading
+        ListeningExecutorService provideDownloading() {
+            return new FixedTasksExecutorSupplier().get(100);
+        }
+
+        // created only once a download tracker is, not upon creation of this module
+        @Provides
+        @Singleton
+        @DownloadingFinisher
+        ListeningExecutorService provideDownloadingFinisher() {
+            return new FixedTasksExecutorSupplier().get(100);
+        }
     }
 
     @Retention(RUNTIME)
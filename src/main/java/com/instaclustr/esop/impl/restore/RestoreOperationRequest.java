@@ -4,6 +4,7 @@ import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.UUID;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
@@ -21,6 +22,8 @@ import com.instaclustr.esop.impl.DatabaseEntities.DatabaseEntitiesSerializer;
 import com.instaclustr.esop.impl.Directories;
 import com.instaclustr.esop.impl.ProxySettings;
 import com.instaclustr.esop.impl.StorageLocation;
+import com.instaclustr.esop.impl.TokenRange;
+import com.instaclustr.esop.impl.TokenRange.TokenRangeConverter;
 import com.instaclustr.esop.impl._import.ImportOperationRequest;
 import com.instaclustr.esop.impl.restore.RestorationPhase.RestorationPhaseType;
 import com.instaclustr.esop.impl.restore.RestorationPhase.RestorationPhaseTypeConverter;
@@ -137,6 +140,52 @@ public class RestoreOperationRequest extends BaseRestoreOperationRequest {
             + "--restoration-strategy-type is IN_PLACE")
     public String cassandraVersion;
 
+    @Option(names = "--token-ranges",
+        description = "Comma separated list of token ranges in form 'start:end' (start exclusive, end inclusive). If set, only SSTables "
+            + "intersecting with these ranges will be downloaded. Tokens of SSTables are known only for backups of clusters using "
+            + "Murmur3Partitioner, SSTables without known tokens are always downloaded.",
+        split = ",",
+        converter = TokenRangeConverter.class)
+    @JsonProperty("tokenRanges")
+    public List<TokenRange> tokenRanges;
+
+    @Option(names = "--restoration-pipelined",
+        description = "Flag saying for IMPORT and HARDLINKS restoration strategies that a table should be imported or hardlinked right in DOWNLOAD phase "
+            + "as soon as all its files are downloaded, while other tables are still being downloaded. TRUNCATE phase, if any, has to be "
+            + "executed before DOWNLOAD phase and IMPORT phase does nothing in this mode. This option defaults to false.")
+    @JsonProperty("pipelined")
+    public boolean pipelined;
+
+    @Option(names = "--restoration-parallelism",
+        description = "Number of tables to truncate, import or refresh in parallel in TRUNCATE and IMPORT phases of IMPORT and HARDLINKS "
+            + "restoration strategies and in a pipelined DOWNLOAD phase. This option defaults to 1.",
+        defaultValue = "1")
+    @JsonProperty("restorationParallelism")
+    @Min(1)
+    public int restorationParallelism = 1;
+
+    @Option(names = "--restoration-local-reuse",
+        description = "Flag saying that SSTables already present on a node (in snapshots, incremental backups, a download directory of a previous "
+            + "restore or other table directories) should be hardlinked or copied instead of being downloaded. A local component is reused only if "
+            + "its SSTable has the same digest and it has the same size as in a backup, components Cassandra rewrites in place are always downloaded. "
+            + "This option defaults to false.")
+    @JsonProperty("localReuse")
+    public boolean localReuse;
+
+    @Option(names = "--restoration-standby",
+        description = "Flag saying for IN_PLACE restoration strategy that it should keep running and restore every new backup of a node "
+            + "as soon as it appears. Backups of snapshot tags starting with --snapshot-tag are followed, only files which are not on a node yet "
+            + "are downloaded and files which are not in a new backup are deleted. A node has to stay stopped. This option defaults to false.")
+    @JsonProperty("standby")
+    public boolean standby;
+
+    @Option(names = "--restoration-standby-poll-interval",
+        description = "Number of seconds between two checks for a new backup in standby mode. This option defaults to 60.",
+        defaultValue = "60")
+    @JsonProperty("standbyPollInterval")
+    @Min(1)
+    public int standbyPollInterval = 60;
+
     public RestoreOperationRequest() {
         // for picocli
     }
@@ -200,6 +249,9 @@ public class RestoreOperationRequest extends BaseRestoreOperationRequest {
         return MoreObjects.toStringHelper(this)
             .add("storageLocation", storageLocation)
             .add("concurrentConnections", concurrentConnections)
+            .add("bandwidth", bandwidth)
+            .add("dropPageCache", dropPageCache)
+            .add("duration", duration)
             .add("cassandraDirectory", cassandraDirectory)
             .add("restoreSystemKeyspace", restoreSystemKeyspace)
             .add("snapshotTag", snapshotTag)
@@ -222,7 +274,14 @@ public class RestoreOperationRequest extends BaseRestoreOperationRequest {
             .add("newCluster", newCluster)
             .add("skipBucketVerification", skipBucketVerification)
             .add("proxySettings", proxySettings)
+            .add("governorSettings", governorSettings)
             .add("cassandraVersion", cassandraVersion)
+            .add("tokenRanges", tokenRanges)
+            .add("pipelined", pipelined)
+            .add("restorationParallelism", restorationParallelism)
+            .add("localReuse", localReuse)
+            .add("standby", standby)
+            .add("standbyPollInterval", standbyPollInterval)
             .toString();
     }
 }
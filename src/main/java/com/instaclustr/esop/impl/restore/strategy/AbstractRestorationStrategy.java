@@ -10,6 +10,8 @@ import java.util.Set;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.inject.Provider;
 import com.instaclustr.esop.guice.BucketServiceFactory;
+import com.instaclustr.esop.impl.interaction.CachingInteraction;
+import com.instaclustr.esop.impl.interaction.CassandraSchemaVersion;
 import com.instaclustr.esop.impl.restore.DownloadTracker;
 import com.instaclustr.esop.impl.restore.RestorationPhase;
 import com.instaclustr.esop.impl.restore.RestorationPhase.ClusterHealthCheckPhase;
@@ -75,6 +77,11 @@ public abstract class AbstractRestorationStrategy implements RestorationStrategy
         final FileLock fileLock = new GlobalLock(operation.request.lockFile).waitForLock();
 
         try {
+            // a schema might have changed since the last restore, a manifest is resolved by the current schema version
+            if (cassandraJMXService != null) {
+                CachingInteraction.invalidate(cassandraJMXService, CassandraSchemaVersion.class);
+            }
+
             final RestorationPhase restorationPhase = resolveRestorationPhase(operation, restorer);
 
             final Set<RestorationPhaseType> restorationPhaseTypes = of(RestorationPhaseType.DOWNLOAD, RestorationPhaseType.TRUNCATE, RestorationPhaseType.IMPORT).collect(toSet());
@@ -19,6 +19,7 @@ import com.instaclustr.esop.impl.restore.RestorationPhase.CleaningPhase;
 import com.instaclustr.esop.impl.restore.RestorationPhase.DownloadingPhase;
 import com.instaclustr.esop.impl.restore.RestorationPhase.HardlinkingPhase;
 import com.instaclustr.esop.impl.restore.RestorationPhase.InitPhase;
+import com.instaclustr.esop.impl.restore.RestorationPhase.PipelinedHardlinkingPhase;
 import com.instaclustr.esop.impl.restore.RestorationPhase.RestorationPhaseType;
 import com.instaclustr.esop.impl.restore.RestorationPhase.TruncatingPhase;
 import com.instaclustr.esop.impl.restore.RestoreOperationRequest;
@@ -39,6 +40,9 @@ import jmx.org.apache.cassandra.service.CassandraJMXService;
  * 5) clean temporary folder
  * }
  * </pre>
+ *
+ * If a request is pipelined, every table is restored in downloading phase as soon as its files are downloaded,
+ * tables have to be truncated before that phase.
  */
 public class HardlinkingRestorationStrategy extends AbstractRestorationStrategy {
 
@@ -65,6 +69,10 @@ public class HardlinkingRestorationStrategy extends AbstractRestorationStrategy
         if (phaseType == RestorationPhaseType.INIT) {
             return new InitPhase(ctxt);
         } else if (phaseType == DOWNLOAD) {
+            if (ctxt.operation.request.pipelined) {
+                return new PipelinedHardlinkingPhase(ctxt);
+            }
+
             return new DownloadingPhase(ctxt);
         } else if (phaseType == TRUNCATE) {
             return new TruncatingPhase(ctxt);
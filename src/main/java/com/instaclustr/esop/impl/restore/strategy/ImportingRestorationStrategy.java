@@ -14,6 +14,7 @@ import com.instaclustr.esop.impl.restore.RestorationPhase.CleaningPhase;
 import com.instaclustr.esop.impl.restore.RestorationPhase.DownloadingPhase;
 import com.instaclustr.esop.impl.restore.RestorationPhase.ImportingPhase;
 import com.instaclustr.esop.impl.restore.RestorationPhase.InitPhase;
+import com.instaclustr.esop.impl.restore.RestorationPhase.PipelinedImportingPhase;
 import com.instaclustr.esop.impl.restore.RestorationPhase.RestorationPhaseType;
 import com.instaclustr.esop.impl.restore.RestorationPhase.TruncatingPhase;
 import com.instaclustr.esop.impl.restore.Restorer;
@@ -34,6 +35,9 @@ import jmx.org.apache.cassandra.service.CassandraJMXService;
  * 4) clean temporary folder
  * }
  * </pre>
+ *
+ * If a request is pipelined, every table is restored in downloading phase as soon as its files are downloaded,
+ * tables have to be truncated before that phase.
  */
 public class ImportingRestorationStrategy extends AbstractRestorationStrategy {
 
@@ -70,6 +74,10 @@ public class ImportingRestorationStrategy extends AbstractRestorationStrategy {
         if (phaseType == RestorationPhaseType.INIT) {
             return new InitPhase(ctxt);
         } else if (phaseType == RestorationPhaseType.DOWNLOAD) {
+            if (ctxt.operation.request.pipelined) {
+                return new PipelinedImportingPhase(ctxt);
+            }
+
             return new DownloadingPhase(ctxt);
         } else if (phaseType == RestorationPhaseType.TRUNCATE) {
             return new TruncatingPhase(ctxt);
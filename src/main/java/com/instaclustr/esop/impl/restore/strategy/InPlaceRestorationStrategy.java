@@ -2,18 +2,28 @@ package com.instaclustr.esop.impl.restore.strategy;
 
 import static com.instaclustr.io.FileUtils.cleanDirectory;
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 import java.nio.channels.FileLock;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Inject;
 import com.instaclustr.esop.guice.BucketServiceFactory;
 import com.instaclustr.esop.impl.AbstractTracker.Session;
@@ -21,11 +31,11 @@ import com.instaclustr.esop.impl.BucketService;
 import com.instaclustr.esop.impl.DatabaseEntities;
 import com.instaclustr.esop.impl.Manifest;
 import com.instaclustr.esop.impl.ManifestEntry;
-import com.instaclustr.esop.impl.ManifestEntry.Type;
 import com.instaclustr.esop.impl.SSTableUtils;
 import com.instaclustr.esop.impl.StorageLocation;
 import com.instaclustr.esop.impl.restore.DownloadTracker;
 import com.instaclustr.esop.impl.restore.DownloadTracker.DownloadUnit;
+import com.instaclustr.esop.impl.restore.LocalContentIndex;
 import com.instaclustr.esop.impl.restore.RestorationStrategy;
 import com.instaclustr.esop.impl.restore.RestorationUtilities;
 import com.instaclustr.esop.impl.restore.RestoreOperationRequest;
@@ -36,6 +46,7 @@ import com.instaclustr.io.FileUtils;
 import com.instaclustr.io.GlobalLock;
 import com.instaclustr.kubernetes.KubernetesHelper;
 import com.instaclustr.operations.Operation;
+import com.instaclustr.threading.Executors.FixedTasksExecutorSupplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,11 +57,18 @@ import org.slf4j.LoggerFactory;
  * This strategy is expected to be run on stopped node only so we do not need to check its health either.
  *
  * This strategy is use in Cassandra operator upon the restoration of whole Cassandra cluster.
+ *
+ * In standby mode, this strategy keeps running and restores every new backup of a node as it appears,
+ * so a stopped standby node is always close to the latest backup and it is ready to be started.
  */
 public class InPlaceRestorationStrategy implements RestorationStrategy {
 
     private static final Logger logger = LoggerFactory.getLogger(InPlaceRestorationStrategy.class);
 
+    private static final int VERIFICATION_BATCH_SIZE = 100;
+
+    private static final int DELETION_BATCH_SIZE = 1000;
+
     private final ObjectMapper objectMapper;
     private final DownloadTracker downloadTracker;
     private final Map<String, BucketServiceFactory> bucketServiceFactoryMap;
@@ -72,164 +90,257 @@ public class InPlaceRestorationStrategy implements RestorationStrategy {
         final FileLock fileLock = new GlobalLock(request.lockFile).waitForLock();
 
         try {
-            if (operation.request.restorationStrategyType != RestorationStrategyType.IN_PLACE) {
-                throw new IllegalStateException(format("restorationStrategyType has to be of type '%s' in case you want to use %s, it is of type '%s'",
-                                                       RestorationStrategyType.IN_PLACE,
-                                                       InPlaceRestorationStrategy.class.getName(),
-                                                       operation.request.restorationStrategyType));
+            prepare(restorer, operation);
+
+            if (!request.standby) {
+                apply(restorer, operation, Collections.emptyMap(), request.updateCassandraYaml);
+                return;
             }
+        } finally {
+            fileLock.release();
+        }
+
+        standby(restorer, operation);
+    }
+
+    /**
+     * Restores every new backup of a node until an operation is cancelled. Files which were applied from a previous backup
+     * and which have not changed are neither verified nor downloaded again, so a node is only as far behind as it takes
+     * to download SSTables written since a previous backup.
+     */
+    private void standby(final Restorer restorer, final Operation<RestoreOperationRequest> operation) throws Exception {
+        final RestoreOperationRequest request = operation.request;
+        final String snapshotTagPrefix = request.snapshotTag;
+
+        String appliedSnapshotTag = null;
+        Map<Path, String> appliedFiles = Collections.emptyMap();
+        boolean updateCassandraYaml = request.updateCassandraYaml;
 
-            // 0. check that bucket is there
+        logger.info("Standby restoration of backups with snapshot tags starting with {} has started.", snapshotTagPrefix);
 
-            if (!request.skipBucketVerification) {
-                try (final BucketService bucketService = bucketServiceFactoryMap.get(request.storageLocation.storageProvider).createBucketService(request)) {
-                    bucketService.checkBucket(request.storageLocation.bucket, false);
+        while (!operation.getShouldCancel().get()) {
+            try {
+                final Optional<String> latestSnapshotTag = RestorationUtilities.resolveLatestSnapshotTag(request, restorer, snapshotTagPrefix, objectMapper);
+
+                if (latestSnapshotTag.isPresent() && !latestSnapshotTag.get().equals(appliedSnapshotTag)) {
+                    logger.info("Restoring backup {} on standby node, previously restored backup is {}", latestSnapshotTag.get(), appliedSnapshotTag);
+
+                    request.snapshotTag = latestSnapshotTag.get();
+
+                    final FileLock fileLock = new GlobalLock(request.lockFile).waitForLock();
+
+                    try {
+                        appliedFiles = apply(restorer, operation, appliedFiles, updateCassandraYaml);
+                    } finally {
+                        fileLock.release();
+                    }
+
+                    appliedSnapshotTag = latestSnapshotTag.get();
+                    // tokens and auto_bootstrap do not change between backups of a node
+                    updateCassandraYaml = false;
+
+                    logger.info("Backup {} was restored on standby node.", appliedSnapshotTag);
                 }
+            } catch (final Exception ex) {
+                logger.error("Unable to restore the latest backup on standby node, it will be retried.", ex);
+                // local files might be in any state now, they have to be verified again
+                appliedFiles = Collections.emptyMap();
             }
 
-            // 1. Resolve node to restore to
+            try {
+                Thread.sleep(SECONDS.toMillis(request.standbyPollInterval));
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
 
-            if (operation.request.resolveHostIdFromTopology) {
-                final NodeTopology nodeTopology = getNodeTopology(restorer, request);
-                // here, nodeTopology.nodeId is uuid, not hostname
-                operation.request.storageLocation = StorageLocation.updateNodeId(operation.request.storageLocation, nodeTopology.nodeId);
-                restorer.updateStorageLocation(operation.request.storageLocation);
-                logger.info(format("Updated storage location to %s", operation.request.storageLocation));
+        logger.info("Standby restoration has finished, the last restored backup is {}", appliedSnapshotTag);
+    }
+
+    private void prepare(final Restorer restorer, final Operation<RestoreOperationRequest> operation) throws Exception {
+
+        final RestoreOperationRequest request = operation.request;
+
+        if (operation.request.restorationStrategyType != RestorationStrategyType.IN_PLACE) {
+            throw new IllegalStateException(format("restorationStrategyType has to be of type '%s' in case you want to use %s, it is of type '%s'",
+                                                   RestorationStrategyType.IN_PLACE,
+                                                   InPlaceRestorationStrategy.class.getName(),
+                                                   operation.request.restorationStrategyType));
+        }
+
+        // 0. check that bucket is there
+
+        if (!request.skipBucketVerification) {
+            try (final BucketService bucketService = bucketServiceFactoryMap.get(request.storageLocation.storageProvider).createBucketService(request)) {
+                bucketService.checkBucket(request.storageLocation.bucket, false);
             }
+        }
 
-            // 2. Download the manifest & tokens, chance to error out soon before we actually pull big files if something goes wrong here
-            logger.info("Retrieving manifest for snapshot: {}", request.snapshotTag);
+        // 1. Resolve node to restore to
+
+        if (operation.request.resolveHostIdFromTopology) {
+            final NodeTopology nodeTopology = getNodeTopology(restorer, request);
+            // here, nodeTopology.nodeId is uuid, not hostname
+            operation.request.storageLocation = StorageLocation.updateNodeId(operation.request.storageLocation, nodeTopology.nodeId);
+            restorer.updateStorageLocation(operation.request.storageLocation);
+            logger.info(format("Updated storage location to %s", operation.request.storageLocation));
+        }
+    }
 
-            final Manifest manifest = RestorationUtilities.downloadManifest(operation.request, restorer, null, objectMapper);
-            manifest.enrichManifestEntries(request.cassandraDirectory);
-            final DatabaseEntities filteredManifestDatabaseEntities = manifest.getDatabaseEntities(true).filter(request.entities,
-                                                                                                                request.restoreSystemKeyspace,
-                                                                                                                request.newCluster);
+    /**
+     * Makes data of a node equal to a backup of a snapshot tag of a request.
+     *
+     * @param appliedFiles object keys of local files of a previously applied backup, files of same keys are not verified
+     * @param updateCassandraYaml true if cassandra.yaml should be updated
+     * @return object keys of local files of an applied backup
+     */
+    private Map<Path, String> apply(final Restorer restorer,
+                                    final Operation<RestoreOperationRequest> operation,
+                                    final Map<Path, String> appliedFiles,
+                                    final boolean updateCassandraYaml) throws Exception {
 
-            final List<ManifestEntry> manifestFiles = manifest.getManifestFiles(filteredManifestDatabaseEntities,
-                                                                                request.restoreSystemKeyspace,
-                                                                                request.newCluster,
-                                                                                true,
-                                                                                operation.request.cassandraVersion);
+        final RestoreOperationRequest request = operation.request;
 
-            // 3. Build a list of all SSTables currently present, that are candidates for deleting
-            final Set<Path> existingFiles = Manifest.getLocalExistingEntries(request.dirs.data());
+        // 2. Download the manifest & tokens, chance to error out soon before we actually pull big files if something goes wrong here
+        logger.info("Retrieving manifest for snapshot: {}", request.snapshotTag);
 
-            final List<ManifestEntry> entriesToDownload = new ArrayList<>();
-            final List<Path> filesToDelete = new ArrayList<>();
+        final Manifest manifest = RestorationUtilities.downloadManifest(operation.request, restorer, null, objectMapper);
+        manifest.enrichManifestEntries(request.cassandraDirectory);
+        final DatabaseEntities filteredManifestDatabaseEntities = manifest.getDatabaseEntities(true).filter(request.entities,
+                                                                                                            request.restoreSystemKeyspace,
+                                                                                                            request.newCluster);
 
-            logger.info("Restoring to existing cluster: {}", existingFiles.size() > 0);
+        final List<ManifestEntry> manifestFiles = manifest.getManifestFiles(filteredManifestDatabaseEntities,
+                                                                            request.restoreSystemKeyspace,
+                                                                            request.newCluster,
+                                                                            true,
+                                                                            operation.request.cassandraVersion);
 
-            // the first round, see what is in manifest and what is currently present,
-            // if it is not present, we will download it
+        // 3. Build a list of all SSTables currently present, that are candidates for deleting
+        final Set<Path> existingFiles = Manifest.getLocalExistingEntries(request.dirs.data());
 
-            for (final ManifestEntry manifestFile : manifestFiles) {
-                // do not download schemas
-                if (manifestFile.type == Type.CQL_SCHEMA) {
-                    continue;
-                }
+        logger.info("Restoring to existing cluster: {}", existingFiles.size() > 0);
 
-                if (Files.exists(manifestFile.localFile)) {
-                    // this file exists on a local disk as well as in manifest, there is nothing to download nor remove
-                    logger.info(String.format("%s found locally, not downloading", manifestFile.localFile));
-                } else {
-                    // if it does not exist locally, we have to download it
-                    entriesToDownload.add(manifestFile);
-                }
-            }
+        // see what is in manifest and what is currently present, if it is not present, we will download it,
+        // if it is present locally but it is not in the manifest, we need to remove it from disk,
+        // token ranges limit only what is downloaded, not what is kept
+        final List<ManifestEntry> downloadCandidates = manifest.filterByTokenRanges(manifestFiles, request.tokenRanges);
+        final LocalManifestDiff diff = LocalManifestDiff.compute(manifestFiles, downloadCandidates, existingFiles);
 
-            // the second round, see what is present locally but it is not in the manifest
-            // if it is not in the manifest, we need to remove it from disk
+        // files present both locally and in manifest have to have same hash, otherwise they are replaced
+        // files of a previously applied backup which are in a new backup under the same key did not change
+        final List<Path> corruptedFiles = verifyPresentFiles(diff.toVerify(appliedFiles));
+        final Set<Path> candidatePaths = new HashSet<>();
 
-            for (final Path localExistingFile : existingFiles) {
-                // if it is not in manifest
+        for (final ManifestEntry entry : downloadCandidates) {
+            candidatePaths.add(entry.getLocalFile());
+        }
 
-                final Optional<ManifestEntry> first = manifestFiles.stream().filter(me -> me.localFile.equals(localExistingFile)).findFirst();
+        final List<ManifestEntry> missingEntries = new ArrayList<>(diff.missing);
 
-                if (first.isPresent()) {
-                    // if it exists, hash has to be same, otherwise delete it
-                    if (!SSTableUtils.isExistingSStable(first.get().localFile, first.get().objectKey.getName(SSTableUtils.isSecondaryIndexManifest(first.get().objectKey) ? 4 : 3).toString())) {
-                        filesToDelete.add(localExistingFile);
-                    }
-                } else {
-                    filesToDelete.add(localExistingFile);
-                }
+        for (final Path corruptedFile : corruptedFiles) {
+            if (candidatePaths.contains(corruptedFile)) {
+                missingEntries.add(diff.present.get(corruptedFile));
             }
+        }
 
-            // 4. Download files in the manifest
+        logger.info("{} files found locally, {} of them are going to be replaced, {} files missing, {} files to delete",
+                    diff.present.size(),
+                    corruptedFiles.size(),
+                    missingEntries.size(),
+                    diff.unknown.size() + corruptedFiles.size());
 
-            Session<DownloadUnit> downloadSession = null;
+        deleteFiles(corruptedFiles);
 
-            try {
-                downloadSession = downloadTracker.submit(restorer, operation, entriesToDownload, operation.request.snapshotTag, operation.request.concurrentConnections);
-                downloadSession.waitUntilConsideredFinished();
-                downloadTracker.cancelIfNecessary(downloadSession);
-            } finally {
-                downloadTracker.removeSession(downloadSession);
+        // missing files might be in snapshots, in incremental backups or in other table directories
+        final List<ManifestEntry> entriesToDownload = request.localReuse
+            ? LocalContentIndex.build(Collections.singletonList(request.dirs.data())).reuse(missingEntries)
+            : missingEntries;
+
+        // 4. Download files in the manifest
+
+        Session<DownloadUnit> downloadSession = null;
+
+        try {
+            downloadSession = downloadTracker.submit(restorer, operation, entriesToDownload, operation.request.snapshotTag, operation.request.concurrentConnections);
+            downloadSession.waitUntilConsideredFinished();
+            downloadTracker.cancelIfNecessary(downloadSession);
+
+            if (request.standby && !downloadSession.isSuccessful()) {
+                throw new IllegalStateException(format("Downloading of files of backup %s has failed", request.snapshotTag));
             }
+        } finally {
+            downloadTracker.removeSession(downloadSession);
+        }
 
-            // 5. Delete any entries left in existingSstableList
-            filesToDelete.forEach(sstablePath -> {
-                logger.info("Deleting existing sstable {}", sstablePath);
-                if (!sstablePath.toFile().delete()) {
-                    logger.warn("Failed to delete {}", sstablePath);
-                }
-            });
+        // 5. Delete any entries left in existingSstableList
+        deleteFiles(diff.unknown);
 
-            // 6. Clean out old data
-            cleanDirectory(request.dirs.hints());
-            cleanDirectory(request.dirs.savedCaches());
-            cleanDirectory(request.dirs.commitLogs());
+        // 6. Clean out old data
+        cleanDirectory(request.dirs.hints());
+        cleanDirectory(request.dirs.savedCaches());
+        cleanDirectory(request.dirs.commitLogs());
 
-            // 7.
+        // 7.
 
-            // K8S will handle copying over tokens.yaml fragment and disabling bootstrap fragment to right directory to be picked up by Cassandra
-            // "standalone / vanilla" Cassandra installations has to cover this manually for now.
-            // in the future, we might implement automatic configuration of cassandra.yaml for standalone installations
-            if (request.updateCassandraYaml) {
+        // K8S will handle copying over tokens.yaml fragment and disabling bootstrap fragment to right directory to be picked up by Cassandra
+        // "standalone / vanilla" Cassandra installations has to cover this manually for now.
+        // in the future, we might implement automatic configuration of cassandra.yaml for standalone installations
+        if (updateCassandraYaml) {
 
-                Path fileToAppendTo;
-                boolean shouldAppend = true;
+            Path fileToAppendTo;
+            boolean shouldAppend = true;
+
+            if (KubernetesHelper.isRunningInKubernetes()) {
+                // Cassandra operator specific dir
+                fileToAppendTo = Paths.get("/var/lib/cassandra/tokens.yaml");
+            } else {
+                fileToAppendTo = request.cassandraConfigDirectory.resolve("cassandra.yaml");
+                if (!Files.exists(fileToAppendTo)) {
+                    logger.info(String.format("File %s does not exist, not going to append to it!", fileToAppendTo));
+                    shouldAppend = false;
+                }
+            }
 
-                if (KubernetesHelper.isRunningInKubernetes()) {
-                    // Cassandra operator specific dir
-                    fileToAppendTo = Paths.get("/var/lib/cassandra/tokens.yaml");
+            if (shouldAppend) {
+                FileUtils.replaceOrAppend(fileToAppendTo,
+                                          content -> content.contains("auto_bootstrap: true"),
+                                          content -> !content.contains("auto_bootstrap"),
+                                          "auto_bootstrap: true",
+                                          "auto_bootstrap: false");
+
+                if (FileUtils.contains(fileToAppendTo, "initial_token") && !FileUtils.contains(fileToAppendTo, "# initial_token")) {
+                    logger.warn(String.format("%s file does already contain 'initial_token' property, this is unexpected and "
+                                                  + "backup tooling is not going to update it for you, please proceed manually, new setting should be: %s",
+                                              fileToAppendTo,
+                                              manifest.getInitialTokensCassandraYamlFragment()));
                 } else {
-                    fileToAppendTo = request.cassandraConfigDirectory.resolve("cassandra.yaml");
-                    if (!Files.exists(fileToAppendTo)) {
-                        logger.info(String.format("File %s does not exist, not going to append to it!", fileToAppendTo));
-                        shouldAppend = false;
-                    }
+                    FileUtils.appendToFile(fileToAppendTo, manifest.getInitialTokensCassandraYamlFragment());
                 }
 
-                if (shouldAppend) {
-                    FileUtils.replaceOrAppend(fileToAppendTo,
-                                              content -> content.contains("auto_bootstrap: true"),
-                                              content -> !content.contains("auto_bootstrap"),
-                                              "auto_bootstrap: true",
-                                              "auto_bootstrap: false");
-
-                    if (FileUtils.contains(fileToAppendTo, "initial_token") && !FileUtils.contains(fileToAppendTo, "# initial_token")) {
-                        logger.warn(String.format("%s file does already contain 'initial_token' property, this is unexpected and "
-                                                      + "backup tooling is not going to update it for you, please proceed manually, new setting should be: %s",
-                                                  fileToAppendTo,
-                                                  manifest.getInitialTokensCassandraYamlFragment()));
-                    } else {
-                        FileUtils.appendToFile(fileToAppendTo, manifest.getInitialTokensCassandraYamlFragment());
-                    }
+                logger.debug(String.format("Content of file %s to which necessary changes for restore were applied: ", fileToAppendTo));
+                logger.debug(new String(Files.readAllBytes(fileToAppendTo)));
+            }
+        } else if (!request.updateCassandraYaml) {
+            logger.info("Update of cassandra.yaml was turned off by --update-cassandra-yaml=false (or not specifying that flag at all.");
+            logger.info("For the successful start of a node by Cassandra operator or manually, you have to do the following:");
+            logger.info("1) add tokens in Cassandra installation dir to cassandra.yaml file");
+            logger.info("2) change 'auto_bootstrap: true' to 'auto_bootstrap: false' in cassandra.yaml");
+        }
 
-                    logger.debug(String.format("Content of file %s to which necessary changes for restore were applied: ", fileToAppendTo));
-                    logger.debug(new String(Files.readAllBytes(fileToAppendTo)));
-                }
-            } else {
-                logger.info("Update of cassandra.yaml was turned off by --update-cassandra-yaml=false (or not specifying that flag at all.");
-                logger.info("For the successful start of a node by Cassandra operator or manually, you have to do the following:");
-                logger.info("1) add tokens in Cassandra installation dir to cassandra.yaml file");
-                logger.info("2) change 'auto_bootstrap: true' to 'auto_bootstrap: false' in cassandra.yaml");
+        final Set<Path> deletedFiles = new HashSet<>(corruptedFiles);
+        final Map<Path, String> restoredFiles = new HashMap<>();
+
+        for (final ManifestEntry entry : manifestFiles) {
+            final Path localFile = entry.getLocalFile();
+
+            if (candidatePaths.contains(localFile) || (diff.present.containsKey(localFile) && !deletedFiles.contains(localFile))) {
+                restoredFiles.put(localFile, entry.objectKey.toString());
             }
-        } finally {
-            fileLock.release();
         }
+
+        return restoredFiles;
     }
 
     @Override
@@ -237,6 +348,50 @@ public class InPlaceRestorationStrategy implements RestorationStrategy {
         return RestorationStrategyType.IN_PLACE;
     }
 
+    private List<Path> verifyPresentFiles(final Map<Path, ManifestEntry> filesToVerify) throws Exception {
+        final List<Path> corruptedFiles = Collections.synchronizedList(new ArrayList<>());
+
+        runInParallel(filesToVerify.entrySet(), VERIFICATION_BATCH_SIZE, entry -> {
+            final ManifestEntry manifestEntry = entry.getValue();
+            final String hash = manifestEntry.objectKey.getName(SSTableUtils.isSecondaryIndexManifest(manifestEntry.objectKey) ? 4 : 3).toString();
+
+            if (!SSTableUtils.isExistingSStable(entry.getKey(), hash)) {
+                corruptedFiles.add(entry.getKey());
+            }
+        });
+
+        return corruptedFiles;
+    }
+
+    private void deleteFiles(final List<Path> files) throws Exception {
+        runInParallel(files, DELETION_BATCH_SIZE, file -> {
+            logger.info("Deleting existing sstable {}", file);
+            if (!file.toFile().delete()) {
+                logger.warn("Failed to delete {}", file);
+            }
+        });
+    }
+
+    private static <T> void runInParallel(final Collection<T> items, final int batchSize, final Consumer<T> action) throws Exception {
+        if (items.isEmpty()) {
+            return;
+        }
+
+        final ListeningExecutorService executorService = new FixedTasksExecutorSupplier().get(Runtime.getRuntime().availableProcessors());
+
+        try {
+            final List<ListenableFuture<?>> futures = new ArrayList<>();
+
+            for (final List<T> batch : Iterables.partition(items, batchSize)) {
+                futures.add(executorService.submit(() -> batch.forEach(action)));
+            }
+
+            Futures.allAsList(futures).get();
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
     private NodeTopology getNodeTopology(final Restorer restorer, final RestoreOperationRequest request) {
         try {
             final String topologyFile = format("topology/%s-%s", request.storageLocation.clusterId, request.snapshotTag);
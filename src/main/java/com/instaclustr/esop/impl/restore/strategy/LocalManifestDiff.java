@@ -0,0 +1,108 @@
+package com.instaclustr.esop.impl.restore.strategy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.instaclustr.esop.impl.ManifestEntry;
+import com.instaclustr.esop.impl.ManifestEntry.Type;
+
+/**
+ * Difference between files of a manifest and files present in a local data directory.
+ *
+ * Manifest entries are indexed by their local paths so every local file is looked up once
+ * instead of scanning all manifest entries for each of them.
+ */
+public class LocalManifestDiff {
+
+    /**
+     * Local files which are in a manifest too, their content has to be verified.
+     */
+    public final Map<Path, ManifestEntry> present;
+
+    /**
+     * Local files which are not in a manifest, they are meant to be deleted.
+     */
+    public final List<Path> unknown;
+
+    /**
+     * Entries to download which are not present locally.
+     */
+    public final List<ManifestEntry> missing;
+
+    private LocalManifestDiff(final Map<Path, ManifestEntry> present,
+                              final List<Path> unknown,
+                              final List<ManifestEntry> missing) {
+        this.present = present;
+        this.unknown = unknown;
+        this.missing = missing;
+    }
+
+    /**
+     * @param manifestFiles all entries of a manifest which are restored
+     * @param downloadCandidates entries which are meant to be downloaded if not present locally, schemas are skipped
+     * @param existingFiles files present in a local data directory
+     * @return difference between a manifest and a local data directory
+     */
+    public static LocalManifestDiff compute(final Collection<ManifestEntry> manifestFiles,
+                                            final Collection<ManifestEntry> downloadCandidates,
+                                            final Set<Path> existingFiles) {
+        final Map<Path, ManifestEntry> index = new HashMap<>(manifestFiles.size() * 2);
+
+        for (final ManifestEntry entry : manifestFiles) {
+            index.putIfAbsent(entry.getLocalFile(), entry);
+        }
+
+        final Map<Path, ManifestEntry> present = new LinkedHashMap<>();
+        final List<Path> unknown = new ArrayList<>();
+
+        for (final Path existingFile : existingFiles) {
+            final ManifestEntry entry = index.get(existingFile);
+
+            if (entry == null) {
+                unknown.add(existingFile);
+            } else {
+                present.put(existingFile, entry);
+            }
+        }
+
+        final List<ManifestEntry> missing = new ArrayList<>();
+
+        for (final ManifestEntry entry : downloadCandidates) {
+            if (entry.type == Type.CQL_SCHEMA) {
+                continue;
+            }
+
+            final Path localFile = entry.getLocalFile();
+
+            // existing files are collected only to a limited depth of a data dir
+            if (!existingFiles.contains(localFile) && !Files.exists(localFile)) {
+                missing.add(entry);
+            }
+        }
+
+        return new LocalManifestDiff(present, unknown, missing);
+    }
+
+    /**
+     * @param appliedFiles object keys of local files of a previously applied backup
+     * @return present files which have to be verified, files applied from a previous backup under the same object key did not change
+     */
+    public Map<Path, ManifestEntry> toVerify(final Map<Path, String> appliedFiles) {
+        final Map<Path, ManifestEntry> toVerify = new LinkedHashMap<>();
+
+        for (final Map.Entry<Path, ManifestEntry> entry : present.entrySet()) {
+            if (!entry.getValue().objectKey.toString().equals(appliedFiles.get(entry.getKey()))) {
+                toVerify.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        return toVerify;
+    }
+}
@@ -1,10 +1,18 @@
 package com.instaclustr.esop.local;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+
 import java.io.File;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 
 import com.google.inject.assistedinject.Assisted;
 import com.google.inject.assistedinject.AssistedInject;
@@ -67,6 +75,56 @@ public class LocalFileBackuper extends Backuper {
         Files.write(dir.resolve(objectReference.objectKey), text.getBytes());
     }
 
+    @Override
+    public Optional<String> downloadText(final RemoteObjectReference objectReference) throws Exception {
+        final Path remotePath = resolveFullRemoteObjectPath(objectReference);
+
+        if (!Files.exists(remotePath)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new String(Files.readAllBytes(remotePath), UTF_8));
+    }
+
+    @Override
+    public Optional<byte[]> downloadBytes(final RemoteObjectReference objectReference) throws Exception {
+        final Path remotePath = resolveFullRemoteObjectPath(objectReference);
+
+        if (!Files.exists(remotePath)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(Files.readAllBytes(remotePath));
+    }
+
+    @Override
+    public void consumeNodeObjects(final Path prefix, final BiConsumer<Path, Long> consumer) throws Exception {
+        final Path bucketDirectory = request.storageLocation.fileBackupDirectory.resolve(request.storageLocation.bucket);
+        final Path nodeDirectory = bucketDirectory.resolve(resolveNodeAwareRemotePath(Paths.get("")));
+        final Path directoryToWalk = bucketDirectory.resolve(resolveNodeAwareRemotePath(prefix));
+
+        if (!Files.exists(directoryToWalk)) {
+            return;
+        }
+
+        final List<Path> paths;
+
+        try (final Stream<Path> walked = Files.walk(directoryToWalk)) {
+            paths = walked.filter(Files::isRegularFile).collect(toList());
+        }
+
+        for (final Path path : paths) {
+            consumer.accept(nodeDirectory.relativize(path), Files.getLastModifiedTime(path).toMillis());
+        }
+    }
+
+    @Override
+    public void deleteNodeObjects(final List<Path> objectKeys) throws Exception {
+        for (final Path objectKey : objectKeys) {
+            Files.deleteIfExists(resolveFullRemoteObjectPath(objectKeyToNodeAwareRemoteReference(objectKey)));
+        }
+    }
+
     @Override
     public void cleanup() throws Exception {
         //No clean up required
@@ -2,24 +2,34 @@ package com.instaclustr.esop.s3;
 
 import static com.amazonaws.event.ProgressEventType.TRANSFER_COMPLETED_EVENT;
 import static com.amazonaws.event.ProgressEventType.TRANSFER_FAILED_EVENT;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Optional.ofNullable;
+import static java.util.stream.Collectors.toList;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.event.ProgressEvent;
 import com.amazonaws.event.ProgressEventType;
+import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.model.ObjectListing;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.amazonaws.services.s3.model.StorageClass;
 import com.amazonaws.services.s3.transfer.PersistableTransfer;
 import com.amazonaws.services.s3.transfer.TransferManager;
 import com.amazonaws.services.s3.transfer.internal.S3ProgressListener;
+import com.amazonaws.util.IOUtils;
 import com.instaclustr.esop.impl.RemoteObjectReference;
 import com.instaclustr.esop.impl.backup.BackupCommitLogsOperationRequest;
 import com.instaclustr.esop.impl.backup.BackupOperationRequest;
@@ -107,6 +117,118 @@ public class BaseS3Backuper extends Backuper {
         upload(s3RemoteObjectReference, putObjectRequest);
     }
 
+    @Override
+    public Optional<String> downloadText(final RemoteObjectReference objectReference) {
+        final S3RemoteObjectReference s3RemoteObjectReference = (S3RemoteObjectReference) objectReference;
+
+        try {
+            return Optional.of(transferManager.getAmazonS3Client().getObjectAsString(request.storageLocation.bucket, s3RemoteObjectReference.canonicalPath));
+        } catch (final AmazonServiceException e) {
+            if (e.getStatusCode() != 404) {
+                throw e;
+            }
+
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Optional<VersionedText> downloadVersionedText(final RemoteObjectReference objectReference) throws Exception {
+        final S3RemoteObjectReference s3RemoteObjectReference = (S3RemoteObjectReference) objectReference;
+
+        try (final S3Object object = transferManager.getAmazonS3Client().getObject(request.storageLocation.bucket, s3RemoteObjectReference.canonicalPath)) {
+            return Optional.of(new VersionedText(new String(IOUtils.toByteArray(object.getObjectContent()), UTF_8), object.getObjectMetadata().getETag()));
+        } catch (final AmazonServiceException e) {
+            if (e.getStatusCode() != 404) {
+                throw e;
+            }
+
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public boolean supportsConditionalUpload() {
+        return true;
+    }
+
+    @Override
+    public boolean uploadTextIfUnchanged(final String text, final RemoteObjectReference objectReference, final String version) {
+        final S3RemoteObjectReference s3RemoteObjectReference = (S3RemoteObjectReference) objectReference;
+        final byte[] bytes = text.getBytes(UTF_8);
+
+        final PutObjectRequest putObjectRequest = new PutObjectRequest(request.storageLocation.bucket,
+                                                                       s3RemoteObjectReference.canonicalPath,
+                                                                       new ByteArrayInputStream(bytes),
+                                                                       new ObjectMetadata() {{
+                                                                           setContentLength(bytes.length);
+                                                                       }});
+
+        // this client does not model conditional writes of S3, they are sent as plain headers,
+        // an S3 compatible storage ignoring them replaces an object unconditionally
+        if (version == null) {
+            putObjectRequest.putCustomRequestHeader("If-None-Match", "*");
+        } else {
+            putObjectRequest.putCustomRequestHeader("If-Match", version.startsWith("\"") ? version : "\"" + version + "\"");
+        }
+
+        try {
+            transferManager.getAmazonS3Client().putObject(putObjectRequest);
+            return true;
+        } catch (final AmazonServiceException e) {
+            // 412 if an object was changed or created, 409 if it was changed by a concurrent conditional write, 404 if it was deleted
+            if (e.getStatusCode() == 412 || e.getStatusCode() == 409 || (e.getStatusCode() == 404 && version != null)) {
+                return false;
+            }
+
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<byte[]> downloadBytes(final RemoteObjectReference objectReference) throws Exception {
+        final S3RemoteObjectReference s3RemoteObjectReference = (S3RemoteObjectReference) objectReference;
+
+        try (final S3Object object = transferManager.getAmazonS3Client().getObject(request.storageLocation.bucket, s3RemoteObjectReference.canonicalPath)) {
+            return Optional.of(IOUtils.toByteArray(object.getObjectContent()));
+        } catch (final AmazonServiceException e) {
+            if (e.getStatusCode() != 404) {
+                throw e;
+            }
+
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void consumeNodeObjects(final Path prefix, final BiConsumer<Path, Long> consumer) {
+        final AmazonS3 amazonS3 = transferManager.getAmazonS3Client();
+        final Path nodePath = Paths.get(resolveNodeAwareRemotePath(Paths.get("")));
+
+        ObjectListing objectListing = amazonS3.listObjects(request.storageLocation.bucket, resolveNodeAwareRemotePath(prefix) + "/");
+
+        while (true) {
+            for (final S3ObjectSummary summary : objectListing.getObjectSummaries()) {
+                if (!summary.getKey().endsWith("/")) {
+                    consumer.accept(nodePath.relativize(Paths.get(summary.getKey())), summary.getLastModified().getTime());
+                }
+            }
+
+            if (!objectListing.isTruncated()) {
+                break;
+            }
+
+            objectListing = amazonS3.listNextBatchOfObjects(objectListing);
+        }
+    }
+
+    @Override
+    public void deleteNodeObjects(final List<Path> objectKeys) {
+        S3BatchDelete.delete(transferManager.getAmazonS3Client(),
+                             request.storageLocation.bucket,
+                             objectKeys.stream().map(this::resolveNodeAwareRemotePath).collect(toList()));
+    }
+
     private void upload(final S3RemoteObjectReference s3RemoteObjectReference,
                         final PutObjectRequest putObjectRequest) throws Exception {
         final UploadProgressListener listener = new UploadProgressListener(s3RemoteObjectReference);
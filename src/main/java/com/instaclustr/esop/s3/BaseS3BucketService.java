@@ -1,6 +1,7 @@
 package com.instaclustr.esop.s3;
 
 import static java.lang.String.format;
+import static java.util.stream.Collectors.toList;
 
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
@@ -102,9 +103,8 @@ public class BaseS3BucketService extends BucketService {
         }
     }
 
-    private void delete(final AmazonS3 s3Client, final ObjectListing objectListing, final String bucketName) throws BucketServiceException {
-        for (final S3ObjectSummary summary : objectListing.getObjectSummaries()) {
-            s3Client.deleteObject(bucketName, summary.getKey());
-        }
+    private void delete(final AmazonS3 s3Client, final ObjectListing objectListing, final String bucketName) {
+        // a listing has at most 1000 keys so a page is deleted by one request
+        S3BatchDelete.delete(s3Client, bucketName, objectListing.getObjectSummaries().stream().map(S3ObjectSummary::getKey).collect(toList()));
     }
 }
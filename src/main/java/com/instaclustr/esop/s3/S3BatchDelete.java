@@ -0,0 +1,35 @@
+package com.instaclustr.esop.s3;
+
+import static java.util.stream.Collectors.toList;
+
+import java.util.List;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest.KeyVersion;
+import com.google.common.collect.Lists;
+
+/**
+ * Deletes objects by DeleteObjects requests instead of one request per object.
+ */
+final class S3BatchDelete {
+
+    // S3 deletes at most 1000 objects in one request
+    static final int MAX_KEYS = 1000;
+
+    private S3BatchDelete() {
+    }
+
+    /**
+     * @param amazonS3 client to delete objects with
+     * @param bucket bucket to delete objects from
+     * @param keys keys of objects to delete, keys of objects which do not exist are skipped by S3
+     */
+    static void delete(final AmazonS3 amazonS3, final String bucket, final List<String> keys) {
+        for (final List<String> batch : Lists.partition(keys, MAX_KEYS)) {
+            amazonS3.deleteObjects(new DeleteObjectsRequest(bucket)
+                                       .withKeys(batch.stream().map(KeyVersion::new).collect(toList()))
+                                       .withQuiet(true));
+        }
+    }
+}
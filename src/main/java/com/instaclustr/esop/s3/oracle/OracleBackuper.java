@@ -20,4 +20,13 @@ public class OracleBackuper extends BaseS3Backuper {
                           @Assisted final BackupCommitLogsOperationRequest request) {
         super(transferManagerFactory, request);
     }
+
+    /**
+     * S3 compatibility API of Oracle Object Storage does not document conditional headers of S3 uploads,
+     * an upload ignoring them would replace an object unconditionally.
+     */
+    @Override
+    public boolean supportsConditionalUpload() {
+        return false;
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.instaclustr.esop.topology;
 
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 
@@ -10,19 +11,27 @@ import java.net.InetAddress;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.MoreObjects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.instaclustr.cassandra.CassandraInteraction;
 import com.instaclustr.esop.impl.backup.Backuper;
 import com.instaclustr.esop.impl.interaction.CassandraSchemaVersion;
 import com.instaclustr.esop.topology.CassandraClusterTopology.ClusterTopology;
+import com.instaclustr.threading.Executors.FixedTasksExecutorSupplier;
 import jmx.org.apache.cassandra.service.CassandraJMXService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +40,13 @@ public class CassandraClusterTopology implements CassandraInteraction<ClusterTop
 
     private static final Logger logger = LoggerFactory.getLogger(CassandraClusterTopology.class);
 
+    // endpoints of a cluster are resolved at the end of every backup, backups following each other shortly
+    // reuse them, a schema version is always resolved as it is part of a backup
+    private static final Cache<CassandraJMXService, ResolvedEndpoints> RESOLVED_ENDPOINTS = CacheBuilder.newBuilder()
+        .weakKeys()
+        .expireAfterWrite(60, SECONDS)
+        .build();
+
     private final CassandraJMXService cassandraJMXService;
     private final String dc;
 
@@ -42,31 +58,79 @@ public class CassandraClusterTopology implements CassandraInteraction<ClusterTop
     @Override
     public ClusterTopology act() throws Exception {
 
+        final ResolvedEndpoints resolved;
+
+        try {
+            resolved = RESOLVED_ENDPOINTS.get(cassandraJMXService, this::resolveEndpoints);
+        } catch (final ExecutionException ex) {
+            throw ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex;
+        }
+
+        final String schemaVersion = new CassandraSchemaVersion(cassandraJMXService).act();
+
+        return constructTopology(resolved.clusterName, resolved.endpoints, resolved.endpointDcs, resolved.hostnames, resolved.endpointRacks, schemaVersion);
+    }
+
+    private ResolvedEndpoints resolveEndpoints() throws Exception {
+
         final String clusterName = new CassandraClusterName(cassandraJMXService).act();
 
         // map of endpoints and host ids
 
         final Map<InetAddress, UUID> endpoints = new CassandraEndpoints(cassandraJMXService).act();
 
-        // map of endpoints and dc they belong to
+        // map of endpoints and hostnames, resolved concurrently with JMX lookups below, on an own thread
+        // as lookups block it until they finish or time out
 
-        final Map<InetAddress, String> endpointDcs = new CassandraEndpointDC(cassandraJMXService, endpoints.keySet()).act();
+        final ListeningExecutorService hostnameExecutorService = new FixedTasksExecutorSupplier().get(1);
 
-        // map of endpoints and hostnames
+        try {
+            final Future<Map<InetAddress, String>> hostnames = hostnameExecutorService.submit(() -> new CassandraHostname(endpoints.keySet()).act());
 
-        final Map<InetAddress, String> hostnames = new CassandraHostname(endpoints.keySet()).act();
+            // map of endpoints and dc they belong to
 
-        // map of endpoints and rack they belong to
+            final Map<InetAddress, String> endpointDcs = new CassandraEndpointDC(cassandraJMXService, endpoints.keySet()).act();
 
-        final Map<InetAddress, String> endpointRacks = new CassandraEndpointRack(cassandraJMXService, endpoints.keySet()).act();
+            // map of endpoints and rack they belong to
 
-        final String schemaVersion = new CassandraSchemaVersion(cassandraJMXService).act();
+            final Map<InetAddress, String> endpointRacks = new CassandraEndpointRack(cassandraJMXService, endpoints.keySet()).act();
 
-        logger.info("Resolved endpoints: {}", endpoints.toString());
-        logger.info("Resolved endpoints and their dc: {}", endpointDcs.toString());
-        logger.info("Resolved cluster name: {}", clusterName);
+            logger.info("Resolved endpoints: {}", endpoints.toString());
+            logger.info("Resolved endpoints and their dc: {}", endpointDcs.toString());
+            logger.info("Resolved cluster name: {}", clusterName);
 
-        return constructTopology(clusterName, endpoints, endpointDcs, hostnames, endpointRacks, schemaVersion);
+            try {
+                return new ResolvedEndpoints(clusterName, endpoints, endpointDcs, hostnames.get(), endpointRacks);
+            } catch (final ExecutionException ex) {
+                throw ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex;
+            }
+        } finally {
+            hostnameExecutorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Endpoints shared by topologies resolved within a while, maps are copied so a topology can not change them.
+     */
+    private static final class ResolvedEndpoints {
+
+        final String clusterName;
+        final Map<InetAddress, UUID> endpoints;
+        final Map<InetAddress, String> endpointDcs;
+        final Map<InetAddress, String> hostnames;
+        final Map<InetAddress, String> endpointRacks;
+
+        ResolvedEndpoints(final String clusterName,
+                          final Map<InetAddress, UUID> endpoints,
+                          final Map<InetAddress, String> endpointDcs,
+                          final Map<InetAddress, String> hostnames,
+                          final Map<InetAddress, String> endpointRacks) {
+            this.clusterName = clusterName;
+            this.endpoints = Collections.unmodifiableMap(new HashMap<>(endpoints));
+            this.endpointDcs = Collections.unmodifiableMap(new HashMap<>(endpointDcs));
+            this.hostnames = Collections.unmodifiableMap(new HashMap<>(hostnames));
+            this.endpointRacks = Collections.unmodifiableMap(new HashMap<>(endpointRacks));
+        }
     }
 
     private ClusterTopology constructTopology(final String clusterName,
@@ -32,19 +32,18 @@ public class CassandraEndpointDC implements CassandraInteraction<Map<InetAddress
     @Override
     public Map<InetAddress, String> act() throws Exception {
 
-        final Map<InetAddress, String> endpointDCMap = new HashMap<>();
-
-        for (final InetAddress endpoint : endpoints) {
-            final String dc = cassandraJMXService.doWithMBean(new FunctionWithEx<EndpointSnitchInfoMBean, String>() {
-                @Override
-                public String apply(final EndpointSnitchInfoMBean mbean) throws Exception {
-                    return mbean.getDatacenter(endpoint.getHostAddress());
+        // all endpoints are resolved by one MBean
+        return cassandraJMXService.doWithMBean(new FunctionWithEx<EndpointSnitchInfoMBean, Map<InetAddress, String>>() {
+            @Override
+            public Map<InetAddress, String> apply(final EndpointSnitchInfoMBean mbean) throws Exception {
+                final Map<InetAddress, String> endpointDCMap = new HashMap<>();
+
+                for (final InetAddress endpoint : endpoints) {
+                    endpointDCMap.put(endpoint, mbean.getDatacenter(endpoint.getHostAddress()));
                 }
-            }, EndpointSnitchInfoMBean.class, V3.ENDPOINT_SNITCH_INFO_MBEAN_NAME);
-
-            endpointDCMap.put(endpoint, dc);
-        }
 
-        return endpointDCMap;
+                return endpointDCMap;
+            }
+        }, EndpointSnitchInfoMBean.class, V3.ENDPOINT_SNITCH_INFO_MBEAN_NAME);
     }
 }
@@ -31,19 +31,18 @@ public class CassandraEndpointRack implements CassandraInteraction<Map<InetAddre
 
     @Override
     public Map<InetAddress, String> act() throws Exception {
-        final Map<InetAddress, String> endpointRackMap = new HashMap<>();
-
-        for (final InetAddress endpoint : endpoints) {
-            final String dc = cassandraJMXService.doWithMBean(new FunctionWithEx<EndpointSnitchInfoMBean, String>() {
-                @Override
-                public String apply(final EndpointSnitchInfoMBean mbean) throws Exception {
-                    return mbean.getRack(endpoint.getHostAddress());
+        // all endpoints are resolved by one MBean
+        return cassandraJMXService.doWithMBean(new FunctionWithEx<EndpointSnitchInfoMBean, Map<InetAddress, String>>() {
+            @Override
+            public Map<InetAddress, String> apply(final EndpointSnitchInfoMBean mbean) throws Exception {
+                final Map<InetAddress, String> endpointRackMap = new HashMap<>();
+
+                for (final InetAddress endpoint : endpoints) {
+                    endpointRackMap.put(endpoint, mbean.getRack(endpoint.getHostAddress()));
                 }
-            }, EndpointSnitchInfoMBean.class, V3.ENDPOINT_SNITCH_INFO_MBEAN_NAME);
-
-            endpointRackMap.put(endpoint, dc);
-        }
 
-        return endpointRackMap;
+                return endpointRackMap;
+            }
+        }, EndpointSnitchInfoMBean.class, V3.ENDPOINT_SNITCH_INFO_MBEAN_NAME);
     }
 }
@@ -37,9 +37,9 @@ public class CassandraEndpoints implements CassandraInteraction<Map<InetAddress,
         }
 
         final Map<InetAddress, UUID> hostsInDC = new HashMap<>();
+        final Map<InetAddress, String> endpointDC = new CassandraEndpointDC(cassandraJMXService, endpointToHostIdMap.keySet()).act();
 
         for (final Entry<InetAddress, UUID> entry : endpointToHostIdMap.entrySet()) {
-            final Map<InetAddress, String> endpointDC = new CassandraEndpointDC(cassandraJMXService, entry.getKey()).act();
             if (dc.equals(endpointDC.get(entry.getKey()))) {
                 hostsInDC.put(entry.getKey(), entry.getValue());
             }
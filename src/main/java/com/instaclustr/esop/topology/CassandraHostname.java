@@ -1,23 +1,77 @@
 package com.instaclustr.esop.topology;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
 import java.net.InetAddress;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
 
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.instaclustr.cassandra.CassandraInteraction;
+import com.instaclustr.threading.Executors.FixedTasksExecutorSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Resolves hostnames of endpoints by reverse DNS lookups done concurrently. An endpoint which is not resolved
+ * until a timeout elapses is represented by its address.
+ */
 public class CassandraHostname implements CassandraInteraction<Map<InetAddress, String>> {
 
-    private Set<InetAddress> endpoints;
+    private static final Logger logger = LoggerFactory.getLogger(CassandraHostname.class);
+
+    private static final long DEFAULT_TIMEOUT_MILLIS = SECONDS.toMillis(10);
+    private static final int MAX_CONCURRENT_LOOKUPS = 32;
+
+    private final Set<InetAddress> endpoints;
+    private final long timeoutMillis;
 
     public CassandraHostname(final Set<InetAddress> endpoints) {
+        this(endpoints, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    public CassandraHostname(final Set<InetAddress> endpoints, final long timeoutMillis) {
         this.endpoints = endpoints;
+        this.timeoutMillis = timeoutMillis;
     }
 
     @Override
     public Map<InetAddress, String> act() throws Exception {
-        return endpoints.stream().collect(Collectors.toMap(Function.identity(), InetAddress::getHostName));
+        final Map<InetAddress, String> hostnames = new HashMap<>();
+
+        if (endpoints.isEmpty()) {
+            return hostnames;
+        }
+
+        final ListeningExecutorService executorService = new FixedTasksExecutorSupplier().get(Math.min(endpoints.size(), MAX_CONCURRENT_LOOKUPS));
+
+        try {
+            final Map<InetAddress, Future<String>> lookups = new HashMap<>();
+
+            for (final InetAddress endpoint : endpoints) {
+                lookups.put(endpoint, executorService.submit(endpoint::getHostName));
+            }
+
+            final long deadline = System.nanoTime() + MILLISECONDS.toNanos(timeoutMillis);
+
+            for (final Map.Entry<InetAddress, Future<String>> lookup : lookups.entrySet()) {
+                try {
+                    hostnames.put(lookup.getKey(), lookup.getValue().get(Math.max(0, deadline - System.nanoTime()), NANOSECONDS));
+                } catch (final TimeoutException | ExecutionException ex) {
+                    logger.warn("Unable to resolve hostname of {} in {} ms, its address is used instead.", lookup.getKey(), timeoutMillis);
+                    hostnames.put(lookup.getKey(), lookup.getKey().getHostAddress());
+                }
+            }
+
+            return hostnames;
+        } finally {
+            executorService.shutdownNow();
+        }
     }
 }
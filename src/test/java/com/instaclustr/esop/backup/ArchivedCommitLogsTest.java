@@ -0,0 +1,109 @@
+package com.instaclustr.esop.backup;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+
+import com.instaclustr.esop.impl.ManifestEntry;
+import com.instaclustr.esop.impl.ManifestEntry.Type;
+import com.instaclustr.esop.impl.backup.ArchivedCommitLogs;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.Test;
+
+public class ArchivedCommitLogsTest {
+
+    private static final String STORAGE_LOCATION = "cluster/dc/node";
+
+    @Test
+    public void testSkipAndRecord() throws Exception {
+        final Path cassandraDir = Files.createTempDirectory("archived-commit-logs");
+
+        try {
+            final Path journal = ArchivedCommitLogs.journalFor(cassandraDir);
+
+            final ManifestEntry first = commitLog(cassandraDir, "CommitLog-7-1.log", 1000);
+            final ManifestEntry second = commitLog(cassandraDir, "CommitLog-7-2.log", 2000);
+
+            final ArchivedCommitLogs archived = ArchivedCommitLogs.load(journal);
+
+            assertFalse(archived.isArchived(first, STORAGE_LOCATION));
+
+            archived.record(Arrays.asList(first, second), STORAGE_LOCATION);
+
+            assertTrue(archived.isArchived(first, STORAGE_LOCATION));
+            assertTrue(archived.isArchived(second, STORAGE_LOCATION));
+
+            // another storage location has not got it yet
+            assertFalse(archived.isArchived(first, "cluster/dc/other-node"));
+
+            // a journal survives a restart
+            final ArchivedCommitLogs reloaded = ArchivedCommitLogs.load(journal);
+
+            assertTrue(reloaded.isArchived(first, STORAGE_LOCATION));
+            assertTrue(reloaded.isArchived(second, STORAGE_LOCATION));
+
+            // a commit log which has grown is uploaded again
+            Files.write(second.getLocalFile(), "more".getBytes(), StandardOpenOption.APPEND);
+
+            assertFalse(reloaded.isArchived(second, STORAGE_LOCATION));
+
+            // a commit log modified since its upload has an object key of a different modification time
+            final ManifestEntry modified = new ManifestEntry(Paths.get("commitlog/" + first.getLocalFile().getFileName() + ".1500"),
+                                                             first.getLocalFile(),
+                                                             Type.FILE,
+                                                             0,
+                                                             null);
+
+            assertFalse(reloaded.isArchived(modified, STORAGE_LOCATION));
+        } finally {
+            FileUtils.deleteDirectory(cassandraDir.toFile());
+        }
+    }
+
+    @Test
+    public void testPrune() throws Exception {
+        final Path cassandraDir = Files.createTempDirectory("archived-commit-logs");
+
+        try {
+            final Path journal = ArchivedCommitLogs.journalFor(cassandraDir);
+
+            final ManifestEntry first = commitLog(cassandraDir, "CommitLog-7-1.log", 1000);
+            final ManifestEntry second = commitLog(cassandraDir, "CommitLog-7-2.log", 2000);
+
+            ArchivedCommitLogs.load(journal).record(Arrays.asList(first, second), STORAGE_LOCATION);
+
+            // written by a broken run
+            Files.write(journal, Collections.singletonList("not a record"), UTF_8, StandardOpenOption.APPEND);
+
+            // recycled by Cassandra
+            Files.delete(first.getLocalFile());
+
+            final ArchivedCommitLogs reloaded = ArchivedCommitLogs.load(journal);
+
+            assertTrue(reloaded.isArchived(second, STORAGE_LOCATION));
+
+            final String content = new String(Files.readAllBytes(journal), UTF_8);
+
+            assertEquals(Files.readAllLines(journal, UTF_8).size(), 1);
+            assertTrue(content.contains(second.getLocalFile().toAbsolutePath().toString()));
+            assertFalse(content.contains(first.getLocalFile().toAbsolutePath().toString()));
+        } finally {
+            FileUtils.deleteDirectory(cassandraDir.toFile());
+        }
+    }
+
+    private ManifestEntry commitLog(final Path cassandraDir, final String name, final long modificationTime) throws Exception {
+        final Path commitLog = Files.createDirectories(cassandraDir.resolve("commitlog")).resolve(name);
+        Files.write(commitLog, "mutations".getBytes());
+
+        return new ManifestEntry(Paths.get("commitlog/" + name + "." + modificationTime), commitLog, Type.FILE, 0, null);
+    }
+}
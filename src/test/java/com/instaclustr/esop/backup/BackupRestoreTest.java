@@ -89,7 +89,7 @@ public class BackupRestoreTest {
 
             Map<Path, Path> manifestMap = new HashMap<>();
             for (ManifestEntry e : manifest) {
-                manifestMap.put(e.localFile, e.objectKey);
+                manifestMap.put(e.getLocalFile(), e.objectKey);
             }
 
             if (CassandraVersion.isTwoZero(testFileConfig.cassandraVersion)) {
@@ -0,0 +1,232 @@
+package com.instaclustr.esop.backup;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Guice;
+import com.instaclustr.esop.impl.DatabaseEntities;
+import com.instaclustr.esop.impl.Manifest;
+import com.instaclustr.esop.impl.ManifestCatalog;
+import com.instaclustr.esop.impl.ManifestCatalog.CatalogEntry;
+import com.instaclustr.esop.impl.ManifestEntry;
+import com.instaclustr.esop.impl.ManifestEntry.Type;
+import com.instaclustr.esop.impl.Snapshots.Snapshot;
+import com.instaclustr.esop.impl.Snapshots.Snapshot.Keyspace;
+import com.instaclustr.esop.impl.Snapshots.Snapshot.Keyspace.Table;
+import com.instaclustr.esop.impl.StorageLocation;
+import com.instaclustr.esop.impl.backup.BackupOperationRequest;
+import com.instaclustr.esop.impl.backup.BackupRetention;
+import com.instaclustr.esop.local.LocalFileBackuper;
+import com.instaclustr.jackson.JacksonModule;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.Test;
+
+public class BackupRetentionTest {
+
+    private static final String TABLE = "data/ks1/tb1-0123456789abcdef0123456789abcdef";
+
+    private static final String SCHEMA_VERSION = "2e6cb7e4-1a5f-3d4e-9a45-2e4b0c8d7f11";
+
+    private final ObjectMapper objectMapper = Guice.createInjector(new JacksonModule()).getInstance(ObjectMapper.class);
+
+    @Test
+    public void testRetention() throws Exception {
+        final Path storage = Files.createTempDirectory("retention-storage");
+
+        try {
+            final Path node = storage.resolve("bucket/cluster/dc/node");
+            final long now = System.currentTimeMillis();
+            final long old = now - HOURS.toMillis(2);
+
+            final String first = "manifests/snap-" + SCHEMA_VERSION + "-" + (now - 2000) + ".json";
+            final String second = "manifests/snap-" + SCHEMA_VERSION + "-" + (now - 1000) + ".json";
+
+            writeManifest(node.resolve(first), old, TABLE + "/1-aaa/md-1-big-Data.db", TABLE + "/schema.cql");
+            writeManifest(node.resolve(second), old, TABLE + "/2-bbb/md-2-big-Data.db", TABLE + "/schema.cql");
+
+            writeObject(node.resolve(TABLE + "/schema.cql"), old);
+            writeObject(node.resolve(TABLE + "/1-aaa/md-1-big-Data.db"), old);
+            writeObject(node.resolve(TABLE + "/2-bbb/md-2-big-Data.db"), old);
+            // left by a failed backup
+            writeObject(node.resolve(TABLE + "/3-ccc/md-3-big-Data.db"), old);
+            // uploaded by a backup still running
+            writeObject(node.resolve(TABLE + "/4-ddd/md-4-big-Data.db"), now);
+
+            try (final LocalFileBackuper backuper = new LocalFileBackuper(request(storage))) {
+                addToCatalog(backuper, first, now - 2000, DatabaseEntities.empty());
+                addToCatalog(backuper, second, now - 1000, DatabaseEntities.empty());
+
+                assertEquals(new BackupRetention(backuper, objectMapper, 2).apply(1, HOURS.toMillis(1), DatabaseEntities.empty()), 2);
+
+                assertEquals(ManifestCatalog.read(backuper, objectMapper).get().getEntries().size(), 1);
+            }
+
+            assertFalse(Files.exists(node.resolve(first)));
+            assertTrue(Files.exists(node.resolve(second)));
+
+            assertTrue(Files.exists(node.resolve(TABLE + "/schema.cql")));
+            assertFalse(Files.exists(node.resolve(TABLE + "/1-aaa/md-1-big-Data.db")));
+            assertTrue(Files.exists(node.resolve(TABLE + "/2-bbb/md-2-big-Data.db")));
+            assertFalse(Files.exists(node.resolve(TABLE + "/3-ccc/md-3-big-Data.db")));
+            assertTrue(Files.exists(node.resolve(TABLE + "/4-ddd/md-4-big-Data.db")));
+        } finally {
+            FileUtils.deleteDirectory(storage.toFile());
+        }
+    }
+
+    /**
+     * Manifests are named by snapshot tags, {@code <tag>-<schema version>-<millis>}. A tag may end with a number
+     * in another unit, e.g. seconds of default autosnap tags, so manifests are ranked by catalog timestamps,
+     * or by modification times of manifests which are not in a catalog.
+     */
+    @Test
+    public void testRetentionRanksManifestsByCatalog() throws Exception {
+        final Path storage = Files.createTempDirectory("retention-storage");
+
+        try {
+            final Path node = storage.resolve("bucket/cluster/dc/node");
+            final long now = System.currentTimeMillis();
+            final long old = now - HOURS.toMillis(4);
+
+            final long weeklyTime = now - HOURS.toMillis(3);
+            final long nightlyTime = now - HOURS.toMillis(2);
+            final long autosnapTime = now - HOURS.toMillis(1);
+
+            final String weekly = "manifests/weekly-" + SCHEMA_VERSION + "-" + weeklyTime + ".json";
+            final String nightly = "manifests/nightly-20231015.json";
+            final String autosnap = "manifests/autosnap-" + MILLISECONDS.toSeconds(autosnapTime) + "-" + SCHEMA_VERSION + "-" + autosnapTime + ".json";
+
+            // a manifest of the oldest backup was copied recently, its modification time is the newest one
+            writeManifest(node.resolve(weekly), now, TABLE + "/1-aaa/md-1-big-Data.db");
+            // a manifest uploaded by an older version, it is not in a catalog
+            writeManifest(node.resolve(nightly), nightlyTime, TABLE + "/2-bbb/md-2-big-Data.db");
+            writeManifest(node.resolve(autosnap), autosnapTime, TABLE + "/3-ccc/md-3-big-Data.db");
+
+            writeObject(node.resolve(TABLE + "/1-aaa/md-1-big-Data.db"), old);
+            writeObject(node.resolve(TABLE + "/2-bbb/md-2-big-Data.db"), old);
+            writeObject(node.resolve(TABLE + "/3-ccc/md-3-big-Data.db"), old);
+
+            try (final LocalFileBackuper backuper = new LocalFileBackuper(request(storage))) {
+                addToCatalog(backuper, weekly, weeklyTime, DatabaseEntities.empty());
+                addToCatalog(backuper, autosnap, autosnapTime, DatabaseEntities.empty());
+
+                assertEquals(new BackupRetention(backuper, objectMapper, 2).apply(2, HOURS.toMillis(1), DatabaseEntities.empty()), 1);
+            }
+
+            assertFalse(Files.exists(node.resolve(weekly)));
+            assertTrue(Files.exists(node.resolve(nightly)));
+            assertTrue(Files.exists(node.resolve(autosnap)));
+
+            assertFalse(Files.exists(node.resolve(TABLE + "/1-aaa/md-1-big-Data.db")));
+            assertTrue(Files.exists(node.resolve(TABLE + "/2-bbb/md-2-big-Data.db")));
+            assertTrue(Files.exists(node.resolve(TABLE + "/3-ccc/md-3-big-Data.db")));
+        } finally {
+            FileUtils.deleteDirectory(storage.toFile());
+        }
+    }
+
+    /**
+     * Hourly backups of one keyspace and a daily backup of another one, retention after a backup of the first keyspace
+     * ranks only its backups.
+     */
+    @Test
+    public void testRetentionRanksOnlyBackupsOfSameEntities() throws Exception {
+        final Path storage = Files.createTempDirectory("retention-storage");
+
+        try {
+            final Path node = storage.resolve("bucket/cluster/dc/node");
+            final long now = System.currentTimeMillis();
+            final long old = now - HOURS.toMillis(5);
+
+            final long dailyTime = now - HOURS.toMillis(4);
+            final long firstHourlyTime = now - HOURS.toMillis(2);
+            final long secondHourlyTime = now - HOURS.toMillis(1);
+
+            final String daily = "manifests/daily-" + SCHEMA_VERSION + "-" + dailyTime + ".json";
+            final String firstHourly = "manifests/hourly-" + SCHEMA_VERSION + "-" + firstHourlyTime + ".json";
+            final String secondHourly = "manifests/hourly-" + SCHEMA_VERSION + "-" + secondHourlyTime + ".json";
+
+            writeManifest(node.resolve(daily), dailyTime, TABLE + "/1-aaa/md-1-big-Data.db", TABLE + "/schema.cql");
+            writeManifest(node.resolve(firstHourly), firstHourlyTime, TABLE + "/2-bbb/md-2-big-Data.db", TABLE + "/schema.cql");
+            writeManifest(node.resolve(secondHourly), secondHourlyTime, TABLE + "/3-ccc/md-3-big-Data.db", TABLE + "/schema.cql");
+
+            writeObject(node.resolve(TABLE + "/schema.cql"), old);
+            writeObject(node.resolve(TABLE + "/1-aaa/md-1-big-Data.db"), old);
+            writeObject(node.resolve(TABLE + "/2-bbb/md-2-big-Data.db"), old);
+            writeObject(node.resolve(TABLE + "/3-ccc/md-3-big-Data.db"), old);
+
+            try (final LocalFileBackuper backuper = new LocalFileBackuper(request(storage))) {
+                addToCatalog(backuper, daily, dailyTime, DatabaseEntities.parse("ks2"));
+                addToCatalog(backuper, firstHourly, firstHourlyTime, DatabaseEntities.parse("ks1"));
+                addToCatalog(backuper, secondHourly, secondHourlyTime, DatabaseEntities.parse("ks1"));
+
+                assertEquals(new BackupRetention(backuper, objectMapper, 2).apply(1, HOURS.toMillis(1), DatabaseEntities.parse("ks1")), 1);
+
+                assertEquals(ManifestCatalog.read(backuper, objectMapper).get().getEntries().size(), 2);
+            }
+
+            assertTrue(Files.exists(node.resolve(daily)));
+            assertFalse(Files.exists(node.resolve(firstHourly)));
+            assertTrue(Files.exists(node.resolve(secondHourly)));
+
+            assertTrue(Files.exists(node.resolve(TABLE + "/schema.cql")));
+            assertTrue(Files.exists(node.resolve(TABLE + "/1-aaa/md-1-big-Data.db")));
+            assertFalse(Files.exists(node.resolve(TABLE + "/2-bbb/md-2-big-Data.db")));
+            assertTrue(Files.exists(node.resolve(TABLE + "/3-ccc/md-3-big-Data.db")));
+        } finally {
+            FileUtils.deleteDirectory(storage.toFile());
+        }
+    }
+
+    private BackupOperationRequest request(final Path storage) {
+        final BackupOperationRequest request = new BackupOperationRequest();
+        request.storageLocation = new StorageLocation("file://" + storage.toAbsolutePath() + "/bucket/cluster/dc/node");
+        return request;
+    }
+
+    private void addToCatalog(final LocalFileBackuper backuper,
+                              final String manifestKey,
+                              final long timestamp,
+                              final DatabaseEntities entities) throws Exception {
+        final ManifestCatalog catalog = ManifestCatalog.read(backuper, objectMapper).orElseGet(ManifestCatalog::new);
+        catalog.add(new CatalogEntry(manifestKey.substring("manifests/".length(), manifestKey.length() - ".json".length()), SCHEMA_VERSION, entities, manifestKey, 0, timestamp));
+        ManifestCatalog.write(catalog, backuper, objectMapper);
+    }
+
+    private void writeManifest(final Path path, final long lastModified, final String... objectKeys) throws Exception {
+        final List<ManifestEntry> entries = new ArrayList<>();
+
+        for (final String objectKey : objectKeys) {
+            entries.add(new ManifestEntry(Paths.get(objectKey), null, objectKey.endsWith("schema.cql") ? Type.CQL_SCHEMA : Type.FILE));
+        }
+
+        final Map<String, Table> tables = new HashMap<>();
+        tables.put("tb1", new Table(entries, "0123456789abcdef0123456789abcdef", "CREATE TABLE ks1.tb1 (id uuid PRIMARY KEY);"));
+
+        final Snapshot snapshot = new Snapshot();
+        snapshot.add("ks1", new Keyspace(tables));
+
+        Files.createDirectories(path.getParent());
+        Manifest.write(Manifest.from(snapshot), path, objectMapper);
+        Files.setLastModifiedTime(path, FileTime.fromMillis(lastModified));
+    }
+
+    private void writeObject(final Path path, final long lastModified) throws Exception {
+        Files.createDirectories(path.getParent());
+        Files.write(path, "content".getBytes());
+        Files.setLastModifiedTime(path, FileTime.fromMillis(lastModified));
+    }
+}
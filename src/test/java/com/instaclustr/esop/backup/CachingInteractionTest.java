@@ -0,0 +1,176 @@
+package com.instaclustr.esop.backup;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.instaclustr.cassandra.CassandraInteraction;
+import com.instaclustr.esop.impl.interaction.CachingInteraction;
+import com.instaclustr.esop.impl.interaction.CassandraSchemaVersion;
+import com.instaclustr.esop.impl.restore.RestorationPhase;
+import com.instaclustr.esop.impl.restore.RestorationPhase.RestorationPhaseType;
+import com.instaclustr.esop.impl.restore.Restorer;
+import com.instaclustr.esop.impl.restore.RestoreOperation;
+import com.instaclustr.esop.impl.restore.RestoreOperationRequest;
+import com.instaclustr.esop.impl.restore.strategy.AbstractRestorationStrategy;
+import com.instaclustr.operations.Operation;
+import jmx.org.apache.cassandra.service.CassandraJMXService;
+import org.testng.annotations.Test;
+
+public class CachingInteractionTest {
+
+    private static final long TTL = 60_000;
+
+    @Test
+    public void testTtl() throws Exception {
+        final CassandraJMXService jmx = mock(CassandraJMXService.class);
+        final CountingInteraction interaction = new CountingInteraction();
+
+        assertEquals(act(jmx, "schema", interaction, 200), 1);
+        assertEquals(act(jmx, "schema", interaction, 200), 1);
+
+        Thread.sleep(300);
+
+        assertEquals(act(jmx, "schema", interaction, 200), 2);
+        assertEquals(interaction.calls.get(), 2);
+    }
+
+    @Test
+    public void testInvalidation() throws Exception {
+        final CassandraJMXService jmx = mock(CassandraJMXService.class);
+        final CassandraJMXService otherJmx = mock(CassandraJMXService.class);
+
+        final CountingInteraction first = new CountingInteraction();
+        final CountingInteraction second = new CountingInteraction();
+
+        assertEquals(act(jmx, "first", first, TTL), 1);
+        assertEquals(act(jmx, "second", second, TTL), 1);
+
+        // results of other nodes are cached on their own
+        assertEquals(act(otherJmx, "first", first, TTL), 2);
+
+        CachingInteraction.invalidate(jmx, "first");
+
+        assertEquals(act(jmx, "first", first, TTL), 3);
+        assertEquals(act(jmx, "second", second, TTL), 1);
+        assertEquals(act(otherJmx, "first", first, TTL), 2);
+
+        // a key of an interaction is its class by default
+        final CountingInteraction byClass = new CountingInteraction();
+
+        assertEquals((int) new CachingInteraction<>(jmx, byClass, TTL).act(), 1);
+        assertEquals((int) new CachingInteraction<>(jmx, byClass, TTL).act(), 1);
+
+        CachingInteraction.invalidate(jmx, CountingInteraction.class);
+
+        assertEquals((int) new CachingInteraction<>(jmx, byClass, TTL).act(), 2);
+
+        CachingInteraction.invalidateAll(jmx);
+
+        assertEquals(act(jmx, "first", first, TTL), 4);
+        assertEquals(act(jmx, "second", second, TTL), 2);
+        assertEquals(act(otherJmx, "first", first, TTL), 2);
+    }
+
+    @Test
+    public void testFailureIsNotCached() throws Exception {
+        final CassandraJMXService jmx = mock(CassandraJMXService.class);
+        final CountingInteraction interaction = new CountingInteraction();
+
+        interaction.failing = true;
+
+        try {
+            act(jmx, "state", interaction, TTL);
+            fail("A failure of an interaction has to be propagated.");
+        } catch (final IllegalStateException ex) {
+            // expected
+        }
+
+        interaction.failing = false;
+
+        assertEquals(act(jmx, "state", interaction, TTL), 2);
+        assertEquals(act(jmx, "state", interaction, TTL), 2);
+    }
+
+    @Test
+    public void testSchemaVersionIsInvalidatedPerRestore() throws Exception {
+        final CassandraJMXService jmx = mock(CassandraJMXService.class);
+        final CountingInteraction schemaVersion = new CountingInteraction();
+        final String key = CassandraSchemaVersion.class.getName();
+
+        final Path lockFile = Files.createTempFile("restore", ".lock");
+
+        try {
+            // cached by a previous restore, before a schema has changed
+            assertEquals(act(jmx, key, schemaVersion, TTL), 1);
+
+            final RestoreOperationRequest request = new RestoreOperationRequest();
+            request.lockFile = lockFile;
+
+            final List<Integer> resolved = new ArrayList<>();
+
+            final AbstractRestorationStrategy strategy = new AbstractRestorationStrategy(jmx, null, null, null, null) {
+                @Override
+                public RestorationPhase resolveRestorationPhase(final Operation<RestoreOperationRequest> operation, final Restorer restorer) {
+                    return new RestorationPhase(null) {
+                        @Override
+                        public RestorationPhaseType getRestorationPhaseType() {
+                            return RestorationPhaseType.INIT;
+                        }
+
+                        @Override
+                        public void execute() {
+                            try {
+                                resolved.add(act(jmx, key, schemaVersion, TTL));
+                                resolved.add(act(jmx, key, schemaVersion, TTL));
+                            } catch (final Exception ex) {
+                                throw new IllegalStateException(ex);
+                            }
+                        }
+                    };
+                }
+
+                @Override
+                public RestorationStrategyType getStrategyType() {
+                    return RestorationStrategyType.HARDLINKS;
+                }
+            };
+
+            strategy.restore(null, new RestoreOperation(request));
+
+            // resolved again once per operation
+            assertEquals(resolved, Arrays.asList(2, 2));
+        } finally {
+            Files.deleteIfExists(lockFile);
+        }
+    }
+
+    private int act(final CassandraJMXService jmx, final String key, final CountingInteraction interaction, final long ttlMillis) throws Exception {
+        return new CachingInteraction<>(jmx, key, interaction, ttlMillis).act();
+    }
+
+    private static final class CountingInteraction implements CassandraInteraction<Integer> {
+
+        final AtomicInteger calls = new AtomicInteger();
+
+        volatile boolean failing;
+
+        @Override
+        public Integer act() {
+            final int call = calls.incrementAndGet();
+
+            if (failing) {
+                throw new IllegalStateException("Node is not reachable");
+            }
+
+            return call;
+        }
+    }
+}
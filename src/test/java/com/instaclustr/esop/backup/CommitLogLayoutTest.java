@@ -0,0 +1,63 @@
+package com.instaclustr.esop.backup;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import com.instaclustr.esop.impl.CommitLogLayout;
+import org.testng.annotations.Test;
+
+public class CommitLogLayoutTest {
+
+    // 2020-05-01T13:30:00Z
+    private static final long TIMESTAMP = 1588339800000L;
+
+    @Test
+    public void testObjectKey() {
+        assertEquals(CommitLogLayout.objectKey("CommitLog-7-1588339200000.log", TIMESTAMP),
+                     Paths.get("commitlog/2020/05/01/13/CommitLog-7-1588339200000.log." + TIMESTAMP));
+    }
+
+    @Test
+    public void testTimestampOfBothLayouts() {
+        assertEquals(CommitLogLayout.timestamp("commitlog/CommitLog-7-1588339200000.log." + TIMESTAMP), Optional.of(TIMESTAMP));
+        assertEquals(CommitLogLayout.timestamp("commitlog/2020/05/01/13/CommitLog-7-1588339200000.log." + TIMESTAMP), Optional.of(TIMESTAMP));
+        assertFalse(CommitLogLayout.timestamp("commitlog/2020/05/01/index").isPresent());
+    }
+
+    @Test
+    public void testHours() {
+        // from 13:30 to 15:00 inclusive
+        final List<Long> hours = CommitLogLayout.hours(TIMESTAMP, TIMESTAMP + 90 * 60 * 1000);
+
+        assertEquals(hours.size(), 3);
+        assertEquals(CommitLogLayout.bucket(hours.get(0)), Paths.get("commitlog/2020/05/01/13"));
+        assertEquals(CommitLogLayout.bucket(hours.get(2)), Paths.get("commitlog/2020/05/01/15"));
+    }
+
+    @Test
+    public void testPrefixesSince() {
+        final long hour = 60 * 60 * 1000;
+
+        // from 14:00 until 14:30 of the same day
+        assertEquals(CommitLogLayout.prefixesSince(TIMESTAMP + hour / 2, TIMESTAMP + hour),
+                     Collections.singletonList(Paths.get("commitlog/2020/05/01/14")));
+
+        // until 2021-03-15T10:00:00Z
+        final List<Path> prefixes = CommitLogLayout.prefixesSince(TIMESTAMP + hour / 2, 1615802400000L);
+
+        // 10 hours, 30 days, 7 months and 1 year
+        assertEquals(prefixes.size(), 48);
+        assertEquals(prefixes.get(0), Paths.get("commitlog/2020/05/01/14"));
+        assertEquals(prefixes.get(9), Paths.get("commitlog/2020/05/01/23"));
+        assertEquals(prefixes.get(10), Paths.get("commitlog/2020/05/02"));
+        assertEquals(prefixes.get(39), Paths.get("commitlog/2020/05/31"));
+        assertEquals(prefixes.get(40), Paths.get("commitlog/2020/06"));
+        assertEquals(prefixes.get(47), Paths.get("commitlog/2021"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.instaclustr.esop.backup;
+
+import static org.testng.Assert.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.instaclustr.esop.impl.restore.RestoreCommitLogsOperation;
+import com.instaclustr.esop.impl.restore.RestoreCommitLogsOperationRequest.CommitLogStaging;
+import org.apache.commons.io.FileUtils;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+public class CommitLogStagingTest {
+
+    @Test
+    public void testHardlinkOnSameFileSystem() throws Exception {
+        final Path root = Files.createTempDirectory("commit-log-staging");
+
+        try {
+            final Path cassandraDir = Files.createDirectories(root.resolve("cassandra"));
+            final Path downloadDir = Files.createDirectories(root.resolve("downloads"));
+
+            // a commitlog directory does not exist before Cassandra is started
+            assertEquals(RestoreCommitLogsOperation.resolveStaging(CommitLogStaging.HARDLINK, downloadDir, cassandraDir), CommitLogStaging.HARDLINK);
+
+            Files.createDirectories(cassandraDir.resolve("commitlog"));
+
+            assertEquals(RestoreCommitLogsOperation.resolveStaging(CommitLogStaging.HARDLINK, downloadDir, cassandraDir), CommitLogStaging.HARDLINK);
+
+            // other stagings are used as they are
+            assertEquals(RestoreCommitLogsOperation.resolveStaging(CommitLogStaging.MOVE, downloadDir, cassandraDir), CommitLogStaging.MOVE);
+            assertEquals(RestoreCommitLogsOperation.resolveStaging(CommitLogStaging.COPY, downloadDir, cassandraDir), CommitLogStaging.COPY);
+        } finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    public void testCopyAcrossFileSystems() throws Exception {
+        final Path sharedMemory = Paths.get("/dev/shm");
+
+        if (!Files.isDirectory(sharedMemory) || !Files.isWritable(sharedMemory)) {
+            throw new SkipException("There is no other writable file system to test with");
+        }
+
+        final Path cassandraDir = Files.createTempDirectory("commit-log-staging");
+        final Path downloadDir = Files.createTempDirectory(sharedMemory, "commit-log-staging");
+
+        try {
+            if (Files.getFileStore(cassandraDir).equals(Files.getFileStore(downloadDir))) {
+                throw new SkipException("A temporary directory is on the same file system as " + sharedMemory);
+            }
+
+            assertEquals(RestoreCommitLogsOperation.resolveStaging(CommitLogStaging.HARDLINK, downloadDir, cassandraDir), CommitLogStaging.COPY);
+        } finally {
+            FileUtils.deleteDirectory(cassandraDir.toFile());
+            FileUtils.deleteDirectory(downloadDir.toFile());
+        }
+    }
+
+    @Test
+    public void testCopyIfFileSystemIsUnknown() throws Exception {
+        final Path root = Files.createTempDirectory("commit-log-staging");
+
+        try {
+            assertEquals(RestoreCommitLogsOperation.resolveStaging(CommitLogStaging.HARDLINK, root.resolve("missing-downloads"), root),
+                         CommitLogStaging.COPY);
+        } finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+}
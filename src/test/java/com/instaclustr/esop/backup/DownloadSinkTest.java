@@ -0,0 +1,135 @@
+package com.instaclustr.esop.backup;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.instaclustr.esop.impl.restore.DownloadSink;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.Test;
+
+public class DownloadSinkTest {
+
+    @Test
+    public void testCommit() throws Exception {
+        final Path root = Files.createTempDirectory("download-sink");
+
+        try {
+            final Path target = root.resolve("ks1/tb1/md-1-big-Data.db");
+            final DownloadSink sink = new DownloadSink();
+
+            final Path temp = sink.begin(target);
+
+            assertEquals(temp.getParent(), target.toAbsolutePath().getParent());
+            assertTrue(temp.getFileName().toString().endsWith(DownloadSink.TEMP_SUFFIX));
+            assertTrue(Files.isDirectory(temp.getParent()));
+
+            Files.write(temp, "data".getBytes());
+
+            sink.commit(temp, target, 4, true);
+
+            assertFalse(Files.exists(temp));
+            assertEquals(new String(Files.readAllBytes(target)), "data");
+
+            // a file downloaded again replaces the previous one
+            final Path again = sink.begin(target);
+            Files.write(again, "again".getBytes());
+            sink.commit(again, target, 0, false);
+
+            assertEquals(new String(Files.readAllBytes(target)), "again");
+        } finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    public void testSizeMismatch() throws Exception {
+        final Path root = Files.createTempDirectory("download-sink");
+
+        try {
+            final Path target = root.resolve("md-1-big-Data.db");
+            final DownloadSink sink = new DownloadSink();
+
+            // left by a crashed download
+            Files.write(DownloadSink.tempFile(target.toAbsolutePath()), "partial".getBytes());
+
+            final Path temp = sink.begin(target);
+
+            assertFalse(Files.exists(temp));
+
+            Files.write(temp, "dat".getBytes());
+
+            try {
+                sink.commit(temp, target, 4, false);
+                fail("A truncated download has to be rejected.");
+            } catch (final IOException ex) {
+                // expected
+            }
+
+            assertFalse(Files.exists(target));
+            assertTrue(Files.exists(temp));
+
+            sink.abort(temp);
+
+            assertFalse(Files.exists(temp));
+        } finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    public void testDirectorySync() throws Exception {
+        final Path root = Files.createTempDirectory("download-sink");
+
+        try {
+            final List<Path> synced = new ArrayList<>();
+
+            final DownloadSink sink = new DownloadSink() {
+                @Override
+                protected void syncDirectory(final Path directory) {
+                    synced.add(directory);
+                }
+            };
+
+            final Path batched = root.resolve("batched").toAbsolutePath();
+            final Path other = root.resolve("other").toAbsolutePath();
+
+            for (int i = 0; i < 64; i++) {
+                download(sink, batched.resolve("md-" + i + "-big-Data.db"));
+            }
+
+            download(sink, batched.resolve("md-64-big-Data.db"));
+            download(sink, other.resolve("md-1-big-Data.db"));
+
+            // a directory is synced once per batch of renames
+            assertEquals(synced.size(), 1);
+            assertEquals(synced.get(0), batched);
+
+            sink.flush();
+
+            assertEquals(synced.size(), 3);
+            assertTrue(synced.subList(1, 3).contains(batched));
+            assertTrue(synced.subList(1, 3).contains(other));
+
+            // nothing is pending anymore
+            sink.flush();
+
+            assertEquals(synced.size(), 3);
+        } finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    private void download(final DownloadSink sink, final Path target) throws IOException {
+        final Path temp = sink.begin(target);
+        Files.write(temp, "data".getBytes());
+        sink.commit(temp, target, 4, false);
+    }
+}
@@ -0,0 +1,91 @@
+package com.instaclustr.esop.backup;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.instaclustr.esop.impl.AbstractTracker.Session;
+import com.instaclustr.esop.impl.ManifestEntry;
+import com.instaclustr.esop.impl.ManifestEntry.Type;
+import com.instaclustr.esop.impl.StorageLocation;
+import com.instaclustr.esop.impl.restore.DownloadTracker;
+import com.instaclustr.esop.impl.restore.DownloadTracker.DownloadUnit;
+import com.instaclustr.esop.impl.restore.RestoreOperation;
+import com.instaclustr.esop.impl.restore.RestoreOperationRequest;
+import com.instaclustr.esop.local.LocalFileRestorer;
+import com.instaclustr.measure.DataRate;
+import com.instaclustr.measure.DataRate.DataRateUnit;
+import com.instaclustr.operations.OperationsService;
+import com.instaclustr.threading.Executors.FixedTasksExecutorSupplier;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.Test;
+
+public class DownloadTrackerTest {
+
+    private static final int FILES = 4;
+    private static final int FILE_SIZE = 1000;
+
+    /**
+     * Concurrent downloads of a session share one limiter, so together they do not exceed a bandwidth. A limiter
+     * per download would let all of them start at once.
+     */
+    @Test
+    public void testBandwidthIsSharedByDownloads() throws Exception {
+        final Path root = Files.createTempDirectory("download-tracker");
+
+        try {
+            final Path node = root.resolve("bucket/cluster/dc/node");
+            final Path downloads = root.resolve("downloads");
+
+            final List<ManifestEntry> entries = new ArrayList<>();
+
+            for (int i = 0; i < FILES; i++) {
+                final Path objectKey = Paths.get("data/ks1/tb1/" + i + "-123/md-" + i + "-big-Data.db");
+
+                Files.createDirectories(node.resolve(objectKey).getParent());
+                Files.write(node.resolve(objectKey), new byte[FILE_SIZE]);
+
+                entries.add(new ManifestEntry(objectKey, downloads.resolve(objectKey), Type.FILE, FILE_SIZE, null));
+            }
+
+            final RestoreOperationRequest request = new RestoreOperationRequest();
+            request.storageLocation = new StorageLocation("file://" + root.toAbsolutePath() + "/bucket/cluster/dc/node");
+            // a half of all files per second
+            request.bandwidth = new DataRate((long) FILES * FILE_SIZE / 2, DataRateUnit.BPS);
+
+            final DownloadTracker tracker = new DownloadTracker(new FixedTasksExecutorSupplier().get(1), mock(OperationsService.class));
+
+            try (final LocalFileRestorer restorer = new LocalFileRestorer(request)) {
+                final long start = System.nanoTime();
+
+                final Session<DownloadUnit> session = tracker.submit(restorer, new RestoreOperation(request), entries, null, FILES);
+
+                while (!session.isConsideredFinished()) {
+                    Thread.sleep(10);
+                }
+
+                final long elapsedMillis = NANOSECONDS.toMillis(System.nanoTime() - start);
+
+                assertTrue(session.isSuccessful());
+
+                // the first file is downloaded at once, each other one waits for a half of a second
+                assertTrue(elapsedMillis >= 1200, "Downloads took " + elapsedMillis + " ms");
+
+                for (final ManifestEntry entry : entries) {
+                    assertEquals(Files.size(entry.getLocalFile()), FILE_SIZE);
+                }
+
+                tracker.removeSession(session);
+            }
+        } finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.instaclustr.esop.backup;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.instaclustr.esop.impl.restore.Hardlinker;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.Test;
+
+public class HardlinkerTest {
+
+    @Test
+    public void testLink() throws Exception {
+        final Path root = Files.createTempDirectory("hardlinker");
+
+        try {
+            final Path downloads = Files.createDirectories(root.resolve("downloads"));
+            final Path data = Files.createDirectories(root.resolve("data"));
+            final Path journal = Hardlinker.journalFor(downloads);
+
+            final Map<Path, Path> links = new LinkedHashMap<>();
+            links.put(data.resolve("md-1-big-Data.db"), file(downloads.resolve("md-1-big-Data.db")));
+            links.put(data.resolve("md-1-big-Index.db"), file(downloads.resolve("md-1-big-Index.db")));
+
+            assertTrue(new Hardlinker(journal, 2).link(links));
+
+            for (final Map.Entry<Path, Path> link : links.entrySet()) {
+                assertTrue(Files.isSameFile(link.getKey(), link.getValue()));
+            }
+
+            assertFalse(Files.exists(journal));
+        } finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    public void testResumeFromJournal() throws Exception {
+        final Path root = Files.createTempDirectory("hardlinker");
+
+        try {
+            final Path downloads = Files.createDirectories(root.resolve("downloads"));
+            final Path data = Files.createDirectories(root.resolve("data"));
+            final Path journal = Hardlinker.journalFor(downloads);
+
+            final Path linkedBefore = data.resolve("md-1-big-Data.db");
+            final Path notLinkedYet = data.resolve("md-1-big-Index.db");
+
+            // an interrupted run created and recorded one link
+            Files.createLink(linkedBefore, file(downloads.resolve("md-1-big-Data.db")));
+            Files.write(journal, Collections.singletonList(linkedBefore.toString()), UTF_8);
+
+            final Map<Path, Path> links = new LinkedHashMap<>();
+            links.put(linkedBefore, downloads.resolve("md-1-big-Data.db"));
+            links.put(notLinkedYet, file(downloads.resolve("md-1-big-Index.db")));
+
+            assertTrue(new Hardlinker(journal, 1).link(links));
+
+            assertTrue(Files.isSameFile(linkedBefore, downloads.resolve("md-1-big-Data.db")));
+            assertTrue(Files.isSameFile(notLinkedYet, downloads.resolve("md-1-big-Index.db")));
+            assertFalse(Files.exists(journal));
+        } finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    public void testRollback() throws Exception {
+        final Path root = Files.createTempDirectory("hardlinker");
+
+        try {
+            final Path downloads = Files.createDirectories(root.resolve("downloads"));
+            final Path data = Files.createDirectories(root.resolve("data"));
+            final Path journal = Hardlinker.journalFor(downloads);
+
+            final Path preExisting = data.resolve("md-1-big-Data.db");
+            final Path linkedBefore = data.resolve("md-1-big-Index.db");
+            final Path created = data.resolve("md-1-big-Summary.db");
+            final Path conflicting = data.resolve("md-1-big-TOC.txt");
+
+            // linked by someone else, not recorded in a journal
+            Files.createLink(preExisting, file(downloads.resolve("md-1-big-Data.db")));
+
+            // an interrupted run created and recorded one link
+            Files.createLink(linkedBefore, file(downloads.resolve("md-1-big-Index.db")));
+            Files.write(journal, Collections.singletonList(linkedBefore.toString()), UTF_8);
+
+            // a different file is already there
+            Files.write(conflicting, "other".getBytes());
+
+            final Map<Path, Path> links = new LinkedHashMap<>();
+            links.put(preExisting, downloads.resolve("md-1-big-Data.db"));
+            links.put(linkedBefore, downloads.resolve("md-1-big-Index.db"));
+            links.put(created, file(downloads.resolve("md-1-big-Summary.db")));
+            links.put(conflicting, file(downloads.resolve("md-1-big-TOC.txt")));
+
+            assertFalse(new Hardlinker(journal, 1).link(links));
+
+            assertTrue(Files.isSameFile(preExisting, downloads.resolve("md-1-big-Data.db")));
+            assertFalse(Files.exists(linkedBefore));
+            assertFalse(Files.exists(created));
+            assertEquals(new String(Files.readAllBytes(conflicting)), "other");
+            assertFalse(Files.exists(journal));
+
+            // files to link are never touched
+            assertTrue(Files.exists(downloads.resolve("md-1-big-Index.db")));
+            assertTrue(Files.exists(downloads.resolve("md-1-big-Summary.db")));
+        } finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    public void testTablesLinkedAtOnce() throws Exception {
+        final Path root = Files.createTempDirectory("hardlinker");
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+        try {
+            final Path downloads = Files.createDirectories(root.resolve("downloads"));
+            final Path data = Files.createDirectories(root.resolve("data"));
+
+            final Map<Path, Path> succeedingLinks = tableLinks(downloads, data, "ks1", "table1");
+            final Map<Path, Path> failingLinks = tableLinks(downloads, data, "ks1", "table2");
+
+            // the last file of the second table conflicts with a different file, so that table fails after linking the others
+            final Path conflicting = new ArrayList<>(failingLinks.keySet()).get(failingLinks.size() - 1);
+            Files.write(conflicting, "other".getBytes());
+
+            final Path succeedingJournal = Hardlinker.journalFor(downloads, "ks1", "table1");
+            final Path failingJournal = Hardlinker.journalFor(downloads, "ks1", "table2");
+
+            assertNotEquals(succeedingJournal, failingJournal);
+
+            final CountDownLatch start = new CountDownLatch(1);
+
+            final Future<Boolean> succeeding = executorService.submit(() -> {
+                start.await();
+                return new Hardlinker(succeedingJournal, 1).link(succeedingLinks);
+            });
+
+            final Future<Boolean> failing = executorService.submit(() -> {
+                start.await();
+                return new Hardlinker(failingJournal, 1).link(failingLinks);
+            });
+
+            start.countDown();
+
+            assertTrue(succeeding.get());
+            assertFalse(failing.get());
+
+            // a rollback of a failed table keeps links of the other one
+            for (final Map.Entry<Path, Path> link : succeedingLinks.entrySet()) {
+                assertTrue(Files.isSameFile(link.getKey(), link.getValue()));
+            }
+
+            for (final Path link : failingLinks.keySet()) {
+                if (link.equals(conflicting)) {
+                    assertEquals(new String(Files.readAllBytes(link)), "other");
+                } else {
+                    assertFalse(Files.exists(link));
+                }
+            }
+
+            assertFalse(Files.exists(succeedingJournal));
+            assertFalse(Files.exists(failingJournal));
+        } finally {
+            executorService.shutdownNow();
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    private Map<Path, Path> tableLinks(final Path downloads, final Path data, final String keyspace, final String table) throws Exception {
+        final Path downloadedTable = Files.createDirectories(downloads.resolve(keyspace).resolve(table));
+        final Path dataTable = Files.createDirectories(data.resolve(keyspace).resolve(table));
+
+        final Map<Path, Path> links = new LinkedHashMap<>();
+
+        for (int i = 1; i <= 100; i++) {
+            final String fileName = "md-" + i + "-big-Data.db";
+            links.put(dataTable.resolve(fileName), file(downloadedTable.resolve(fileName)));
+        }
+
+        return links;
+    }
+
+    private Path file(final Path path) throws Exception {
+        Files.write(path, path.getFileName().toString().getBytes());
+        return path;
+    }
+}
@@ -0,0 +1,221 @@
+package com.instaclustr.esop.backup;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Sets;
+import com.google.inject.Guice;
+
+import com.instaclustr.cassandra.CassandraVersion;
+import com.instaclustr.esop.impl.DatabaseEntities;
+import com.instaclustr.esop.impl.Manifest;
+import com.instaclustr.esop.impl.ManifestCatalog;
+import com.instaclustr.esop.impl.ManifestCatalog.CatalogEntry;
+import com.instaclustr.esop.impl.ManifestEntry;
+import com.instaclustr.esop.impl.Snapshots.Snapshot;
+import com.instaclustr.esop.impl.Snapshots.Snapshot.Keyspace;
+import com.instaclustr.esop.impl.Snapshots.Snapshot.Keyspace.Table;
+import com.instaclustr.esop.impl.StorageLocation;
+import com.instaclustr.esop.impl.backup.BackupOperationRequest;
+import com.instaclustr.esop.impl.backup.IncrementalBackups;
+import com.instaclustr.esop.local.LocalFileBackuper;
+import com.instaclustr.jackson.JacksonModule;
+import com.instaclustr.operations.FunctionWithEx;
+import jmx.org.apache.cassandra.service.CassandraJMXService;
+import jmx.org.apache.cassandra.service.cassandra2.Cassandra2StorageServiceMBean;
+import jmx.org.apache.cassandra.service.cassandra3.StorageServiceMBean;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.Test;
+
+public class IncrementalBackupsTest {
+
+    private static final String TABLE_ID = "0123456789abcdef0123456789abcdef";
+
+    private static final String SCHEMA_VERSION = "2e6cb7e4-1a5f-3d4e-9a45-2e4b0c8d7f11";
+
+    private static final String OTHER_SCHEMA_VERSION = "8b1f4c2a-77d0-3e5b-a1c9-5d2e6f0a9b34";
+
+    private final ObjectMapper objectMapper = Guice.createInjector(new JacksonModule()).getInstance(ObjectMapper.class);
+
+    @Test
+    public void testAddBackedUpSSTables() throws Exception {
+        final Path dataDirectory = Files.createTempDirectory("incremental-data");
+
+        try {
+            final Path backups = Files.createDirectories(dataDirectory.resolve("ks1").resolve("tb1-" + TABLE_ID).resolve("backups"));
+
+            // complete SSTable
+            Files.write(backups.resolve("md-1-big-Data.db"), "data".getBytes());
+            Files.write(backups.resolve("md-1-big-Digest.crc32"), "12345".getBytes());
+            Files.write(backups.resolve("md-1-big-TOC.txt"), "Data.db\nDigest.crc32\nTOC.txt\n".getBytes());
+
+            // SSTable with its Index.db not hard-linked yet
+            Files.write(backups.resolve("md-2-big-Data.db"), "data".getBytes());
+            Files.write(backups.resolve("md-2-big-Digest.crc32"), "67890".getBytes());
+            Files.write(backups.resolve("md-2-big-TOC.txt"), "Data.db\nIndex.db\nDigest.crc32\nTOC.txt\n".getBytes());
+
+            final Manifest manifest = manifest();
+
+            final List<ManifestEntry> backedUp = IncrementalBackups.addBackedUpSSTables(manifest, dataDirectory, DatabaseEntities.empty());
+
+            assertEquals(backedUp.size(), 3);
+            assertTrue(backedUp.stream().allMatch(entry -> entry.getLocalFile().getFileName().toString().startsWith("md-1-big")));
+            assertTrue(backedUp.stream().anyMatch(entry -> entry.objectKey.equals(Paths.get("data/ks1/tb1-" + TABLE_ID + "/1-12345/md-1-big-Data.db"))));
+
+            final Table table = manifest.getSnapshot().getTable("ks1", "tb1").get();
+            assertEquals(table.getEntries().size(), 3);
+
+            // SSTables already in a manifest are not added again
+            IncrementalBackups.addBackedUpSSTables(manifest, dataDirectory, DatabaseEntities.empty());
+            assertEquals(table.getEntries().size(), 3);
+
+            // entities not requested are skipped
+            assertTrue(IncrementalBackups.addBackedUpSSTables(manifest(), dataDirectory, DatabaseEntities.parse("ks2")).isEmpty());
+
+            final List<Path> files = IncrementalBackups.listBackedUpFiles(dataDirectory, DatabaseEntities.empty());
+            assertEquals(files.size(), 6);
+
+            IncrementalBackups.clear(files);
+            assertFalse(Files.list(backups).findAny().isPresent());
+        } finally {
+            FileUtils.deleteDirectory(dataDirectory.toFile());
+        }
+    }
+
+    @Test
+    public void testReadLatestManifest() throws Exception {
+        final Path storage = Files.createTempDirectory("incremental-storage");
+
+        try {
+            final BackupOperationRequest request = new BackupOperationRequest();
+            request.storageLocation = new StorageLocation("file://" + storage.toAbsolutePath() + "/bucket/cluster/dc/node");
+
+            try (final LocalFileBackuper backuper = new LocalFileBackuper(request)) {
+                final ManifestCatalog catalog = new ManifestCatalog();
+
+                // whole node
+                catalog.add(upload(backuper, SCHEMA_VERSION, "full-" + SCHEMA_VERSION + "-1000", DatabaseEntities.empty(), 1000, "ks1", "system_auth"));
+                // partial backup, taken after the whole node one
+                catalog.add(upload(backuper, SCHEMA_VERSION, "auth-" + SCHEMA_VERSION + "-2000", DatabaseEntities.parse("system_auth"), 2000, "system_auth"));
+                // recorded before entities were, it is not known what it covers
+                catalog.add(upload(backuper, SCHEMA_VERSION, "legacy-" + SCHEMA_VERSION + "-3000", null, 3000, "ks1", "system_auth"));
+                // other schema version, the latest one, with other keyspaces so it is told apart
+                catalog.add(upload(backuper, OTHER_SCHEMA_VERSION, "other-" + OTHER_SCHEMA_VERSION + "-4000", DatabaseEntities.empty(), 4000, "ks2"));
+
+                ManifestCatalog.write(catalog, backuper, objectMapper);
+
+                assertEquals(keyspaces(IncrementalBackups.readLatestManifest(backuper, objectMapper, SCHEMA_VERSION, DatabaseEntities.empty())),
+                             Sets.newHashSet("ks1", "system_auth"));
+
+                assertEquals(keyspaces(IncrementalBackups.readLatestManifest(backuper, objectMapper, SCHEMA_VERSION, DatabaseEntities.parse("system_auth"))),
+                             Sets.newHashSet("system_auth"));
+
+                assertEquals(keyspaces(IncrementalBackups.readLatestManifest(backuper, objectMapper, SCHEMA_VERSION, DatabaseEntities.parse("ks1.tb1"))),
+                             Sets.newHashSet("ks1", "system_auth"));
+
+                assertEquals(keyspaces(IncrementalBackups.readLatestManifest(backuper, objectMapper, OTHER_SCHEMA_VERSION, DatabaseEntities.empty())),
+                             Sets.newHashSet("ks2"));
+
+                assertFalse(IncrementalBackups.readLatestManifest(backuper, objectMapper, "unknown", DatabaseEntities.empty()).isPresent());
+            }
+        } finally {
+            FileUtils.deleteDirectory(storage.toFile());
+        }
+    }
+
+    @Test
+    public void testBaseManifestOnlyWithIncrementalBackupsEnabled() throws Exception {
+        final Path storage = Files.createTempDirectory("incremental-storage");
+
+        try {
+            final BackupOperationRequest request = new BackupOperationRequest();
+            request.storageLocation = new StorageLocation("file://" + storage.toAbsolutePath() + "/bucket/cluster/dc/node");
+
+            try (final LocalFileBackuper backuper = new LocalFileBackuper(request)) {
+                final ManifestCatalog catalog = new ManifestCatalog();
+                catalog.add(upload(backuper, SCHEMA_VERSION, "full-" + SCHEMA_VERSION + "-1000", DatabaseEntities.empty(), 1000, "ks1"));
+                ManifestCatalog.write(catalog, backuper, objectMapper);
+
+                for (final CassandraVersion version : Arrays.asList(CassandraVersion.parse("2.2.19"), CassandraVersion.parse("3.11.10"))) {
+                    assertEquals(keyspaces(IncrementalBackups.readBaseManifest(jmx(true), () -> version, backuper, objectMapper, SCHEMA_VERSION, DatabaseEntities.empty())),
+                                 Sets.newHashSet("ks1"));
+
+                    // backups directories stay empty, a full backup is taken instead
+                    assertFalse(IncrementalBackups.readBaseManifest(jmx(false), () -> version, backuper, objectMapper, SCHEMA_VERSION, DatabaseEntities.empty()).isPresent());
+                }
+            }
+        } finally {
+            FileUtils.deleteDirectory(storage.toFile());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private CassandraJMXService jmx(final boolean incrementalBackupsEnabled) throws Exception {
+        final StorageServiceMBean storageService = mock(StorageServiceMBean.class);
+        when(storageService.isIncrementalBackupsEnabled()).thenReturn(incrementalBackupsEnabled);
+
+        final Cassandra2StorageServiceMBean cassandra2StorageService = mock(Cassandra2StorageServiceMBean.class);
+        when(cassandra2StorageService.isIncrementalBackupsEnabled()).thenReturn(incrementalBackupsEnabled);
+
+        final CassandraJMXService jmx = mock(CassandraJMXService.class);
+        when(jmx.doWithStorageServiceMBean(any())).thenAnswer(invocation -> ((FunctionWithEx<StorageServiceMBean, ?>) invocation.getArgument(0)).apply(storageService));
+        when(jmx.doWithCassandra2StorageServiceMBean(any())).thenAnswer(invocation -> ((FunctionWithEx<Cassandra2StorageServiceMBean, ?>) invocation.getArgument(0)).apply(cassandra2StorageService));
+
+        return jmx;
+    }
+
+    private CatalogEntry upload(final LocalFileBackuper backuper,
+                                final String schemaVersion,
+                                final String snapshotTag,
+                                final DatabaseEntities entities,
+                                final long timestamp,
+                                final String... keyspaces) throws Exception {
+        final Map<String, Table> tables = new HashMap<>();
+        tables.put("tb1", new Table(new ArrayList<>(), TABLE_ID, "CREATE TABLE tb1 (id uuid PRIMARY KEY);"));
+
+        final Snapshot snapshot = new Snapshot();
+
+        for (final String keyspace : keyspaces) {
+            snapshot.add(keyspace, new Keyspace(tables));
+        }
+
+        final String key = "manifests/" + snapshotTag + ".json";
+        final byte[] manifest = objectMapper.writeValueAsBytes(Manifest.from(snapshot));
+
+        backuper.uploadFile(manifest.length, new ByteArrayInputStream(manifest), backuper.objectKeyToNodeAwareRemoteReference(Paths.get(key)));
+
+        return new CatalogEntry(snapshotTag, schemaVersion, entities, key, manifest.length, timestamp);
+    }
+
+    private Set<String> keyspaces(final Optional<Manifest> manifest) {
+        assertTrue(manifest.isPresent());
+        return manifest.get().getSnapshot().getKeyspaces().keySet();
+    }
+
+    private Manifest manifest() {
+        final Map<String, Table> tables = new HashMap<>();
+        tables.put("tb1", new Table(new ArrayList<>(), TABLE_ID, "CREATE TABLE ks1.tb1 (id uuid PRIMARY KEY);"));
+
+        final Snapshot snapshot = new Snapshot();
+        snapshot.add("ks1", new Keyspace(tables));
+
+        return Manifest.from(snapshot);
+    }
+}
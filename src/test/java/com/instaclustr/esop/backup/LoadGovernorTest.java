@@ -0,0 +1,112 @@
+package com.instaclustr.esop.backup;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.instaclustr.esop.impl.GovernorSettings;
+import com.instaclustr.esop.impl.LoadGovernor;
+import com.instaclustr.esop.impl.interaction.CassandraLoad.Load;
+import org.testng.annotations.Test;
+
+public class LoadGovernorTest {
+
+    private static final double DELTA = 0.001;
+
+    @Test
+    public void testBackOffAndRecovery() {
+        try (final LoadGovernor governor = new LoadGovernor(new GovernorSettings(), 10)) {
+            final RateLimiter rateLimiter = RateLimiter.create(1000);
+            governor.register(rateLimiter, 1000);
+
+            // pending compactions over their maximum
+            governor.adjust(load(200, 0, 0));
+            assertEquals(governor.getFactor(), 0.5, DELTA);
+            assertEquals(rateLimiter.getRate(), 500, DELTA);
+
+            // read latency over its maximum
+            governor.adjust(load(0, 150, 0));
+            assertEquals(governor.getFactor(), 0.25, DELTA);
+            assertEquals(rateLimiter.getRate(), 250, DELTA);
+
+            // moderate pressure keeps everything as it is
+            governor.adjust(load(70, 0, 0));
+            assertEquals(governor.getFactor(), 0.25, DELTA);
+
+            // messages were dropped since the last poll
+            governor.adjust(load(0, 0, 5));
+            assertEquals(governor.getFactor(), 0.125, DELTA);
+
+            // it never goes to zero
+            governor.adjust(load(1000, 0, 5));
+            governor.adjust(load(1000, 0, 5));
+            assertEquals(governor.getFactor(), 0.1, DELTA);
+            assertEquals(rateLimiter.getRate(), 100, DELTA);
+
+            // it is raised by a tenth under a low pressure, up to the full speed
+            governor.adjust(load(10, 10, 5));
+            assertEquals(governor.getFactor(), 0.2, DELTA);
+
+            for (int i = 0; i < 20; i++) {
+                governor.adjust(load(10, 10, 5));
+            }
+
+            assertEquals(governor.getFactor(), 1.0, DELTA);
+            assertEquals(rateLimiter.getRate(), 1000, DELTA);
+
+            // a limiter which is not registered anymore is left as it is
+            governor.unregister(rateLimiter);
+            governor.adjust(load(200, 0, 5));
+            assertEquals(rateLimiter.getRate(), 1000, DELTA);
+        }
+    }
+
+    @Test
+    public void testConcurrency() throws Exception {
+        try (final LoadGovernor governor = new LoadGovernor(new GovernorSettings(), 10)) {
+            for (int i = 0; i < 4; i++) {
+                governor.adjust(load(1000, 0, 0));
+            }
+
+            // concurrency of 1
+            governor.acquire();
+
+            final CountDownLatch acquired = new CountDownLatch(1);
+
+            final Thread waiting = new Thread(() -> {
+                try {
+                    governor.acquire();
+                    acquired.countDown();
+                    governor.release();
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            waiting.start();
+
+            assertFalse(acquired.await(200, MILLISECONDS));
+
+            // concurrency of 2
+            governor.adjust(load(0, 0, 0));
+
+            assertTrue(acquired.await(5, SECONDS));
+
+            governor.release();
+            waiting.join();
+        }
+    }
+
+    private Load load(final long pendingCompactions, final double readLatency, final long droppedMessages) {
+        final Load load = new Load();
+        load.pendingCompactions = pendingCompactions;
+        load.readLatency99thPercentile = readLatency;
+        load.droppedMessages = droppedMessages;
+        return load;
+    }
+}
@@ -0,0 +1,102 @@
+package com.instaclustr.esop.backup;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import com.instaclustr.esop.impl.ManifestEntry;
+import com.instaclustr.esop.impl.ManifestEntry.Type;
+import com.instaclustr.esop.impl.restore.LocalContentIndex;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.Test;
+
+public class LocalContentIndexTest {
+
+    private static final String TABLE = "ks1/tb1-0123456789abcdef0123456789abcdef";
+
+    @Test
+    public void testReuse() throws Exception {
+        final Path root = Files.createTempDirectory("local-content-index");
+
+        try {
+            final Path snapshot = Files.createDirectories(root.resolve("data").resolve(TABLE).resolve("snapshots/snap1"));
+
+            Files.write(snapshot.resolve("md-1-big-Data.db"), "data".getBytes());
+            Files.write(snapshot.resolve("md-1-big-Digest.crc32"), "12345".getBytes());
+            Files.write(snapshot.resolve("md-1-big-Statistics.db"), "stats".getBytes());
+
+            final Path downloads = root.resolve("downloads");
+
+            final ManifestEntry matching = entry("1-12345/md-1-big-Data.db", downloads.resolve("a/md-1-big-Data.db"), 4);
+            final ManifestEntry mutable = entry("1-12345/md-1-big-Statistics.db", downloads.resolve("b/md-1-big-Statistics.db"), 5);
+            final ManifestEntry otherHash = entry("1-99999/md-1-big-Data.db", downloads.resolve("c/md-1-big-Data.db"), 4);
+            final ManifestEntry otherSize = entry("1-12345/md-1-big-Data.db", downloads.resolve("d/md-1-big-Data.db"), 10);
+
+            final LocalContentIndex index = LocalContentIndex.build(Collections.singletonList(root.resolve("data")));
+
+            final List<ManifestEntry> toDownload = index.reuse(Arrays.asList(matching, mutable, otherHash, otherSize));
+
+            assertEquals(toDownload, Arrays.asList(mutable, otherHash, otherSize));
+
+            assertEquals(new String(Files.readAllBytes(matching.getLocalFile())), "data");
+            assertFalse(Files.exists(mutable.getLocalFile()));
+            assertFalse(Files.exists(otherHash.getLocalFile()));
+            assertFalse(Files.exists(otherSize.getLocalFile()));
+        } finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    public void testReuseOfPreviousDownloads() throws Exception {
+        final Path root = Files.createTempDirectory("local-content-index");
+
+        try {
+            final Path downloads = root.resolve("downloads");
+            final Path downloadedTable = Files.createDirectories(downloads.resolve("data").resolve(TABLE));
+
+            Files.write(downloadedTable.resolve("md-1-big-Data.db"), "data".getBytes());
+            Files.write(downloadedTable.resolve("md-1-big-Digest.crc32"), "12345".getBytes());
+
+            // left by a restore before the previous one
+            Files.createDirectories(root.resolve("downloads-previous/stale"));
+
+            final Optional<Path> previousDownloads = LocalContentIndex.moveAside(downloads);
+
+            assertEquals(previousDownloads, Optional.of(root.resolve("downloads-previous")));
+            assertFalse(Files.exists(downloads));
+            assertFalse(Files.exists(root.resolve("downloads-previous/stale")));
+
+            Files.createDirectories(downloads);
+
+            final ManifestEntry data = entry("1-12345/md-1-big-Data.db", downloadedTable.resolve("md-1-big-Data.db"), 4);
+            final ManifestEntry digest = entry("1-12345/md-1-big-Digest.crc32", downloadedTable.resolve("md-1-big-Digest.crc32"), 5);
+
+            final List<ManifestEntry> toDownload = LocalContentIndex.build(Collections.singletonList(previousDownloads.get())).reuse(Arrays.asList(data, digest));
+
+            assertTrue(toDownload.isEmpty());
+
+            FileUtils.deleteDirectory(previousDownloads.get().toFile());
+
+            // placed back files do not depend on previous downloads
+            assertEquals(new String(Files.readAllBytes(data.getLocalFile())), "data");
+            assertEquals(new String(Files.readAllBytes(digest.getLocalFile())), "12345");
+
+            assertFalse(LocalContentIndex.moveAside(root.resolve("missing")).isPresent());
+        } finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    private ManifestEntry entry(final String objectKey, final Path localFile, final long size) {
+        return new ManifestEntry(Paths.get("data").resolve(TABLE).resolve(objectKey), localFile, Type.FILE, size, null);
+    }
+}
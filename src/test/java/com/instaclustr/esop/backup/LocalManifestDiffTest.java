@@ -0,0 +1,136 @@
+package com.instaclustr.esop.backup;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+import com.instaclustr.esop.impl.ManifestEntry;
+import com.instaclustr.esop.impl.ManifestEntry.Type;
+import com.instaclustr.esop.impl.restore.strategy.LocalManifestDiff;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.Test;
+
+public class LocalManifestDiffTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalManifestDiffTest.class);
+
+    private static final Path DATA_DIR = Paths.get("/non-existing-cassandra-dir/data");
+
+    private static final int BENCHMARK_FILES = 200_000;
+
+    @Test
+    public void testDiff() {
+        final ManifestEntry presentData = entry("ks1/table1/md-1-big-Data.db", Type.FILE);
+        final ManifestEntry presentIndex = entry("ks1/table1/md-1-big-Index.db", Type.FILE);
+        final ManifestEntry missingData = entry("ks1/table1/md-2-big-Data.db", Type.FILE);
+        final ManifestEntry missingOtherTable = entry("ks2/table2/md-1-big-Data.db", Type.FILE);
+        final ManifestEntry schema = entry("ks1/table1/schema.cql", Type.CQL_SCHEMA);
+
+        final List<ManifestEntry> manifestFiles = Arrays.asList(presentData, presentIndex, missingData, missingOtherTable, schema);
+
+        final Path unknown = DATA_DIR.resolve("ks1/table1/md-3-big-Data.db");
+        final Path unknownOtherTable = DATA_DIR.resolve("ks3/table3/md-1-big-Data.db");
+
+        final Set<Path> existingFiles = new HashSet<>(Arrays.asList(presentData.getLocalFile(),
+                                                                    presentIndex.getLocalFile(),
+                                                                    unknown,
+                                                                    unknownOtherTable));
+
+        final LocalManifestDiff diff = LocalManifestDiff.compute(manifestFiles, manifestFiles, existingFiles);
+
+        assertEquals(diff.present.keySet(), new HashSet<>(Arrays.asList(presentData.getLocalFile(), presentIndex.getLocalFile())));
+        assertEquals(diff.present.get(presentData.getLocalFile()), presentData);
+        assertEquals(diff.present.get(presentIndex.getLocalFile()), presentIndex);
+
+        assertEquals(new HashSet<>(diff.unknown), new HashSet<>(Arrays.asList(unknown, unknownOtherTable)));
+
+        // a schema is never downloaded as a missing file
+        assertEquals(diff.missing, Arrays.asList(missingData, missingOtherTable));
+    }
+
+    @Test
+    public void testMissingOnlyFromDownloadCandidates() {
+        final ManifestEntry present = entry("ks1/table1/md-1-big-Data.db", Type.FILE);
+        final ManifestEntry notCandidate = entry("ks1/table1/md-2-big-Data.db", Type.FILE);
+        final ManifestEntry candidate = entry("ks2/table2/md-1-big-Data.db", Type.FILE);
+
+        final LocalManifestDiff diff = LocalManifestDiff.compute(Arrays.asList(present, notCandidate, candidate),
+                                                                 Collections.singletonList(candidate),
+                                                                 Collections.singleton(present.getLocalFile()));
+
+        assertEquals(diff.present.keySet(), Collections.singleton(present.getLocalFile()));
+        assertTrue(diff.unknown.isEmpty());
+        assertEquals(diff.missing, Collections.singletonList(candidate));
+    }
+
+    @Test
+    public void testEmptyDataDir() {
+        final ManifestEntry data = entry("ks1/table1/md-1-big-Data.db", Type.FILE);
+
+        final LocalManifestDiff diff = LocalManifestDiff.compute(Collections.singletonList(data),
+                                                                 Collections.singletonList(data),
+                                                                 Collections.emptySet());
+
+        assertTrue(diff.present.isEmpty());
+        assertTrue(diff.unknown.isEmpty());
+        assertEquals(diff.missing, Collections.singletonList(data));
+    }
+
+    @Test(groups = {
+        "benchmark",
+    })
+    public void testDiffOfLargeDataDir() {
+        final List<ManifestEntry> manifestFiles = new ArrayList<>();
+        final Set<Path> existingFiles = new HashSet<>();
+
+        // every even file is in manifest, every file divisible by 3 is present locally
+        for (int i = 0; i < BENCHMARK_FILES; i++) {
+            final String relative = "ks" + (i % 10) + "/table" + (i % 100) + "/md-" + i + "-big-Data.db";
+
+            if (i % 2 == 0) {
+                manifestFiles.add(entry(relative, Type.FILE));
+            }
+
+            if (i % 3 == 0) {
+                existingFiles.add(DATA_DIR.resolve(relative));
+            }
+        }
+
+        final long start = System.nanoTime();
+        final LocalManifestDiff diff = LocalManifestDiff.compute(manifestFiles, manifestFiles, existingFiles);
+        logger.info("Diff of {} manifest entries and {} local files took {} ms",
+                    manifestFiles.size(),
+                    existingFiles.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+
+        final int inBoth = countOf(i -> i % 6 == 0);
+
+        assertEquals(diff.present.size(), inBoth);
+        assertEquals(diff.unknown.size(), existingFiles.size() - inBoth);
+        assertEquals(diff.missing.size(), manifestFiles.size() - inBoth);
+    }
+
+    private ManifestEntry entry(final String relative, final Type type) {
+        return new ManifestEntry(Paths.get("data").resolve(relative), DATA_DIR.resolve(relative), type, 0, null);
+    }
+
+    private int countOf(final IntPredicate predicate) {
+        int count = 0;
+        for (int i = 0; i < BENCHMARK_FILES; i++) {
+            if (predicate.test(i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,61 @@
+package com.instaclustr.esop.backup;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Guice;
+import com.instaclustr.esop.impl._import.ImportOperationRequest;
+import com.instaclustr.esop.impl.restore.ManifestCache;
+import com.instaclustr.esop.impl.restore.RestorationStrategy.RestorationStrategyType;
+import com.instaclustr.esop.impl.restore.RestoreOperationRequest;
+import com.instaclustr.jackson.JacksonModule;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.Test;
+
+public class ManifestCacheTest {
+
+    private final ObjectMapper objectMapper = Guice.createInjector(new JacksonModule()).getInstance(ObjectMapper.class);
+
+    @Test
+    public void testForRequest() {
+        final RestoreOperationRequest request = new RestoreOperationRequest();
+        request.importing = new ImportOperationRequest();
+        request.importing.sourceDir = Paths.get("/var/lib/cassandra/downloads");
+
+        // an in-place restore reads its manifest once, nothing would ever clear its cache
+        request.restorationStrategyType = RestorationStrategyType.IN_PLACE;
+        assertFalse(ManifestCache.forRequest(request).isPresent());
+
+        request.restorationStrategyType = RestorationStrategyType.HARDLINKS;
+        final Optional<ManifestCache> cache = ManifestCache.forRequest(request);
+
+        assertTrue(cache.isPresent());
+        assertEquals(cache.get().getCacheDir(), Paths.get("/var/lib/cassandra/downloads-manifests"));
+    }
+
+    @Test
+    public void testCorruptedManifestIsDiscarded() throws Exception {
+        final Path root = Files.createTempDirectory("manifest-cache");
+
+        try {
+            final ManifestCache cache = new ManifestCache(root.resolve("cache"));
+
+            final Path downloaded = Files.write(root.resolve("downloaded.json"), "{}".getBytes());
+            final Path cached = cache.put("key", downloaded);
+
+            Files.write(cached, "{\"snapshot\":".getBytes());
+
+            assertFalse(cache.get("key", objectMapper).isPresent());
+            assertFalse(Files.exists(cached));
+        } finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.instaclustr.esop.backup;
+
+import static java.util.stream.Collectors.toList;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.expectThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Guice;
+import com.instaclustr.esop.impl.DatabaseEntities;
+import com.instaclustr.esop.impl.ManifestCatalog;
+import com.instaclustr.esop.impl.ManifestCatalog.CatalogEntry;
+import com.instaclustr.esop.impl.ManifestEntry;
+import com.instaclustr.esop.impl.ManifestEntry.Type;
+import com.instaclustr.esop.impl.StorageLocation;
+import com.instaclustr.esop.impl.backup.BackupOperationRequest;
+import com.instaclustr.esop.impl.backup.Backuper;
+import com.instaclustr.esop.impl.backup.Backuper.VersionedText;
+import com.instaclustr.esop.local.LocalFileBackuper;
+import com.instaclustr.jackson.JacksonModule;
+import org.apache.commons.io.FileUtils;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.Test;
+
+public class ManifestCatalogTest {
+
+    private final ObjectMapper objectMapper = Guice.createInjector(new JacksonModule()).getInstance(ObjectMapper.class);
+
+    @Test
+    public void testUpdate() throws Exception {
+        final Path storage = Files.createTempDirectory("catalog-storage");
+
+        try (final LocalFileBackuper backuper = new LocalFileBackuper(request(storage))) {
+            assertFalse(ManifestCatalog.read(backuper, objectMapper).isPresent());
+
+            ManifestCatalog.update(backuper, objectMapper, "snap1", "schema", DatabaseEntities.empty(), manifest("manifests/snap1.json"));
+            ManifestCatalog.update(backuper, objectMapper, "snap2", "schema", DatabaseEntities.empty(), manifest("manifests/snap2.json"));
+
+            assertEquals(ManifestCatalog.read(backuper, objectMapper).get().getEntries().size(), 2);
+        } finally {
+            FileUtils.deleteDirectory(storage.toFile());
+        }
+    }
+
+    @Test
+    public void testUnreadableCatalogIsNotReplaced() throws Exception {
+        final Path storage = Files.createTempDirectory("catalog-storage");
+
+        try (final LocalFileBackuper backuper = new LocalFileBackuper(request(storage))) {
+            final Path catalog = storage.resolve("bucket/cluster/dc/node").resolve(ManifestCatalog.CATALOG_KEY);
+            Files.createDirectories(catalog.getParent());
+            Files.write(catalog, "{\"entries\": [".getBytes());
+
+            expectThrows(Exception.class, () -> ManifestCatalog.read(backuper, objectMapper));
+            expectThrows(Exception.class, () -> ManifestCatalog.update(backuper, objectMapper, "snap1", "schema", DatabaseEntities.empty(), manifest("manifests/snap1.json")));
+
+            assertEquals(new String(Files.readAllBytes(catalog)), "{\"entries\": [");
+        } finally {
+            FileUtils.deleteDirectory(storage.toFile());
+        }
+    }
+
+    /**
+     * Another backup records its manifest between a read and an upload of a catalog, a conditional upload fails
+     * and a change is applied again to a catalog read anew, so no entry is lost.
+     */
+    @Test
+    public void testConcurrentUpdateIsApplied() throws Exception {
+        final Backuper backuper = mock(Backuper.class);
+
+        when(backuper.supportsConditionalUpload()).thenReturn(true);
+        when(backuper.downloadVersionedText(any())).thenReturn(Optional.of(new VersionedText(catalog("snap1"), "1")),
+                                                               Optional.of(new VersionedText(catalog("snap1", "snap2"), "2")));
+        when(backuper.uploadTextIfUnchanged(anyString(), any(), eq("1"))).thenReturn(false);
+        when(backuper.uploadTextIfUnchanged(anyString(), any(), eq("2"))).thenReturn(true);
+
+        ManifestCatalog.update(backuper, objectMapper, "snap3", "schema", DatabaseEntities.empty(), manifest("manifests/snap3.json"));
+
+        final ArgumentCaptor<String> uploaded = ArgumentCaptor.forClass(String.class);
+        verify(backuper).uploadTextIfUnchanged(uploaded.capture(), any(), eq("2"));
+
+        final List<String> keys = objectMapper.readValue(uploaded.getValue(), ManifestCatalog.class).getEntries().stream().map(e -> e.key).collect(toList());
+        assertEquals(keys, Arrays.asList("manifests/snap1.json", "manifests/snap2.json", "manifests/snap3.json"));
+    }
+
+    @Test
+    public void testCatalogChangedOnEveryAttempt() throws Exception {
+        final Backuper backuper = mock(Backuper.class);
+
+        when(backuper.supportsConditionalUpload()).thenReturn(true);
+        when(backuper.downloadVersionedText(any())).thenReturn(Optional.empty());
+        when(backuper.uploadTextIfUnchanged(anyString(), any(), isNull())).thenReturn(false);
+
+        expectThrows(IllegalStateException.class,
+                     () -> ManifestCatalog.update(backuper, objectMapper, "snap1", "schema", DatabaseEntities.empty(), manifest("manifests/snap1.json")));
+    }
+
+    private String catalog(final String... snapshotTags) throws Exception {
+        final ManifestCatalog catalog = new ManifestCatalog();
+
+        for (final String snapshotTag : snapshotTags) {
+            catalog.add(new CatalogEntry(snapshotTag, "schema", DatabaseEntities.empty(), "manifests/" + snapshotTag + ".json", 0, 0));
+        }
+
+        return objectMapper.writeValueAsString(catalog);
+    }
+
+    private BackupOperationRequest request(final Path storage) {
+        final BackupOperationRequest request = new BackupOperationRequest();
+        request.storageLocation = new StorageLocation("file://" + storage.toAbsolutePath() + "/bucket/cluster/dc/node");
+        return request;
+    }
+
+    private ManifestEntry manifest(final String objectKey) {
+        return new ManifestEntry(Paths.get(objectKey), null, Type.MANIFEST_FILE);
+    }
+}
@@ -0,0 +1,191 @@
+package com.instaclustr.esop.backup;
+
+import static java.lang.String.format;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import com.instaclustr.esop.impl.PageCache;
+import com.instaclustr.esop.impl.PageCache.DropBehindInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+public class PageCacheTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PageCacheTest.class);
+
+    private static final int FILE_SIZE = 64 * 1024 * 1024;
+    private static final int REGION_SIZE = 1024 * 1024;
+
+    // a few regions might be read again by a read-ahead
+    private static final double MAX_DROPPED_RESIDENCY = 0.1;
+
+    @Test
+    public void testResidencyAfterReading() throws Exception {
+        final Path file = Files.createTempFile("page-cache", ".db");
+
+        try {
+            write(file);
+
+            final long plainRead = read(new FileInputStream(file.toFile()));
+            final double plainResidency = residency(file);
+
+            assumeDroppable(file, plainResidency);
+
+            // pages are not in a page cache before a drop-behind read, so it drops all of them
+            PageCache.dropPages(file, 0, 0);
+
+            final long dropBehindRead = read(new DropBehindInputStream(file));
+            final double dropBehindResidency = residency(file);
+
+            logger.info("Page cache residency after a plain read: {}, after a drop-behind read: {}", plainResidency, dropBehindResidency);
+
+            assertEquals(plainRead, FILE_SIZE);
+            assertEquals(dropBehindRead, FILE_SIZE);
+            assertTrue(dropBehindResidency < plainResidency);
+            assertTrue(dropBehindResidency <= MAX_DROPPED_RESIDENCY);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testResidentPagesAreKept() throws Exception {
+        final Path file = Files.createTempFile("page-cache", ".db");
+
+        try {
+            write(file);
+            read(new FileInputStream(file.toFile()));
+
+            final double plainResidency = residency(file);
+
+            assumeDroppable(file, plainResidency);
+
+            // e.g. pages of a live SSTable Cassandra reads, a snapshot file is a hard link of it
+            assertEquals(read(new DropBehindInputStream(file)), FILE_SIZE);
+
+            assertTrue(residency(file) >= plainResidency - MAX_DROPPED_RESIDENCY);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testOnlyPagesLoadedByReadAreDropped() throws Exception {
+        final Path file = Files.createTempFile("page-cache", ".db");
+
+        try {
+            write(file);
+            read(new FileInputStream(file.toFile()));
+
+            assumeDroppable(file, residency(file));
+
+            // the first half stays in a page cache, the second one is loaded by a drop-behind read only
+            PageCache.dropPages(file, FILE_SIZE / 2, 0);
+
+            final double firstHalfResidency = residency(file, 0, FILE_SIZE / 2);
+
+            assertEquals(read(new DropBehindInputStream(file)), FILE_SIZE);
+
+            assertTrue(residency(file, 0, FILE_SIZE / 2) >= firstHalfResidency - MAX_DROPPED_RESIDENCY);
+            assertTrue(residency(file, FILE_SIZE / 2, FILE_SIZE) <= MAX_DROPPED_RESIDENCY);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testDropPages() throws Exception {
+        final Path file = Files.createTempFile("page-cache", ".db");
+
+        try {
+            write(file);
+            read(new FileInputStream(file.toFile()));
+
+            final double plainResidency = residency(file);
+
+            assumeDroppable(file, plainResidency);
+
+            PageCache.dropPages(file, 0, 0);
+
+            assertTrue(residency(file) <= MAX_DROPPED_RESIDENCY);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private void assumeDroppable(final Path file, final double plainResidency) throws IOException {
+        if (!PageCache.isAvailable()) {
+            throw new SkipException("posix_fadvise is not available");
+        }
+
+        // pages of tmpfs are never dropped
+        if ("tmpfs".equals(Files.getFileStore(file).type())) {
+            throw new SkipException(format("%s is on tmpfs", file));
+        }
+
+        if (plainResidency == 0) {
+            throw new SkipException(format("Pages of %s are not in a page cache after reading it", file));
+        }
+    }
+
+    private void write(final Path file) throws IOException {
+        final byte[] region = new byte[REGION_SIZE];
+        final Random random = new Random(0);
+
+        try (final RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "rw")) {
+            for (int i = 0; i < FILE_SIZE / REGION_SIZE; i++) {
+                random.nextBytes(region);
+                randomAccessFile.write(region);
+            }
+
+            randomAccessFile.getChannel().force(true);
+        }
+    }
+
+    private long read(final InputStream inputStream) throws IOException {
+        final byte[] buffer = new byte[64 * 1024];
+        long read = 0;
+
+        try (final InputStream stream = inputStream) {
+            int n;
+            while ((n = stream.read(buffer)) != -1) {
+                read += n;
+            }
+        }
+
+        return read;
+    }
+
+    private double residency(final Path file) throws IOException {
+        return residency(file, 0, FILE_SIZE);
+    }
+
+    /**
+     * @return ratio of regions of a range of a file all pages of which are in a page cache, mapping a file does not load its pages
+     */
+    private double residency(final Path file, final long from, final long to) throws IOException {
+        int loaded = 0;
+
+        try (final FileChannel channel = FileChannel.open(file)) {
+            for (long offset = from; offset < to; offset += REGION_SIZE) {
+                if (channel.map(MapMode.READ_ONLY, offset, REGION_SIZE).isLoaded()) {
+                    loaded++;
+                }
+            }
+        }
+
+        return loaded / (double) ((to - from) / REGION_SIZE);
+    }
+}
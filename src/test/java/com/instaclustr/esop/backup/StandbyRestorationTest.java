@@ -0,0 +1,124 @@
+package com.instaclustr.esop.backup;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Guice;
+import com.instaclustr.esop.impl.DatabaseEntities;
+import com.instaclustr.esop.impl.ManifestCatalog;
+import com.instaclustr.esop.impl.ManifestCatalog.CatalogEntry;
+import com.instaclustr.esop.impl.ManifestEntry;
+import com.instaclustr.esop.impl.ManifestEntry.Type;
+import com.instaclustr.esop.impl.StorageLocation;
+import com.instaclustr.esop.impl.backup.BackupOperationRequest;
+import com.instaclustr.esop.impl.restore.RestorationUtilities;
+import com.instaclustr.esop.impl.restore.RestoreOperationRequest;
+import com.instaclustr.esop.impl.restore.strategy.LocalManifestDiff;
+import com.instaclustr.esop.local.LocalFileBackuper;
+import com.instaclustr.esop.local.LocalFileRestorer;
+import com.instaclustr.jackson.JacksonModule;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.Test;
+
+public class StandbyRestorationTest {
+
+    private static final String SCHEMA_VERSION = "2e6cb7e4-1a5f-3d4e-9a45-2e4b0c8d7f11";
+
+    private final ObjectMapper objectMapper = Guice.createInjector(new JacksonModule()).getInstance(ObjectMapper.class);
+
+    @Test
+    public void testResolveLatestSnapshotTag() throws Exception {
+        final Path storage = Files.createTempDirectory("standby-storage");
+
+        try {
+            final Path manifests = Files.createDirectories(storage.resolve("bucket/cluster/dc/node/manifests"));
+            final String storageLocation = "file://" + storage.toAbsolutePath() + "/bucket/cluster/dc/node";
+
+            Files.write(manifests.resolve("snap-" + SCHEMA_VERSION + "-1000.json"), "{}".getBytes());
+            Files.write(manifests.resolve("snap-" + SCHEMA_VERSION + "-2000.json"), "{}".getBytes());
+            Files.write(manifests.resolve("other-" + SCHEMA_VERSION + "-3000.json"), "{}".getBytes());
+
+            final RestoreOperationRequest request = new RestoreOperationRequest();
+            request.storageLocation = new StorageLocation(storageLocation);
+
+            try (final LocalFileRestorer restorer = new LocalFileRestorer(request)) {
+                // without a catalog, manifests are listed
+                assertEquals(resolve(request, restorer), Optional.of("snap-" + SCHEMA_VERSION + "-2000"));
+
+                // a new backup is found by the next poll
+                Files.write(manifests.resolve("snap-" + SCHEMA_VERSION + "-3000.json"), "{}".getBytes());
+
+                assertEquals(resolve(request, restorer), Optional.of("snap-" + SCHEMA_VERSION + "-3000"));
+
+                final BackupOperationRequest backupRequest = new BackupOperationRequest();
+                backupRequest.storageLocation = new StorageLocation(storageLocation);
+
+                // a catalog ranks backups by the time they finished at
+                try (final LocalFileBackuper backuper = new LocalFileBackuper(backupRequest)) {
+                    final ManifestCatalog catalog = new ManifestCatalog();
+                    catalog.add(entry("snap-" + SCHEMA_VERSION + "-1000", 5000));
+                    catalog.add(entry("snap-" + SCHEMA_VERSION + "-3000", 4000));
+                    catalog.add(entry("other-" + SCHEMA_VERSION + "-3000", 6000));
+                    ManifestCatalog.write(catalog, backuper, objectMapper);
+                }
+
+                assertEquals(resolve(request, restorer), Optional.of("snap-" + SCHEMA_VERSION + "-1000"));
+
+                assertFalse(RestorationUtilities.resolveLatestSnapshotTag(request, restorer, "unknown", objectMapper).isPresent());
+            }
+        } finally {
+            FileUtils.deleteDirectory(storage.toFile());
+        }
+    }
+
+    @Test
+    public void testAppliedFilesAreNotVerified() {
+        final Path dataDir = Paths.get("/non-existing-cassandra-dir/data");
+
+        final ManifestEntry unchanged = entry(dataDir, "data/ks1/tb1/1-111/md-1-big-Data.db", "ks1/tb1/md-1-big-Data.db");
+        final ManifestEntry replaced = entry(dataDir, "data/ks1/tb1/2-999/md-2-big-Data.db", "ks1/tb1/md-2-big-Data.db");
+        final ManifestEntry notApplied = entry(dataDir, "data/ks1/tb1/3-333/md-3-big-Data.db", "ks1/tb1/md-3-big-Data.db");
+
+        final List<ManifestEntry> manifestFiles = Arrays.asList(unchanged, replaced, notApplied);
+
+        final LocalManifestDiff diff = LocalManifestDiff.compute(manifestFiles,
+                                                                 manifestFiles,
+                                                                 new HashSet<>(Arrays.asList(unchanged.getLocalFile(),
+                                                                                             replaced.getLocalFile(),
+                                                                                             notApplied.getLocalFile())));
+
+        // a previous backup had a different SSTable of the same name, a file restored after a failed cycle is not known
+        final Map<Path, String> appliedFiles = new HashMap<>();
+        appliedFiles.put(unchanged.getLocalFile(), unchanged.objectKey.toString());
+        appliedFiles.put(replaced.getLocalFile(), "data/ks1/tb1/2-222/md-2-big-Data.db");
+
+        assertEquals(new ArrayList<>(diff.toVerify(appliedFiles).values()), Arrays.asList(replaced, notApplied));
+
+        // everything is verified on the first cycle
+        assertEquals(diff.toVerify(new HashMap<>()).size(), 3);
+    }
+
+    private Optional<String> resolve(final RestoreOperationRequest request, final LocalFileRestorer restorer) throws Exception {
+        return RestorationUtilities.resolveLatestSnapshotTag(request, restorer, "snap", objectMapper);
+    }
+
+    private CatalogEntry entry(final String snapshotTag, final long timestamp) {
+        return new CatalogEntry(snapshotTag, SCHEMA_VERSION, DatabaseEntities.empty(), "manifests/" + snapshotTag + ".json", 2, timestamp);
+    }
+
+    private ManifestEntry entry(final Path dataDir, final String objectKey, final String localFile) {
+        return new ManifestEntry(Paths.get(objectKey), dataDir.resolve(localFile), Type.FILE, 0, null);
+    }
+}
@@ -0,0 +1,117 @@
+package com.instaclustr.esop.backup;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import com.instaclustr.esop.cli.Esop;
+import com.instaclustr.esop.guice.StorageModules;
+import com.instaclustr.esop.guice.StorageProviders;
+import com.instaclustr.esop.impl.backup.UploadTracker;
+import com.instaclustr.esop.impl.restore.DownloadTracker;
+import com.instaclustr.esop.impl.restore.RestoreModules.DownloadingFinisher;
+import com.instaclustr.guice.GuiceInjectorHolder;
+import com.instaclustr.picocli.CLIApplication;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.Test;
+import picocli.CommandLine;
+
+/**
+ * A short command initialises only modules it needs, which dominates a start of this tool.
+ */
+public class StartupTimeTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimeTest.class);
+
+    private static final Key<Set<String>> STORAGE_PROVIDERS = Key.get(new TypeLiteral<Set<String>>() {}, StorageProviders.class);
+
+    private static final int RUNS = 5;
+
+    @Test
+    public void testCommitLogBackupBindings() throws Exception {
+        final Path cassandraDirectory = Files.createTempDirectory("startup-cassandra");
+        final Path storage = Files.createTempDirectory("startup-storage");
+
+        try {
+            assertEquals(CLIApplication.execute(new CommandLine(new Esop()), commitLogBackupArgs(cassandraDirectory, storage)), 0);
+
+            final Injector injector = GuiceInjectorHolder.INSTANCE.getInjector();
+
+            // no module of other storage providers and no client of theirs
+            assertEquals(injector.getInstance(STORAGE_PROVIDERS), Collections.singleton("file"));
+
+            // a backup uploads only, there is no download tracker and no pool of its finisher
+            assertNotNull(injector.getExistingBinding(Key.get(UploadTracker.class)));
+            assertNull(injector.getExistingBinding(Key.get(DownloadTracker.class)));
+            assertNull(injector.getExistingBinding(Key.get(ListeningExecutorService.class, DownloadingFinisher.class)));
+        } finally {
+            FileUtils.deleteDirectory(cassandraDirectory.toFile());
+            FileUtils.deleteDirectory(storage.toFile());
+        }
+    }
+
+    @Test
+    public void testAllStorageModulesForUnknownProvider() {
+        // a request is validated against all storage providers then
+        assertEquals(Guice.createInjector(new StorageModules("unknown")).getInstance(STORAGE_PROVIDERS),
+                     Sets.newHashSet("s3", "azure", "gcp", "file"));
+    }
+
+    /**
+     * Measures how long a short command takes end to end. The first run includes class loading,
+     * so it is the closest one to a run of a new JVM.
+     */
+    @Test(groups = {
+        "benchmark",
+    })
+    public void testCommitLogBackupStartupTime() throws Exception {
+        final Path cassandraDirectory = Files.createTempDirectory("startup-cassandra");
+        final Path storage = Files.createTempDirectory("startup-storage");
+
+        try {
+            final String[] args = commitLogBackupArgs(cassandraDirectory, storage);
+            final List<Long> durations = new ArrayList<>();
+
+            for (int i = 0; i < RUNS; i++) {
+                final long start = System.nanoTime();
+                assertEquals(CLIApplication.execute(new CommandLine(new Esop()), args), 0);
+                durations.add(NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+
+            logger.info("Commit log backup of no commit logs took {} ms upon the first run, {} ms at best, runs: {}",
+                        durations.get(0),
+                        Collections.min(durations),
+                        durations);
+        } finally {
+            FileUtils.deleteDirectory(cassandraDirectory.toFile());
+            FileUtils.deleteDirectory(storage.toFile());
+        }
+    }
+
+    private String[] commitLogBackupArgs(final Path cassandraDirectory, final Path storage) throws Exception {
+        Files.createDirectories(cassandraDirectory.resolve("commitlog"));
+
+        return new String[]{
+            "commitlog-backup",
+            "--storage-location=file://" + storage.toAbsolutePath() + "/cluster/datacenter1/node1",
+            "--data-directory=" + cassandraDirectory.toAbsolutePath(),
+            "--skip-bucket-verification"
+        };
+    }
+}
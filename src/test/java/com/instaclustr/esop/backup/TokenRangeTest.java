@@ -0,0 +1,51 @@
+package com.instaclustr.esop.backup;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+
+import com.instaclustr.esop.impl.SSTableTokens;
+import com.instaclustr.esop.impl.TokenRange;
+import org.testng.annotations.Test;
+
+public class TokenRangeTest {
+
+    @Test
+    public void parseTokenRangeTest() {
+        TokenRange range = TokenRange.parse("-9223372036854775808:-100");
+
+        assertEquals(range.start, Long.MIN_VALUE);
+        assertEquals(range.end, -100);
+        assertEquals(TokenRange.parse(range.toString()), range);
+    }
+
+    @Test
+    public void intersectionTest() {
+        TokenRange range = new TokenRange(0, 100);
+
+        assertTrue(range.intersects(50, 60));
+        assertTrue(range.intersects(-10, 1));
+        assertTrue(range.intersects(100, 200));
+        assertFalse(range.intersects(-10, 0)); // start is exclusive
+        assertFalse(range.intersects(101, 200));
+
+        TokenRange wrapping = new TokenRange(100, -100);
+
+        assertTrue(wrapping.intersects(150, 200));
+        assertTrue(wrapping.intersects(-200, -150));
+        assertFalse(wrapping.intersects(-50, 50));
+
+        assertTrue(TokenRange.intersects(Collections.singletonList(range), null, null));
+        assertFalse(TokenRange.intersects(Arrays.asList(range, wrapping), -50, -10));
+    }
+
+    @Test
+    public void murmur3TokenTest() {
+        // SELECT token(1) for an int partition key
+        assertEquals(SSTableTokens.murmur3Token(ByteBuffer.allocate(4).putInt(0, 1)), -4069959284402364209L);
+    }
+}
@@ -0,0 +1,131 @@
+package com.instaclustr.esop.backup;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.instaclustr.esop.impl.ManifestEntry;
+import com.instaclustr.esop.impl.backup.WatchedSegments.ArchivedCommitLogSegments;
+import com.instaclustr.esop.impl.backup.WatchedSegments.CdcSegments;
+import com.instaclustr.esop.impl.backup.WatchedSegments.PendingSegment;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.Test;
+
+public class WatchedSegmentsTest {
+
+    @Test
+    public void testCdcSegments() throws Exception {
+        final Path cdcRaw = Files.createTempDirectory("cdc_raw");
+
+        try {
+            final CdcSegments segments = new CdcSegments(cdcRaw);
+
+            final Path segment = cdcRaw.resolve("CommitLog-7-1.log");
+            final Path index = cdcRaw.resolve("CommitLog-7-1_cdc.idx");
+
+            assertEquals(segments.segmentOf(segment), segment);
+            assertEquals(segments.segmentOf(index), segment);
+            assertNull(segments.segmentOf(cdcRaw.resolve("CommitLog-7-1.log.tmp")));
+
+            final long now = System.nanoTime();
+
+            Files.write(segment, "mutations".getBytes());
+
+            // Cassandra has not written an index yet
+            assertFalse(segments.isCompleted(segment, new PendingSegment(), now));
+
+            // an offset of flushed mutations, a segment is still written to
+            Files.write(index, "4096\n".getBytes());
+            assertFalse(segments.isCompleted(segment, new PendingSegment(), now));
+
+            Files.write(index, "8192\nCOMPLETED\n".getBytes());
+            assertTrue(segments.isCompleted(segment, new PendingSegment(), now));
+
+            final ManifestEntry entry = segments.toManifestEntry(segment);
+
+            assertEquals(entry.getLocalFile(), segment);
+            assertTrue(entry.objectKey.getFileName().toString().startsWith("CommitLog-7-1.log."));
+
+            // an uploaded segment does not count towards cdc_total_space anymore
+            segments.uploaded(segment);
+
+            assertFalse(Files.exists(segment));
+            assertFalse(Files.exists(index));
+        } finally {
+            FileUtils.deleteDirectory(cdcRaw.toFile());
+        }
+    }
+
+    @Test
+    public void testArchivedCommitLogSegments() throws Exception {
+        final Path archive = Files.createTempDirectory("commitlog-archive");
+
+        try {
+            final ArchivedCommitLogSegments segments = new ArchivedCommitLogSegments(archive, 8, false);
+
+            final Path segment = archive.resolve("CommitLog-7-1.log");
+
+            assertEquals(segments.segmentOf(segment), segment);
+            assertNull(segments.segmentOf(archive.resolve("CommitLog-7-1.log.tmp")));
+
+            Files.write(segment, "1234".getBytes());
+
+            final long now = System.nanoTime();
+            final PendingSegment pending = new PendingSegment(now);
+
+            // modified recently
+            assertFalse(segments.isCompleted(segment, pending, now));
+
+            // not checked yet
+            assertFalse(segments.isCompleted(segment, pending, now + SECONDS.toNanos(2)));
+
+            // copied in place, a commit log is not as large as a segment
+            assertFalse(segments.isCompleted(segment, pending, now + SECONDS.toNanos(4)));
+
+            Files.write(segment, "12345678".getBytes());
+
+            // its size has changed
+            assertFalse(segments.isCompleted(segment, pending, now + SECONDS.toNanos(6)));
+            assertTrue(segments.isCompleted(segment, pending, now + SECONDS.toNanos(8)));
+
+            segments.uploaded(segment);
+
+            assertFalse(Files.exists(segment));
+            assertTrue(Files.exists(archive.resolve("CommitLog-7-1.log.uploaded")));
+
+            // a deleted commit log is skipped upon upload
+            assertTrue(segments.isCompleted(segment, pending, now + SECONDS.toNanos(10)));
+        } finally {
+            FileUtils.deleteDirectory(archive.toFile());
+        }
+    }
+
+    @Test
+    public void testBackOff() {
+        final PendingSegment pending = new PendingSegment();
+        final long now = System.nanoTime();
+
+        assertTrue(pending.isDue(now));
+
+        assertEquals(pending.failed(now), 1000);
+        assertFalse(pending.isDue(now + MILLISECONDS.toNanos(500)));
+        assertTrue(pending.isDue(now + MILLISECONDS.toNanos(1000)));
+
+        assertEquals(pending.failed(now), 2000);
+        assertEquals(pending.failed(now), 4000);
+
+        for (int i = 0; i < 20; i++) {
+            pending.failed(now);
+        }
+
+        assertEquals(pending.failed(now), 300_000);
+        assertFalse(pending.isDue(now + SECONDS.toNanos(299)));
+        assertTrue(pending.isDue(now + SECONDS.toNanos(300)));
+    }
+}
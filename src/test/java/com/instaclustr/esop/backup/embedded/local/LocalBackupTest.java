@@ -329,7 +329,8 @@ public class LocalBackupTest extends AbstractBackupTest {
             false,
             null,
             false,
-            null // proxy settings
+            null, // proxy settings
+            false // compress manifest
         );
     }
 
@@ -4,8 +4,10 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -24,6 +26,7 @@ import com.instaclustr.esop.impl.ManifestEntry.Type;
 import com.instaclustr.esop.impl.Snapshots.Snapshot;
 import com.instaclustr.esop.impl.Snapshots.Snapshot.Keyspace;
 import com.instaclustr.esop.impl.Snapshots.Snapshot.Keyspace.Table;
+import com.instaclustr.io.FileUtils;
 import com.instaclustr.jackson.JacksonModule;
 import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
@@ -75,7 +78,7 @@ public class ManifestComponentsTest {
 
         assertNotEquals(original, cloned);
 
-        original.localFile = Paths.get("other/file");
+        original.setLocalFile(Paths.get("other/file"));
         original.objectKey = Paths.get("other/object");
         original.type = Type.CQL_SCHEMA;
         original.keyspaceTable = new KeyspaceTable("k2", "t2");
@@ -83,6 +86,26 @@ public class ManifestComponentsTest {
         assertNotEquals(original, cloned);
     }
 
+    @Test
+    public void testEnrichedManifestEntries() throws Exception {
+        Manifest manifest = parseManifest();
+        manifest.enrichManifestEntries(Paths.get("/var/lib/cassandra"));
+
+        Table table = manifest.getSnapshot().getTable("system", "sstable_activity").orElseThrow(IllegalStateException::new);
+
+        ManifestEntry first = table.getEntries().get(0);
+        ManifestEntry second = table.getEntries().get(1);
+
+        assertEquals(first.getLocalFile(),
+                     Paths.get("/var/lib/cassandra/data/system/sstable_activity-5a1ff267ace03f128563cfae6103c65e/na-1-big-CompressionInfo.db"));
+        assertSame(first.keyspaceTable, second.keyspaceTable);
+        assertEquals(first.keyspaceTable.keyspace, "system");
+        assertEquals(first.keyspaceTable.table, "sstable_activity");
+
+        first.setLocalFile(Paths.get("/tmp/file"));
+        assertEquals(first.getLocalFile(), Paths.get("/tmp/file"));
+    }
+
     @Test
     public void testTableEquality() throws Exception {
         Manifest manifest = parseManifest();
@@ -157,6 +180,29 @@ public class ManifestComponentsTest {
         assertEquals(cloned, manifest);
     }
 
+    @Test
+    public void testCompressedManifestRoundTrip() throws Exception {
+        Manifest manifest = parseManifest();
+
+        Path dir = Files.createTempDirectory("manifest-test");
+
+        try {
+            Path compressed = Manifest.getLocalManifestPath(dir, "snapshot4", true);
+            Path plain = Manifest.getLocalManifestPath(dir, "snapshot4", false);
+
+            Manifest.write(manifest, compressed, objectMapper);
+            Manifest.write(manifest, plain, objectMapper);
+
+            assertTrue(Manifest.isCompressed(compressed));
+            assertTrue(Files.size(compressed) < Files.size(plain));
+
+            assertEquals(Manifest.read(compressed, objectMapper), manifest);
+            assertEquals(Manifest.read(plain, objectMapper), manifest);
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
     private Manifest parseManifest() throws Exception {
         return Manifest.read(TESTING_MANIFEST_PATH, objectMapper);
     }